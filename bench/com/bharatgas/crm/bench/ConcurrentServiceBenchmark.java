@@ -0,0 +1,11 @@
+package com.bharatgas.crm.bench;
+
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * The {@link ServiceBenchmark} methods on one thread per core, sharing one
+ * populated set of services.
+ */
+@Threads(Threads.MAX)
+public class ConcurrentServiceBenchmark extends ServiceBenchmark {
+}
@@ -0,0 +1,162 @@
+package com.bharatgas.crm.bench;
+
+import com.bharatgas.crm.model.Booking;
+import com.bharatgas.crm.model.Complaint;
+import com.bharatgas.crm.model.Customer;
+import com.bharatgas.crm.model.Payment;
+import com.bharatgas.crm.service.BookingService;
+import com.bharatgas.crm.service.BulkLoader;
+import com.bharatgas.crm.service.ComplaintService;
+import com.bharatgas.crm.service.CustomerService;
+import com.bharatgas.crm.service.DashboardAggregator;
+import com.bharatgas.crm.service.DashboardSnapshot;
+import com.bharatgas.crm.service.PaymentService;
+import com.bharatgas.crm.util.SyntheticDataGenerator;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmarks of the service-layer hot paths at several store sizes:
+ * lookups by ID and phone, name search, bookings of a customer, the four
+ * reports and the dashboard snapshot. This class runs them on one thread;
+ * {@link ConcurrentServiceBenchmark} runs the same methods on all cores.
+ * <p>
+ * Each size is the approximate total number of entities, produced by the
+ * {@link SyntheticDataGenerator} with a fixed seed (about one customer per
+ * 19 entities). 10M entities need roughly 24 GB of heap.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@Threads(1)
+public class ServiceBenchmark {
+
+    /** Average entities generated per customer (bookings, payments, complaints). */
+    private static final int ENTITIES_PER_CUSTOMER = 19;
+    private static final int NAME_QUERIES = 256;
+
+    @Param({"10000", "100000", "1000000", "10000000"})
+    public int size;
+
+    private final DashboardAggregator dashboard = new DashboardAggregator();
+    private final CustomerService customers = new CustomerService(dashboard);
+    private final BookingService bookings = new BookingService(dashboard);
+    private final PaymentService payments = new PaymentService(dashboard);
+    private final ComplaintService complaints = new ComplaintService(dashboard);
+    private final List<String> customerIds = new ArrayList<>();
+    private final List<String> phones = new ArrayList<>();
+    private final List<String> nameQueries = new ArrayList<>();
+
+    /**
+     * Fills the services with a seeded synthetic data set of about
+     * {@link #size} entities (customers plus their bookings, payments and
+     * complaints).
+     */
+    @Setup(Level.Trial)
+    public void populate() {
+        customers.setVerbose(false);
+        bookings.setVerbose(false);
+        payments.setVerbose(false);
+        complaints.setVerbose(false);
+        BulkLoader loader = new BulkLoader(customers, bookings, payments, complaints);
+        Random random = new Random(7);
+        SyntheticDataGenerator generator = new SyntheticDataGenerator(42, LocalDate.of(2025, 1, 1));
+        generator.generate(Math.max(1, size / ENTITIES_PER_CUSTOMER), new SyntheticDataGenerator.Sink() {
+            @Override
+            public void customer(Customer customer) {
+                loader.customer(customer);
+                customerIds.add(customer.getCustomerId());
+                phones.add(customer.getPhone());
+                if (nameQueries.size() < NAME_QUERIES) {
+                    String name = customer.getName();
+                    int start = random.nextInt(name.length() - 3);
+                    nameQueries.add(name.substring(start, start + 4));
+                }
+            }
+
+            @Override
+            public void booking(Booking booking) {
+                loader.booking(booking);
+            }
+
+            @Override
+            public void payment(Payment payment) {
+                loader.payment(payment);
+            }
+
+            @Override
+            public void complaint(Complaint complaint) {
+                loader.complaint(complaint);
+            }
+        });
+    }
+
+    @Benchmark
+    public Customer customerGetById() {
+        return customers.getById(pick(customerIds));
+    }
+
+    @Benchmark
+    public Customer customerGetByPhone() {
+        return customers.getByPhone(pick(phones));
+    }
+
+    @Benchmark
+    public List<Customer> customerSearchByName() {
+        return customers.searchByName(pick(nameQueries), 20);
+    }
+
+    @Benchmark
+    public List<Booking> bookingGetByCustomerId() {
+        return bookings.getByCustomerId(pick(customerIds));
+    }
+
+    @Benchmark
+    public String customerReport() {
+        return customers.generateReport();
+    }
+
+    @Benchmark
+    public String bookingReport() {
+        return bookings.generateReport();
+    }
+
+    @Benchmark
+    public String paymentReport() {
+        return payments.generateReport();
+    }
+
+    @Benchmark
+    public String complaintReport() {
+        return complaints.generateReport();
+    }
+
+    @Benchmark
+    public DashboardSnapshot dashboard() {
+        return dashboard.current();
+    }
+
+    private static String pick(List<String> values) {
+        return values.get(ThreadLocalRandom.current().nextInt(values.size()));
+    }
+}
@@ -1,12 +1,39 @@
 package com.bharatgas.crm;
 
+import com.bharatgas.crm.api.ApiServer;
+import com.bharatgas.crm.batch.BatchRunner;
+import com.bharatgas.crm.batch.CsvImporter;
+import com.bharatgas.crm.batch.Exporter;
+import com.bharatgas.crm.event.DomainEventPublisher;
+import com.bharatgas.crm.event.EventBus;
+import com.bharatgas.crm.event.EventLog;
 import com.bharatgas.crm.model.*;
 import com.bharatgas.crm.enums.*;
+import com.bharatgas.crm.persistence.JournalSink;
+import com.bharatgas.crm.persistence.PersistenceManager;
 import com.bharatgas.crm.service.*;
+import com.bharatgas.crm.store.Page;
 import com.bharatgas.crm.util.*;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.List;
+import java.util.Queue;
 import java.util.Scanner;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
 
 /**
  * ╔══════════════════════════════════════════════════════════════╗
@@ -24,19 +51,56 @@ import java.util.Scanner;
 public class BharatGasCRM {
 
     private static final Scanner scanner = new Scanner(System.in);
-    private static final CustomerService customerService = new CustomerService();
-    private static final BookingService bookingService = new BookingService();
-    private static final PaymentService paymentService = new PaymentService();
-    private static final ComplaintService complaintService = new ComplaintService();
+    private static final int SEARCH_LIMIT = 50;
+    private static final int PAGE_SIZE = 20;
+    private static final int TREND_PERIODS = 12;
+    private static final DateTimeFormatter DATE_INPUT = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+    private static final DashboardAggregator dashboard = new DashboardAggregator();
+    private static final CustomerService customerService = new CustomerService(dashboard);
+    private static final BookingService bookingService = new BookingService(dashboard);
+    private static final PaymentService paymentService = new PaymentService(dashboard);
+    private static final ComplaintService complaintService = new ComplaintService(dashboard);
+    private static final SlaMonitor slaMonitor = new SlaMonitor(bookingService, complaintService);
+    private static final EventBus eventBus = new EventBus();
+    private static final Queue<String> slaAlerts = new ConcurrentLinkedQueue<>();
+    private static final int SLA_ALERTS_SHOWN = 5;
+    private static final DateTimeFormatter SLA_DEADLINE = DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm");
 
     // ─────────────────────────────── MAIN ───────────────────────────────
 
     public static void main(String[] args) {
-        loadSampleData();
+        if (args.length >= 2 && "--generate".equals(args[0])) {
+            generateData(Long.parseLong(args[1]), args.length >= 4 && "--seed".equals(args[2])
+                    ? Long.parseLong(args[3]) : 42L);
+            return;
+        }
+        if (args.length >= 2 && "--batch".equals(args[0])) {
+            runBatch(args[1]);
+            return;
+        }
+        if (args.length >= 3 && "--import".equals(args[0])) {
+            runImport(args);
+            return;
+        }
+        if (args.length >= 3 && "--export".equals(args[0])) {
+            runExport(args);
+            return;
+        }
+        if (args.length >= 1 && "--server".equals(args[0])) {
+            runServer(args.length >= 2 ? Integer.parseInt(args[1]) : 8080);
+            return;
+        }
+        PersistenceManager persistence = openPersistence();
+        if (persistence == null || persistence.getRecordsReplayed() == 0) {
+            loadSampleData();
+        }
+        EventLog eventLog = startEvents();
+        startSlaMonitor((kind, id, deadline) -> slaAlerts.add(formatSlaAlert(kind, id, deadline)));
         showWelcomeBanner();
 
         boolean running = true;
         while (running) {
+            showSlaAlerts();
             showMainMenu();
             int choice = readIntInput("Enter your choice: ");
 
@@ -65,6 +129,302 @@ public class BharatGasCRM {
             }
         }
         scanner.close();
+        slaMonitor.close();
+        stopEvents(eventLog);
+        closePersistence(persistence);
+    }
+
+    // ──────────────────────────── SLA ALERTS ────────────────────────────
+
+    /**
+     * Breaches are detected on the monitor's clock thread. The console
+     * queues them and shows them before the main menu so they do not
+     * interrupt an input prompt.
+     */
+    private static void startSlaMonitor(SlaBreachListener listener) {
+        slaMonitor.addListener(listener);
+        slaMonitor.trackOpenItems();
+        slaMonitor.checkNow();
+        slaMonitor.start();
+    }
+
+    private static String formatSlaAlert(SlaKind kind, String id, LocalDateTime deadline) {
+        return kind.getDisplayName() + " SLA missed: " + id + " (due " + deadline.format(SLA_DEADLINE) + ")";
+    }
+
+    private static void showSlaAlerts() {
+        int shown = 0;
+        int more = 0;
+        String alert;
+        while ((alert = slaAlerts.poll()) != null) {
+            if (shown < SLA_ALERTS_SHOWN) {
+                System.out.println("⚠️  " + alert);
+                shown++;
+            } else {
+                more++;
+            }
+        }
+        if (more > 0) {
+            System.out.println("⚠️  ... and " + more + " more SLA breaches");
+        }
+    }
+
+    // ─────────────────────────── PERSISTENCE ────────────────────────────
+
+    /**
+     * Replays the journal from the data directory (system property
+     * bharatgas.data.dir, default "data") and starts journaling changes.
+     */
+    private static PersistenceManager openPersistence() {
+        String dataDir = System.getProperty("bharatgas.data.dir", "data");
+        try {
+            PersistenceManager persistence = PersistenceManager.open(Paths.get(dataDir),
+                    customerService, bookingService, paymentService, complaintService);
+            if (persistence.getRecordsReplayed() > 0) {
+                System.out.println("\n💾 Restored " + persistence.getRecordsReplayed()
+                        + " records from " + dataDir);
+            }
+            return persistence;
+        } catch (IOException e) {
+            System.out.println("⚠️  Could not open data directory '" + dataDir + "': " + e.getMessage());
+            System.out.println("   Continuing without persistence.");
+            return null;
+        }
+    }
+
+    /**
+     * Writes a generated data set of the given number of customers (with
+     * their bookings, payments and complaints) into an empty data directory,
+     * e.g. to prepare a staging environment:
+     * java -cp out com.bharatgas.crm.BharatGasCRM --generate 1000000 --seed 42
+     */
+    private static void generateData(long customers, long seed) {
+        String dataDir = System.getProperty("bharatgas.data.dir", "data");
+        SyntheticDataGenerator generator = new SyntheticDataGenerator(seed, LocalDate.now());
+        long started = System.nanoTime();
+        try (JournalSink sink = JournalSink.create(Paths.get(dataDir))) {
+            long produced = generator.generate(customers, sink);
+            System.out.printf("✅ Generated %d records for %d customers into %s in %.1f s%n",
+                    produced, customers, dataDir, (System.nanoTime() - started) / 1e9);
+        } catch (IOException e) {
+            System.out.println("❌ Could not generate data: " + e.getMessage());
+        }
+    }
+
+    private static void closePersistence(PersistenceManager persistence) {
+        if (persistence == null) {
+            return;
+        }
+        try {
+            persistence.close();
+        } catch (IOException e) {
+            System.out.println("⚠️  Error while closing the journal: " + e.getMessage());
+        }
+    }
+
+    // ─────────────────────────── DOMAIN EVENTS ──────────────────────────
+
+    /**
+     * Publishes the services' booking, payment and complaint events on the
+     * event bus from here on. With -Dbharatgas.events.log=file they are also
+     * appended to that file; the log is returned so it can be closed.
+     */
+    private static EventLog startEvents() {
+        new DomainEventPublisher(eventBus, bookingService, paymentService, complaintService);
+        String file = System.getProperty("bharatgas.events.log");
+        if (file == null) {
+            return null;
+        }
+        try {
+            EventLog eventLog = new EventLog(Paths.get(file));
+            eventBus.subscribe("log", eventLog);
+            return eventLog;
+        } catch (IOException e) {
+            System.out.println("⚠️  Could not open event log '" + file + "': " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Lets the subscribers finish the published events, then closes the log.
+     */
+    private static void stopEvents(EventLog eventLog) {
+        eventBus.close();
+        if (eventLog == null) {
+            return;
+        }
+        try {
+            eventLog.close();
+        } catch (IOException e) {
+            System.out.println("⚠️  Error while closing the event log: " + e.getMessage());
+        }
+    }
+
+    // ──────────────────────────── API SERVER ────────────────────────────
+
+    /**
+     * Serves the HTTP/JSON API instead of the console menus, so that many
+     * counters can work at once:
+     * java -cp out com.bharatgas.crm.BharatGasCRM --server 8080
+     * Runs until the process is stopped (Ctrl+C), then closes the journal.
+     */
+    private static void runServer(int port) {
+        PersistenceManager persistence = openPersistence();
+        if (persistence == null || persistence.getRecordsReplayed() == 0) {
+            loadSampleData();
+        }
+        customerService.setVerbose(false);
+        bookingService.setVerbose(false);
+        paymentService.setVerbose(false);
+        complaintService.setVerbose(false);
+        EventLog eventLog = startEvents();
+        startSlaMonitor((kind, id, deadline) -> System.out.println("⚠️  " + formatSlaAlert(kind, id, deadline)));
+        ApiServer server;
+        try {
+            server = new ApiServer(port, customerService, bookingService, paymentService,
+                    complaintService, dashboard);
+        } catch (IOException e) {
+            System.out.println("❌ Could not start the API on port " + port + ": " + e.getMessage());
+            slaMonitor.close();
+            stopEvents(eventLog);
+            closePersistence(persistence);
+            return;
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            slaMonitor.close();
+            stopEvents(eventLog);
+            closePersistence(persistence);
+            System.out.println("\n🙏 Bharat Gas CRM API stopped.");
+        }));
+        server.start();
+        System.out.println("✅ Bharat Gas CRM API listening on http://localhost:" + server.getPort() + "/api"
+                + (server.usesVirtualThreads() ? " (virtual threads)" : ""));
+    }
+
+    // ──────────────────────────── BATCH MODE ────────────────────────────
+
+    /**
+     * Applies a command file (or "-" for stdin) without menus or prompts
+     * and prints one result line per command; see BatchRunner for the
+     * command format:
+     * java -cp out com.bharatgas.crm.BharatGasCRM --batch slips.txt
+     * The summary goes to stderr so stdout can be piped into a file.
+     */
+    private static void runBatch(String source) {
+        PersistenceManager persistence = openPersistence();
+        customerService.setVerbose(false);
+        bookingService.setVerbose(false);
+        paymentService.setVerbose(false);
+        complaintService.setVerbose(false);
+        EventLog eventLog = startEvents();
+        BatchRunner runner = new BatchRunner(customerService, bookingService, paymentService,
+                complaintService, persistence == null ? Runnable::run : persistence::runBatch);
+        long start = System.nanoTime();
+        try (BufferedReader in = "-".equals(source)
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                : Files.newBufferedReader(Paths.get(source), StandardCharsets.UTF_8)) {
+            PrintWriter out = new PrintWriter(new BufferedWriter(
+                    new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16));
+            runner.run(in, out);
+            System.err.printf("✅ Batch done: %d succeeded, %d failed in %.1f s%n", runner.getSucceeded(),
+                    runner.getFailed(), (System.nanoTime() - start) / 1e9);
+        } catch (IOException e) {
+            System.err.println("❌ Could not read batch file '" + source + "': " + e.getMessage());
+        } finally {
+            stopEvents(eventLog);
+            closePersistence(persistence);
+        }
+    }
+
+    // ──────────────────────────── CSV IMPORT ────────────────────────────
+
+    /**
+     * Imports CSV files given as kind/file pairs, in order, e.g. when
+     * migrating from the old software:
+     * java -cp out com.bharatgas.crm.BharatGasCRM --import customers c.csv bookings b.csv
+     * Rejected rows of x.csv are written to x.errors.csv with the reason.
+     */
+    private static void runImport(String[] args) {
+        PersistenceManager persistence = openPersistence();
+        customerService.setVerbose(false);
+        bookingService.setVerbose(false);
+        CsvImporter importer = new CsvImporter(customerService, bookingService,
+                persistence == null ? Runnable::run : persistence::runBatch);
+        try {
+            for (int i = 1; i + 1 < args.length; i += 2) {
+                String kind = args[i];
+                Path csv = Paths.get(args[i + 1]);
+                String name = csv.getFileName().toString();
+                Path errors = csv.resolveSibling((name.endsWith(".csv")
+                        ? name.substring(0, name.length() - 4) : name) + ".errors.csv");
+                long start = System.nanoTime();
+                CsvImporter.Result result;
+                if ("customers".equals(kind)) {
+                    result = importer.importCustomers(csv, errors);
+                } else if ("bookings".equals(kind)) {
+                    result = importer.importBookings(csv, errors);
+                } else {
+                    System.out.println("❌ Unknown import kind '" + kind + "' (use customers or bookings)");
+                    return;
+                }
+                double seconds = (System.nanoTime() - start) / 1e9;
+                System.out.printf("✅ Imported %d %s from %s in %.1f s (%.0f rows/s)%n", result.getImported(), kind,
+                        csv, seconds, (result.getImported() + result.getRejected()) / Math.max(seconds, 1e-3));
+                if (result.getRejected() > 0) {
+                    System.out.println("⚠️  " + result.getRejected() + " rows rejected, see " + errors);
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("❌ Import failed: " + e.getMessage());
+        } finally {
+            closePersistence(persistence);
+        }
+    }
+
+    /**
+     * Headless export for audits, CSV or JSON by file extension:
+     * java -cp out com.bharatgas.crm.BharatGasCRM --export bookings b.csv payments p.json
+     */
+    private static void runExport(String[] args) {
+        PersistenceManager persistence = openPersistence();
+        try {
+            for (int i = 1; i + 1 < args.length; i += 2) {
+                if (!export(args[i], Paths.get(args[i + 1]))) {
+                    return;
+                }
+            }
+        } finally {
+            closePersistence(persistence);
+        }
+    }
+
+    /**
+     * Writes all bookings or payments to a file; returns false if the kind
+     * is unknown or the file could not be written.
+     */
+    private static boolean export(String kind, Path file) {
+        Exporter exporter = new Exporter(bookingService, paymentService);
+        Exporter.Format format = Exporter.Format.forFile(file);
+        long start = System.nanoTime();
+        try {
+            long rows;
+            if ("bookings".equals(kind)) {
+                rows = exporter.exportBookings(file, format);
+            } else if ("payments".equals(kind)) {
+                rows = exporter.exportPayments(file, format);
+            } else {
+                System.out.println("❌ Unknown export kind '" + kind + "' (use bookings or payments)");
+                return false;
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("✅ Exported %d %s to %s in %.1f s (%.0f rows/s)%n", rows, kind, file, seconds,
+                    rows / Math.max(seconds, 1e-3));
+            return true;
+        } catch (IOException e) {
+            System.out.println("❌ Export failed: " + e.getMessage());
+            return false;
+        }
     }
 
     // ─────────────────────── WELCOME & MENUS ────────────────────────────
@@ -112,6 +472,7 @@ public class BharatGasCRM {
             System.out.println("│  4. View Customer Details (by ID)        │");
             System.out.println("│  5. Update Customer Information          │");
             System.out.println("│  6. Deactivate Customer Connection       │");
+            System.out.println("│  7. Find Customer by Phone               │");
             System.out.println("│  0. ← Back to Main Menu                 │");
             System.out.println("└──────────────────────────────────────────┘");
 
@@ -135,6 +496,9 @@ public class BharatGasCRM {
                 case 6:
                     deactivateCustomer();
                     break;
+                case 7:
+                    viewCustomerByPhone();
+                    break;
                 case 0:
                     back = true;
                     break;
@@ -149,6 +513,11 @@ public class BharatGasCRM {
 
         String name = readValidatedInput("Enter Name: ", "name");
         String phone = readValidatedInput("Enter Phone (10 digits): ", "phone");
+        Customer existing = customerService.getByPhone(phone);
+        if (existing != null) {
+            System.out.println("❌ Phone " + phone + " is already registered to: " + existing.getCustomerId());
+            return;
+        }
         String email = readValidatedInput("Enter Email: ", "email");
         System.out.print("Enter Address: ");
         String address = scanner.nextLine().trim();
@@ -166,26 +535,26 @@ public class BharatGasCRM {
     }
 
     private static void viewAllCustomers() {
-        List<Customer> customers = customerService.getAll();
-        if (customers.isEmpty()) {
+        int total = customerService.count();
+        if (total == 0) {
             System.out.println("\n📭 No customers registered yet.");
             return;
         }
-        System.out.println("\n── All Customers (" + customers.size() + ") ──────────────────");
+        System.out.println("\n── All Customers (" + total + ") ──────────────────");
         System.out.printf("%-14s %-20s %-14s %-12s %-10s%n",
                 "ID", "Name", "Phone", "Type", "Status");
         System.out.println(repeatChar('─', 70));
-        for (Customer c : customers) {
+        printPaged(customerService, c -> {
             System.out.printf("%-14s %-20s %-14s %-12s %-10s%n",
                     c.getCustomerId(), c.getName(), c.getPhone(),
                     c.getConnectionType(), c.getConnectionStatus());
-        }
+        });
     }
 
     private static void searchCustomerByName() {
         System.out.print("\nEnter name to search: ");
         String name = scanner.nextLine().trim();
-        List<Customer> results = customerService.searchByName(name);
+        List<Customer> results = customerService.searchByName(name, SEARCH_LIMIT);
         if (results.isEmpty()) {
             System.out.println("📭 No customers found matching: " + name);
         } else {
@@ -193,6 +562,9 @@ public class BharatGasCRM {
             for (Customer c : results) {
                 System.out.println("  " + c);
             }
+            if (results.size() == SEARCH_LIMIT) {
+                System.out.println("  … showing the first " + SEARCH_LIMIT + " matches; refine the search for more.");
+            }
         }
     }
 
@@ -208,6 +580,17 @@ public class BharatGasCRM {
         }
     }
 
+    private static void viewCustomerByPhone() {
+        System.out.print("\nEnter Phone (10 digits): ");
+        String phone = scanner.nextLine().trim();
+        Customer customer = customerService.getByPhone(phone);
+        if (customer != null) {
+            customer.displayDetails();
+        } else {
+            System.out.println("❌ No customer registered with phone: " + phone);
+        }
+    }
+
     private static void updateCustomer() {
         System.out.print("\nEnter Customer ID to update: ");
         String id = scanner.nextLine().trim();
@@ -229,7 +612,10 @@ public class BharatGasCRM {
 
         System.out.print("New Phone [" + customer.getPhone() + "]: ");
         String phone = scanner.nextLine().trim();
-        if (!phone.isEmpty() && InputValidator.isValidPhone(phone))
+        Customer phoneOwner = phone.isEmpty() ? null : customerService.getByPhone(phone);
+        if (phoneOwner != null && phoneOwner != customer)
+            System.out.println("❌ Phone " + phone + " is already registered to: " + phoneOwner.getCustomerId());
+        else if (!phone.isEmpty() && InputValidator.isValidPhone(phone))
             customer.setPhone(phone);
 
         System.out.print("New Email [" + customer.getEmail() + "]: ");
@@ -242,7 +628,7 @@ public class BharatGasCRM {
         if (!address.isEmpty())
             customer.setAddress(address);
 
-        System.out.println("✅ Customer updated successfully!");
+        customerService.update(id, customer);
         customer.displayDetails();
     }
 
@@ -267,6 +653,9 @@ public class BharatGasCRM {
             System.out.println("│  4. Update Delivery Status               │");
             System.out.println("│  5. Cancel Booking                       │");
             System.out.println("│  6. View Bookings by Customer            │");
+            System.out.println("│  7. Deliveries Due Today                 │");
+            System.out.println("│  8. Overdue Deliveries                   │");
+            System.out.println("│  9. Archive Old Closed Bookings          │");
             System.out.println("│  0. ← Back to Main Menu                 │");
             System.out.println("└──────────────────────────────────────────┘");
 
@@ -290,6 +679,15 @@ public class BharatGasCRM {
                 case 6:
                     viewBookingsByCustomer();
                     break;
+                case 7:
+                    viewDeliveriesDueToday();
+                    break;
+                case 8:
+                    viewOverdueDeliveries();
+                    break;
+                case 9:
+                    archiveOldBookings();
+                    break;
                 case 0:
                     back = true;
                     break;
@@ -345,20 +743,20 @@ public class BharatGasCRM {
     }
 
     private static void viewAllBookings() {
-        List<Booking> bookings = bookingService.getAll();
-        if (bookings.isEmpty()) {
+        int total = bookingService.count();
+        if (total == 0) {
             System.out.println("\n📭 No bookings yet.");
             return;
         }
-        System.out.println("\n── All Bookings (" + bookings.size() + ") ──────────────────");
+        System.out.println("\n── All Bookings (" + total + ") ──────────────────");
         System.out.printf("%-12s %-18s %-22s %-14s %-14s%n",
                 "Booking ID", "Customer", "Cylinder", "Date", "Status");
         System.out.println(repeatChar('─', 80));
-        for (Booking b : bookings) {
+        printPaged(bookingService, b -> {
             System.out.printf("%-12s %-18s %-22s %-14s %-14s%n",
                     b.getBookingId(), b.getCustomer().getName(),
                     b.getCylinder().getCylinderType(), b.getBookingDate(), b.getStatus());
-        }
+        });
     }
 
     private static void viewBookingById() {
@@ -426,6 +824,44 @@ public class BharatGasCRM {
         }
     }
 
+    private static void viewDeliveriesDueToday() {
+        LocalDate today = LocalDate.now();
+        List<Booking> due = bookingService.getDueOn(today);
+        if (due.isEmpty()) {
+            System.out.println("📭 No deliveries due today.");
+        } else {
+            System.out.println("\n── Deliveries Due Today (" + due.size() + ") ──────────────");
+            for (Booking b : due) {
+                System.out.println("  " + b);
+            }
+        }
+    }
+
+    private static void viewOverdueDeliveries() {
+        LocalDate today = LocalDate.now();
+        List<Booking> overdue = bookingService.getOverdue(today);
+        if (overdue.isEmpty()) {
+            System.out.println("✅ No overdue deliveries.");
+        } else {
+            System.out.println("\n── Overdue Deliveries (" + overdue.size() + ") ──────────────");
+            for (Booking b : overdue) {
+                long days = today.toEpochDay() - b.getExpectedDeliveryDate().toEpochDay();
+                System.out.println("  " + b + "  [" + days + " day(s) late]");
+            }
+        }
+    }
+
+    /**
+     * Moves delivered and cancelled bookings older than
+     * bharatgas.archive.after.days (default 365) to the on-disk archive.
+     */
+    private static void archiveOldBookings() {
+        long days = Long.getLong("bharatgas.archive.after.days", 365L);
+        LocalDate cutoff = LocalDate.now().minusDays(days);
+        System.out.println("\n── Archiving closed bookings made before " + cutoff + " ──");
+        bookingService.archiveClosedBefore(cutoff);
+    }
+
     // ──────────────────── PAYMENT MANAGEMENT ────────────────────────────
 
     private static void paymentManagementMenu() {
@@ -480,8 +916,8 @@ public class BharatGasCRM {
             return;
         }
 
-        double amount = booking.getCylinder().getPrice();
-        System.out.println("Amount to pay: ₹" + String.format("%.2f", amount));
+        long amountPaise = booking.getCylinder().getPricePaise();
+        System.out.println("Amount to pay: " + Money.format(amountPaise));
 
         System.out.println("Select Payment Mode:");
         System.out.println("  1. Cash");
@@ -510,27 +946,27 @@ public class BharatGasCRM {
         }
 
         String paymentId = IDGenerator.generatePaymentId();
-        Payment payment = new Payment(paymentId, booking, amount, mode);
+        Payment payment = new Payment(paymentId, booking, amountPaise, mode);
         paymentService.add(payment);
         payment.displayDetails();
     }
 
     private static void viewAllPayments() {
-        List<Payment> payments = paymentService.getAll();
-        if (payments.isEmpty()) {
+        int total = paymentService.count();
+        if (total == 0) {
             System.out.println("\n📭 No payments recorded yet.");
             return;
         }
-        System.out.println("\n── All Payments (" + payments.size() + ") ──────────────────");
+        System.out.println("\n── All Payments (" + total + ") ──────────────────");
         System.out.printf("%-12s %-12s %-18s %-10s %-12s %-10s%n",
                 "Payment ID", "Booking ID", "Customer", "Amount", "Mode", "Status");
         System.out.println(repeatChar('─', 74));
-        for (Payment p : payments) {
-            System.out.printf("%-12s %-12s %-18s ₹%-9.2f %-12s %-10s%n",
+        printPaged(paymentService, p -> {
+            System.out.printf("%-12s %-12s %-18s %-10s %-12s %-10s%n",
                     p.getPaymentId(), p.getBooking().getBookingId(),
                     p.getBooking().getCustomer().getName(),
-                    p.getAmount(), p.getPaymentMode(), p.getPaymentStatus());
-        }
+                    Money.format(p.getAmountPaise()), p.getPaymentMode(), p.getPaymentStatus());
+        });
     }
 
     private static void viewPaymentById() {
@@ -635,22 +1071,22 @@ public class BharatGasCRM {
     }
 
     private static void viewAllComplaints() {
-        List<Complaint> complaints = complaintService.getAll();
-        if (complaints.isEmpty()) {
+        int total = complaintService.count();
+        if (total == 0) {
             System.out.println("\n📭 No complaints filed yet.");
             return;
         }
-        System.out.println("\n── All Complaints (" + complaints.size() + ") ──────────────");
+        System.out.println("\n── All Complaints (" + total + ") ──────────────");
         System.out.printf("%-12s %-18s %-28s %-14s%n",
                 "Complaint ID", "Customer", "Description", "Status");
         System.out.println(repeatChar('─', 72));
-        for (Complaint c : complaints) {
+        printPaged(complaintService, c -> {
             String desc = c.getDescription().length() > 26
                     ? c.getDescription().substring(0, 26) + ".."
                     : c.getDescription();
             System.out.printf("%-12s %-18s %-28s %-14s%n",
                     c.getComplaintId(), c.getCustomer().getName(), desc, c.getStatus());
-        }
+        });
     }
 
     private static void viewComplaintById() {
@@ -704,6 +1140,9 @@ public class BharatGasCRM {
             System.out.println("│  3. Booking Report                       │");
             System.out.println("│  4. Payment Report                       │");
             System.out.println("│  5. Complaint Report                     │");
+            System.out.println("│  6. Reports for a Date Range             │");
+            System.out.println("│  7. Daily / Weekly / Monthly Trend       │");
+            System.out.println("│  8. Export Bookings / Payments           │");
             System.out.println("│  0. ← Back to Main Menu                 │");
             System.out.println("└──────────────────────────────────────────┘");
 
@@ -724,6 +1163,15 @@ public class BharatGasCRM {
                 case 5:
                     System.out.println(complaintService.generateReport());
                     break;
+                case 6:
+                    showRangeReports();
+                    break;
+                case 7:
+                    showTrend();
+                    break;
+                case 8:
+                    exportData();
+                    break;
                 case 0:
                     back = true;
                     break;
@@ -733,30 +1181,108 @@ public class BharatGasCRM {
         }
     }
 
+    private static void showRangeReports() {
+        LocalDate today = LocalDate.now();
+        LocalDate from = readDate("From date (dd-MM-yyyy, Enter for 30 days ago): ", today.minusDays(29));
+        LocalDate to = readDate("To date (dd-MM-yyyy, Enter for today): ", today);
+        if (from == null || to == null || from.isAfter(to)) {
+            System.out.println("❌ Invalid date range.");
+            return;
+        }
+        System.out.println(bookingService.generateReport(from, to));
+        System.out.println(paymentService.generateReport(from, to));
+    }
+
+    private static void exportData() {
+        System.out.println("Export: 1. Bookings  2. Payments");
+        int choice = readIntInput("Select data: ");
+        if (choice != 1 && choice != 2) {
+            System.out.println("❌ Invalid choice.");
+            return;
+        }
+        System.out.print("File name (.csv or .json): ");
+        String file = scanner.nextLine().trim();
+        if (file.isEmpty()) {
+            System.out.println("❌ File name cannot be empty.");
+            return;
+        }
+        export(choice == 1 ? "bookings" : "payments", Paths.get(file));
+    }
+
+    /**
+     * Prints bookings and revenue per day, week or month. Each row is a pair
+     * of O(log n) range queries on the services' daily totals.
+     */
+    private static void showTrend() {
+        System.out.println("Select period: 1. Daily  2. Weekly  3. Monthly");
+        int choice = readIntInput("Select period: ");
+        if (choice < 1 || choice > Granularity.values().length) {
+            System.out.println("❌ Invalid choice.");
+            return;
+        }
+        Granularity granularity = Granularity.values()[choice - 1];
+        LocalDate to = LocalDate.now();
+        LocalDate from = granularity.bucketStart(to);
+        for (int i = 1; i < TREND_PERIODS; i++) {
+            from = granularity.bucketStart(from.minusDays(1));
+        }
+
+        System.out.println("\n── " + granularity.getDisplayName() + " Trend ──────────────────────────");
+        System.out.printf("%-12s %9s %16s", "Period", "Bookings", "Revenue");
+        for (PaymentMode mode : PaymentMode.values()) {
+            System.out.printf(" %14s", mode.getDisplayName());
+        }
+        System.out.println();
+        System.out.println(repeatChar('─', 39 + 15 * PaymentMode.values().length));
+        for (LocalDate start = from; !start.isAfter(to); start = granularity.next(start)) {
+            LocalDate end = granularity.next(start).minusDays(1);
+            System.out.printf("%-12s %9d %16s", start, bookingService.countBookings(start, end),
+                    Money.format(paymentService.getRevenuePaise(start, end)));
+            for (PaymentMode mode : PaymentMode.values()) {
+                System.out.printf(" %14s", Money.format(paymentService.getRevenuePaise(mode, start, end)));
+            }
+            System.out.println();
+        }
+    }
+
     private static void showDashboard() {
+        DashboardSnapshot snapshot = dashboard.current();
         System.out.println();
         System.out.println("╔══════════════════════════════════════════════════════════╗");
         System.out.println("║          🏠 BHARAT GAS AGENCY — DASHBOARD               ║");
         System.out.println("╠══════════════════════════════════════════════════════════╣");
-        System.out.printf("║  Total Customers     : %-33d║%n", customerService.getAll().size());
-        System.out.printf("║  Active Connections  : %-33d║%n",
-                customerService.getByStatus(ConnectionStatus.ACTIVE).size());
-        System.out.printf("║  Total Bookings      : %-33d║%n", bookingService.getAll().size());
-        System.out.printf("║  Pending Deliveries  : %-33d║%n",
-                bookingService.getByStatus(BookingStatus.PENDING).size() +
-                        bookingService.getByStatus(BookingStatus.CONFIRMED).size() +
-                        bookingService.getByStatus(BookingStatus.OUT_FOR_DELIVERY).size());
-        System.out.printf("║  Completed Deliveries: %-33d║%n",
-                bookingService.getByStatus(BookingStatus.DELIVERED).size());
-        System.out.printf("║  Total Revenue       : ₹%-32.2f║%n", paymentService.getTotalRevenue());
-        System.out.printf("║  Open Complaints     : %-33d║%n",
-                complaintService.getByStatus(ComplaintStatus.OPEN).size() +
-                        complaintService.getByStatus(ComplaintStatus.IN_PROGRESS).size());
+        System.out.printf("║  Total Customers     : %-33d║%n", snapshot.getTotalCustomers());
+        System.out.printf("║  Active Connections  : %-33d║%n", snapshot.getActiveConnections());
+        System.out.printf("║  Total Bookings      : %-33d║%n", snapshot.getTotalBookings());
+        System.out.printf("║  Pending Deliveries  : %-33d║%n", snapshot.getPendingDeliveries());
+        System.out.printf("║  Completed Deliveries: %-33d║%n", snapshot.getCompletedDeliveries());
+        System.out.printf("║  Total Revenue       : %-33s║%n", Money.format(snapshot.getTotalRevenuePaise()));
+        System.out.printf("║  Open Complaints     : %-33d║%n", snapshot.getOpenComplaints());
+        System.out.printf("║  SLA Breaches        : %-33s║%n",
+                slaMonitor.countBreaches(SlaKind.BOOKING_DELIVERY) + " deliveries, "
+                + slaMonitor.countBreaches(SlaKind.COMPLAINT_RESOLUTION) + " complaints");
         System.out.println("╚══════════════════════════════════════════════════════════╝");
     }
 
     // ──────────────────── UTILITY / HELPERS ─────────────────────────────
 
+    /**
+     * Reads a date in dd-MM-yyyy format. Returns the default on an empty
+     * line and null if the input is not a valid date.
+     */
+    private static LocalDate readDate(String prompt, LocalDate defaultDate) {
+        System.out.print(prompt);
+        String line = scanner.nextLine().trim();
+        if (line.isEmpty()) {
+            return defaultDate;
+        }
+        try {
+            return LocalDate.parse(line, DATE_INPUT);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
     private static int readIntInput(String prompt) {
         System.out.print(prompt);
         try {
@@ -767,6 +1293,30 @@ public class BharatGasCRM {
         }
     }
 
+    /**
+     * Prints a listing one page at a time using keyset pagination, so the
+     * store is never copied in full. Enter shows the next page, 0 stops.
+     */
+    private static <T> void printPaged(CRUDOperations<T> service, Consumer<T> printRow) {
+        String cursor = null;
+        int shown = 0;
+        while (true) {
+            Page<T> page = service.getPageAfter(cursor, PAGE_SIZE);
+            for (T item : page.getItems()) {
+                printRow.accept(item);
+            }
+            shown += page.getItems().size();
+            if (!page.hasMore()) {
+                return;
+            }
+            System.out.print("── Shown " + shown + " of " + service.count() + " · Enter for more, 0 to stop: ");
+            if ("0".equals(scanner.nextLine().trim())) {
+                return;
+            }
+            cursor = page.getNextCursor();
+        }
+    }
+
     private static String repeatChar(char c, int count) {
         StringBuilder sb = new StringBuilder();
         for (int i = 0; i < count; i++)
@@ -837,7 +1387,7 @@ public class BharatGasCRM {
         bookingService.updateDeliveryStatus(b1.getBookingId(), BookingStatus.DELIVERED);
 
         // Sample Payment
-        Payment p1 = new Payment(IDGenerator.generatePaymentId(), b1, b1.getCylinder().getPrice(), PaymentMode.UPI);
+        Payment p1 = new Payment(IDGenerator.generatePaymentId(), b1, b1.getCylinder().getPricePaise(), PaymentMode.UPI);
         paymentService.add(p1);
 
         // Sample Complaint
@@ -0,0 +1,161 @@
+package com.bharatgas.crm.api;
+
+import com.sun.net.httpserver.HttpExchange;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One API call: the method, the path segments after the resource's
+ * context (/api/bookings/BG-BK-001/status → [BG-BK-001, status]), the
+ * query parameters and, for POST and PUT, the fields of the JSON body.
+ * Missing or malformed input is reported as an {@link ApiException}.
+ */
+class ApiRequest {
+
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+
+    private final HttpExchange exchange;
+    private final String method;
+    private final List<String> segments;
+    private final Map<String, String> query;
+    private Map<String, String> body;
+    private int status = 200;
+
+    ApiRequest(HttpExchange exchange) {
+        this.exchange = exchange;
+        this.method = exchange.getRequestMethod();
+        String path = exchange.getRequestURI().getPath();
+        String context = exchange.getHttpContext().getPath();
+        this.segments = split(path.length() > context.length() ? path.substring(context.length()) : "");
+        this.query = parseQuery(exchange.getRequestURI().getRawQuery());
+    }
+
+    String getMethod() {
+        return method;
+    }
+
+    String getPath() {
+        return exchange.getRequestURI().getPath();
+    }
+
+    List<String> getSegments() {
+        return segments;
+    }
+
+    /** True for the given method and number of path segments. */
+    boolean is(String method, int segmentCount) {
+        return this.method.equals(method) && segments.size() == segmentCount;
+    }
+
+    String segment(int index) {
+        return segments.get(index);
+    }
+
+    /** A query parameter, or null if absent or blank. */
+    String param(String name) {
+        String value = query.get(name);
+        return value == null || value.trim().isEmpty() ? null : value.trim();
+    }
+
+    int intParam(String name, int defaultValue, int min, int max) {
+        String value = param(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Math.max(min, Math.min(max, Integer.parseInt(value)));
+        } catch (NumberFormatException e) {
+            throw new ApiException(400, "Parameter '" + name + "' must be a number");
+        }
+    }
+
+    /** A body field, or null if absent or blank. */
+    String field(String name) {
+        String value = body().get(name);
+        return value == null || value.trim().isEmpty() ? null : value.trim();
+    }
+
+    String requiredField(String name) {
+        String value = field(name);
+        if (value == null) {
+            throw new ApiException(400, "Field '" + name + "' is required");
+        }
+        return value;
+    }
+
+    /** Marks the response as 201 Created. */
+    void created() {
+        status = 201;
+    }
+
+    int getStatus() {
+        return status;
+    }
+
+    private Map<String, String> body() {
+        if (body == null) {
+            body = JsonReader.parseObject(readBody());
+        }
+        return body;
+    }
+
+    private String readBody() {
+        try (InputStream in = exchange.getRequestBody()) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                if (bytes.size() + n > MAX_BODY_BYTES) {
+                    throw new ApiException(413, "Request body is too large");
+                }
+                bytes.write(buffer, 0, n);
+            }
+            String text = new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+            return text.trim().isEmpty() ? "{}" : text;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static List<String> split(String path) {
+        List<String> parts = new ArrayList<>();
+        for (String part : path.split("/")) {
+            if (!part.isEmpty()) {
+                parts.add(part);
+            }
+        }
+        return Collections.unmodifiableList(parts);
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null) {
+            return params;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String name = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            params.put(decode(name), decode(value));
+        }
+        return params;
+    }
+
+    private static String decode(String s) {
+        try {
+            return URLDecoder.decode(s, "UTF-8");
+        } catch (UnsupportedEncodingException | IllegalArgumentException e) {
+            throw new ApiException(400, "Malformed query string");
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.bharatgas.crm.api;
+
+import com.bharatgas.crm.service.BookingService;
+import com.bharatgas.crm.service.ComplaintService;
+import com.bharatgas.crm.service.CustomerService;
+import com.bharatgas.crm.service.DashboardAggregator;
+import com.bharatgas.crm.service.DashboardSnapshot;
+import com.bharatgas.crm.service.PaymentService;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * HTTP/JSON API over the services, on the JDK's built-in HTTP server, so
+ * that several counters and the IVR can work at the same time:
+ * /api/customers, /api/bookings, /api/payments, /api/complaints and
+ * /api/dashboard (see each resource for its endpoints).
+ * <p>
+ * Each request runs on its own virtual thread when the JVM has them
+ * (Java 21+); otherwise on a pool of {@code bharatgas.api.threads} threads
+ * (default 64), enough to keep the CPU busy while requests wait for the
+ * journal to reach the disk.
+ * Demonstrates: Composition, Facade pattern.
+ */
+public class ApiServer implements AutoCloseable {
+
+    private static final int BACKLOG = 1024;
+    private static final String NODELAY = "sun.net.httpserver.nodelay";
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    public ApiServer(int port, CustomerService customerService, BookingService bookingService,
+            PaymentService paymentService, ComplaintService complaintService,
+            DashboardAggregator dashboard) throws IOException {
+        // Small JSON responses would otherwise wait out Nagle's algorithm
+        // against the client's delayed ACK, ~40 ms per keep-alive request.
+        if (System.getProperty(NODELAY) == null) {
+            System.setProperty(NODELAY, "true");
+        }
+        this.server = HttpServer.create(new InetSocketAddress(port), BACKLOG);
+        this.executor = newRequestExecutor();
+        server.setExecutor(executor);
+        server.createContext("/api/customers", new CustomerResource(customerService, bookingService, complaintService));
+        server.createContext("/api/bookings", new BookingResource(customerService, bookingService, paymentService));
+        server.createContext("/api/payments", new PaymentResource(bookingService, paymentService));
+        server.createContext("/api/complaints", new ComplaintResource(customerService, complaintService));
+        server.createContext("/api/dashboard", new Resource() {
+            @Override
+            JsonWriter respond(ApiRequest request) {
+                if (!request.is("GET", 0)) {
+                    throw noRoute(request);
+                }
+                DashboardSnapshot stats = dashboard.current();
+                return new JsonWriter().beginObject()
+                        .field("totalCustomers", stats.getTotalCustomers())
+                        .field("activeConnections", stats.getActiveConnections())
+                        .field("totalBookings", stats.getTotalBookings())
+                        .field("pendingDeliveries", stats.getPendingDeliveries())
+                        .field("completedDeliveries", stats.getCompletedDeliveries())
+                        .field("totalRevenuePaise", stats.getTotalRevenuePaise())
+                        .field("openComplaints", stats.getOpenComplaints())
+                        .endObject();
+            }
+        });
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stops accepting requests, lets running ones finish for up to a second,
+     * then stops the request threads.
+     */
+    @Override
+    public void close() {
+        server.stop(1);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** True if requests run on virtual threads. */
+    public boolean usesVirtualThreads() {
+        return executor.getClass().getName().contains("ThreadPerTask");
+    }
+
+    /**
+     * Executors.newVirtualThreadPerTaskExecutor() where available; looked up
+     * reflectively so the code still builds and runs on Java 8.
+     */
+    private static ExecutorService newRequestExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger count = new AtomicInteger();
+            return Executors.newFixedThreadPool(Integer.getInteger("bharatgas.api.threads", 64), r -> {
+                Thread thread = new Thread(r, "api-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.bharatgas.crm.api;
+
+import com.bharatgas.crm.enums.BookingStatus;
+import com.bharatgas.crm.enums.ConnectionStatus;
+import com.bharatgas.crm.model.Booking;
+import com.bharatgas.crm.model.Customer;
+import com.bharatgas.crm.model.Cylinder;
+import com.bharatgas.crm.service.BookingService;
+import com.bharatgas.crm.service.CustomerService;
+import com.bharatgas.crm.service.PaymentService;
+import com.bharatgas.crm.util.IDGenerator;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+/**
+ * /api/bookings
+ * <pre>
+ * GET    /api/bookings?after=&amp;limit=      page through bookings
+ * GET    /api/bookings?customerId=
+ * GET    /api/bookings?status=
+ * GET    /api/bookings?dueOn=2024-01-31     open bookings due on a date
+ * GET    /api/bookings?overdue=true         open bookings past their date
+ * GET    /api/bookings/{id}                 includes archived bookings
+ * GET    /api/bookings/{id}/payments
+ * POST   /api/bookings                      {customerId, cylinder: "14.2" | "5" | "19"}
+ * PUT    /api/bookings/{id}/status          {status: CONFIRMED | OUT_FOR_DELIVERY | DELIVERED}
+ * DELETE /api/bookings/{id}                 cancel the booking
+ * </pre>
+ */
+class BookingResource extends Resource {
+
+    private final CustomerService customerService;
+    private final BookingService bookingService;
+    private final PaymentService paymentService;
+
+    BookingResource(CustomerService customerService, BookingService bookingService, PaymentService paymentService) {
+        this.customerService = customerService;
+        this.bookingService = bookingService;
+        this.paymentService = paymentService;
+    }
+
+    @Override
+    JsonWriter respond(ApiRequest request) {
+        if (request.is("GET", 0)) {
+            return query(request);
+        }
+        if (request.is("POST", 0)) {
+            return book(request);
+        }
+        if (request.getSegments().isEmpty()) {
+            throw noRoute(request);
+        }
+        String id = request.segment(0);
+        if (request.is("GET", 1)) {
+            return write(new JsonWriter(), booking(id));
+        }
+        if (request.is("GET", 2) && request.segment(1).equals("payments")) {
+            booking(id);
+            return list(request, paymentService.getByBookingId(id), PaymentResource::write);
+        }
+        if (request.is("PUT", 2) && request.segment(1).equals("status")) {
+            return updateStatus(request, id);
+        }
+        if (request.is("DELETE", 1)) {
+            Booking booking = openBooking(id);
+            bookingService.delete(id);
+            return write(new JsonWriter(), booking);
+        }
+        throw noRoute(request);
+    }
+
+    private JsonWriter query(ApiRequest request) {
+        String customerId = request.param("customerId");
+        if (customerId != null) {
+            return list(request, bookingService.getByCustomerId(customerId), BookingResource::write);
+        }
+        String status = request.param("status");
+        if (status != null) {
+            return list(request, bookingService.getByStatus(parseEnum(BookingStatus.class, status, "status")),
+                    BookingResource::write);
+        }
+        String dueOn = request.param("dueOn");
+        if (dueOn != null) {
+            return list(request, bookingService.getDueOn(parseDate(dueOn, "dueOn")), BookingResource::write);
+        }
+        if ("true".equals(request.param("overdue"))) {
+            return list(request, bookingService.getOverdue(LocalDate.now()), BookingResource::write);
+        }
+        int limit = request.intParam("limit", DEFAULT_LIMIT, 1, MAX_LIMIT);
+        return page(bookingService.getPageAfter(request.param("after"), limit), BookingResource::write);
+    }
+
+    private JsonWriter book(ApiRequest request) {
+        String customerId = request.requiredField("customerId");
+        String weight = request.field("cylinder");
+        Customer customer = found(customerService.getById(customerId), "Customer", customerId);
+        if (customer.getConnectionStatus() != ConnectionStatus.ACTIVE) {
+            throw new ApiException(409, "Customer connection is not active: " + customerId);
+        }
+        Cylinder cylinder = weight == null ? Cylinder.domestic14Kg() : Cylinder.ofWeight(weight);
+        if (cylinder == null) {
+            throw new ApiException(400, "Invalid cylinder: " + weight + " (use 14.2, 5 or 19)");
+        }
+        Booking booking = new Booking(IDGenerator.generateBookingId(), customer, cylinder);
+        bookingService.add(booking);
+        customer.addBooking(booking);
+        request.created();
+        return write(new JsonWriter(), booking);
+    }
+
+    private JsonWriter updateStatus(ApiRequest request, String id) {
+        BookingStatus status = parseEnum(BookingStatus.class, request.requiredField("status"), "status");
+        if (status == BookingStatus.CANCELLED) {
+            throw new ApiException(400, "Use DELETE /api/bookings/" + id + " to cancel a booking");
+        }
+        if (status == BookingStatus.PENDING) {
+            throw new ApiException(400, "A booking cannot go back to PENDING");
+        }
+        openBooking(id);
+        if (!bookingService.updateDeliveryStatus(id, status)) {
+            throw new ApiException(409, "Booking " + id + " is already closed");
+        }
+        return write(new JsonWriter(), booking(id));
+    }
+
+    private Booking booking(String id) {
+        return found(bookingService.getById(id), "Booking", id);
+    }
+
+    /** A booking that can still change: neither archived, delivered nor cancelled. */
+    private Booking openBooking(String id) {
+        Booking booking = booking(id);
+        if (bookingService.isArchived(id)) {
+            throw new ApiException(409, "Booking " + id + " is archived");
+        }
+        if (booking.getStatus() == BookingStatus.DELIVERED || booking.getStatus() == BookingStatus.CANCELLED) {
+            throw new ApiException(409, "Booking " + id + " is already " + booking.getStatus().getDisplayName());
+        }
+        return booking;
+    }
+
+    private static LocalDate parseDate(String value, String name) {
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new ApiException(400, "Parameter '" + name + "' must be a date like 2024-01-31");
+        }
+    }
+
+    static JsonWriter write(JsonWriter json, Booking booking) {
+        Customer customer = booking.getCustomer();
+        Cylinder cylinder = booking.getCylinder();
+        return json.beginObject()
+                .field("bookingId", booking.getBookingId())
+                .field("customerId", customer == null ? null : customer.getCustomerId())
+                .field("cylinderType", cylinder == null ? null : cylinder.getCylinderType())
+                .field("pricePaise", cylinder == null ? 0 : cylinder.getPricePaise())
+                .field("bookingDate", booking.getBookingDate())
+                .field("expectedDeliveryDate", booking.getExpectedDeliveryDate())
+                .field("actualDeliveryDate", booking.getActualDeliveryDate())
+                .field("status", booking.getStatus())
+                .endObject();
+    }
+}
@@ -0,0 +1,114 @@
+package com.bharatgas.crm.api;
+
+import com.bharatgas.crm.enums.ComplaintStatus;
+import com.bharatgas.crm.model.Complaint;
+import com.bharatgas.crm.model.Customer;
+import com.bharatgas.crm.service.ComplaintService;
+import com.bharatgas.crm.service.CustomerService;
+import com.bharatgas.crm.util.IDGenerator;
+
+/**
+ * /api/complaints
+ * <pre>
+ * GET    /api/complaints?after=&amp;limit=    page through complaints
+ * GET    /api/complaints?customerId=
+ * GET    /api/complaints?status=
+ * GET    /api/complaints/{id}
+ * POST   /api/complaints                    {customerId, description}
+ * PUT    /api/complaints/{id}/status        {status: IN_PROGRESS | RESOLVED | CLOSED}
+ * </pre>
+ */
+class ComplaintResource extends Resource {
+
+    private final CustomerService customerService;
+    private final ComplaintService complaintService;
+
+    ComplaintResource(CustomerService customerService, ComplaintService complaintService) {
+        this.customerService = customerService;
+        this.complaintService = complaintService;
+    }
+
+    @Override
+    JsonWriter respond(ApiRequest request) {
+        if (request.is("GET", 0)) {
+            return query(request);
+        }
+        if (request.is("POST", 0)) {
+            return file(request);
+        }
+        if (request.is("GET", 1)) {
+            return write(new JsonWriter(), complaint(request.segment(0)));
+        }
+        if (request.is("PUT", 2) && request.segment(1).equals("status")) {
+            return updateStatus(request, request.segment(0));
+        }
+        throw noRoute(request);
+    }
+
+    private JsonWriter query(ApiRequest request) {
+        String customerId = request.param("customerId");
+        if (customerId != null) {
+            return list(request, complaintService.getByCustomerId(customerId), ComplaintResource::write);
+        }
+        String status = request.param("status");
+        if (status != null) {
+            return list(request, complaintService.getByStatus(parseEnum(ComplaintStatus.class, status, "status")),
+                    ComplaintResource::write);
+        }
+        int limit = request.intParam("limit", DEFAULT_LIMIT, 1, MAX_LIMIT);
+        return page(complaintService.getPageAfter(request.param("after"), limit), ComplaintResource::write);
+    }
+
+    private JsonWriter file(ApiRequest request) {
+        String customerId = request.requiredField("customerId");
+        String description = request.requiredField("description");
+        Customer customer = found(customerService.getById(customerId), "Customer", customerId);
+        Complaint complaint = new Complaint(IDGenerator.generateComplaintId(), customer, description);
+        complaintService.add(complaint);
+        request.created();
+        return write(new JsonWriter(), complaint);
+    }
+
+    private JsonWriter updateStatus(ApiRequest request, String id) {
+        ComplaintStatus status = parseEnum(ComplaintStatus.class, request.requiredField("status"), "status");
+        Complaint complaint = complaint(id);
+        if (complaint.getStatus() == ComplaintStatus.CLOSED) {
+            throw new ApiException(409, "Complaint " + id + " is already closed");
+        }
+        boolean changed;
+        switch (status) {
+            case IN_PROGRESS:
+                changed = complaintService.markInProgress(id);
+                break;
+            case RESOLVED:
+                changed = complaintService.resolveComplaint(id);
+                break;
+            case CLOSED:
+                complaintService.delete(id);
+                changed = true;
+                break;
+            default:
+                throw new ApiException(400, "A complaint cannot go back to " + status);
+        }
+        if (!changed) {
+            throw new ApiException(409, "Complaint " + id + " is already " + complaint(id).getStatus());
+        }
+        return write(new JsonWriter(), complaint(id));
+    }
+
+    private Complaint complaint(String id) {
+        return found(complaintService.getById(id), "Complaint", id);
+    }
+
+    static JsonWriter write(JsonWriter json, Complaint complaint) {
+        Customer customer = complaint.getCustomer();
+        return json.beginObject()
+                .field("complaintId", complaint.getComplaintId())
+                .field("customerId", customer == null ? null : customer.getCustomerId())
+                .field("description", complaint.getDescription())
+                .field("status", complaint.getStatus())
+                .field("filedDate", complaint.getFiledDate())
+                .field("resolvedDate", complaint.getResolvedDate())
+                .endObject();
+    }
+}
@@ -0,0 +1,157 @@
+package com.bharatgas.crm.api;
+
+import com.bharatgas.crm.enums.ConnectionType;
+import com.bharatgas.crm.model.Customer;
+import com.bharatgas.crm.service.BookingService;
+import com.bharatgas.crm.service.ComplaintService;
+import com.bharatgas.crm.service.CustomerService;
+import com.bharatgas.crm.util.IDGenerator;
+import com.bharatgas.crm.util.InputValidator;
+import java.util.Collections;
+
+/**
+ * /api/customers
+ * <pre>
+ * GET    /api/customers?after=&amp;limit=     page through customers
+ * GET    /api/customers?phone=             look up by mobile number
+ * GET    /api/customers?name=&amp;limit=      search by name
+ * GET    /api/customers/{id}
+ * GET    /api/customers/{id}/bookings
+ * GET    /api/customers/{id}/complaints
+ * POST   /api/customers                    {name, phone, email, address, connectionType}
+ * PUT    /api/customers/{id}               {name, phone, email, address}, all optional
+ * DELETE /api/customers/{id}               deactivate the connection
+ * </pre>
+ */
+class CustomerResource extends Resource {
+
+    private final CustomerService customerService;
+    private final BookingService bookingService;
+    private final ComplaintService complaintService;
+
+    CustomerResource(CustomerService customerService, BookingService bookingService,
+            ComplaintService complaintService) {
+        this.customerService = customerService;
+        this.bookingService = bookingService;
+        this.complaintService = complaintService;
+    }
+
+    @Override
+    JsonWriter respond(ApiRequest request) {
+        if (request.is("GET", 0)) {
+            return query(request);
+        }
+        if (request.is("POST", 0)) {
+            return register(request);
+        }
+        if (request.getSegments().isEmpty()) {
+            throw noRoute(request);
+        }
+        String id = request.segment(0);
+        if (request.is("GET", 1)) {
+            return write(new JsonWriter(), customer(id));
+        }
+        if (request.is("GET", 2) && request.segment(1).equals("bookings")) {
+            customer(id);
+            return list(request, bookingService.getByCustomerId(id), BookingResource::write);
+        }
+        if (request.is("GET", 2) && request.segment(1).equals("complaints")) {
+            customer(id);
+            return list(request, complaintService.getByCustomerId(id), ComplaintResource::write);
+        }
+        if (request.is("PUT", 1)) {
+            return update(request, customer(id));
+        }
+        if (request.is("DELETE", 1)) {
+            Customer customer = customer(id);
+            customerService.delete(id);
+            return write(new JsonWriter(), customer);
+        }
+        throw noRoute(request);
+    }
+
+    private JsonWriter query(ApiRequest request) {
+        String phone = request.param("phone");
+        if (phone != null) {
+            Customer customer = customerService.getByPhone(phone);
+            return list(request, customer == null ? Collections.<Customer>emptyList()
+                    : Collections.singletonList(customer), CustomerResource::write);
+        }
+        int limit = request.intParam("limit", DEFAULT_LIMIT, 1, MAX_LIMIT);
+        String name = request.param("name");
+        if (name != null) {
+            return list(request, customerService.searchByName(name, limit), CustomerResource::write);
+        }
+        return page(customerService.getPageAfter(request.param("after"), limit), CustomerResource::write);
+    }
+
+    private JsonWriter register(ApiRequest request) {
+        String name = request.requiredField("name");
+        String phone = request.requiredField("phone");
+        String email = request.requiredField("email");
+        String address = request.field("address");
+        String type = request.field("connectionType");
+        if (!InputValidator.isValidName(name)) {
+            throw new ApiException(400, "Invalid name: " + name);
+        }
+        if (!InputValidator.isValidPhone(phone)) {
+            throw new ApiException(400, "Invalid phone: " + phone);
+        }
+        if (!InputValidator.isValidEmail(email)) {
+            throw new ApiException(400, "Invalid email: " + email);
+        }
+        Customer customer = new Customer(IDGenerator.generateCustomerId(), name, phone,
+                address == null ? "" : address, email,
+                type == null ? ConnectionType.DOMESTIC : parseEnum(ConnectionType.class, type, "connectionType"));
+        customerService.add(customer);
+        if (customerService.getById(customer.getCustomerId()) != customer) {
+            throw phoneTaken(phone);
+        }
+        request.created();
+        return write(new JsonWriter(), customer);
+    }
+
+    private JsonWriter update(ApiRequest request, Customer customer) {
+        String name = request.field("name");
+        String phone = request.field("phone");
+        String email = request.field("email");
+        String address = request.field("address");
+        if (name != null && !InputValidator.isValidName(name)) {
+            throw new ApiException(400, "Invalid name: " + name);
+        }
+        if (phone != null && !InputValidator.isValidPhone(phone)) {
+            throw new ApiException(400, "Invalid phone: " + phone);
+        }
+        if (email != null && !InputValidator.isValidEmail(email)) {
+            throw new ApiException(400, "Invalid email: " + email);
+        }
+        if (!customerService.updateDetails(customer.getCustomerId(), name, phone, email, address)) {
+            throw phone == null ? new ApiException(404, "Customer not found: " + customer.getCustomerId())
+                    : phoneTaken(phone);
+        }
+        return write(new JsonWriter(), customer);
+    }
+
+    private Customer customer(String id) {
+        return found(customerService.getById(id), "Customer", id);
+    }
+
+    private ApiException phoneTaken(String phone) {
+        Customer owner = customerService.getByPhone(phone);
+        return new ApiException(409, "Phone " + phone + " is already registered"
+                + (owner == null ? "" : " to: " + owner.getCustomerId()));
+    }
+
+    static JsonWriter write(JsonWriter json, Customer customer) {
+        return json.beginObject()
+                .field("customerId", customer.getCustomerId())
+                .field("name", customer.getName())
+                .field("phone", customer.getPhone())
+                .field("email", customer.getEmail())
+                .field("address", customer.getAddress())
+                .field("connectionType", customer.getConnectionType())
+                .field("connectionStatus", customer.getConnectionStatus())
+                .field("registrationDate", customer.getRegistrationDate())
+                .endObject();
+    }
+}
@@ -0,0 +1,113 @@
+package com.bharatgas.crm.api;
+
+import com.bharatgas.crm.enums.PaymentMode;
+import com.bharatgas.crm.enums.PaymentStatus;
+import com.bharatgas.crm.model.Booking;
+import com.bharatgas.crm.model.Payment;
+import com.bharatgas.crm.service.BookingService;
+import com.bharatgas.crm.service.PaymentService;
+import com.bharatgas.crm.util.IDGenerator;
+
+/**
+ * /api/payments
+ * <pre>
+ * GET    /api/payments?after=&amp;limit=      page through payments
+ * GET    /api/payments?bookingId=
+ * GET    /api/payments?mode=
+ * GET    /api/payments?status=
+ * GET    /api/payments/{id}
+ * POST   /api/payments                      {bookingId, mode, amountPaise}; the amount
+ *                                           defaults to the cylinder price
+ * DELETE /api/payments/{id}                 refund the payment
+ * </pre>
+ */
+class PaymentResource extends Resource {
+
+    private final BookingService bookingService;
+    private final PaymentService paymentService;
+
+    PaymentResource(BookingService bookingService, PaymentService paymentService) {
+        this.bookingService = bookingService;
+        this.paymentService = paymentService;
+    }
+
+    @Override
+    JsonWriter respond(ApiRequest request) {
+        if (request.is("GET", 0)) {
+            return query(request);
+        }
+        if (request.is("POST", 0)) {
+            return record(request);
+        }
+        if (request.is("GET", 1)) {
+            return write(new JsonWriter(), payment(request.segment(0)));
+        }
+        if (request.is("DELETE", 1)) {
+            String id = request.segment(0);
+            if (payment(id).getPaymentStatus() == PaymentStatus.REFUNDED) {
+                throw new ApiException(409, "Payment already refunded: " + id);
+            }
+            paymentService.delete(id);
+            return write(new JsonWriter(), payment(id));
+        }
+        throw noRoute(request);
+    }
+
+    private JsonWriter query(ApiRequest request) {
+        String bookingId = request.param("bookingId");
+        if (bookingId != null) {
+            return list(request, paymentService.getByBookingId(bookingId), PaymentResource::write);
+        }
+        String mode = request.param("mode");
+        if (mode != null) {
+            return list(request, paymentService.getByPaymentMode(parseEnum(PaymentMode.class, mode, "mode")),
+                    PaymentResource::write);
+        }
+        String status = request.param("status");
+        if (status != null) {
+            return list(request, paymentService.getByStatus(parseEnum(PaymentStatus.class, status, "status")),
+                    PaymentResource::write);
+        }
+        int limit = request.intParam("limit", DEFAULT_LIMIT, 1, MAX_LIMIT);
+        return page(paymentService.getPageAfter(request.param("after"), limit), PaymentResource::write);
+    }
+
+    private JsonWriter record(ApiRequest request) {
+        String bookingId = request.requiredField("bookingId");
+        String mode = request.field("mode");
+        String amount = request.field("amountPaise");
+        Booking booking = found(bookingService.getById(bookingId), "Booking", bookingId);
+        long amountPaise = booking.getCylinder().getPricePaise();
+        if (amount != null) {
+            try {
+                amountPaise = Long.parseLong(amount);
+            } catch (NumberFormatException e) {
+                throw new ApiException(400, "Field 'amountPaise' must be a whole number of paise");
+            }
+            if (amountPaise <= 0) {
+                throw new ApiException(400, "Field 'amountPaise' must be positive");
+            }
+        }
+        Payment payment = new Payment(IDGenerator.generatePaymentId(), booking, amountPaise,
+                mode == null ? PaymentMode.CASH : parseEnum(PaymentMode.class, mode, "mode"));
+        paymentService.add(payment);
+        request.created();
+        return write(new JsonWriter(), payment);
+    }
+
+    private Payment payment(String id) {
+        return found(paymentService.getById(id), "Payment", id);
+    }
+
+    static JsonWriter write(JsonWriter json, Payment payment) {
+        Booking booking = payment.getBooking();
+        return json.beginObject()
+                .field("paymentId", payment.getPaymentId())
+                .field("bookingId", booking == null ? null : booking.getBookingId())
+                .field("amountPaise", payment.getAmountPaise())
+                .field("mode", payment.getPaymentMode())
+                .field("status", payment.getPaymentStatus())
+                .field("paymentDate", payment.getPaymentDate())
+                .endObject();
+    }
+}
@@ -0,0 +1,103 @@
+package com.bharatgas.crm.api;
+
+import com.bharatgas.crm.store.Page;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.BiConsumer;
+
+/**
+ * Base class of the API's resources. Subclasses turn a request into a
+ * JSON document by calling the services; this class sends it back, or
+ * sends {"error": ...} with the status of an {@link ApiException}.
+ * Demonstrates: Template Method pattern, Inheritance.
+ */
+abstract class Resource implements HttpHandler {
+
+    static final int DEFAULT_LIMIT = 50;
+    static final int MAX_LIMIT = 10_000;
+
+    /**
+     * Handles a request and returns the response body.
+     *
+     * @throws ApiException to answer with an error status
+     */
+    abstract JsonWriter respond(ApiRequest request);
+
+    @Override
+    public final void handle(HttpExchange exchange) throws IOException {
+        int status;
+        String body;
+        try {
+            ApiRequest request = new ApiRequest(exchange);
+            body = respond(request).toString();
+            status = request.getStatus();
+        } catch (ApiException e) {
+            status = e.getStatus();
+            body = new JsonWriter().beginObject().field("error", e.getMessage()).endObject().toString();
+        } catch (RuntimeException e) {
+            // includes UncheckedIOException, e.g. a failed journal write
+            System.out.println("⚠️  API error on " + exchange.getRequestURI() + ": " + e);
+            status = 500;
+            body = new JsonWriter().beginObject().field("error", "Internal error").endObject().toString();
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Writes {"items": [...], "total": n} with at most the request's
+     * {@code limit} items.
+     */
+    static <T> JsonWriter list(ApiRequest request, List<T> items, BiConsumer<JsonWriter, T> writer) {
+        int limit = request.intParam("limit", DEFAULT_LIMIT, 1, MAX_LIMIT);
+        JsonWriter json = new JsonWriter().beginObject().name("items").beginArray();
+        for (int i = 0; i < items.size() && i < limit; i++) {
+            writer.accept(json, items.get(i));
+        }
+        return json.endArray().field("total", items.size()).endObject();
+    }
+
+    /**
+     * Writes {"items": [...], "next": cursor} for a keyset page; the
+     * cursor is passed back as {@code after} to get the next page.
+     */
+    static <T> JsonWriter page(Page<T> page, BiConsumer<JsonWriter, T> writer) {
+        JsonWriter json = new JsonWriter().beginObject().name("items").beginArray();
+        for (T item : page.getItems()) {
+            writer.accept(json, item);
+        }
+        return json.endArray().field("next", page.getNextCursor()).endObject();
+    }
+
+    static <T> T found(T item, String what, String id) {
+        if (item == null) {
+            throw new ApiException(404, what + " not found: " + id);
+        }
+        return item;
+    }
+
+    /**
+     * Parses an enum constant by name, ignoring case and treating spaces
+     * and dashes as underscores (e.g. "out for delivery").
+     */
+    static <E extends Enum<E>> E parseEnum(Class<E> type, String value, String field) {
+        try {
+            return Enum.valueOf(type, value.trim().toUpperCase(Locale.ROOT).replace(' ', '_').replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            throw new ApiException(400, "Invalid " + field + ": " + value);
+        }
+    }
+
+    static ApiException noRoute(ApiRequest request) {
+        return new ApiException(404, "No such endpoint: " + request.getMethod() + " " + request.getPath());
+    }
+}
@@ -0,0 +1,381 @@
+package com.bharatgas.crm.batch;
+
+import com.bharatgas.crm.enums.BookingStatus;
+import com.bharatgas.crm.enums.ComplaintStatus;
+import com.bharatgas.crm.enums.ConnectionStatus;
+import com.bharatgas.crm.enums.ConnectionType;
+import com.bharatgas.crm.enums.PaymentMode;
+import com.bharatgas.crm.enums.PaymentStatus;
+import com.bharatgas.crm.model.Booking;
+import com.bharatgas.crm.model.Complaint;
+import com.bharatgas.crm.model.Customer;
+import com.bharatgas.crm.model.Cylinder;
+import com.bharatgas.crm.model.Payment;
+import com.bharatgas.crm.service.BookingService;
+import com.bharatgas.crm.service.ComplaintService;
+import com.bharatgas.crm.service.CustomerService;
+import com.bharatgas.crm.service.PaymentService;
+import com.bharatgas.crm.util.IDGenerator;
+import com.bharatgas.crm.util.InputValidator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * Applies a file of typed commands to the services without any prompts,
+ * e.g. the day's paper booking slips. One command per line, fields
+ * separated by '|'; blank lines and lines starting with '#' are skipped:
+ * <pre>
+ * register|name|phone|email|address[|DOMESTIC|COMMERCIAL]
+ * book|customer[|14.2|5|19]
+ * pay|booking[|CASH|UPI|CARD|NETBANKING[|amount in paise]]
+ * status|booking|CONFIRMED|OUT_FOR_DELIVERY|DELIVERED
+ * deliver|booking
+ * cancel|booking
+ * refund|payment
+ * complain|customer|description
+ * progress|complaint
+ * resolve|complaint
+ * </pre>
+ * A customer is given by ID or mobile number and "@" stands for the
+ * customer, booking or complaint created last in the batch. Every command
+ * prints one line: "&lt;line&gt; OK &lt;id&gt;" or "&lt;line&gt; ERR &lt;reason&gt;".
+ * <p>
+ * Commands are read and applied in chunks of {@link #CHUNK_SIZE}, in file
+ * order. Each chunk goes through the {@code chunkRunner} (e.g. as one
+ * journal group commit), and its result lines are printed once it returns.
+ * A command that throws fails on its own line; if the chunk's commit
+ * fails, its lines are printed as not saved before the error is rethrown.
+ * Demonstrates: Command pattern, Encapsulation.
+ */
+public class BatchRunner {
+
+    public static final int CHUNK_SIZE = 1000;
+    private static final String LAST = "@";
+
+    private final CustomerService customerService;
+    private final BookingService bookingService;
+    private final PaymentService paymentService;
+    private final ComplaintService complaintService;
+    private final Consumer<Runnable> chunkRunner;
+    private final IDGenerator.Allocator ids = IDGenerator.allocator();
+    private Customer lastCustomer;
+    private Booking lastBooking;
+    private Complaint lastComplaint;
+    private long succeeded;
+    private long failed;
+
+    /**
+     * @param chunkRunner runs the changes of one chunk, e.g.
+     *                    PersistenceManager::runBatch; Runnable::run if there
+     *                    is no journal
+     */
+    public BatchRunner(CustomerService customerService, BookingService bookingService,
+            PaymentService paymentService, ComplaintService complaintService,
+            Consumer<Runnable> chunkRunner) {
+        this.customerService = customerService;
+        this.bookingService = bookingService;
+        this.paymentService = paymentService;
+        this.complaintService = complaintService;
+        this.chunkRunner = chunkRunner;
+    }
+
+    /**
+     * Runs every command from the reader and writes the result lines.
+     * Returns the number of commands that failed.
+     */
+    public long run(BufferedReader in, PrintWriter out) throws IOException {
+        List<String> lines = new ArrayList<>(CHUNK_SIZE);
+        String[] results = new String[CHUNK_SIZE];
+        long lineNumber = 0;
+        boolean more = true;
+        while (more) {
+            lines.clear();
+            String line;
+            while (lines.size() < CHUNK_SIZE && (line = in.readLine()) != null) {
+                lines.add(line);
+            }
+            more = lines.size() == CHUNK_SIZE;
+            long firstLine = lineNumber + 1;
+            int[] done = {0};
+            try {
+                chunkRunner.accept(() -> {
+                    for (int i = 0; i < lines.size(); i++) {
+                        results[i] = execute(lines.get(i));
+                        done[0] = i + 1;
+                    }
+                });
+            } catch (RuntimeException e) {
+                // The chunk's commit failed: none of its changes are saved.
+                for (int i = 0; i < done[0]; i++) {
+                    if (results[i] != null && results[i].startsWith("OK ")) {
+                        results[i] = "ERR not saved: " + reason(e);
+                        succeeded--;
+                        failed++;
+                    }
+                }
+                print(out, firstLine, results, done[0]);
+                throw e;
+            }
+            print(out, firstLine, results, done[0]);
+            lineNumber += lines.size();
+        }
+        return failed;
+    }
+
+    private static void print(PrintWriter out, long firstLine, String[] results, int count) {
+        for (int i = 0; i < count; i++) {
+            if (results[i] != null) {
+                out.print(firstLine + i);
+                out.print(' ');
+                out.println(results[i]);
+            }
+        }
+        out.flush();
+    }
+
+    public long getSucceeded() {
+        return succeeded;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    /**
+     * Runs one command line and returns its result, or null for a blank
+     * line or comment.
+     */
+    String execute(String line) {
+        String trimmed = line.trim();
+        if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+            return null;
+        }
+        String[] fields = trimmed.split("\\|", -1);
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = fields[i].trim();
+        }
+        try {
+            String id = apply(fields);
+            succeeded++;
+            return "OK " + id;
+        } catch (RuntimeException e) {
+            // Any failure, e.g. a refused journal write, fails only this command.
+            failed++;
+            return "ERR " + reason(e);
+        }
+    }
+
+    private static String reason(RuntimeException e) {
+        return e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+    }
+
+    /**
+     * Applies a parsed command and returns the ID it created or changed.
+     *
+     * @throws IllegalArgumentException if the command cannot be applied
+     */
+    private String apply(String[] fields) {
+        String command = fields[0].toLowerCase(Locale.ROOT);
+        switch (command) {
+            case "register":
+                return register(fields);
+            case "book":
+                return book(fields);
+            case "pay":
+                return pay(fields);
+            case "status":
+                return updateStatus(field(fields, 1, "booking"),
+                        parse(BookingStatus.class, field(fields, 2, "status"), "status"));
+            case "deliver":
+                return updateStatus(field(fields, 1, "booking"), BookingStatus.DELIVERED);
+            case "cancel":
+                return cancel(field(fields, 1, "booking"));
+            case "refund":
+                return refund(field(fields, 1, "payment"));
+            case "complain":
+                return complain(fields);
+            case "progress":
+                return updateComplaint(field(fields, 1, "complaint"), ComplaintStatus.IN_PROGRESS);
+            case "resolve":
+                return updateComplaint(field(fields, 1, "complaint"), ComplaintStatus.RESOLVED);
+            default:
+                throw new IllegalArgumentException("Unknown command: " + fields[0]);
+        }
+    }
+
+    private String register(String[] fields) {
+        String name = field(fields, 1, "name");
+        String phone = field(fields, 2, "phone");
+        String email = field(fields, 3, "email");
+        String address = fields.length > 4 ? fields[4] : "";
+        ConnectionType type = fields.length > 5 && !fields[5].isEmpty()
+                ? parse(ConnectionType.class, fields[5], "connection type") : ConnectionType.DOMESTIC;
+        if (!InputValidator.isValidName(name)) {
+            throw new IllegalArgumentException("Invalid name: " + name);
+        }
+        if (!InputValidator.isValidPhone(phone)) {
+            throw new IllegalArgumentException("Invalid phone: " + phone);
+        }
+        if (!InputValidator.isValidEmail(email)) {
+            throw new IllegalArgumentException("Invalid email: " + email);
+        }
+        Customer customer = new Customer(ids.next(IDGenerator.Kind.CUSTOMER), name, phone, address, email, type);
+        customerService.add(customer);
+        if (customerService.getById(customer.getCustomerId()) != customer) {
+            Customer owner = customerService.getByPhone(phone);
+            throw new IllegalArgumentException("Phone " + phone + " is already registered"
+                    + (owner == null ? "" : " to " + owner.getCustomerId()));
+        }
+        lastCustomer = customer;
+        return customer.getCustomerId();
+    }
+
+    private String book(String[] fields) {
+        Customer customer = customer(field(fields, 1, "customer"));
+        if (customer.getConnectionStatus() != ConnectionStatus.ACTIVE) {
+            throw new IllegalArgumentException("Connection is not active: " + customer.getCustomerId());
+        }
+        Cylinder cylinder = fields.length > 2 && !fields[2].isEmpty()
+                ? Cylinder.ofWeight(fields[2]) : Cylinder.domestic14Kg();
+        if (cylinder == null) {
+            throw new IllegalArgumentException("Invalid cylinder: " + fields[2] + " (use 14.2, 5 or 19)");
+        }
+        Booking booking = new Booking(ids.next(IDGenerator.Kind.BOOKING), customer, cylinder);
+        bookingService.add(booking);
+        customer.addBooking(booking);
+        lastBooking = booking;
+        return booking.getBookingId();
+    }
+
+    private String pay(String[] fields) {
+        Booking booking = booking(field(fields, 1, "booking"));
+        PaymentMode mode = fields.length > 2 && !fields[2].isEmpty()
+                ? parse(PaymentMode.class, fields[2], "payment mode") : PaymentMode.CASH;
+        long amountPaise = booking.getCylinder().getPricePaise();
+        if (fields.length > 3 && !fields[3].isEmpty()) {
+            try {
+                amountPaise = Long.parseLong(fields[3]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid amount in paise: " + fields[3]);
+            }
+            if (amountPaise <= 0) {
+                throw new IllegalArgumentException("Amount must be positive: " + fields[3]);
+            }
+        }
+        Payment payment = new Payment(ids.next(IDGenerator.Kind.PAYMENT), booking, amountPaise, mode);
+        paymentService.add(payment);
+        return payment.getPaymentId();
+    }
+
+    private String updateStatus(String bookingRef, BookingStatus status) {
+        if (status == BookingStatus.PENDING || status == BookingStatus.CANCELLED) {
+            throw new IllegalArgumentException("Use cancel to cancel a booking; status takes "
+                    + "CONFIRMED, OUT_FOR_DELIVERY or DELIVERED");
+        }
+        Booking booking = openBooking(bookingRef);
+        if (!bookingService.updateDeliveryStatus(booking.getBookingId(), status)) {
+            throw new IllegalArgumentException("Booking " + booking.getBookingId() + " is already closed");
+        }
+        return booking.getBookingId();
+    }
+
+    private String cancel(String bookingRef) {
+        Booking booking = openBooking(bookingRef);
+        bookingService.delete(booking.getBookingId());
+        return booking.getBookingId();
+    }
+
+    private String refund(String paymentId) {
+        Payment payment = paymentService.getById(paymentId);
+        if (payment == null) {
+            throw new IllegalArgumentException("Payment not found: " + paymentId);
+        }
+        if (payment.getPaymentStatus() == PaymentStatus.REFUNDED) {
+            throw new IllegalArgumentException("Payment already refunded: " + paymentId);
+        }
+        paymentService.delete(paymentId);
+        return paymentId;
+    }
+
+    private String complain(String[] fields) {
+        Customer customer = customer(field(fields, 1, "customer"));
+        Complaint complaint = new Complaint(ids.next(IDGenerator.Kind.COMPLAINT), customer,
+                field(fields, 2, "description"));
+        complaintService.add(complaint);
+        lastComplaint = complaint;
+        return complaint.getComplaintId();
+    }
+
+    private String updateComplaint(String complaintRef, ComplaintStatus status) {
+        Complaint complaint = LAST.equals(complaintRef) ? lastComplaint : complaintService.getById(complaintRef);
+        if (complaint == null) {
+            throw new IllegalArgumentException("Complaint not found: " + complaintRef);
+        }
+        if (complaint.getStatus() == ComplaintStatus.RESOLVED || complaint.getStatus() == ComplaintStatus.CLOSED) {
+            throw new IllegalArgumentException("Complaint " + complaint.getComplaintId() + " is already "
+                    + complaint.getStatus().getDisplayName());
+        }
+        if (status == ComplaintStatus.RESOLVED) {
+            complaintService.resolveComplaint(complaint.getComplaintId());
+        } else {
+            complaintService.markInProgress(complaint.getComplaintId());
+        }
+        return complaint.getComplaintId();
+    }
+
+    /** A customer by ID or mobile number, or the last one registered. */
+    private Customer customer(String ref) {
+        Customer customer;
+        if (LAST.equals(ref)) {
+            customer = lastCustomer;
+        } else if (InputValidator.isValidPhone(ref)) {
+            customer = customerService.getByPhone(ref);
+        } else {
+            customer = customerService.getById(ref);
+        }
+        if (customer == null) {
+            throw new IllegalArgumentException("Customer not found: " + ref);
+        }
+        return customer;
+    }
+
+    private Booking booking(String ref) {
+        Booking booking = LAST.equals(ref) ? lastBooking : bookingService.getById(ref);
+        if (booking == null) {
+            throw new IllegalArgumentException("Booking not found: " + ref);
+        }
+        return booking;
+    }
+
+    private Booking openBooking(String ref) {
+        Booking booking = booking(ref);
+        if (bookingService.isArchived(booking.getBookingId())) {
+            throw new IllegalArgumentException("Booking " + booking.getBookingId() + " is archived");
+        }
+        if (booking.getStatus() == BookingStatus.DELIVERED || booking.getStatus() == BookingStatus.CANCELLED) {
+            throw new IllegalArgumentException("Booking " + booking.getBookingId() + " is already "
+                    + booking.getStatus().getDisplayName());
+        }
+        return booking;
+    }
+
+    private static String field(String[] fields, int index, String name) {
+        if (fields.length <= index || fields[index].isEmpty()) {
+            throw new IllegalArgumentException("Missing " + name);
+        }
+        return fields[index];
+    }
+
+    private static <E extends Enum<E>> E parse(Class<E> type, String value, String name) {
+        try {
+            return Enum.valueOf(type, value.toUpperCase(Locale.ROOT).replace(' ', '_').replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid " + name + ": " + value);
+        }
+    }
+}
@@ -0,0 +1,462 @@
+package com.bharatgas.crm.batch;
+
+import com.bharatgas.crm.enums.BookingStatus;
+import com.bharatgas.crm.enums.ConnectionStatus;
+import com.bharatgas.crm.enums.ConnectionType;
+import com.bharatgas.crm.model.Booking;
+import com.bharatgas.crm.model.Customer;
+import com.bharatgas.crm.model.Cylinder;
+import com.bharatgas.crm.service.BookingService;
+import com.bharatgas.crm.service.CustomerService;
+import com.bharatgas.crm.util.IDGenerator;
+import com.bharatgas.crm.util.InputValidator;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+/**
+ * Imports customers and historical bookings from CSV files, e.g. when
+ * migrating from another system. Columns are found by their header name
+ * (any order, case-insensitive; unknown columns are ignored):
+ * <pre>
+ * customers: legacy_id, name, phone, email, address, connection_type,
+ *            connection_status, registration_date
+ * bookings:  customer, cylinder, booking_date, expected_delivery_date,
+ *            actual_delivery_date, status
+ * </pre>
+ * Only name and phone, and customer for bookings, are required. A booking's
+ * customer may be a legacy_id imported earlier by the same importer, a
+ * customer ID or a mobile number. Dates are yyyy-MM-dd or dd-MM-yyyy,
+ * from 1950 up to a year ahead.
+ * <p>
+ * The file is read in chunks of {@link #CHUNK_SIZE} rows by a reader thread
+ * that stays at most two chunks ahead, so memory does not depend on the
+ * file size. Each chunk's rows are validated in parallel and then added in
+ * file order through the services, as one journal group commit via
+ * {@code chunkRunner}. Rejected rows are written to an error file with the
+ * original columns plus "line" and "error", so they can be fixed and
+ * imported again.
+ * Demonstrates: Producer-consumer pipeline, Strategy pattern (RowHandler).
+ */
+public class CsvImporter {
+
+    public static final int CHUNK_SIZE = 8192;
+    private static final LocalDate EARLIEST_DATE = LocalDate.of(1950, 1, 1);
+    private static final DateTimeFormatter DAY_FIRST = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+
+    private final CustomerService customerService;
+    private final BookingService bookingService;
+    private final Consumer<Runnable> chunkRunner;
+    private final Map<String, Customer> legacyIds = new ConcurrentHashMap<>();
+    private final IDGenerator.Allocator ids = IDGenerator.allocator();
+
+    /**
+     * @param chunkRunner runs the inserts of one chunk, e.g.
+     *                    PersistenceManager::runBatch; Runnable::run if there
+     *                    is no journal
+     */
+    public CsvImporter(CustomerService customerService, BookingService bookingService,
+            Consumer<Runnable> chunkRunner) {
+        this.customerService = customerService;
+        this.bookingService = bookingService;
+        this.chunkRunner = chunkRunner;
+    }
+
+    /** Counts of one import run. */
+    public static class Result {
+        private final long imported;
+        private final long rejected;
+
+        Result(long imported, long rejected) {
+            this.imported = imported;
+            this.rejected = rejected;
+        }
+
+        public long getImported() {
+            return imported;
+        }
+
+        public long getRejected() {
+            return rejected;
+        }
+    }
+
+    public Result importCustomers(Path csv, Path errorFile) throws IOException {
+        return run(csv, errorFile, new CustomerRows());
+    }
+
+    public Result importBookings(Path csv, Path errorFile) throws IOException {
+        return run(csv, errorFile, new BookingRows());
+    }
+
+    /**
+     * Validates rows (on any thread) and inserts the valid ones (in file
+     * order, on the importing thread). Both throw IllegalArgumentException
+     * with the reason a row is rejected.
+     */
+    private interface RowHandler<T> {
+        String[] requiredColumns();
+
+        T validate(Row row);
+
+        void insert(T item);
+    }
+
+    /** A CSV record with its columns looked up through the header. */
+    private static final class Row {
+        final long line;
+        final String[] values;
+        final Map<String, Integer> columns;
+
+        Row(long line, String[] values, Map<String, Integer> columns) {
+            this.line = line;
+            this.values = values;
+            this.columns = columns;
+        }
+
+        /** The trimmed value, or null if the column is missing or empty. */
+        String get(String column) {
+            Integer index = columns.get(column);
+            if (index == null || index >= values.length) {
+                return null;
+            }
+            String value = values[index].trim();
+            return value.isEmpty() ? null : value;
+        }
+
+        String require(String column) {
+            String value = get(column);
+            if (value == null) {
+                throw new IllegalArgumentException("Missing " + column);
+            }
+            return value;
+        }
+    }
+
+    private static final List<Row> END = new ArrayList<>();
+
+    private <T> Result run(Path csv, Path errorFile, RowHandler<T> handler) throws IOException {
+        long imported = 0;
+        long rejected = 0;
+        try (CsvReader reader = new CsvReader(Files.newBufferedReader(csv, StandardCharsets.UTF_8));
+                BufferedWriter errors = Files.newBufferedWriter(errorFile, StandardCharsets.UTF_8)) {
+            String[] header = reader.next();
+            if (header == null) {
+                return new Result(0, 0);
+            }
+            Map<String, Integer> columns = new HashMap<>();
+            for (int i = 0; i < header.length; i++) {
+                columns.put(header[i].trim().toLowerCase(Locale.ROOT), i);
+            }
+            for (String required : handler.requiredColumns()) {
+                if (!columns.containsKey(required)) {
+                    throw new IOException(csv + " has no '" + required + "' column");
+                }
+            }
+            writeCsvLine(errors, header, "line", "error");
+
+            BlockingQueue<List<Row>> chunks = new ArrayBlockingQueue<>(2);
+            Throwable[] readFailure = new Throwable[1];
+            Thread readerThread = new Thread(() -> readChunks(reader, columns, chunks, readFailure), "csv-reader");
+            readerThread.setDaemon(true);
+            readerThread.start();
+
+            Object[] items = new Object[CHUNK_SIZE];
+            String[] reasons = new String[CHUNK_SIZE];
+            List<Row> chunk;
+            try {
+                while ((chunk = take(chunks)) != END) {
+                    List<Row> rows = chunk;
+                    IntStream.range(0, rows.size()).parallel().forEach(i -> {
+                        try {
+                            items[i] = handler.validate(rows.get(i));
+                            reasons[i] = null;
+                        } catch (IllegalArgumentException e) {
+                            items[i] = null;
+                            reasons[i] = e.getMessage();
+                        }
+                    });
+                    chunkRunner.accept(() -> {
+                        for (int i = 0; i < rows.size(); i++) {
+                            if (reasons[i] != null) {
+                                continue;
+                            }
+                            try {
+                                @SuppressWarnings("unchecked")
+                                T item = (T) items[i];
+                                handler.insert(item);
+                            } catch (IllegalArgumentException e) {
+                                reasons[i] = e.getMessage();
+                            }
+                            items[i] = null;
+                        }
+                    });
+                    for (int i = 0; i < rows.size(); i++) {
+                        if (reasons[i] == null) {
+                            imported++;
+                        } else {
+                            rejected++;
+                            Row row = rows.get(i);
+                            writeCsvLine(errors, row.values, Long.toString(row.line), reasons[i]);
+                        }
+                    }
+                }
+            } finally {
+                stopReader(readerThread, chunks);
+            }
+            if (readFailure[0] instanceof IOException) {
+                throw (IOException) readFailure[0];
+            }
+            if (readFailure[0] != null) {
+                throw new IOException("Could not read " + csv + ": " + readFailure[0].getMessage(), readFailure[0]);
+            }
+        }
+        return new Result(imported, rejected);
+    }
+
+    private static void readChunks(CsvReader reader, Map<String, Integer> columns,
+            BlockingQueue<List<Row>> chunks, Throwable[] failure) {
+        try {
+            List<Row> chunk = new ArrayList<>(CHUNK_SIZE);
+            String[] values;
+            while ((values = reader.next()) != null) {
+                chunk.add(new Row(reader.getRecordLine(), values, columns));
+                if (chunk.size() == CHUNK_SIZE) {
+                    chunks.put(chunk);
+                    chunk = new ArrayList<>(CHUNK_SIZE);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                chunks.put(chunk);
+            }
+        } catch (IOException | RuntimeException e) {
+            failure[0] = e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            try {
+                chunks.put(END);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Waits for the reader to exit before the file is closed. If the
+     * consumer gave up early (an insert threw, or it was interrupted), the
+     * reader may be blocked putting a chunk; the interrupt and the cleared
+     * queue let it go.
+     */
+    private static void stopReader(Thread readerThread, BlockingQueue<List<Row>> chunks) {
+        readerThread.interrupt();
+        chunks.clear();
+        try {
+            readerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static List<Row> take(BlockingQueue<List<Row>> chunks) {
+        try {
+            return chunks.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return END;
+        }
+    }
+
+    /** A validated customer row, still without a CRM ID. */
+    private static final class NewCustomer {
+        final Customer customer;
+        final String legacyId;
+
+        NewCustomer(Customer customer, String legacyId) {
+            this.customer = customer;
+            this.legacyId = legacyId;
+        }
+    }
+
+    private final class CustomerRows implements RowHandler<NewCustomer> {
+        @Override
+        public String[] requiredColumns() {
+            return new String[] {"name", "phone"};
+        }
+
+        @Override
+        public NewCustomer validate(Row row) {
+            String name = row.require("name");
+            String phone = row.require("phone");
+            String email = row.get("email");
+            String address = row.get("address");
+            if (!InputValidator.isValidName(name)) {
+                throw new IllegalArgumentException("Invalid name: " + name);
+            }
+            if (!InputValidator.isValidPhone(phone)) {
+                throw new IllegalArgumentException("Invalid phone: " + phone);
+            }
+            if (email != null && !InputValidator.isValidEmail(email)) {
+                throw new IllegalArgumentException("Invalid email: " + email);
+            }
+            String type = row.get("connection_type");
+            String status = row.get("connection_status");
+            String registered = row.get("registration_date");
+            Customer customer = new Customer(null, name, phone, address == null ? "" : address,
+                    email == null ? "" : email,
+                    type == null ? ConnectionType.DOMESTIC : parse(ConnectionType.class, type, "connection_type"));
+            if (status != null) {
+                customer.setConnectionStatus(parse(ConnectionStatus.class, status, "connection_status"));
+            }
+            if (registered != null) {
+                customer.setRegistrationDate(parseDate(registered, "registration_date"));
+            }
+            return new NewCustomer(customer, row.get("legacy_id"));
+        }
+
+        @Override
+        public void insert(NewCustomer row) {
+            Customer customer = row.customer;
+            if (row.legacyId != null && legacyIds.containsKey(row.legacyId)) {
+                throw new IllegalArgumentException("Duplicate legacy_id: " + row.legacyId);
+            }
+            customer.setCustomerId(ids.next(IDGenerator.Kind.CUSTOMER));
+            customerService.add(customer);
+            if (customerService.getById(customer.getCustomerId()) != customer) {
+                Customer owner = customerService.getByPhone(customer.getPhone());
+                throw new IllegalArgumentException("Phone " + customer.getPhone() + " is already registered"
+                        + (owner == null ? "" : " to " + owner.getCustomerId()));
+            }
+            if (row.legacyId != null) {
+                legacyIds.put(row.legacyId, customer);
+            }
+        }
+    }
+
+    private final class BookingRows implements RowHandler<Booking> {
+        @Override
+        public String[] requiredColumns() {
+            return new String[] {"customer"};
+        }
+
+        @Override
+        public Booking validate(Row row) {
+            Customer customer = resolveCustomer(row.require("customer"));
+            String weight = row.get("cylinder");
+            Cylinder cylinder = weight == null ? Cylinder.domestic14Kg() : Cylinder.ofWeight(weight);
+            if (cylinder == null) {
+                throw new IllegalArgumentException("Invalid cylinder: " + weight + " (use 14.2, 5 or 19)");
+            }
+            Booking booking = new Booking(null, customer, cylinder);
+            String booked = row.get("booking_date");
+            String expected = row.get("expected_delivery_date");
+            String delivered = row.get("actual_delivery_date");
+            String status = row.get("status");
+            if (booked != null) {
+                booking.setBookingDate(parseDate(booked, "booking_date"));
+                booking.setExpectedDeliveryDate(booking.getBookingDate().plusDays(3));
+            }
+            if (expected != null) {
+                booking.setExpectedDeliveryDate(parseDate(expected, "expected_delivery_date"));
+            }
+            if (status != null) {
+                booking.setStatus(parse(BookingStatus.class, status, "status"));
+            }
+            if (delivered != null) {
+                booking.setActualDeliveryDate(parseDate(delivered, "actual_delivery_date"));
+                if (status == null) {
+                    booking.setStatus(BookingStatus.DELIVERED);
+                }
+            } else if (booking.getStatus() == BookingStatus.DELIVERED) {
+                throw new IllegalArgumentException("Delivered booking has no actual_delivery_date");
+            }
+            return booking;
+        }
+
+        @Override
+        public void insert(Booking booking) {
+            booking.setBookingId(ids.next(IDGenerator.Kind.BOOKING));
+            bookingService.add(booking);
+            booking.getCustomer().addBooking(booking);
+        }
+    }
+
+    private Customer resolveCustomer(String ref) {
+        Customer customer = legacyIds.get(ref);
+        if (customer == null) {
+            customer = InputValidator.isValidPhone(ref) ? customerService.getByPhone(ref) : customerService.getById(ref);
+        }
+        if (customer == null) {
+            throw new IllegalArgumentException("Customer not found: " + ref);
+        }
+        return customer;
+    }
+
+    private static <E extends Enum<E>> E parse(Class<E> type, String value, String column) {
+        try {
+            return Enum.valueOf(type, value.toUpperCase(Locale.ROOT).replace(' ', '_').replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid " + column + ": " + value);
+        }
+    }
+
+    /**
+     * Parses a date and rejects any before {@link #EARLIEST_DATE} or more
+     * than a year ahead: the date indexes are sized by the span of dates
+     * they hold, so one mistyped year must not reach them.
+     */
+    private static LocalDate parseDate(String value, String column) {
+        LocalDate date;
+        try {
+            date = value.length() == 10 && value.charAt(2) == '-'
+                    ? LocalDate.parse(value, DAY_FIRST) : LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid " + column + ": " + value);
+        }
+        LocalDate latest = LocalDate.now().plusYears(1);
+        if (date.isBefore(EARLIEST_DATE) || date.isAfter(latest)) {
+            throw new IllegalArgumentException(column + " out of range: " + value
+                    + " (" + EARLIEST_DATE + " to " + latest + ")");
+        }
+        return date;
+    }
+
+    private static void writeCsvLine(BufferedWriter out, String[] values, String... extra) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            writeCsvField(out, values[i]);
+        }
+        for (String value : extra) {
+            out.write(',');
+            writeCsvField(out, value);
+        }
+        out.newLine();
+    }
+
+    private static void writeCsvField(BufferedWriter out, String value) throws IOException {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            out.write(value);
+            return;
+        }
+        out.write('"');
+        out.write(value.replace("\"", "\"\""));
+        out.write('"');
+    }
+}
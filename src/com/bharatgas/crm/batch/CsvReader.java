@@ -0,0 +1,123 @@
+package com.bharatgas.crm.batch;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming CSV parser (RFC 4180): comma-separated fields, optionally in
+ * double quotes, with "" for a quote and line breaks allowed inside quotes.
+ * Reads through a fixed char buffer, so memory does not grow with the file.
+ */
+class CsvReader implements Closeable {
+
+    private final Reader in;
+    private final char[] buffer = new char[1 << 16];
+    private final StringBuilder field = new StringBuilder();
+    private final List<String> fields = new ArrayList<>();
+    private int pos;
+    private int limit;
+    private long line = 1;
+    private long recordLine;
+
+    CsvReader(Reader in) {
+        this.in = in;
+    }
+
+    /**
+     * Reads the next record, or returns null at the end of the input.
+     * Blank lines are skipped.
+     *
+     * @throws IllegalArgumentException if a quoted field is never closed
+     */
+    String[] next() throws IOException {
+        while (true) {
+            int c = read();
+            if (c < 0) {
+                return null;
+            }
+            if (c == '\n') {
+                line++;
+                continue;
+            }
+            if (c != '\r') {
+                pos--;
+                break;
+            }
+        }
+        recordLine = line;
+        fields.clear();
+        while (true) {
+            int end = readField();
+            fields.add(field.toString());
+            if (end != ',') {
+                return fields.toArray(new String[0]);
+            }
+        }
+    }
+
+    /** The line on which the last record returned by {@link #next()} starts. */
+    long getRecordLine() {
+        return recordLine;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /** Reads one field into {@link #field}; returns ',' or the end of the record (-1 or '\n'). */
+    private int readField() throws IOException {
+        field.setLength(0);
+        int c = read();
+        if (c == '"') {
+            while (true) {
+                c = read();
+                if (c < 0) {
+                    throw new IllegalArgumentException("Unclosed quote in record starting on line " + recordLine);
+                }
+                if (c == '"') {
+                    c = read();
+                    if (c != '"') {
+                        break;
+                    }
+                } else if (c == '\n') {
+                    line++;
+                }
+                field.append((char) c);
+            }
+            // text after the closing quote is kept, as lenient parsers do
+            while (c >= 0 && c != ',' && c != '\n') {
+                if (c != '\r') {
+                    field.append((char) c);
+                }
+                c = read();
+            }
+        } else {
+            while (c >= 0 && c != ',' && c != '\n') {
+                if (c != '\r') {
+                    field.append((char) c);
+                }
+                c = read();
+            }
+        }
+        if (c == '\n') {
+            line++;
+        }
+        return c;
+    }
+
+    private int read() throws IOException {
+        if (pos == limit) {
+            limit = in.read(buffer, 0, buffer.length);
+            pos = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[pos++];
+    }
+}
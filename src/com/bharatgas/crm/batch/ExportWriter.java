@@ -0,0 +1,243 @@
+package com.bharatgas.crm.batch;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.time.LocalDate;
+
+/**
+ * Writes CSV and JSON values as UTF-8 straight into one reused byte buffer,
+ * handing it to the channel whenever it fills up. Numbers, amounts and
+ * dates are written digit by digit, so a row costs no formatter, no
+ * intermediate String and no garbage of its own.
+ */
+class ExportWriter {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final byte[] HEX = "0123456789abcdef".getBytes();
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final byte[] digits = new byte[20];
+    private boolean firstField;
+
+    ExportWriter(WritableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    // ───────────────────────────── CSV ─────────────────────────────
+
+    /** Writes a CSV field, quoted only if it contains a comma, quote or line break. */
+    ExportWriter csv(String value) throws IOException {
+        if (value == null) {
+            return this;
+        }
+        if (!needsQuotes(value)) {
+            return text(value);
+        }
+        raw('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                raw('"');
+            }
+            i = put(value, i);
+        }
+        return raw('"');
+    }
+
+    ExportWriter csv(LocalDate date) throws IOException {
+        return date == null ? this : date(date);
+    }
+
+    // ───────────────────────────── JSON ────────────────────────────
+
+    ExportWriter beginObject() throws IOException {
+        firstField = true;
+        return raw('{');
+    }
+
+    ExportWriter endObject() throws IOException {
+        return raw('}');
+    }
+
+    ExportWriter field(String name, String value) throws IOException {
+        name(name);
+        return value == null ? raw("null") : jsonString(value);
+    }
+
+    ExportWriter field(String name, long value) throws IOException {
+        name(name);
+        return number(value);
+    }
+
+    ExportWriter field(String name, Enum<?> value) throws IOException {
+        return field(name, value == null ? null : value.name());
+    }
+
+    ExportWriter field(String name, LocalDate value) throws IOException {
+        name(name);
+        return value == null ? raw("null") : raw('"').date(value).raw('"');
+    }
+
+    private void name(String name) throws IOException {
+        if (!firstField) {
+            raw(',');
+        }
+        firstField = false;
+        jsonString(name).raw(':');
+    }
+
+    private ExportWriter jsonString(String value) throws IOException {
+        raw('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                raw('\\').raw(c);
+            } else if (c < 0x20) {
+                raw("\\u00").raw((char) HEX[c >> 4]).raw((char) HEX[c & 0xF]);
+            } else {
+                i = put(value, i);
+            }
+        }
+        return raw('"');
+    }
+
+    // ──────────────────────────── VALUES ───────────────────────────
+
+    /** Writes a whole number. */
+    ExportWriter number(long value) throws IOException {
+        if (value < 0) {
+            raw('-');
+            if (value == Long.MIN_VALUE) {
+                return raw("9223372036854775808");
+            }
+            value = -value;
+        }
+        int n = 0;
+        do {
+            digits[n++] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value > 0);
+        ensure(n);
+        while (n > 0) {
+            buffer.put(digits[--n]);
+        }
+        return this;
+    }
+
+    /** Writes a fixed-point number, e.g. decimal(90300, 2) → 903.00. */
+    ExportWriter decimal(long scaled, int places) throws IOException {
+        if (scaled < 0) {
+            raw('-');
+            scaled = -scaled;
+        }
+        long unit = 1;
+        for (int i = 0; i < places; i++) {
+            unit *= 10;
+        }
+        number(scaled / unit);
+        if (places > 0) {
+            raw('.');
+            long fraction = scaled % unit;
+            for (long d = unit / 10; d > 0; d /= 10) {
+                raw((char) ('0' + fraction / d % 10));
+            }
+        }
+        return this;
+    }
+
+    /** Writes an ISO date (yyyy-MM-dd). */
+    ExportWriter date(LocalDate date) throws IOException {
+        int year = date.getYear();
+        if (year < 1000 || year > 9999) {
+            return text(date.toString());
+        }
+        ensure(10);
+        buffer.put((byte) ('0' + year / 1000))
+                .put((byte) ('0' + year / 100 % 10))
+                .put((byte) ('0' + year / 10 % 10))
+                .put((byte) ('0' + year % 10))
+                .put((byte) '-');
+        twoDigits(date.getMonthValue());
+        buffer.put((byte) '-');
+        twoDigits(date.getDayOfMonth());
+        return this;
+    }
+
+    /** Writes text as UTF-8, without quoting or escaping. */
+    ExportWriter text(String value) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            i = put(value, i);
+        }
+        return this;
+    }
+
+    /** Writes an ASCII separator or keyword. */
+    ExportWriter raw(String ascii) throws IOException {
+        for (int i = 0; i < ascii.length(); i++) {
+            raw(ascii.charAt(i));
+        }
+        return this;
+    }
+
+    ExportWriter raw(char ascii) throws IOException {
+        ensure(1);
+        buffer.put((byte) ascii);
+        return this;
+    }
+
+    /** Writes out whatever is buffered. */
+    void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void twoDigits(int value) {
+        buffer.put((byte) ('0' + value / 10)).put((byte) ('0' + value % 10));
+    }
+
+    /**
+     * Encodes the character at {@code i} (with its low surrogate, if it is a
+     * high one) and returns the index of the last char consumed.
+     */
+    private int put(String value, int i) throws IOException {
+        char c = value.charAt(i);
+        ensure(4);
+        if (c < 0x80) {
+            buffer.put((byte) c);
+        } else if (c < 0x800) {
+            buffer.put((byte) (0xC0 | c >> 6)).put((byte) (0x80 | c & 0x3F));
+        } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                && Character.isLowSurrogate(value.charAt(i + 1))) {
+            int cp = Character.toCodePoint(c, value.charAt(++i));
+            buffer.put((byte) (0xF0 | cp >> 18)).put((byte) (0x80 | cp >> 12 & 0x3F))
+                    .put((byte) (0x80 | cp >> 6 & 0x3F)).put((byte) (0x80 | cp & 0x3F));
+        } else if (Character.isSurrogate(c)) {
+            buffer.put((byte) '?');
+        } else {
+            buffer.put((byte) (0xE0 | c >> 12)).put((byte) (0x80 | c >> 6 & 0x3F))
+                    .put((byte) (0x80 | c & 0x3F));
+        }
+        return i;
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    private static boolean needsQuotes(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,195 @@
+package com.bharatgas.crm.batch;
+
+import com.bharatgas.crm.model.Booking;
+import com.bharatgas.crm.model.Customer;
+import com.bharatgas.crm.model.Cylinder;
+import com.bharatgas.crm.model.Payment;
+import com.bharatgas.crm.service.BookingService;
+import com.bharatgas.crm.service.PaymentService;
+import com.bharatgas.crm.store.Page;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * Exports all live bookings or payments as CSV or JSON, e.g. for the
+ * month-end audit. Rows are read {@link #PAGE_SIZE} at a time with keyset
+ * paging and written through one reused buffer, so memory use does not
+ * depend on the number of rows. Archived bookings are not included.
+ * <p>
+ * CSV columns use the importer's names (a bookings export can be imported
+ * again); JSON is an array of objects shaped like the HTTP API's, with
+ * amounts in paise.
+ * Demonstrates: Strategy pattern (RowFormat), Iterator over pages.
+ */
+public class Exporter {
+
+    public static final int PAGE_SIZE = 4096;
+
+    /** Output format. */
+    public enum Format {
+        CSV, JSON;
+
+        /** JSON for a .json file, CSV otherwise. */
+        public static Format forFile(Path file) {
+            return file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".json") ? JSON : CSV;
+        }
+    }
+
+    private final BookingService bookingService;
+    private final PaymentService paymentService;
+
+    public Exporter(BookingService bookingService, PaymentService paymentService) {
+        this.bookingService = bookingService;
+        this.paymentService = paymentService;
+    }
+
+    /** Writes the bookings to a file, replacing it; returns the number of rows. */
+    public long exportBookings(Path file, Format format) throws IOException {
+        try (FileChannel channel = create(file)) {
+            return exportBookings(channel, format);
+        }
+    }
+
+    /** Writes the bookings to a channel, which is left open; returns the number of rows. */
+    public long exportBookings(WritableByteChannel channel, Format format) throws IOException {
+        return export(channel, format, cursor -> bookingService.getPageAfter(cursor, PAGE_SIZE), new BookingRows());
+    }
+
+    /** Writes the payments to a file, replacing it; returns the number of rows. */
+    public long exportPayments(Path file, Format format) throws IOException {
+        try (FileChannel channel = create(file)) {
+            return exportPayments(channel, format);
+        }
+    }
+
+    /** Writes the payments to a channel, which is left open; returns the number of rows. */
+    public long exportPayments(WritableByteChannel channel, Format format) throws IOException {
+        return export(channel, format, cursor -> paymentService.getPageAfter(cursor, PAGE_SIZE), new PaymentRows());
+    }
+
+    private static FileChannel create(Path file) throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+    }
+
+    private static <T> long export(WritableByteChannel channel, Format format, Function<String, Page<T>> pages,
+            RowFormat<T> rows) throws IOException {
+        ExportWriter out = new ExportWriter(channel);
+        if (format == Format.CSV) {
+            out.raw(rows.csvHeader()).raw('\n');
+        } else {
+            out.raw('[');
+        }
+        long count = 0;
+        String cursor = null;
+        do {
+            Page<T> page = pages.apply(cursor);
+            for (T item : page.getItems()) {
+                if (format == Format.CSV) {
+                    rows.writeCsv(out, item);
+                    out.raw('\n');
+                } else {
+                    out.raw(count == 0 ? "\n" : ",\n");
+                    rows.writeJson(out, item);
+                }
+                count++;
+            }
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        if (format == Format.JSON) {
+            out.raw("\n]\n");
+        }
+        out.flush();
+        return count;
+    }
+
+    /** How one entity type is laid out in each format. */
+    private interface RowFormat<T> {
+        String csvHeader();
+
+        void writeCsv(ExportWriter out, T item) throws IOException;
+
+        void writeJson(ExportWriter out, T item) throws IOException;
+    }
+
+    private static class BookingRows implements RowFormat<Booking> {
+
+        @Override
+        public String csvHeader() {
+            return "booking_id,customer,cylinder,cylinder_type,price,booking_date,"
+                    + "expected_delivery_date,actual_delivery_date,status";
+        }
+
+        @Override
+        public void writeCsv(ExportWriter out, Booking booking) throws IOException {
+            Customer customer = booking.getCustomer();
+            Cylinder cylinder = booking.getCylinder();
+            out.csv(booking.getBookingId()).raw(',')
+                    .csv(customer == null ? null : customer.getCustomerId()).raw(',');
+            if (cylinder != null) {
+                out.decimal(Math.round(cylinder.getWeight() * 10), 1).raw(',')
+                        .csv(cylinder.getCylinderType()).raw(',')
+                        .decimal(cylinder.getPricePaise(), 2).raw(',');
+            } else {
+                out.raw(",,,");
+            }
+            out.csv(booking.getBookingDate()).raw(',')
+                    .csv(booking.getExpectedDeliveryDate()).raw(',')
+                    .csv(booking.getActualDeliveryDate()).raw(',')
+                    .raw(booking.getStatus().name());
+        }
+
+        @Override
+        public void writeJson(ExportWriter out, Booking booking) throws IOException {
+            Customer customer = booking.getCustomer();
+            Cylinder cylinder = booking.getCylinder();
+            out.beginObject()
+                    .field("bookingId", booking.getBookingId())
+                    .field("customerId", customer == null ? null : customer.getCustomerId())
+                    .field("cylinderType", cylinder == null ? null : cylinder.getCylinderType())
+                    .field("pricePaise", cylinder == null ? 0 : cylinder.getPricePaise())
+                    .field("bookingDate", booking.getBookingDate())
+                    .field("expectedDeliveryDate", booking.getExpectedDeliveryDate())
+                    .field("actualDeliveryDate", booking.getActualDeliveryDate())
+                    .field("status", booking.getStatus())
+                    .endObject();
+        }
+    }
+
+    private static class PaymentRows implements RowFormat<Payment> {
+
+        @Override
+        public String csvHeader() {
+            return "payment_id,booking_id,amount,payment_mode,status,payment_date";
+        }
+
+        @Override
+        public void writeCsv(ExportWriter out, Payment payment) throws IOException {
+            Booking booking = payment.getBooking();
+            out.csv(payment.getPaymentId()).raw(',')
+                    .csv(booking == null ? null : booking.getBookingId()).raw(',')
+                    .decimal(payment.getAmountPaise(), 2).raw(',')
+                    .raw(payment.getPaymentMode().name()).raw(',')
+                    .raw(payment.getPaymentStatus().name()).raw(',')
+                    .csv(payment.getPaymentDate());
+        }
+
+        @Override
+        public void writeJson(ExportWriter out, Payment payment) throws IOException {
+            Booking booking = payment.getBooking();
+            out.beginObject()
+                    .field("paymentId", payment.getPaymentId())
+                    .field("bookingId", booking == null ? null : booking.getBookingId())
+                    .field("amountPaise", payment.getAmountPaise())
+                    .field("mode", payment.getPaymentMode())
+                    .field("status", payment.getPaymentStatus())
+                    .field("paymentDate", payment.getPaymentDate())
+                    .endObject();
+        }
+    }
+}
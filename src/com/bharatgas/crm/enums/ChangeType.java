@@ -0,0 +1,23 @@
+package com.bharatgas.crm.enums;
+
+public enum ChangeType {
+    ADDED("Added"),
+    UPDATED("Updated"),
+    DELETED("Deleted"),
+    STATUS_CHANGED("Status Changed");
+
+    private final String displayName;
+
+    ChangeType(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
@@ -0,0 +1,21 @@
+package com.bharatgas.crm.enums;
+
+public enum SlaKind {
+    BOOKING_DELIVERY("Booking Delivery"),
+    COMPLAINT_RESOLUTION("Complaint Resolution");
+
+    private final String displayName;
+
+    SlaKind(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
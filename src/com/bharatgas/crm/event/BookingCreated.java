@@ -0,0 +1,50 @@
+package com.bharatgas.crm.event;
+
+import java.time.LocalDate;
+
+/**
+ * A refill was booked.
+ */
+public final class BookingCreated extends DomainEvent {
+
+    private final String bookingId;
+    private final String customerId;
+    private final String cylinderType;
+    private final long pricePaise;
+    private final LocalDate expectedDeliveryDate;
+
+    public BookingCreated(String bookingId, String customerId, String cylinderType, long pricePaise,
+            LocalDate expectedDeliveryDate) {
+        this.bookingId = bookingId;
+        this.customerId = customerId;
+        this.cylinderType = cylinderType;
+        this.pricePaise = pricePaise;
+        this.expectedDeliveryDate = expectedDeliveryDate;
+    }
+
+    public String getBookingId() {
+        return bookingId;
+    }
+
+    public String getCustomerId() {
+        return customerId;
+    }
+
+    public String getCylinderType() {
+        return cylinderType;
+    }
+
+    public long getPricePaise() {
+        return pricePaise;
+    }
+
+    public LocalDate getExpectedDeliveryDate() {
+        return expectedDeliveryDate;
+    }
+
+    @Override
+    public String toString() {
+        return "BookingCreated " + bookingId + " for " + customerId + " (" + cylinderType
+                + ", due " + expectedDeliveryDate + ")";
+    }
+}
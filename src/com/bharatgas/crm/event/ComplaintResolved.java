@@ -0,0 +1,36 @@
+package com.bharatgas.crm.event;
+
+import java.time.LocalDate;
+
+/**
+ * A complaint was resolved.
+ */
+public final class ComplaintResolved extends DomainEvent {
+
+    private final String complaintId;
+    private final String customerId;
+    private final LocalDate filedDate;
+
+    public ComplaintResolved(String complaintId, String customerId, LocalDate filedDate) {
+        this.complaintId = complaintId;
+        this.customerId = customerId;
+        this.filedDate = filedDate;
+    }
+
+    public String getComplaintId() {
+        return complaintId;
+    }
+
+    public String getCustomerId() {
+        return customerId;
+    }
+
+    public LocalDate getFiledDate() {
+        return filedDate;
+    }
+
+    @Override
+    public String toString() {
+        return "ComplaintResolved " + complaintId + " for " + customerId + " (filed " + filedDate + ")";
+    }
+}
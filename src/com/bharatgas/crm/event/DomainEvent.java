@@ -0,0 +1,22 @@
+package com.bharatgas.crm.event;
+
+import java.time.LocalDateTime;
+
+/**
+ * Something that happened to a booking, payment or complaint. Events are
+ * immutable and carry copies of the values they describe, so subscribers
+ * can read them on their own threads while the entity changes further.
+ * Demonstrates: Abstraction, Immutability.
+ */
+public abstract class DomainEvent {
+
+    private final LocalDateTime occurredAt;
+
+    protected DomainEvent() {
+        this.occurredAt = LocalDateTime.now();
+    }
+
+    public LocalDateTime getOccurredAt() {
+        return occurredAt;
+    }
+}
@@ -0,0 +1,70 @@
+package com.bharatgas.crm.event;
+
+import com.bharatgas.crm.enums.ChangeType;
+import com.bharatgas.crm.enums.ComplaintStatus;
+import com.bharatgas.crm.model.Booking;
+import com.bharatgas.crm.model.Complaint;
+import com.bharatgas.crm.model.Customer;
+import com.bharatgas.crm.model.Cylinder;
+import com.bharatgas.crm.model.Payment;
+import com.bharatgas.crm.service.BookingService;
+import com.bharatgas.crm.service.ComplaintService;
+import com.bharatgas.crm.service.PaymentService;
+
+/**
+ * Turns the services' change callbacks into domain events on a bus:
+ * a new booking is {@link BookingCreated}, a delivery status update or a
+ * cancellation is {@link StatusChanged}, a new payment is
+ * {@link PaymentRecorded}, a refund is {@link Refunded} and a resolved
+ * complaint is {@link ComplaintResolved}. The callbacks run inside the
+ * services' writes, so they only copy the values and publish.
+ * Demonstrates: Adapter pattern, Observer pattern.
+ */
+public class DomainEventPublisher {
+
+    private final EventBus bus;
+
+    public DomainEventPublisher(EventBus bus, BookingService bookingService, PaymentService paymentService,
+            ComplaintService complaintService) {
+        this.bus = bus;
+        bookingService.addListener(this::bookingChanged);
+        paymentService.addListener(this::paymentChanged);
+        complaintService.addListener(this::complaintChanged);
+    }
+
+    private void bookingChanged(ChangeType type, Booking booking) {
+        if (type == ChangeType.ADDED) {
+            Cylinder cylinder = booking.getCylinder();
+            bus.publish(new BookingCreated(booking.getBookingId(), customerId(booking.getCustomer()),
+                    cylinder.getCylinderType(), cylinder.getPricePaise(), booking.getExpectedDeliveryDate()));
+        } else if (type == ChangeType.STATUS_CHANGED || type == ChangeType.DELETED) {
+            bus.publish(new StatusChanged(booking.getBookingId(), customerId(booking.getCustomer()),
+                    booking.getStatus()));
+        }
+    }
+
+    private void paymentChanged(ChangeType type, Payment payment) {
+        if (type != ChangeType.ADDED && type != ChangeType.DELETED) {
+            return;
+        }
+        Booking booking = payment.getBooking();
+        String bookingId = booking == null ? null : booking.getBookingId();
+        if (type == ChangeType.ADDED) {
+            bus.publish(new PaymentRecorded(payment.getPaymentId(), bookingId, payment.getAmountPaise(),
+                    payment.getPaymentMode()));
+        } else {
+            bus.publish(new Refunded(payment.getPaymentId(), bookingId, payment.getAmountPaise()));
+        }
+    }
+
+    private void complaintChanged(ChangeType type, Complaint complaint) {
+        if (type == ChangeType.STATUS_CHANGED && complaint.getStatus() == ComplaintStatus.RESOLVED) {
+            bus.publish(new ComplaintResolved(complaint.getComplaintId(), customerId(complaint.getCustomer()),
+                    complaint.getFiledDate()));
+        }
+    }
+
+    private static String customerId(Customer customer) {
+        return customer == null ? null : customer.getCustomerId();
+    }
+}
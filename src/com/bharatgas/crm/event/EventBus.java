@@ -0,0 +1,249 @@
+package com.bharatgas.crm.event;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * In-process publish/subscribe for {@link DomainEvent}s. Publishers claim
+ * the next slot of a fixed ring with one atomic increment and return; every
+ * subscriber has its own thread and cursor and takes all events that are
+ * waiting (up to {@link #MAX_BATCH}) in one call, so a slow subscriber
+ * costs the publishers nothing until it falls a whole ring behind. Then
+ * publishers wait for it, which bounds memory instead of dropping events.
+ * Publishers may hold an entity's lock, so the wait is bounded: a
+ * subscriber that does not move for {@link #MAX_WAIT_MILLIS} is
+ * unsubscribed, as is one whose thread dies, so it cannot stall writers.
+ * <p>
+ * Subscribers see the events published after they subscribed, in order.
+ * With no subscribers, events are simply overwritten.
+ * Demonstrates: Observer pattern, Producer-consumer (ring buffer).
+ */
+public class EventBus implements AutoCloseable {
+
+    public static final int DEFAULT_CAPACITY = 1 << 14;
+    public static final int MAX_BATCH = 256;
+    public static final long MAX_WAIT_MILLIS = 2000;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long FULL_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final long CLOSE_WAIT_MILLIS = 5000;
+
+    private final DomainEvent[] ring;
+    private final AtomicLongArray published;
+    private final int mask;
+    private final AtomicLong claimed = new AtomicLong(-1);
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final LongAdder stalls = new LongAdder();
+    private volatile boolean closed;
+
+    public EventBus() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity ring size, a power of two: how far the slowest
+     *                 subscriber may fall behind before publishers wait
+     */
+    public EventBus(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+        }
+        this.ring = new DomainEvent[capacity];
+        this.published = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            published.set(i, -1);
+        }
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Puts an event on the ring for all subscribers. Returns false, without
+     * publishing, once the bus is closed.
+     */
+    public boolean publish(DomainEvent event) {
+        if (closed) {
+            return false;
+        }
+        long sequence = claimed.incrementAndGet();
+        long wrapPoint = sequence - ring.length;
+        if (wrapPoint >= 0 && slowestCursor() < wrapPoint) {
+            stalls.increment();
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(MAX_WAIT_MILLIS);
+            do {
+                wakeSubscribers();
+                LockSupport.parkNanos(this, FULL_PARK_NANOS);
+                if (System.nanoTime() - deadline > 0) {
+                    dropSubscribersBehind(wrapPoint);
+                }
+            } while (slowestCursor() < wrapPoint);
+        }
+        int slot = (int) sequence & mask;
+        ring[slot] = event;
+        published.set(slot, sequence);
+        wakeSubscribers();
+        return true;
+    }
+
+    /**
+     * Starts delivering events to a subscriber on a daemon thread named
+     * "events-{name}".
+     */
+    public void subscribe(String name, EventSubscriber subscriber) {
+        if (closed) {
+            throw new IllegalStateException("Event bus is closed");
+        }
+        Subscription subscription = new Subscription(name, subscriber);
+        // Listed first so that publishers wait for it, then moved to the
+        // current sequence: no slot it has yet to read can be reused.
+        subscriptions.add(subscription);
+        subscription.cursor = claimed.get();
+        subscription.thread.start();
+    }
+
+    /**
+     * Subscribes to the events of one type only.
+     */
+    public <E extends DomainEvent> void subscribe(String name, Class<E> type, Consumer<? super E> handler) {
+        subscribe(name, events -> {
+            for (DomainEvent event : events) {
+                if (type.isInstance(event)) {
+                    handler.accept(type.cast(event));
+                }
+            }
+        });
+    }
+
+    /** Number of events published so far. */
+    public long getPublished() {
+        return claimed.get() + 1;
+    }
+
+    /** Number of publishes that had to wait for a subscriber to catch up. */
+    public long getStalls() {
+        return stalls.sum();
+    }
+
+    /**
+     * Stops taking events, lets the subscribers finish the ones already
+     * published (for up to five seconds) and stops their threads.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        long deadline = System.currentTimeMillis() + CLOSE_WAIT_MILLIS;
+        for (Subscription subscription : subscriptions) {
+            LockSupport.unpark(subscription.thread);
+            try {
+                subscription.thread.join(Math.max(1, deadline - System.currentTimeMillis()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private long slowestCursor() {
+        long slowest = Long.MAX_VALUE;
+        for (Subscription subscription : subscriptions) {
+            slowest = Math.min(slowest, subscription.cursor);
+        }
+        return slowest;
+    }
+
+    /**
+     * Unsubscribes every subscriber still behind a slot a publisher has
+     * waited too long to reuse. Its thread stops at its next batch.
+     */
+    private void dropSubscribersBehind(long wrapPoint) {
+        for (Subscription subscription : subscriptions) {
+            if (subscription.cursor < wrapPoint && subscriptions.remove(subscription)) {
+                subscription.dropped = true;
+                LockSupport.unpark(subscription.thread);
+                System.out.println("⚠️  Event subscriber '" + subscription.name + "' fell a whole ring behind for "
+                        + MAX_WAIT_MILLIS + " ms; unsubscribed");
+            }
+        }
+    }
+
+    private void wakeSubscribers() {
+        for (Subscription subscription : subscriptions) {
+            if (subscription.sleeping) {
+                subscription.sleeping = false;
+                LockSupport.unpark(subscription.thread);
+            }
+        }
+    }
+
+    private final class Subscription implements Runnable {
+        private final String name;
+        private final EventSubscriber subscriber;
+        private final Thread thread;
+        /** Last sequence handed to the subscriber. */
+        private volatile long cursor = Long.MIN_VALUE;
+        private volatile boolean sleeping;
+        private volatile boolean dropped;
+
+        Subscription(String name, EventSubscriber subscriber) {
+            this.name = name;
+            this.subscriber = subscriber;
+            this.thread = new Thread(this, "events-" + name);
+            thread.setDaemon(true);
+        }
+
+        /**
+         * Removes the subscription when the thread ends for any reason,
+         * including an Error thrown by the subscriber, so that publishers
+         * never wait for a cursor that will not move again.
+         */
+        @Override
+        public void run() {
+            try {
+                consume();
+            } finally {
+                subscriptions.remove(this);
+            }
+        }
+
+        private void consume() {
+            List<DomainEvent> batch = new ArrayList<>(MAX_BATCH);
+            long next = cursor + 1;
+            while (!dropped) {
+                while (batch.size() < MAX_BATCH && published.get((int) next & mask) == next) {
+                    batch.add(ring[(int) next & mask]);
+                    next++;
+                }
+                if (!batch.isEmpty()) {
+                    if (dropped) {
+                        return;
+                    }
+                    deliver(batch);
+                    cursor = next - 1;
+                    batch.clear();
+                    continue;
+                }
+                if (closed && next > claimed.get()) {
+                    return;
+                }
+                sleeping = true;
+                if (published.get((int) next & mask) != next) {
+                    LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                }
+                sleeping = false;
+            }
+        }
+
+        private void deliver(List<DomainEvent> batch) {
+            try {
+                subscriber.onEvents(batch);
+            } catch (RuntimeException e) {
+                System.out.println("⚠️  Event subscriber '" + name + "' failed: " + e);
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.bharatgas.crm.event;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Subscriber that appends every event to a text file, one line each,
+ * with one flush per batch.
+ */
+public class EventLog implements EventSubscriber, Closeable {
+
+    private final BufferedWriter out;
+
+    public EventLog(Path file) throws IOException {
+        this.out = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    @Override
+    public void onEvents(List<DomainEvent> events) {
+        try {
+            for (DomainEvent event : events) {
+                out.write(event.getOccurredAt().toString());
+                out.write(' ');
+                out.write(event.toString());
+                out.newLine();
+            }
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
@@ -0,0 +1,14 @@
+package com.bharatgas.crm.event;
+
+import java.util.List;
+
+/**
+ * Receives the events published on an {@link EventBus}, in publication
+ * order, as many as are waiting at a time, always on the same thread.
+ * The list is reused for the next batch; copy it to keep the events.
+ * Demonstrates: Functional interfaces, Observer pattern.
+ */
+@FunctionalInterface
+public interface EventSubscriber {
+    void onEvents(List<DomainEvent> events);
+}
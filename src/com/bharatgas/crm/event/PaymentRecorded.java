@@ -0,0 +1,44 @@
+package com.bharatgas.crm.event;
+
+import com.bharatgas.crm.enums.PaymentMode;
+import com.bharatgas.crm.util.Money;
+
+/**
+ * A payment was taken for a booking.
+ */
+public final class PaymentRecorded extends DomainEvent {
+
+    private final String paymentId;
+    private final String bookingId;
+    private final long amountPaise;
+    private final PaymentMode paymentMode;
+
+    public PaymentRecorded(String paymentId, String bookingId, long amountPaise, PaymentMode paymentMode) {
+        this.paymentId = paymentId;
+        this.bookingId = bookingId;
+        this.amountPaise = amountPaise;
+        this.paymentMode = paymentMode;
+    }
+
+    public String getPaymentId() {
+        return paymentId;
+    }
+
+    public String getBookingId() {
+        return bookingId;
+    }
+
+    public long getAmountPaise() {
+        return amountPaise;
+    }
+
+    public PaymentMode getPaymentMode() {
+        return paymentMode;
+    }
+
+    @Override
+    public String toString() {
+        return "PaymentRecorded " + paymentId + " for " + bookingId + " (" + Money.format(amountPaise)
+                + " by " + paymentMode.getDisplayName() + ")";
+    }
+}
@@ -0,0 +1,36 @@
+package com.bharatgas.crm.event;
+
+import com.bharatgas.crm.util.Money;
+
+/**
+ * A payment was refunded.
+ */
+public final class Refunded extends DomainEvent {
+
+    private final String paymentId;
+    private final String bookingId;
+    private final long amountPaise;
+
+    public Refunded(String paymentId, String bookingId, long amountPaise) {
+        this.paymentId = paymentId;
+        this.bookingId = bookingId;
+        this.amountPaise = amountPaise;
+    }
+
+    public String getPaymentId() {
+        return paymentId;
+    }
+
+    public String getBookingId() {
+        return bookingId;
+    }
+
+    public long getAmountPaise() {
+        return amountPaise;
+    }
+
+    @Override
+    public String toString() {
+        return "Refunded " + paymentId + " for " + bookingId + " (" + Money.format(amountPaise) + ")";
+    }
+}
@@ -0,0 +1,36 @@
+package com.bharatgas.crm.event;
+
+import com.bharatgas.crm.enums.BookingStatus;
+
+/**
+ * A booking moved to a new delivery status, including being cancelled.
+ */
+public final class StatusChanged extends DomainEvent {
+
+    private final String bookingId;
+    private final String customerId;
+    private final BookingStatus status;
+
+    public StatusChanged(String bookingId, String customerId, BookingStatus status) {
+        this.bookingId = bookingId;
+        this.customerId = customerId;
+        this.status = status;
+    }
+
+    public String getBookingId() {
+        return bookingId;
+    }
+
+    public String getCustomerId() {
+        return customerId;
+    }
+
+    public BookingStatus getStatus() {
+        return status;
+    }
+
+    @Override
+    public String toString() {
+        return "StatusChanged " + bookingId + " -> " + status.getDisplayName();
+    }
+}
@@ -6,104 +6,185 @@ import java.time.format.DateTimeFormatter;
 
 /**
  * Represents a cylinder refill booking by a customer.
- * Demonstrates: Encapsulation, Composition (has-a Customer and Cylinder).
+ * A new Booking holds its own values until it is stored; from then on it is
+ * a read-only view of a row in {@link BookingColumns}. Two views of the
+ * same row are equal.
+ * Demonstrates: Encapsulation, Composition (has-a Customer and Cylinder), Flyweight.
  */
 public class Booking {
-    private String bookingId;
-    private Customer customer;
-    private Cylinder cylinder;
-    private LocalDate bookingDate;
-    private LocalDate expectedDeliveryDate;
-    private LocalDate actualDeliveryDate;
-    private BookingStatus status;
+    private static final DateTimeFormatter DISPLAY_DATE = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+
+    /** Values of a booking that is not stored yet. */
+    private static final class Draft {
+        String bookingId;
+        Customer customer;
+        Cylinder cylinder;
+        LocalDate bookingDate;
+        LocalDate expectedDeliveryDate;
+        LocalDate actualDeliveryDate;
+        BookingStatus status;
+    }
+
+    private BookingColumns table;
+    private int row;
+    private Draft draft;
 
     public Booking(String bookingId, Customer customer, Cylinder cylinder) {
-        this.bookingId = bookingId;
-        this.customer = customer;
-        this.cylinder = cylinder;
-        this.bookingDate = LocalDate.now();
-        this.expectedDeliveryDate = LocalDate.now().plusDays(3);
-        this.actualDeliveryDate = null;
-        this.status = BookingStatus.PENDING;
+        this.draft = new Draft();
+        draft.bookingId = bookingId;
+        draft.customer = customer;
+        draft.cylinder = cylinder;
+        draft.bookingDate = LocalDate.now();
+        draft.expectedDeliveryDate = LocalDate.now().plusDays(3);
+        draft.actualDeliveryDate = null;
+        draft.status = BookingStatus.PENDING;
+    }
+
+    Booking(BookingColumns table, int row) {
+        this.table = table;
+        this.row = row;
+    }
+
+    /**
+     * Turns a draft booking into a view of a stored row.
+     */
+    void attach(BookingColumns table, int row) {
+        this.table = table;
+        this.row = row;
+        this.draft = null;
+    }
+
+    boolean isView() {
+        return table != null;
+    }
+
+    boolean isViewOf(BookingColumns table, int row) {
+        return this.table == table && this.row == row;
+    }
+
+    /** The columns this booking is a view of, or null for a draft. */
+    BookingColumns table() {
+        return table;
+    }
+
+    int row() {
+        return row;
     }
 
     public void displayDetails() {
-        DateTimeFormatter fmt = DateTimeFormatter.ofPattern("dd-MM-yyyy");
         System.out.println("┌──────────────────────────────────────────────────────────┐");
         System.out.println("│               BOOKING DETAILS                            │");
         System.out.println("├──────────────────────────────────────────────────────────┤");
-        System.out.printf("│  Booking ID       : %-36s│%n", bookingId);
+        Customer customer = getCustomer();
+        LocalDate actualDeliveryDate = getActualDeliveryDate();
+        System.out.printf("│  Booking ID       : %-36s│%n", getBookingId());
         System.out.printf("│  Customer         : %-36s│%n", customer.getName() + " (" + customer.getCustomerId() + ")");
-        System.out.printf("│  Cylinder         : %-36s│%n", cylinder.toString());
-        System.out.printf("│  Booking Date     : %-36s│%n", bookingDate.format(fmt));
-        System.out.printf("│  Expected Delivery: %-36s│%n", expectedDeliveryDate.format(fmt));
+        System.out.printf("│  Cylinder         : %-36s│%n", getCylinder().toString());
+        System.out.printf("│  Booking Date     : %-36s│%n", getBookingDate().format(DISPLAY_DATE));
+        System.out.printf("│  Expected Delivery: %-36s│%n", getExpectedDeliveryDate().format(DISPLAY_DATE));
         System.out.printf("│  Actual Delivery  : %-36s│%n",
-                actualDeliveryDate != null ? actualDeliveryDate.format(fmt) : "Not yet delivered");
-        System.out.printf("│  Status           : %-36s│%n", status.getDisplayName());
+                actualDeliveryDate != null ? actualDeliveryDate.format(DISPLAY_DATE) : "Not yet delivered");
+        System.out.printf("│  Status           : %-36s│%n", getStatus().getDisplayName());
         System.out.println("└──────────────────────────────────────────────────────────┘");
     }
 
     // Getters and Setters
     public String getBookingId() {
-        return bookingId;
+        return table != null ? table.getBookingId(row) : draft.bookingId;
     }
 
     public void setBookingId(String bookingId) {
-        this.bookingId = bookingId;
+        requireDraft();
+        draft.bookingId = bookingId;
     }
 
     public Customer getCustomer() {
-        return customer;
+        return table != null ? table.getCustomer(row) : draft.customer;
     }
 
     public void setCustomer(Customer customer) {
-        this.customer = customer;
+        requireDraft();
+        draft.customer = customer;
     }
 
     public Cylinder getCylinder() {
-        return cylinder;
+        return table != null ? table.getCylinder(row) : draft.cylinder;
     }
 
     public void setCylinder(Cylinder cylinder) {
-        this.cylinder = cylinder;
+        requireDraft();
+        draft.cylinder = cylinder;
     }
 
     public LocalDate getBookingDate() {
-        return bookingDate;
+        return table != null ? table.getBookingDate(row) : draft.bookingDate;
     }
 
     public void setBookingDate(LocalDate bookingDate) {
-        this.bookingDate = bookingDate;
+        requireDraft();
+        draft.bookingDate = bookingDate;
     }
 
     public LocalDate getExpectedDeliveryDate() {
-        return expectedDeliveryDate;
+        return table != null ? table.getExpectedDeliveryDate(row) : draft.expectedDeliveryDate;
     }
 
     public void setExpectedDeliveryDate(LocalDate expectedDeliveryDate) {
-        this.expectedDeliveryDate = expectedDeliveryDate;
+        requireDraft();
+        draft.expectedDeliveryDate = expectedDeliveryDate;
     }
 
     public LocalDate getActualDeliveryDate() {
-        return actualDeliveryDate;
+        return table != null ? table.getActualDeliveryDate(row) : draft.actualDeliveryDate;
     }
 
     public void setActualDeliveryDate(LocalDate actualDeliveryDate) {
-        this.actualDeliveryDate = actualDeliveryDate;
+        requireDraft();
+        draft.actualDeliveryDate = actualDeliveryDate;
     }
 
     public BookingStatus getStatus() {
-        return status;
+        return table != null ? table.getStatus(row) : draft.status;
     }
 
     public void setStatus(BookingStatus status) {
-        this.status = status;
+        requireDraft();
+        draft.status = status;
+    }
+
+    /**
+     * Setters only apply to a booking that is not stored yet. A stored
+     * booking changes only through BookingService, which keeps the
+     * customer, day, status and due-date indexes in step.
+     */
+    private void requireDraft() {
+        if (table != null) {
+            throw new IllegalStateException("Booking " + getBookingId()
+                    + " is stored; change it through BookingService");
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Booking) || table == null) {
+            return false;
+        }
+        Booking other = (Booking) o;
+        return other.table == table && other.row == row;
+    }
+
+    @Override
+    public int hashCode() {
+        return table != null ? System.identityHashCode(table) * 31 + row : System.identityHashCode(this);
     }
 
     @Override
     public String toString() {
         return String.format("[%s] %s → %s | %s | %s",
-                bookingId, customer.getName(), cylinder.getCylinderType(),
-                bookingDate, status);
+                getBookingId(), getCustomer().getName(), getCylinder().getCylinderType(),
+                getBookingDate(), getStatus());
     }
 }
@@ -0,0 +1,368 @@
+package com.bharatgas.crm.model;
+
+import com.bharatgas.crm.enums.BookingStatus;
+import com.bharatgas.crm.store.RowStorage;
+import com.bharatgas.crm.util.IDGenerator;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Compact columnar storage for bookings. Each row takes 22 bytes of
+ * primitive columns: the ID's sequence number, the customer and cylinder as
+ * references into small dictionaries, the three dates as epoch days and the
+ * status as a byte. Rows are read and written through {@link Booking}
+ * views, so the rest of the application keeps using the Booking API.
+ *
+ * Columns are allocated in chunks of 4096 rows that never move, so a view
+ * can read its row without a lock. IDs that are not in the generated
+ * BG-BK-nnn format are kept in a side map. Once every row of a chunk has
+ * been released (moved to the booking archive), the chunk keeps only its
+ * ID column and views of those rows read the rest from the archive.
+ * Demonstrates: Interface implementation (RowStorage), Flyweight views.
+ */
+public class BookingColumns implements RowStorage<Booking> {
+
+    private static final int CHUNK_SHIFT = 12;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final int IRREGULAR_ID = -1;
+    private static final int NO_DATE = Integer.MIN_VALUE;
+    private static final int NO_REF = -1;
+    private static final BookingStatus[] STATUSES = BookingStatus.values();
+
+    /** One chunk of rows, one array per column. */
+    private static final class Chunk {
+        final int[] ids;
+        final int[] customers;
+        final int[] bookingDates;
+        final int[] expectedDates;
+        final int[] actualDates;
+        final byte[] statuses;
+        final byte[] cylinders;
+        final long[] released;
+        int releasedCount;
+
+        Chunk() {
+            this.ids = new int[CHUNK_SIZE];
+            this.customers = new int[CHUNK_SIZE];
+            this.bookingDates = new int[CHUNK_SIZE];
+            this.expectedDates = new int[CHUNK_SIZE];
+            this.actualDates = new int[CHUNK_SIZE];
+            this.statuses = new byte[CHUNK_SIZE];
+            this.cylinders = new byte[CHUNK_SIZE];
+            this.released = new long[CHUNK_SIZE >> 6];
+        }
+
+        /** A chunk whose rows are all archived: only the IDs are kept. */
+        Chunk(int[] ids) {
+            this.ids = ids;
+            this.customers = null;
+            this.bookingDates = null;
+            this.expectedDates = null;
+            this.actualDates = null;
+            this.statuses = null;
+            this.cylinders = null;
+            this.released = null;
+        }
+
+        boolean archived() {
+            return customers == null;
+        }
+    }
+
+    private volatile Chunk[] chunks = new Chunk[0];
+    private final Map<Integer, String> irregularIds = new ConcurrentHashMap<>();
+
+    private volatile Customer[] customers = new Customer[16];
+    private final Map<Customer, Integer> customerRefs = new IdentityHashMap<>();
+    private volatile Cylinder[] cylinders = new Cylinder[4];
+    private final Map<String, Integer> cylinderRefs = new HashMap<>();
+    private volatile Function<String, Booking> archive;
+
+    @Override
+    public Booking get(int row) {
+        return new Booking(this, row);
+    }
+
+    /**
+     * Copies a booking into a row. A booking that is not yet stored anywhere
+     * becomes a view of the row; a view of another row is only copied.
+     */
+    @Override
+    public void set(int row, Booking item) {
+        if (item.isViewOf(this, row)) {
+            return;
+        }
+        ensureCapacity(row);
+        setBookingId(row, item.getBookingId());
+        setCustomer(row, item.getCustomer());
+        setCylinder(row, item.getCylinder());
+        setBookingDate(row, item.getBookingDate());
+        setExpectedDeliveryDate(row, item.getExpectedDeliveryDate());
+        setActualDeliveryDate(row, item.getActualDeliveryDate());
+        setStatus(row, item.getStatus());
+        if (!item.isView()) {
+            item.attach(this, row);
+        }
+    }
+
+    /**
+     * Marks a row as moved to the archive. When the last row of a chunk is
+     * released, the chunk's columns other than the IDs are dropped.
+     */
+    @Override
+    public synchronized void release(int row) {
+        Chunk chunk = chunk(row);
+        int i = row & CHUNK_MASK;
+        if (chunk.archived() || (chunk.released[i >> 6] & 1L << i) != 0) {
+            return;
+        }
+        chunk.released[i >> 6] |= 1L << i;
+        if (++chunk.releasedCount == CHUNK_SIZE) {
+            Chunk[] replaced = chunks.clone();
+            replaced[row >>> CHUNK_SHIFT] = new Chunk(chunk.ids);
+            chunks = replaced;
+        }
+    }
+
+    /**
+     * Sets where views of released rows read their bookings from once the
+     * columns of their chunk are gone: a lookup by booking ID.
+     */
+    public void setArchive(Function<String, Booking> archive) {
+        this.archive = archive;
+    }
+
+    /**
+     * Counts delivered bookings among the first {@code rows} rows that
+     * arrived on or before their expected date, scanning the date columns.
+     * Released rows are not counted.
+     */
+    public long countDeliveredOnTime(int rows) {
+        Chunk[] current = chunks;
+        byte delivered = (byte) BookingStatus.DELIVERED.ordinal();
+        long count = 0;
+        for (int c = 0; c < current.length && c << CHUNK_SHIFT < rows; c++) {
+            Chunk chunk = current[c];
+            if (chunk.archived()) {
+                continue;
+            }
+            int end = Math.min(CHUNK_SIZE, rows - (c << CHUNK_SHIFT));
+            for (int i = 0; i < end; i++) {
+                if (chunk.statuses[i] == delivered && chunk.actualDates[i] != NO_DATE
+                        && chunk.actualDates[i] <= chunk.expectedDates[i]
+                        && (chunk.released[i >> 6] & 1L << i) == 0) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    String getBookingId(int row) {
+        int number = chunk(row).ids[row & CHUNK_MASK];
+        return number == IRREGULAR_ID ? irregularIds.get(row) : IDGenerator.format(IDGenerator.Kind.BOOKING, number);
+    }
+
+    void setBookingId(int row, String bookingId) {
+        long number = IDGenerator.parse(IDGenerator.Kind.BOOKING, bookingId);
+        if (number >= 0 && number <= Integer.MAX_VALUE) {
+            writable(row).ids[row & CHUNK_MASK] = (int) number;
+            irregularIds.remove(row);
+        } else {
+            if (bookingId != null) {
+                irregularIds.put(row, bookingId);
+            } else {
+                irregularIds.remove(row);
+            }
+            writable(row).ids[row & CHUNK_MASK] = IRREGULAR_ID;
+        }
+    }
+
+    Customer getCustomer(int row) {
+        Chunk chunk = chunk(row);
+        if (chunk.archived()) {
+            return archived(row).getCustomer();
+        }
+        int ref = chunk.customers[row & CHUNK_MASK];
+        return ref == NO_REF ? null : customers[ref];
+    }
+
+    void setCustomer(int row, Customer customer) {
+        writable(row).customers[row & CHUNK_MASK] = customer == null ? NO_REF : customerRef(customer);
+    }
+
+    Cylinder getCylinder(int row) {
+        Chunk chunk = chunk(row);
+        if (chunk.archived()) {
+            return archived(row).getCylinder();
+        }
+        int ref = chunk.cylinders[row & CHUNK_MASK];
+        return ref == NO_REF ? null : cylinders[ref & 0xFF];
+    }
+
+    void setCylinder(int row, Cylinder cylinder) {
+        writable(row).cylinders[row & CHUNK_MASK] = cylinder == null ? NO_REF : (byte) cylinderRef(cylinder);
+    }
+
+    LocalDate getBookingDate(int row) {
+        Chunk chunk = chunk(row);
+        if (chunk.archived()) {
+            return archived(row).getBookingDate();
+        }
+        return toDate(chunk.bookingDates[row & CHUNK_MASK]);
+    }
+
+    void setBookingDate(int row, LocalDate date) {
+        writable(row).bookingDates[row & CHUNK_MASK] = fromDate(date);
+    }
+
+    LocalDate getExpectedDeliveryDate(int row) {
+        Chunk chunk = chunk(row);
+        if (chunk.archived()) {
+            return archived(row).getExpectedDeliveryDate();
+        }
+        return toDate(chunk.expectedDates[row & CHUNK_MASK]);
+    }
+
+    void setExpectedDeliveryDate(int row, LocalDate date) {
+        writable(row).expectedDates[row & CHUNK_MASK] = fromDate(date);
+    }
+
+    LocalDate getActualDeliveryDate(int row) {
+        Chunk chunk = chunk(row);
+        if (chunk.archived()) {
+            return archived(row).getActualDeliveryDate();
+        }
+        return toDate(chunk.actualDates[row & CHUNK_MASK]);
+    }
+
+    void setActualDeliveryDate(int row, LocalDate date) {
+        writable(row).actualDates[row & CHUNK_MASK] = fromDate(date);
+    }
+
+    BookingStatus getStatus(int row) {
+        Chunk chunk = chunk(row);
+        if (chunk.archived()) {
+            return archived(row).getStatus();
+        }
+        int ordinal = chunk.statuses[row & CHUNK_MASK];
+        return ordinal == NO_REF ? null : STATUSES[ordinal];
+    }
+
+    /**
+     * Changes the status of a booking stored here. For the owning service,
+     * which holds the booking's lock and re-indexes it afterwards.
+     */
+    public void setStatus(Booking booking, BookingStatus status) {
+        setStatus(stored(booking), status);
+    }
+
+    /**
+     * Moves a booking stored here to another customer. For the owning
+     * service, which holds the booking's lock and re-indexes it afterwards.
+     */
+    public void setCustomer(Booking booking, Customer customer) {
+        setCustomer(stored(booking), customer);
+    }
+
+    /**
+     * Records when a booking stored here was delivered. For the owning
+     * service, which holds the booking's lock and re-indexes it afterwards.
+     */
+    public void setActualDeliveryDate(Booking booking, LocalDate date) {
+        setActualDeliveryDate(stored(booking), date);
+    }
+
+    private int stored(Booking booking) {
+        if (booking.table() != this) {
+            throw new IllegalArgumentException("Booking " + booking.getBookingId() + " is not stored here");
+        }
+        return booking.row();
+    }
+
+    void setStatus(int row, BookingStatus status) {
+        writable(row).statuses[row & CHUNK_MASK] = status == null ? NO_REF : (byte) status.ordinal();
+    }
+
+    private Chunk chunk(int row) {
+        return chunks[row >>> CHUNK_SHIFT];
+    }
+
+    /** Archived bookings are read-only. */
+    private Chunk writable(int row) {
+        Chunk chunk = chunk(row);
+        if (chunk.archived()) {
+            throw new IllegalStateException("Booking " + getBookingId(row) + " is archived");
+        }
+        return chunk;
+    }
+
+    private Booking archived(int row) {
+        String bookingId = getBookingId(row);
+        Function<String, Booking> lookup = archive;
+        Booking booking = lookup == null ? null : lookup.apply(bookingId);
+        if (booking == null) {
+            throw new IllegalStateException("Archived booking not found: " + bookingId);
+        }
+        return booking;
+    }
+
+    private synchronized void ensureCapacity(int row) {
+        int needed = (row >>> CHUNK_SHIFT) + 1;
+        if (needed > chunks.length) {
+            Chunk[] grown = Arrays.copyOf(chunks, Math.max(needed, chunks.length * 2));
+            for (int i = chunks.length; i < grown.length; i++) {
+                grown[i] = new Chunk();
+            }
+            chunks = grown;
+        }
+    }
+
+    private synchronized int customerRef(Customer customer) {
+        Integer ref = customerRefs.get(customer);
+        if (ref == null) {
+            ref = customerRefs.size();
+            if (ref == customers.length) {
+                customers = Arrays.copyOf(customers, ref * 2);
+            }
+            customers[ref] = customer;
+            customerRefs.put(customer, ref);
+        }
+        return ref;
+    }
+
+    /**
+     * Cylinders are interned by type, weight and price, so bookings of the
+     * same variant share one (read-only) Cylinder instance.
+     */
+    private synchronized int cylinderRef(Cylinder cylinder) {
+        String key = cylinder.getCylinderType() + '|' + cylinder.getWeight() + '|' + cylinder.getPricePaise();
+        Integer ref = cylinderRefs.get(key);
+        if (ref == null) {
+            ref = cylinderRefs.size();
+            if (ref > 0xFE) {
+                throw new IllegalStateException("Too many cylinder variants: " + key);
+            }
+            if (ref == cylinders.length) {
+                cylinders = Arrays.copyOf(cylinders, ref * 2);
+            }
+            cylinders[ref] = cylinder;
+            cylinderRefs.put(key, ref);
+        }
+        return ref;
+    }
+
+    private static int fromDate(LocalDate date) {
+        return date == null ? NO_DATE : Math.toIntExact(date.toEpochDay());
+    }
+
+    private static LocalDate toDate(int epochDay) {
+        return epochDay == NO_DATE ? null : LocalDate.ofEpochDay(epochDay);
+    }
+}
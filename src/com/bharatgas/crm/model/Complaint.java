@@ -9,6 +9,8 @@ import java.time.format.DateTimeFormatter;
  * Demonstrates: Encapsulation, Composition (has-a Customer).
  */
 public class Complaint {
+    private static final DateTimeFormatter DISPLAY_DATE = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+
     private String complaintId;
     private Customer customer;
     private String description;
@@ -26,7 +28,6 @@ public class Complaint {
     }
 
     public void displayDetails() {
-        DateTimeFormatter fmt = DateTimeFormatter.ofPattern("dd-MM-yyyy");
         System.out.println("┌──────────────────────────────────────────────────────────┐");
         System.out.println("│               COMPLAINT DETAILS                          │");
         System.out.println("├──────────────────────────────────────────────────────────┤");
@@ -34,9 +35,9 @@ public class Complaint {
         System.out.printf("│  Customer      : %-39s│%n", customer.getName() + " (" + customer.getCustomerId() + ")");
         System.out.printf("│  Description   : %-39s│%n", description);
         System.out.printf("│  Status        : %-39s│%n", status.getDisplayName());
-        System.out.printf("│  Filed On      : %-39s│%n", filedDate.format(fmt));
+        System.out.printf("│  Filed On      : %-39s│%n", filedDate.format(DISPLAY_DATE));
         System.out.printf("│  Resolved On   : %-39s│%n",
-                resolvedDate != null ? resolvedDate.format(fmt) : "Not yet resolved");
+                resolvedDate != null ? resolvedDate.format(DISPLAY_DATE) : "Not yet resolved");
         System.out.println("└──────────────────────────────────────────────────────────┘");
     }
 
@@ -69,6 +70,10 @@ public class Complaint {
         return status;
     }
 
+    /**
+     * The store indexes complaints by status: once this complaint is stored, change it
+     * only through ComplaintService, or pass it to {@code restore} afterwards.
+     */
     public void setStatus(ComplaintStatus status) {
         this.status = status;
     }
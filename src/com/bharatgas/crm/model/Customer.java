@@ -4,8 +4,8 @@ import com.bharatgas.crm.enums.ConnectionType;
 import com.bharatgas.crm.enums.ConnectionStatus;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Represents a Bharat Gas customer with a gas connection.
@@ -14,6 +14,8 @@ import java.util.List;
  * Encapsulation (private fields with getters/setters).
  */
 public class Customer extends Person {
+    private static final DateTimeFormatter DISPLAY_DATE = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+
     private String customerId;
     private ConnectionType connectionType;
     private ConnectionStatus connectionStatus;
@@ -27,13 +29,12 @@ public class Customer extends Person {
         this.connectionType = connectionType;
         this.connectionStatus = ConnectionStatus.ACTIVE;
         this.registrationDate = LocalDate.now();
-        this.bookings = new ArrayList<>();
+        this.bookings = new CopyOnWriteArrayList<>();
     }
 
     // Polymorphism — overriding abstract method from Person
     @Override
     public void displayDetails() {
-        DateTimeFormatter fmt = DateTimeFormatter.ofPattern("dd-MM-yyyy");
         System.out.println("╔══════════════════════════════════════════════════════════╗");
         System.out.println("║               CUSTOMER DETAILS                          ║");
         System.out.println("╠══════════════════════════════════════════════════════════╣");
@@ -44,7 +45,7 @@ public class Customer extends Person {
         System.out.printf("║  Address         : %-37s║%n", getAddress());
         System.out.printf("║  Connection Type : %-37s║%n", connectionType.getDisplayName());
         System.out.printf("║  Status          : %-37s║%n", connectionStatus.getDisplayName());
-        System.out.printf("║  Registered On   : %-37s║%n", registrationDate.format(fmt));
+        System.out.printf("║  Registered On   : %-37s║%n", registrationDate.format(DISPLAY_DATE));
         System.out.printf("║  Total Bookings  : %-37d║%n", bookings.size());
         System.out.println("╚══════════════════════════════════════════════════════════╝");
     }
@@ -62,6 +63,10 @@ public class Customer extends Person {
         return connectionType;
     }
 
+    /**
+     * The store indexes customers by type: once this customer is stored, change it
+     * only through CustomerService, or pass it to {@code restore} afterwards.
+     */
     public void setConnectionType(ConnectionType connectionType) {
         this.connectionType = connectionType;
     }
@@ -70,6 +75,10 @@ public class Customer extends Person {
         return connectionStatus;
     }
 
+    /**
+     * The store indexes customers by status: once this customer is stored, change it
+     * only through CustomerService, or pass it to {@code restore} afterwards.
+     */
     public void setConnectionStatus(ConnectionStatus connectionStatus) {
         this.connectionStatus = connectionStatus;
     }
@@ -90,6 +99,10 @@ public class Customer extends Person {
         this.bookings.add(booking);
     }
 
+    public void removeBooking(Booking booking) {
+        this.bookings.remove(booking);
+    }
+
     @Override
     public String toString() {
         return String.format("[%s] %s | %s | %s | %s",
@@ -1,31 +1,54 @@
 package com.bharatgas.crm.model;
 
+import com.bharatgas.crm.util.Money;
+
 /**
  * Represents a gas cylinder (14.2 kg, 5 kg, or 19 kg variants).
+ * Prices are kept in whole paise.
  * Demonstrates: Encapsulation with private fields and public accessors.
  */
 public class Cylinder {
     private String cylinderType; // e.g., "14.2 KG", "5 KG", "19 KG"
     private double weight;
-    private double price;
+    private long pricePaise;
 
-    public Cylinder(String cylinderType, double weight, double price) {
+    public Cylinder(String cylinderType, double weight, long pricePaise) {
         this.cylinderType = cylinderType;
         this.weight = weight;
-        this.price = price;
+        this.pricePaise = pricePaise;
     }
 
     // Pre-defined cylinder types (Factory-style static methods)
     public static Cylinder domestic14Kg() {
-        return new Cylinder("14.2 KG Domestic", 14.2, 903.00);
+        return new Cylinder("14.2 KG Domestic", 14.2, 90300);
     }
 
     public static Cylinder freeTradeCommercial19Kg() {
-        return new Cylinder("19 KG Commercial", 19.0, 1850.00);
+        return new Cylinder("19 KG Commercial", 19.0, 185000);
     }
 
     public static Cylinder smallCylinder5Kg() {
-        return new Cylinder("5 KG Domestic", 5.0, 349.00);
+        return new Cylinder("5 KG Domestic", 5.0, 34900);
+    }
+
+    /**
+     * The pre-defined cylinder of the given weight in kg ("14.2", "5" or
+     * "19", optionally followed by "KG"), or null if there is none.
+     */
+    public static Cylinder ofWeight(String weight) {
+        String kg = weight.trim().toUpperCase().replace("KG", "").trim();
+        switch (kg) {
+            case "14.2":
+                return domestic14Kg();
+            case "5":
+            case "5.0":
+                return smallCylinder5Kg();
+            case "19":
+            case "19.0":
+                return freeTradeCommercial19Kg();
+            default:
+                return null;
+        }
     }
 
     // Getters and Setters
@@ -45,16 +68,16 @@ public class Cylinder {
         this.weight = weight;
     }
 
-    public double getPrice() {
-        return price;
+    public long getPricePaise() {
+        return pricePaise;
     }
 
-    public void setPrice(double price) {
-        this.price = price;
+    public void setPricePaise(long pricePaise) {
+        this.pricePaise = pricePaise;
     }
 
     @Override
     public String toString() {
-        return String.format("%s — ₹%.2f", cylinderType, price);
+        return cylinderType + " — " + Money.format(pricePaise);
     }
 }
@@ -1,6 +1,7 @@
 package com.bharatgas.crm.model;
 
 import com.bharatgas.crm.enums.UserRole;
+import com.bharatgas.crm.util.Money;
 
 /**
  * Represents an employee of the Bharat Gas Agency.
@@ -10,14 +11,14 @@ import com.bharatgas.crm.enums.UserRole;
 public class Employee extends Person {
     private String employeeId;
     private UserRole role;
-    private double salary;
+    private long salaryPaise;
 
     public Employee(String employeeId, String name, String phone, String address,
-            String email, UserRole role, double salary) {
+            String email, UserRole role, long salaryPaise) {
         super(name, phone, address, email);
         this.employeeId = employeeId;
         this.role = role;
-        this.salary = salary;
+        this.salaryPaise = salaryPaise;
     }
 
     // Polymorphism — overriding abstract method from Person
@@ -31,7 +32,7 @@ public class Employee extends Person {
         System.out.printf("║  Phone       : %-41s║%n", getPhone());
         System.out.printf("║  Email       : %-41s║%n", getEmail());
         System.out.printf("║  Role        : %-41s║%n", role.getDisplayName());
-        System.out.printf("║  Salary      : ₹%-40.2f║%n", salary);
+        System.out.printf("║  Salary      : %-41s║%n", Money.format(salaryPaise));
         System.out.println("╚══════════════════════════════════════════════════════════╝");
     }
 
@@ -52,12 +53,12 @@ public class Employee extends Person {
         this.role = role;
     }
 
-    public double getSalary() {
-        return salary;
+    public long getSalaryPaise() {
+        return salaryPaise;
     }
 
-    public void setSalary(double salary) {
-        this.salary = salary;
+    public void setSalaryPaise(long salaryPaise) {
+        this.salaryPaise = salaryPaise;
     }
 
     @Override
@@ -2,97 +2,178 @@ package com.bharatgas.crm.model;
 
 import com.bharatgas.crm.enums.PaymentMode;
 import com.bharatgas.crm.enums.PaymentStatus;
+import com.bharatgas.crm.util.Money;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 
 /**
  * Represents a payment made against a cylinder booking.
- * Demonstrates: Encapsulation, Composition (has-a Booking).
+ * A new Payment holds its own values until it is stored; from then on it is
+ * a read-only view of a record in the off-heap {@link PaymentLedger}.
+ * Amounts are in whole paise. Two views of the same record are equal.
+ * Demonstrates: Encapsulation, Composition (has-a Booking), Flyweight.
  */
 public class Payment {
-    private String paymentId;
-    private Booking booking;
-    private double amount;
-    private PaymentMode paymentMode;
-    private PaymentStatus paymentStatus;
-    private LocalDate paymentDate;
-
-    public Payment(String paymentId, Booking booking, double amount, PaymentMode paymentMode) {
-        this.paymentId = paymentId;
-        this.booking = booking;
-        this.amount = amount;
-        this.paymentMode = paymentMode;
-        this.paymentStatus = PaymentStatus.COMPLETED;
-        this.paymentDate = LocalDate.now();
+    private static final DateTimeFormatter DISPLAY_DATE = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+
+    /** Values of a payment that is not stored yet. */
+    private static final class Draft {
+        String paymentId;
+        Booking booking;
+        long amountPaise;
+        PaymentMode paymentMode;
+        PaymentStatus paymentStatus;
+        LocalDate paymentDate;
+    }
+
+    private PaymentLedger ledger;
+    private int row;
+    private Draft draft;
+
+    public Payment(String paymentId, Booking booking, long amountPaise, PaymentMode paymentMode) {
+        this.draft = new Draft();
+        draft.paymentId = paymentId;
+        draft.booking = booking;
+        draft.amountPaise = amountPaise;
+        draft.paymentMode = paymentMode;
+        draft.paymentStatus = PaymentStatus.COMPLETED;
+        draft.paymentDate = LocalDate.now();
+    }
+
+    Payment(PaymentLedger ledger, int row) {
+        this.ledger = ledger;
+        this.row = row;
+    }
+
+    /**
+     * Turns a draft payment into a view of a stored record.
+     */
+    void attach(PaymentLedger ledger, int row) {
+        this.ledger = ledger;
+        this.row = row;
+        this.draft = null;
+    }
+
+    boolean isView() {
+        return ledger != null;
+    }
+
+    boolean isViewOf(PaymentLedger ledger, int row) {
+        return this.ledger == ledger && this.row == row;
+    }
+
+    /** The ledger this payment is a view of, or null for a draft. */
+    PaymentLedger ledger() {
+        return ledger;
+    }
+
+    int row() {
+        return row;
     }
 
     public void displayDetails() {
-        DateTimeFormatter fmt = DateTimeFormatter.ofPattern("dd-MM-yyyy");
         System.out.println("┌──────────────────────────────────────────────────────────┐");
         System.out.println("│               PAYMENT DETAILS                            │");
         System.out.println("├──────────────────────────────────────────────────────────┤");
-        System.out.printf("│  Payment ID   : %-40s│%n", paymentId);
+        Booking booking = getBooking();
+        System.out.printf("│  Payment ID   : %-40s│%n", getPaymentId());
         System.out.printf("│  Booking ID   : %-40s│%n", booking.getBookingId());
         System.out.printf("│  Customer     : %-40s│%n", booking.getCustomer().getName());
-        System.out.printf("│  Amount       : ₹%-39.2f│%n", amount);
-        System.out.printf("│  Payment Mode : %-40s│%n", paymentMode.getDisplayName());
-        System.out.printf("│  Status       : %-40s│%n", paymentStatus.getDisplayName());
-        System.out.printf("│  Date         : %-40s│%n", paymentDate.format(fmt));
+        System.out.printf("│  Amount       : %-40s│%n", Money.format(getAmountPaise()));
+        System.out.printf("│  Payment Mode : %-40s│%n", getPaymentMode().getDisplayName());
+        System.out.printf("│  Status       : %-40s│%n", getPaymentStatus().getDisplayName());
+        System.out.printf("│  Date         : %-40s│%n", getPaymentDate().format(DISPLAY_DATE));
         System.out.println("└──────────────────────────────────────────────────────────┘");
     }
 
     // Getters and Setters
     public String getPaymentId() {
-        return paymentId;
+        return ledger != null ? ledger.getPaymentId(row) : draft.paymentId;
     }
 
     public void setPaymentId(String paymentId) {
-        this.paymentId = paymentId;
+        requireDraft();
+        draft.paymentId = paymentId;
     }
 
     public Booking getBooking() {
-        return booking;
+        return ledger != null ? ledger.getBooking(row) : draft.booking;
     }
 
     public void setBooking(Booking booking) {
-        this.booking = booking;
+        requireDraft();
+        draft.booking = booking;
     }
 
-    public double getAmount() {
-        return amount;
+    public long getAmountPaise() {
+        return ledger != null ? ledger.getAmountPaise(row) : draft.amountPaise;
     }
 
-    public void setAmount(double amount) {
-        this.amount = amount;
+    public void setAmountPaise(long amountPaise) {
+        requireDraft();
+        draft.amountPaise = amountPaise;
     }
 
     public PaymentMode getPaymentMode() {
-        return paymentMode;
+        return ledger != null ? ledger.getPaymentMode(row) : draft.paymentMode;
     }
 
     public void setPaymentMode(PaymentMode paymentMode) {
-        this.paymentMode = paymentMode;
+        requireDraft();
+        draft.paymentMode = paymentMode;
     }
 
     public PaymentStatus getPaymentStatus() {
-        return paymentStatus;
+        return ledger != null ? ledger.getPaymentStatus(row) : draft.paymentStatus;
     }
 
     public void setPaymentStatus(PaymentStatus paymentStatus) {
-        this.paymentStatus = paymentStatus;
+        requireDraft();
+        draft.paymentStatus = paymentStatus;
     }
 
     public LocalDate getPaymentDate() {
-        return paymentDate;
+        return ledger != null ? ledger.getPaymentDate(row) : draft.paymentDate;
     }
 
     public void setPaymentDate(LocalDate paymentDate) {
-        this.paymentDate = paymentDate;
+        requireDraft();
+        draft.paymentDate = paymentDate;
+    }
+
+    /**
+     * Setters only apply to a payment that is not stored yet. A stored
+     * payment changes only through PaymentService, which keeps its totals
+     * and indexes in step.
+     */
+    private void requireDraft() {
+        if (ledger != null) {
+            throw new IllegalStateException("Payment " + getPaymentId()
+                    + " is stored; change it through PaymentService");
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Payment) || ledger == null) {
+            return false;
+        }
+        Payment other = (Payment) o;
+        return other.ledger == ledger && other.row == row;
+    }
+
+    @Override
+    public int hashCode() {
+        return ledger != null ? System.identityHashCode(ledger) * 31 + row : System.identityHashCode(this);
     }
 
     @Override
     public String toString() {
-        return String.format("[%s] Booking: %s | ₹%.2f | %s | %s",
-                paymentId, booking.getBookingId(), amount, paymentMode, paymentStatus);
+        return String.format("[%s] Booking: %s | %s | %s | %s",
+                getPaymentId(), getBooking().getBookingId(), Money.format(getAmountPaise()),
+                getPaymentMode(), getPaymentStatus());
     }
 }
@@ -0,0 +1,246 @@
+package com.bharatgas.crm.model;
+
+import com.bharatgas.crm.enums.PaymentMode;
+import com.bharatgas.crm.enums.PaymentStatus;
+import com.bharatgas.crm.store.RowStorage;
+import com.bharatgas.crm.util.IDGenerator;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Append-only ledger of payments in off-heap memory. Each payment is a
+ * fixed-width 32-byte record in a direct ByteBuffer:
+ * <pre>
+ *  0  long  payment ID sequence number (-1: ID kept in a side map)
+ *  8  int   booking row in its BookingColumns, or archived booking number
+ * 12  byte  booking table (-1: booking kept in a side map, -2: none,
+ *                          -3: archived booking)
+ * 13  byte  payment mode ordinal
+ * 14  byte  payment status ordinal
+ * 16  long  amount in paise
+ * 24  int   payment date as epoch day
+ * </pre>
+ * The garbage collector never traces these records, so a growing payment
+ * history does not lengthen GC pauses. Payments are read and written
+ * through {@link Payment} views. Buffers hold 16384 records each and are
+ * never moved; the off-heap total is limited by -XX:MaxDirectMemorySize.
+ * Demonstrates: Interface implementation (RowStorage), Flyweight views.
+ */
+public class PaymentLedger implements RowStorage<Payment> {
+
+    private static final int RECORD_SIZE = 32;
+    private static final int CHUNK_SHIFT = 14;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private static final int ID = 0;
+    private static final int BOOKING_ROW = 8;
+    private static final int BOOKING_TABLE = 12;
+    private static final int MODE = 13;
+    private static final int STATUS = 14;
+    private static final int AMOUNT = 16;
+    private static final int DATE = 24;
+
+    private static final long IRREGULAR_ID = -1;
+    private static final byte DETACHED_BOOKING = -1;
+    private static final byte NO_BOOKING = -2;
+    private static final byte ARCHIVED_BOOKING = -3;
+    private static final byte NO_VALUE = -1;
+    private static final int NO_DATE = Integer.MIN_VALUE;
+    private static final PaymentMode[] MODES = PaymentMode.values();
+    private static final PaymentStatus[] STATUSES = PaymentStatus.values();
+
+    private volatile ByteBuffer[] chunks = new ByteBuffer[0];
+    private final Map<Integer, String> irregularIds = new ConcurrentHashMap<>();
+    private final Map<Integer, Booking> detachedBookings = new ConcurrentHashMap<>();
+    private volatile BookingColumns[] bookingTables = new BookingColumns[0];
+    private volatile Function<String, Booking> bookingArchive;
+
+    /**
+     * Sets where archived bookings are looked up. Payments for archived
+     * bookings then keep only the booking number instead of a copy.
+     */
+    public void setBookingArchive(Function<String, Booking> bookingArchive) {
+        this.bookingArchive = bookingArchive;
+    }
+
+    @Override
+    public Payment get(int row) {
+        return new Payment(this, row);
+    }
+
+    /**
+     * Copies a payment into a record. A payment that is not yet stored
+     * anywhere becomes a view of the record; a view of another record is
+     * only copied.
+     */
+    @Override
+    public void set(int row, Payment item) {
+        if (item.isViewOf(this, row)) {
+            return;
+        }
+        ensureCapacity(row);
+        setPaymentId(row, item.getPaymentId());
+        setBooking(row, item.getBooking());
+        setAmountPaise(row, item.getAmountPaise());
+        setPaymentMode(row, item.getPaymentMode());
+        setPaymentStatus(row, item.getPaymentStatus());
+        setPaymentDate(row, item.getPaymentDate());
+        if (!item.isView()) {
+            item.attach(this, row);
+        }
+    }
+
+    String getPaymentId(int row) {
+        long number = chunk(row).getLong(offset(row) + ID);
+        return number == IRREGULAR_ID ? irregularIds.get(row) : IDGenerator.format(IDGenerator.Kind.PAYMENT, number);
+    }
+
+    void setPaymentId(int row, String paymentId) {
+        long number = IDGenerator.parse(IDGenerator.Kind.PAYMENT, paymentId);
+        if (number >= 0) {
+            irregularIds.remove(row);
+        } else if (paymentId != null) {
+            irregularIds.put(row, paymentId);
+        } else {
+            irregularIds.remove(row);
+        }
+        chunk(row).putLong(offset(row) + ID, number >= 0 ? number : IRREGULAR_ID);
+    }
+
+    Booking getBooking(int row) {
+        ByteBuffer chunk = chunk(row);
+        byte table = chunk.get(offset(row) + BOOKING_TABLE);
+        if (table == NO_BOOKING) {
+            return null;
+        }
+        if (table == DETACHED_BOOKING) {
+            return detachedBookings.get(row);
+        }
+        if (table == ARCHIVED_BOOKING) {
+            Function<String, Booking> archive = bookingArchive;
+            String id = IDGenerator.format(IDGenerator.Kind.BOOKING, chunk.getInt(offset(row) + BOOKING_ROW));
+            return archive == null ? null : archive.apply(id);
+        }
+        return bookingTables[table].get(chunk.getInt(offset(row) + BOOKING_ROW));
+    }
+
+    /**
+     * Stored bookings are kept as their table and row, and archived ones as
+     * their booking number; any other booking is kept as an object in a
+     * side map.
+     */
+    void setBooking(int row, Booking booking) {
+        ByteBuffer chunk = chunk(row);
+        int offset = offset(row);
+        if (booking == null) {
+            detachedBookings.remove(row);
+            chunk.put(offset + BOOKING_TABLE, NO_BOOKING);
+        } else if (booking.table() == null && isArchived(booking)) {
+            detachedBookings.remove(row);
+            chunk.putInt(offset + BOOKING_ROW, (int) IDGenerator.parse(IDGenerator.Kind.BOOKING, booking.getBookingId()));
+            chunk.put(offset + BOOKING_TABLE, ARCHIVED_BOOKING);
+        } else if (booking.table() == null) {
+            detachedBookings.put(row, booking);
+            chunk.put(offset + BOOKING_TABLE, DETACHED_BOOKING);
+        } else {
+            detachedBookings.remove(row);
+            chunk.putInt(offset + BOOKING_ROW, booking.row());
+            chunk.put(offset + BOOKING_TABLE, tableRef(booking.table()));
+        }
+    }
+
+    private boolean isArchived(Booking booking) {
+        Function<String, Booking> archive = bookingArchive;
+        long number = IDGenerator.parse(IDGenerator.Kind.BOOKING, booking.getBookingId());
+        return archive != null && number >= 0 && number <= Integer.MAX_VALUE
+                && archive.apply(booking.getBookingId()) != null;
+    }
+
+    long getAmountPaise(int row) {
+        return chunk(row).getLong(offset(row) + AMOUNT);
+    }
+
+    void setAmountPaise(int row, long paise) {
+        chunk(row).putLong(offset(row) + AMOUNT, paise);
+    }
+
+    PaymentMode getPaymentMode(int row) {
+        byte ordinal = chunk(row).get(offset(row) + MODE);
+        return ordinal == NO_VALUE ? null : MODES[ordinal];
+    }
+
+    void setPaymentMode(int row, PaymentMode mode) {
+        chunk(row).put(offset(row) + MODE, mode == null ? NO_VALUE : (byte) mode.ordinal());
+    }
+
+    PaymentStatus getPaymentStatus(int row) {
+        byte ordinal = chunk(row).get(offset(row) + STATUS);
+        return ordinal == NO_VALUE ? null : STATUSES[ordinal];
+    }
+
+    /**
+     * Changes the status of a payment stored here. For the owning service,
+     * which holds the payment's lock and updates its totals and indexes.
+     */
+    public void setPaymentStatus(Payment payment, PaymentStatus status) {
+        if (payment.ledger() != this) {
+            throw new IllegalArgumentException("Payment " + payment.getPaymentId() + " is not stored here");
+        }
+        setPaymentStatus(payment.row(), status);
+    }
+
+    void setPaymentStatus(int row, PaymentStatus status) {
+        chunk(row).put(offset(row) + STATUS, status == null ? NO_VALUE : (byte) status.ordinal());
+    }
+
+    LocalDate getPaymentDate(int row) {
+        int epochDay = chunk(row).getInt(offset(row) + DATE);
+        return epochDay == NO_DATE ? null : LocalDate.ofEpochDay(epochDay);
+    }
+
+    void setPaymentDate(int row, LocalDate date) {
+        chunk(row).putInt(offset(row) + DATE, date == null ? NO_DATE : Math.toIntExact(date.toEpochDay()));
+    }
+
+    private ByteBuffer chunk(int row) {
+        return chunks[row >>> CHUNK_SHIFT];
+    }
+
+    private static int offset(int row) {
+        return (row & CHUNK_MASK) * RECORD_SIZE;
+    }
+
+    private synchronized void ensureCapacity(int row) {
+        int needed = (row >>> CHUNK_SHIFT) + 1;
+        if (needed > chunks.length) {
+            // Grown one buffer at a time so that no off-heap memory sits unused.
+            ByteBuffer[] grown = Arrays.copyOf(chunks, needed);
+            for (int i = chunks.length; i < grown.length; i++) {
+                grown[i] = ByteBuffer.allocateDirect(CHUNK_SIZE * RECORD_SIZE).order(ByteOrder.nativeOrder());
+            }
+            chunks = grown;
+        }
+    }
+
+    private synchronized byte tableRef(BookingColumns table) {
+        BookingColumns[] tables = bookingTables;
+        for (int i = 0; i < tables.length; i++) {
+            if (tables[i] == table) {
+                return (byte) i;
+            }
+        }
+        if (tables.length == Byte.MAX_VALUE) {
+            throw new IllegalStateException("Too many booking tables");
+        }
+        tables = Arrays.copyOf(tables, tables.length + 1);
+        tables[tables.length - 1] = table;
+        bookingTables = tables;
+        return (byte) (tables.length - 1);
+    }
+}
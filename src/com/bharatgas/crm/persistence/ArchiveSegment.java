@@ -0,0 +1,462 @@
+package com.bharatgas.crm.persistence;
+
+import com.bharatgas.crm.enums.BookingStatus;
+import com.bharatgas.crm.model.Booking;
+import com.bharatgas.crm.model.Customer;
+import com.bharatgas.crm.store.BloomFilter;
+import com.bharatgas.crm.store.IndexedStore;
+import com.bharatgas.crm.util.IDGenerator;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * One immutable file of archived bookings.
+ *
+ * File layout: [long magic][int version], then the booking records sorted
+ * by booking ID in deflate-compressed blocks of 256, then the same records
+ * sorted by customer ID, then a footer with the first key, offset and size
+ * of every block, the per-status counts and one Bloom filter each for the
+ * booking and customer IDs, then [long footer offset][int footer CRC32].
+ * Records use the {@link EntityCodec} booking encoding.
+ *
+ * Only the footer is kept in memory. A lookup checks the Bloom filter,
+ * binary-searches the block keys and inflates a single block (a few
+ * recently used blocks are cached), so a missing ID usually costs no I/O.
+ */
+class ArchiveSegment implements Closeable {
+
+    private static final long MAGIC = 0x4247415243484956L; // "BGARCHIV"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 12;
+    private static final int TRAILER_SIZE = 12;
+    private static final int BLOCK_RECORDS = 256;
+    private static final int CACHED_BLOCKS = 8;
+    private static final BookingStatus[] STATUSES = BookingStatus.values();
+
+    /** Orders generated IDs by number, then irregular IDs by text. */
+    private static final class KeyOrder implements Comparator<String> {
+        private final IDGenerator.Kind kind;
+
+        KeyOrder(IDGenerator.Kind kind) {
+            this.kind = kind;
+        }
+
+        @Override
+        public int compare(String a, String b) {
+            long x = IDGenerator.parse(kind, a);
+            long y = IDGenerator.parse(kind, b);
+            if (x >= 0 && y >= 0) {
+                return Long.compare(x, y);
+            }
+            if (x >= 0 || y >= 0) {
+                return x >= 0 ? -1 : 1;
+            }
+            return a.compareTo(b);
+        }
+    }
+
+    private static final KeyOrder BOOKING_ORDER = new KeyOrder(IDGenerator.Kind.BOOKING);
+    private static final KeyOrder CUSTOMER_ORDER = new KeyOrder(IDGenerator.Kind.CUSTOMER);
+
+    /** The footer entry of one compressed block. */
+    private static final class Block {
+        final String firstKey;
+        final long offset;
+        final int length;
+
+        Block(String firstKey, long offset, int length) {
+            this.firstKey = firstKey;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    /** A booking record with its sort keys, while a segment is written. */
+    private static final class Entry {
+        final String bookingKey;
+        final String customerKey;
+        final byte[] record;
+
+        Entry(String bookingKey, String customerKey, byte[] record) {
+            this.bookingKey = bookingKey;
+            this.customerKey = customerKey;
+            this.record = record;
+        }
+    }
+
+    private final Path file;
+    private final FileChannel channel;
+    private final Block[] byBooking;
+    private final Block[] byCustomer;
+    private final int[] statusCounts;
+    private final long deliveredOnTime;
+    private final BloomFilter bookingIds;
+    private final BloomFilter customerIds;
+    private final Map<Long, ByteBuffer> cache;
+
+    private ArchiveSegment(Path file, FileChannel channel, Block[] byBooking, Block[] byCustomer,
+            int[] statusCounts, long deliveredOnTime, BloomFilter bookingIds, BloomFilter customerIds) {
+        this.file = file;
+        this.channel = channel;
+        this.byBooking = byBooking;
+        this.byCustomer = byCustomer;
+        this.statusCounts = statusCounts;
+        this.deliveredOnTime = deliveredOnTime;
+        this.bookingIds = bookingIds;
+        this.customerIds = customerIds;
+        this.cache = new LinkedHashMap<Long, ByteBuffer>(CACHED_BLOCKS * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, ByteBuffer> eldest) {
+                return size() > CACHED_BLOCKS;
+            }
+        };
+    }
+
+    // ─────────────────────────── WRITING ────────────────────────────
+
+    /**
+     * Writes bookings to a new segment file through a temporary file that
+     * is fsynced and atomically renamed into place, then opens it.
+     */
+    static ArchiveSegment write(Path target, List<Booking> bookings) throws IOException {
+        List<Entry> entries = new ArrayList<>(bookings.size());
+        int[] statusCounts = new int[STATUSES.length];
+        long onTime = 0;
+        BinaryWriter encoder = new BinaryWriter(256);
+        BloomFilter bookingIds = new BloomFilter(bookings.size());
+        BloomFilter customerIds = new BloomFilter(bookings.size());
+        for (Booking booking : bookings) {
+            encoder.reset();
+            EntityCodec.writeBooking(encoder, booking);
+            String bookingKey = IndexedStore.normalize(booking.getBookingId());
+            Customer customer = booking.getCustomer();
+            String customerKey = customer == null ? EntityCodec.NO_CUSTOMER
+                    : IndexedStore.normalize(customer.getCustomerId());
+            entries.add(new Entry(bookingKey, customerKey, Arrays.copyOf(encoder.array(), encoder.size())));
+            bookingIds.add(bookingKey);
+            customerIds.add(customerKey);
+            statusCounts[booking.getStatus().ordinal()]++;
+            if (isDeliveredOnTime(booking)) {
+                onTime++;
+            }
+        }
+
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putLong(MAGIC).putInt(VERSION).flip();
+            writeFully(out, header);
+
+            entries.sort((a, b) -> BOOKING_ORDER.compare(a.bookingKey, b.bookingKey));
+            List<Block> bookingBlocks = writeBlocks(out, entries, e -> e.bookingKey);
+            entries.sort((a, b) -> {
+                int order = CUSTOMER_ORDER.compare(a.customerKey, b.customerKey);
+                return order != 0 ? order : BOOKING_ORDER.compare(a.bookingKey, b.bookingKey);
+            });
+            List<Block> customerBlocks = writeBlocks(out, entries, e -> e.customerKey);
+
+            BinaryWriter footer = new BinaryWriter(1 << 16);
+            writeBlockIndex(footer, bookingBlocks);
+            writeBlockIndex(footer, customerBlocks);
+            for (int count : statusCounts) {
+                footer.writeInt(count);
+            }
+            footer.writeLong(onTime);
+            ByteBuffer blooms = ByteBuffer.allocate(bookingIds.serializedSize() + customerIds.serializedSize());
+            bookingIds.writeTo(blooms);
+            customerIds.writeTo(blooms);
+            footer.writeBytes(blooms.array(), 0, blooms.capacity());
+
+            long footerOffset = out.position();
+            CRC32 crc = new CRC32();
+            crc.update(footer.array(), 0, footer.size());
+            footer.writeLong(footerOffset);
+            footer.writeInt((int) crc.getValue());
+            writeFully(out, footer.toByteBuffer());
+            out.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return open(target);
+    }
+
+    private static List<Block> writeBlocks(FileChannel out, List<Entry> entries,
+            Function<Entry, String> key) throws IOException {
+        List<Block> blocks = new ArrayList<>();
+        BinaryWriter raw = new BinaryWriter(1 << 16);
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        byte[] compressed = new byte[1 << 16];
+        try {
+            for (int start = 0; start < entries.size(); start += BLOCK_RECORDS) {
+                int end = Math.min(start + BLOCK_RECORDS, entries.size());
+                raw.reset();
+                raw.writeInt(end - start);
+                for (int i = start; i < end; i++) {
+                    byte[] record = entries.get(i).record;
+                    raw.writeInt(record.length);
+                    raw.writeBytes(record, 0, record.length);
+                }
+                deflater.reset();
+                deflater.setInput(raw.array(), 0, raw.size());
+                deflater.finish();
+                int length = 0;
+                while (!deflater.finished()) {
+                    if (length == compressed.length) {
+                        compressed = Arrays.copyOf(compressed, length * 2);
+                    }
+                    length += deflater.deflate(compressed, length, compressed.length - length);
+                }
+                blocks.add(new Block(key.apply(entries.get(start)), out.position(), length));
+                writeFully(out, ByteBuffer.wrap(compressed, 0, length));
+            }
+        } finally {
+            deflater.end();
+        }
+        return blocks;
+    }
+
+    private static void writeBlockIndex(BinaryWriter footer, List<Block> blocks) {
+        footer.writeInt(blocks.size());
+        for (Block block : blocks) {
+            footer.writeString(block.firstKey);
+            footer.writeLong(block.offset);
+            footer.writeInt(block.length);
+        }
+    }
+
+    private static void writeFully(FileChannel out, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+
+    // ─────────────────────────── READING ────────────────────────────
+
+    /**
+     * Opens a segment and reads its footer. Throws an IOException if the
+     * file is not a complete segment.
+     */
+    static ArchiveSegment open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            readFully(channel, header, 0);
+            ByteBuffer trailer = ByteBuffer.allocate(TRAILER_SIZE);
+            if (size < HEADER_SIZE + TRAILER_SIZE || header.getLong() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException("Not an archive segment: " + file);
+            }
+            readFully(channel, trailer, size - TRAILER_SIZE);
+            long footerOffset = trailer.getLong();
+            int expectedCrc = trailer.getInt();
+            if (footerOffset < HEADER_SIZE || footerOffset > size - TRAILER_SIZE) {
+                throw new IOException("Corrupt archive segment: " + file);
+            }
+            ByteBuffer footer = ByteBuffer.allocate((int) (size - TRAILER_SIZE - footerOffset));
+            readFully(channel, footer, footerOffset);
+            CRC32 crc = new CRC32();
+            crc.update(footer.array(), 0, footer.capacity());
+            if ((int) crc.getValue() != expectedCrc) {
+                throw new IOException("Corrupt archive segment: " + file);
+            }
+            Block[] byBooking = readBlockIndex(footer);
+            Block[] byCustomer = readBlockIndex(footer);
+            int[] statusCounts = new int[STATUSES.length];
+            for (int i = 0; i < statusCounts.length; i++) {
+                statusCounts[i] = footer.getInt();
+            }
+            long onTime = footer.getLong();
+            BloomFilter bookingIds = BloomFilter.readFrom(footer);
+            BloomFilter customerIds = BloomFilter.readFrom(footer);
+            return new ArchiveSegment(file, channel, byBooking, byCustomer, statusCounts, onTime,
+                    bookingIds, customerIds);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e instanceof IOException ? (IOException) e : new IOException("Corrupt archive segment: " + file, e);
+        }
+    }
+
+    private static Block[] readBlockIndex(ByteBuffer footer) {
+        Block[] blocks = new Block[footer.getInt()];
+        for (int i = 0; i < blocks.length; i++) {
+            blocks[i] = new Block(BinaryWriter.readString(footer), footer.getLong(), footer.getInt());
+        }
+        return blocks;
+    }
+
+    /**
+     * Returns the booking with the given normalized ID, or null.
+     */
+    Booking get(String bookingKey, Function<String, Customer> customers) throws IOException {
+        if (!bookingIds.mightContain(bookingKey)) {
+            return null;
+        }
+        int index = lastBlockAtOrBefore(byBooking, bookingKey, BOOKING_ORDER, false);
+        if (index < 0) {
+            return null;
+        }
+        ByteBuffer block = read(byBooking[index]);
+        int records = block.getInt();
+        for (int i = 0; i < records; i++) {
+            int length = block.getInt();
+            int next = block.position() + length;
+            ByteBuffer record = block.duplicate();
+            record.limit(next);
+            if (bookingKey.equals(IndexedStore.normalize(BinaryWriter.readString(record)))) {
+                record.position(block.position());
+                return EntityCodec.readBooking(record, customers);
+            }
+            block.position(next);
+        }
+        return null;
+    }
+
+    /**
+     * Returns the bookings of the customer with the given normalized ID,
+     * ordered by booking ID.
+     */
+    List<Booking> getByCustomerId(String customerKey, Function<String, Customer> customers) throws IOException {
+        List<Booking> result = new ArrayList<>();
+        if (!customerIds.mightContain(customerKey)) {
+            return result;
+        }
+        // The customer's records may begin in the last block starting before it.
+        int index = Math.max(lastBlockAtOrBefore(byCustomer, customerKey, CUSTOMER_ORDER, true), 0);
+        for (; index < byCustomer.length
+                && CUSTOMER_ORDER.compare(byCustomer[index].firstKey, customerKey) <= 0; index++) {
+            ByteBuffer block = read(byCustomer[index]);
+            int records = block.getInt();
+            for (int i = 0; i < records; i++) {
+                int length = block.getInt();
+                int next = block.position() + length;
+                ByteBuffer record = block.duplicate();
+                record.limit(next);
+                BinaryWriter.readString(record);
+                if (customerKey.equals(IndexedStore.normalize(BinaryWriter.readString(record)))) {
+                    record.position(block.position());
+                    Booking booking = EntityCodec.readBooking(record, customers);
+                    if (booking != null) {
+                        result.add(booking);
+                    }
+                }
+                block.position(next);
+            }
+        }
+        return result;
+    }
+
+    int count() {
+        int total = 0;
+        for (int count : statusCounts) {
+            total += count;
+        }
+        return total;
+    }
+
+    int count(BookingStatus status) {
+        return statusCounts[status.ordinal()];
+    }
+
+    long countDeliveredOnTime() {
+        return deliveredOnTime;
+    }
+
+    Path file() {
+        return file;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * The last block whose first key is before the key (or equal to it,
+     * unless {@code strictlyBefore}), or -1.
+     */
+    private static int lastBlockAtOrBefore(Block[] blocks, String key, KeyOrder order, boolean strictlyBefore) {
+        int low = 0;
+        int high = blocks.length - 1;
+        int found = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = order.compare(blocks[mid].firstKey, key);
+            if (cmp < 0 || (cmp == 0 && !strictlyBefore)) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return found;
+    }
+
+    /** Reads and inflates a block, or returns it from the cache. */
+    private ByteBuffer read(Block block) throws IOException {
+        synchronized (cache) {
+            ByteBuffer cached = cache.get(block.offset);
+            if (cached != null) {
+                return cached.duplicate();
+            }
+        }
+        ByteBuffer compressed = ByteBuffer.allocate(block.length);
+        readFully(channel, compressed, block.offset);
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed.array(), 0, block.length);
+            byte[] raw = new byte[block.length * 4];
+            int length = 0;
+            while (!inflater.finished()) {
+                if (length == raw.length) {
+                    raw = Arrays.copyOf(raw, length * 2);
+                }
+                int inflated = inflater.inflate(raw, length, raw.length - length);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("Truncated block in " + file);
+                }
+                length += inflated;
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(raw, 0, length).slice();
+            synchronized (cache) {
+                cache.put(block.offset, buffer);
+            }
+            return buffer.duplicate();
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt block in " + file, e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of file");
+            }
+        }
+        buffer.flip();
+    }
+
+    private static boolean isDeliveredOnTime(Booking booking) {
+        return booking.getStatus() == BookingStatus.DELIVERED && booking.getActualDeliveryDate() != null
+                && booking.getExpectedDeliveryDate() != null
+                && !booking.getActualDeliveryDate().isAfter(booking.getExpectedDeliveryDate());
+    }
+}
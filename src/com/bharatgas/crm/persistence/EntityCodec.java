@@ -0,0 +1,254 @@
+package com.bharatgas.crm.persistence;
+
+import com.bharatgas.crm.enums.BookingStatus;
+import com.bharatgas.crm.enums.ComplaintStatus;
+import com.bharatgas.crm.enums.ConnectionStatus;
+import com.bharatgas.crm.enums.ConnectionType;
+import com.bharatgas.crm.enums.PaymentMode;
+import com.bharatgas.crm.enums.PaymentStatus;
+import com.bharatgas.crm.model.Booking;
+import com.bharatgas.crm.model.Complaint;
+import com.bharatgas.crm.model.Customer;
+import com.bharatgas.crm.model.Cylinder;
+import com.bharatgas.crm.model.Payment;
+import com.bharatgas.crm.service.BookingService;
+import com.bharatgas.crm.service.ComplaintService;
+import com.bharatgas.crm.service.CustomerService;
+import com.bharatgas.crm.service.PaymentService;
+import com.bharatgas.crm.util.Money;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.util.function.Function;
+
+/**
+ * Binary encoding of the model classes shared by the journal and snapshots.
+ * Every record carries the full state of one entity, so applying a record is
+ * an idempotent upsert into the services. Referenced customers and bookings
+ * are resolved by ID and existing instances are updated in place, which keeps
+ * Customer.bookings and Payment.booking pointing at the live objects.
+ */
+public class EntityCodec {
+
+    public static final byte CUSTOMER = 1;
+    public static final byte BOOKING = 2;
+    public static final byte PAYMENT = 3;
+    public static final byte COMPLAINT = 4;
+    /** Customer ID written for a booking without a customer. */
+    public static final String NO_CUSTOMER = "";
+
+    private static final long NO_DATE = Long.MIN_VALUE;
+
+    private final CustomerService customerService;
+    private final BookingService bookingService;
+    private final PaymentService paymentService;
+    private final ComplaintService complaintService;
+
+    public EntityCodec(CustomerService customerService, BookingService bookingService,
+            PaymentService paymentService, ComplaintService complaintService) {
+        this.customerService = customerService;
+        this.bookingService = bookingService;
+        this.paymentService = paymentService;
+        this.complaintService = complaintService;
+    }
+
+    // ─────────────────────────── ENCODING ───────────────────────────
+
+    public static void writeCustomer(BinaryWriter out, Customer customer) {
+        out.writeString(customer.getCustomerId());
+        out.writeString(customer.getName());
+        out.writeString(customer.getPhone());
+        out.writeString(customer.getAddress());
+        out.writeString(customer.getEmail());
+        out.writeByte(customer.getConnectionType().ordinal());
+        out.writeByte(customer.getConnectionStatus().ordinal());
+        writeDate(out, customer.getRegistrationDate());
+    }
+
+    public static void writeBooking(BinaryWriter out, Booking booking) {
+        Cylinder cylinder = booking.getCylinder();
+        Customer customer = booking.getCustomer();
+        out.writeString(booking.getBookingId());
+        out.writeString(customer == null ? NO_CUSTOMER : customer.getCustomerId());
+        out.writeString(cylinder.getCylinderType());
+        out.writeDouble(cylinder.getWeight());
+        out.writeDouble(Money.toRupees(cylinder.getPricePaise()));
+        writeDate(out, booking.getBookingDate());
+        writeDate(out, booking.getExpectedDeliveryDate());
+        writeDate(out, booking.getActualDeliveryDate());
+        out.writeByte(booking.getStatus().ordinal());
+    }
+
+    public static void writePayment(BinaryWriter out, Payment payment) {
+        out.writeString(payment.getPaymentId());
+        out.writeString(payment.getBooking().getBookingId());
+        out.writeDouble(Money.toRupees(payment.getAmountPaise()));
+        out.writeByte(payment.getPaymentMode().ordinal());
+        out.writeByte(payment.getPaymentStatus().ordinal());
+        writeDate(out, payment.getPaymentDate());
+    }
+
+    public static void writeComplaint(BinaryWriter out, Complaint complaint) {
+        out.writeString(complaint.getComplaintId());
+        out.writeString(complaint.getCustomer().getCustomerId());
+        out.writeString(complaint.getDescription());
+        out.writeByte(complaint.getStatus().ordinal());
+        writeDate(out, complaint.getFiledDate());
+        writeDate(out, complaint.getResolvedDate());
+    }
+
+    // ─────────────────────────── DECODING ───────────────────────────
+
+    /**
+     * Decodes one entity record and upserts it into the owning service.
+     * Returns the ID of the applied entity, or null if a reference could
+     * not be resolved and the record was skipped.
+     */
+    public String apply(byte entityType, ByteBuffer in) {
+        switch (entityType) {
+            case CUSTOMER:
+                return applyCustomer(in);
+            case BOOKING:
+                return applyBooking(in);
+            case PAYMENT:
+                return applyPayment(in);
+            case COMPLAINT:
+                return applyComplaint(in);
+            default:
+                throw new IllegalArgumentException("Unknown entity type: " + entityType);
+        }
+    }
+
+    private String applyCustomer(ByteBuffer in) {
+        String id = BinaryWriter.readString(in);
+        String name = BinaryWriter.readString(in);
+        String phone = BinaryWriter.readString(in);
+        String address = BinaryWriter.readString(in);
+        String email = BinaryWriter.readString(in);
+        ConnectionType type = ConnectionType.values()[in.get()];
+        ConnectionStatus status = ConnectionStatus.values()[in.get()];
+        LocalDate registered = readDate(in);
+
+        Customer customer = customerService.getById(id);
+        if (customer == null) {
+            customer = new Customer(id, name, phone, address, email, type);
+        } else {
+            customer.setName(name);
+            customer.setPhone(phone);
+            customer.setAddress(address);
+            customer.setEmail(email);
+            customer.setConnectionType(type);
+        }
+        customer.setConnectionStatus(status);
+        customer.setRegistrationDate(registered);
+        customerService.restore(customer);
+        return id;
+    }
+
+    /**
+     * Decodes a booking record into a new, unstored Booking. Returns null
+     * if its customer cannot be resolved; a booking written without a
+     * customer is decoded without one.
+     */
+    public static Booking readBooking(ByteBuffer in, Function<String, Customer> customers) {
+        String id = BinaryWriter.readString(in);
+        String customerId = BinaryWriter.readString(in);
+        Cylinder cylinder = new Cylinder(BinaryWriter.readString(in), in.getDouble(), Money.toPaise(in.getDouble()));
+        LocalDate bookingDate = readDate(in);
+        LocalDate expected = readDate(in);
+        LocalDate actual = readDate(in);
+        BookingStatus status = BookingStatus.values()[in.get()];
+
+        Customer customer = null;
+        if (!NO_CUSTOMER.equals(customerId)) {
+            customer = customers.apply(customerId);
+            if (customer == null) {
+                return null;
+            }
+        }
+        Booking booking = new Booking(id, customer, cylinder);
+        booking.setBookingDate(bookingDate);
+        booking.setExpectedDeliveryDate(expected);
+        booking.setActualDeliveryDate(actual);
+        booking.setStatus(status);
+        return booking;
+    }
+
+    /**
+     * Archived bookings are final, so records of them (e.g. in a journal
+     * written before they were archived) are skipped.
+     */
+    private String applyBooking(ByteBuffer in) {
+        Booking decoded = readBooking(in, customerService::getById);
+        if (decoded == null) {
+            return null;
+        }
+        String id = decoded.getBookingId();
+        if (bookingService.isArchived(id)) {
+            return id;
+        }
+        // The decoded draft overwrites the stored row and becomes its view.
+        Customer customer = decoded.getCustomer();
+        Booking stored = bookingService.getById(id);
+        Customer previous = stored == null ? null : stored.getCustomer();
+        if (stored == null || previous != customer) {
+            if (previous != null) {
+                previous.removeBooking(stored);
+            }
+            if (customer != null) {
+                customer.addBooking(decoded);
+            }
+        }
+        bookingService.restore(decoded);
+        return id;
+    }
+
+    private String applyPayment(ByteBuffer in) {
+        String id = BinaryWriter.readString(in);
+        String bookingId = BinaryWriter.readString(in);
+        long amountPaise = Money.toPaise(in.getDouble());
+        PaymentMode mode = PaymentMode.values()[in.get()];
+        PaymentStatus status = PaymentStatus.values()[in.get()];
+        LocalDate paidOn = readDate(in);
+
+        Booking booking = bookingService.getById(bookingId);
+        if (booking == null) {
+            return null;
+        }
+        Payment payment = new Payment(id, booking, amountPaise, mode);
+        payment.setPaymentStatus(status);
+        payment.setPaymentDate(paidOn);
+        paymentService.restore(payment);
+        return id;
+    }
+
+    private String applyComplaint(ByteBuffer in) {
+        String id = BinaryWriter.readString(in);
+        String customerId = BinaryWriter.readString(in);
+        String description = BinaryWriter.readString(in);
+        ComplaintStatus status = ComplaintStatus.values()[in.get()];
+        LocalDate filed = readDate(in);
+        LocalDate resolved = readDate(in);
+
+        Customer customer = customerService.getById(customerId);
+        if (customer == null) {
+            return null;
+        }
+        Complaint complaint = new Complaint(id, customer, description);
+        complaint.setStatus(status);
+        complaint.setFiledDate(filed);
+        complaint.setResolvedDate(resolved);
+        complaintService.restore(complaint);
+        return id;
+    }
+
+    // ─────────────────────────── HELPERS ────────────────────────────
+
+    private static void writeDate(BinaryWriter out, LocalDate date) {
+        out.writeLong(date == null ? NO_DATE : date.toEpochDay());
+    }
+
+    private static LocalDate readDate(ByteBuffer in) {
+        long epochDay = in.getLong();
+        return epochDay == NO_DATE ? null : LocalDate.ofEpochDay(epochDay);
+    }
+}
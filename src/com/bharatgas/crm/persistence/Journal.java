@@ -0,0 +1,397 @@
+package com.bharatgas.crm.persistence;
+
+import com.bharatgas.crm.enums.ChangeType;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only write-ahead journal with group commit.
+ *
+ * The journal is a directory of numbered segment files (journal-000001.log,
+ * ...). {@link #roll()} starts a new segment so that older segments can be
+ * deleted once a snapshot covers them.
+ *
+ * Record layout: [int payload length][int CRC32][byte change type][byte entity][payload].
+ * Writers encode their record into a shared pending buffer and then wait until
+ * it is durable. A single flusher thread writes everything that accumulated
+ * while the previous fsync was running and forces it with one call, so many
+ * concurrent writers share the cost of each fsync.
+ */
+public class Journal implements Closeable {
+
+    private static final int HEADER_SIZE = 10;
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String LEGACY_FILE = "journal.log";
+
+    /**
+     * Receives each valid record during replay.
+     */
+    public interface RecordHandler {
+        void handle(ChangeType type, byte entityType, ByteBuffer payload);
+    }
+
+    private final Path directory;
+    private final ReentrantLock lock;
+    private final Condition workAvailable;
+    private final Condition flushed;
+    private final CRC32 crc;
+    private final Thread flusher;
+    private FileChannel channel;
+    private long segment;
+    private BinaryWriter pending;
+    private BinaryWriter flushing;
+    private long appendedSequence;
+    private long durableSequence;
+    private volatile IOException failure;
+    private boolean closed;
+
+    private Journal(Path directory, long segment, FileChannel channel) {
+        this.directory = directory;
+        this.segment = segment;
+        this.channel = channel;
+        this.lock = new ReentrantLock();
+        this.workAvailable = lock.newCondition();
+        this.flushed = lock.newCondition();
+        this.crc = new CRC32();
+        this.pending = new BinaryWriter(64 * 1024);
+        this.flushing = new BinaryWriter(64 * 1024);
+        this.flusher = new Thread(this::flushLoop, "journal-flusher");
+        this.flusher.setDaemon(true);
+    }
+
+    /**
+     * Opens the journal in a directory, appending to its newest segment.
+     * Any torn record at the end of that segment, e.g. from a crash
+     * mid-write, must already have been removed by
+     * {@link #replay(Path, long, RecordHandler)}.
+     */
+    public static Journal open(Path directory) throws IOException {
+        List<Long> segments = listSegments(directory);
+        long segment = segments.isEmpty() ? 1 : segments.get(segments.size() - 1);
+        Journal journal = new Journal(directory, segment, openSegment(directory, segment));
+        journal.flusher.start();
+        return journal;
+    }
+
+    /**
+     * Starts a new segment once everything appended so far is durable.
+     * Writers are held back only for the duration of the switch.
+     * Returns the number of the new segment; every record in earlier
+     * segments was appended before this call.
+     */
+    public long roll() throws IOException {
+        lock.lock();
+        try {
+            while (durableSequence < appendedSequence && failure == null) {
+                flushed.awaitUninterruptibly();
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            FileChannel next = openSegment(directory, segment + 1);
+            channel.force(true);
+            channel.close();
+            channel = next;
+            segment++;
+            return segment;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Deletes all segments numbered below the given one.
+     */
+    public static void deleteSegmentsBefore(Path directory, long segment) throws IOException {
+        for (long number : listSegments(directory)) {
+            if (number < segment) {
+                Files.deleteIfExists(segmentFile(directory, number));
+            }
+        }
+    }
+
+    /**
+     * Segment numbers present in a directory, in ascending order.
+     * A journal.log written before segmenting is adopted as segment 1.
+     */
+    public static List<Long> listSegments(Path directory) throws IOException {
+        Path legacy = directory.resolve(LEGACY_FILE);
+        if (Files.exists(legacy) && !Files.exists(segmentFile(directory, 1))) {
+            Files.move(legacy, segmentFile(directory, 1));
+        }
+        List<Long> segments = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return segments;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory,
+                SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                String number = name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length());
+                try {
+                    segments.add(Long.parseLong(number));
+                } catch (NumberFormatException e) {
+                    // not a journal segment
+                }
+            }
+        }
+        Collections.sort(segments);
+        return segments;
+    }
+
+    public static Path segmentFile(Path directory, long segment) {
+        return directory.resolve(String.format("%s%06d%s", SEGMENT_PREFIX, segment, SEGMENT_SUFFIX));
+    }
+
+    private static FileChannel openSegment(Path directory, long segment) throws IOException {
+        FileChannel channel = FileChannel.open(segmentFile(directory, segment), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.READ);
+        channel.position(channel.size());
+        return channel;
+    }
+
+    /**
+     * Appends a record and blocks until it has been fsynced.
+     */
+    public void append(ChangeType type, byte entityType, Consumer<BinaryWriter> body) {
+        awaitDurable(enqueue(type, entityType, body));
+    }
+
+    /**
+     * Appends a record without waiting for it to become durable and returns
+     * its sequence number for a later {@link #awaitDurable(long)}.
+     */
+    public long enqueue(ChangeType type, byte entityType, Consumer<BinaryWriter> body) {
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Journal is closed");
+            }
+            checkWritable();
+            int start = pending.size();
+            pending.writeInt(0);
+            pending.writeInt(0);
+            pending.writeByte(type.ordinal());
+            pending.writeByte(entityType);
+            body.accept(pending);
+            int end = pending.size();
+            crc.reset();
+            crc.update(pending.array(), start + 8, end - start - 8);
+            pending.putInt(start, end - start - HEADER_SIZE);
+            pending.putInt(start + 4, (int) crc.getValue());
+            long sequence = ++appendedSequence;
+            workAvailable.signal();
+            return sequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Throws once a write or fsync has failed. The flusher stops at the
+     * first failure, so anything appended after it would never be written.
+     */
+    public void checkWritable() {
+        IOException error = failure;
+        if (error != null) {
+            throw new UncheckedIOException("Journal write failed; refusing further changes", error);
+        }
+    }
+
+    /**
+     * Blocks until the record with the given sequence number is on disk.
+     */
+    public void awaitDurable(long sequence) {
+        lock.lock();
+        try {
+            while (durableSequence < sequence && failure == null) {
+                flushed.awaitUninterruptibly();
+            }
+            if (failure != null) {
+                throw new UncheckedIOException("Journal write failed", failure);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void flushLoop() {
+        while (true) {
+            long target;
+            BinaryWriter batch;
+            FileChannel targetChannel;
+            lock.lock();
+            try {
+                while (pending.size() == 0 && !closed) {
+                    workAvailable.awaitUninterruptibly();
+                }
+                if (pending.size() == 0) {
+                    return;
+                }
+                batch = pending;
+                pending = flushing;
+                flushing = batch;
+                target = appendedSequence;
+                targetChannel = channel;
+            } finally {
+                lock.unlock();
+            }
+
+            IOException error = null;
+            try {
+                ByteBuffer buffer = batch.toByteBuffer();
+                while (buffer.hasRemaining()) {
+                    targetChannel.write(buffer);
+                }
+                targetChannel.force(false);
+            } catch (IOException e) {
+                error = e;
+            }
+            batch.reset();
+
+            lock.lock();
+            try {
+                if (error != null) {
+                    failure = error;
+                } else {
+                    durableSequence = target;
+                }
+                flushed.signalAll();
+                if (error != null) {
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Flushes outstanding records and closes the file.
+     */
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            closed = true;
+            workAvailable.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        lock.lock();
+        try {
+            channel.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Replays every segment numbered at or above fromSegment, oldest first.
+     * Only the newest segment may end in a torn record; a corrupt record in
+     * an earlier one means records after it were lost, so replay fails
+     * rather than apply the later segments on top of the gap.
+     * Returns the number of records replayed.
+     */
+    public static long replay(Path directory, long fromSegment, RecordHandler handler) throws IOException {
+        long count = 0;
+        List<Long> segments = listSegments(directory);
+        for (int i = 0; i < segments.size(); i++) {
+            long number = segments.get(i);
+            if (number >= fromSegment) {
+                count += replayFile(segmentFile(directory, number), handler, i == segments.size() - 1);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Reads every valid record of a journal file in order. A truncated or
+     * corrupt record marks the end of the log: in the newest segment it and
+     * anything after it is cut off so that new appends continue from a
+     * clean boundary; in an older segment it is an error and the file is
+     * left untouched. Returns the number of records replayed.
+     */
+    static long replayFile(Path file, RecordHandler handler, boolean newest) throws IOException {
+        if (!file.toFile().exists()) {
+            return 0;
+        }
+        long count = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            ByteBuffer body = ByteBuffer.allocate(4096);
+            CRC32 checksum = new CRC32();
+            long position = 0;
+            long size = channel.size();
+            while (position + HEADER_SIZE <= size) {
+                header.clear();
+                readFully(channel, header, position);
+                header.flip();
+                int length = header.getInt();
+                int expectedCrc = header.getInt();
+                byte type = header.get();
+                byte entityType = header.get();
+                if (length < 0 || position + HEADER_SIZE + length > size
+                        || type < 0 || type >= ChangeType.values().length) {
+                    break;
+                }
+                if (body.capacity() < length) {
+                    body = ByteBuffer.allocate(Math.max(length, body.capacity() * 2));
+                }
+                body.clear();
+                body.limit(length);
+                readFully(channel, body, position + HEADER_SIZE);
+                checksum.reset();
+                checksum.update(type);
+                checksum.update(entityType);
+                checksum.update(body.array(), 0, length);
+                if ((int) checksum.getValue() != expectedCrc) {
+                    break;
+                }
+                body.flip();
+                handler.handle(ChangeType.values()[type], entityType, body);
+                position += HEADER_SIZE + length;
+                count++;
+            }
+            if (position < size && !newest) {
+                throw new IOException("Corrupt journal record in " + file.getFileName() + " at offset "
+                        + position + ", but later segments exist");
+            }
+            if (position < size) {
+                channel.truncate(position);
+                channel.force(true);
+            }
+        }
+        return count;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new IOException("Unexpected end of journal");
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.bharatgas.crm.persistence;
+
+import com.bharatgas.crm.enums.ChangeType;
+import com.bharatgas.crm.model.Booking;
+import com.bharatgas.crm.model.Complaint;
+import com.bharatgas.crm.model.Customer;
+import com.bharatgas.crm.model.Payment;
+import com.bharatgas.crm.util.SyntheticDataGenerator;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.Consumer;
+
+/**
+ * Writes generated entities straight into a new journal, e.g. to seed a
+ * staging data directory. The CRM replays the journal on its next start.
+ * Records are appended without waiting for each fsync; every few thousand
+ * records the writer catches up with the disk so memory stays bounded.
+ */
+public class JournalSink implements SyntheticDataGenerator.Sink, Closeable {
+
+    private static final int SYNC_EVERY = 4096;
+
+    private final Journal journal;
+    private long lastSequence;
+
+    private JournalSink(Journal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Opens a sink on an empty (or missing) data directory. Refuses a
+     * directory that already holds a journal or snapshot, since generated
+     * IDs start from the beginning and would collide with existing data.
+     */
+    public static JournalSink create(Path dataDir) throws IOException {
+        Files.createDirectories(dataDir);
+        if (!Journal.listSegments(dataDir).isEmpty() || !Snapshot.list(dataDir).isEmpty()) {
+            throw new IOException("Data directory is not empty: " + dataDir);
+        }
+        return new JournalSink(Journal.open(dataDir));
+    }
+
+    @Override
+    public void customer(Customer customer) {
+        append(EntityCodec.CUSTOMER, out -> EntityCodec.writeCustomer(out, customer));
+    }
+
+    @Override
+    public void booking(Booking booking) {
+        append(EntityCodec.BOOKING, out -> EntityCodec.writeBooking(out, booking));
+    }
+
+    @Override
+    public void payment(Payment payment) {
+        append(EntityCodec.PAYMENT, out -> EntityCodec.writePayment(out, payment));
+    }
+
+    @Override
+    public void complaint(Complaint complaint) {
+        append(EntityCodec.COMPLAINT, out -> EntityCodec.writeComplaint(out, complaint));
+    }
+
+    private void append(byte entityType, Consumer<BinaryWriter> body) {
+        lastSequence = journal.enqueue(ChangeType.ADDED, entityType, body);
+        if (lastSequence % SYNC_EVERY == 0) {
+            journal.awaitDurable(lastSequence);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        journal.awaitDurable(lastSequence);
+        journal.close();
+    }
+}
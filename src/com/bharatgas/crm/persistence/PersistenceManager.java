@@ -0,0 +1,266 @@
+package com.bharatgas.crm.persistence;
+
+import com.bharatgas.crm.model.Booking;
+import com.bharatgas.crm.model.Complaint;
+import com.bharatgas.crm.model.Customer;
+import com.bharatgas.crm.model.Payment;
+import com.bharatgas.crm.service.BookingService;
+import com.bharatgas.crm.service.ComplaintService;
+import com.bharatgas.crm.service.CustomerService;
+import com.bharatgas.crm.service.PaymentService;
+import com.bharatgas.crm.util.IDGenerator;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Wires the write-ahead journal and snapshots to the services.
+ * On startup the newest valid snapshot is loaded, the journal segments after
+ * it are replayed and the IDGenerator counters are restored from the data and
+ * from the high-water marks in ids.properties; afterwards every
+ * add/update/delete/status change reported by the services is appended to
+ * the journal before returning. Once a journal write fails, the services
+ * refuse further changes. A new snapshot is taken every
+ * {@code bharatgas.snapshot.every} journal records (default 100000), or once
+ * as many records as the last snapshot held if that is more, and on close.
+ * Archived bookings live in segment files under {@code archive/}; the
+ * archive is attached before replay so that their old records are skipped.
+ * The previous snapshot and its journal segments are kept until the next
+ * one, so startup can fall back to it; with no usable snapshot, startup
+ * fails instead of replaying an incomplete journal.
+ */
+public class PersistenceManager implements Closeable {
+
+    private static final String ID_MARKS_FILE = "ids.properties";
+    private static final long SNAPSHOT_EVERY = Long.getLong("bharatgas.snapshot.every", 100_000L);
+
+    private final Path dataDir;
+    private final Journal journal;
+    private final SegmentArchive archive;
+    private final long recordsReplayed;
+    private final CustomerService customerService;
+    private final BookingService bookingService;
+    private final PaymentService paymentService;
+    private final ComplaintService complaintService;
+    private final ExecutorService snapshotWriter;
+    private final AtomicLong recordsSinceSnapshot;
+    private volatile long snapshotThreshold = SNAPSHOT_EVERY;
+    private long verifiedSnapshot = -1;
+    private final ThreadLocal<long[]> batch;
+
+    private PersistenceManager(Path dataDir, Journal journal, SegmentArchive archive, long recordsReplayed,
+            CustomerService customerService, BookingService bookingService,
+            PaymentService paymentService, ComplaintService complaintService) {
+        this.dataDir = dataDir;
+        this.journal = journal;
+        this.archive = archive;
+        this.recordsReplayed = recordsReplayed;
+        this.customerService = customerService;
+        this.bookingService = bookingService;
+        this.paymentService = paymentService;
+        this.complaintService = complaintService;
+        this.snapshotWriter = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "snapshot-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.recordsSinceSnapshot = new AtomicLong(recordsReplayed);
+        this.batch = new ThreadLocal<>();
+    }
+
+    /**
+     * Replays the journal in the given directory into the services and starts
+     * journaling their changes.
+     */
+    public static PersistenceManager open(Path dataDir, CustomerService customerService,
+            BookingService bookingService, PaymentService paymentService,
+            ComplaintService complaintService) throws IOException {
+        Files.createDirectories(dataDir);
+        SegmentArchive archive = SegmentArchive.open(dataDir.resolve("archive"), customerService::getById);
+        bookingService.setArchive(archive);
+        paymentService.setBookingArchive(archive::get);
+
+        EntityCodec codec = new EntityCodec(customerService, bookingService, paymentService, complaintService);
+        long[] maxSequence = new long[5];
+        long fromSegment = 1;
+        long loaded = 0;
+        long loadedSnapshot = -1;
+        for (Path snapshot : Snapshot.list(dataDir)) {
+            long[] count = new long[1];
+            long segment = Snapshot.load(snapshot, codec, (entityType, id) -> {
+                maxSequence[entityType] = Math.max(maxSequence[entityType], sequenceOf(id));
+                count[0]++;
+            });
+            if (segment >= 0) {
+                fromSegment = segment;
+                loadedSnapshot = segment;
+                loaded = count[0];
+                break;
+            }
+            System.out.println("⚠️  Skipping invalid snapshot " + snapshot.getFileName());
+        }
+        List<Long> segments = Journal.listSegments(dataDir);
+        if (!segments.isEmpty() && segments.get(0) > fromSegment) {
+            throw new IOException("No valid snapshot covers the journal before segment " + segments.get(0)
+                    + " in " + dataDir + "; refusing to start with part of the history missing");
+        }
+        long replayed = Journal.replay(dataDir, fromSegment, (type, entityType, payload) -> {
+            String id = codec.apply(entityType, payload);
+            if (id != null) {
+                maxSequence[entityType] = Math.max(maxSequence[entityType], sequenceOf(id));
+            }
+        });
+        restoreCounters(maxSequence);
+        IDGenerator.attach(dataDir.resolve(ID_MARKS_FILE));
+
+        Journal journal = Journal.open(dataDir);
+        PersistenceManager manager = new PersistenceManager(dataDir, journal, archive, loaded + replayed,
+                customerService, bookingService, paymentService, complaintService);
+        manager.recordsSinceSnapshot.set(replayed);
+        manager.verifiedSnapshot = loadedSnapshot;
+        Runnable writeGuard = journal::checkWritable;
+        customerService.setWriteGuard(writeGuard);
+        bookingService.setWriteGuard(writeGuard);
+        paymentService.setWriteGuard(writeGuard);
+        complaintService.setWriteGuard(writeGuard);
+        customerService.addListener((type, c) -> manager.journaled(journal.enqueue(type, EntityCodec.CUSTOMER,
+                out -> EntityCodec.writeCustomer(out, c))));
+        bookingService.addListener((type, b) -> manager.journaled(journal.enqueue(type, EntityCodec.BOOKING,
+                out -> EntityCodec.writeBooking(out, b))));
+        paymentService.addListener((type, p) -> manager.journaled(journal.enqueue(type, EntityCodec.PAYMENT,
+                out -> EntityCodec.writePayment(out, p))));
+        complaintService.addListener((type, c) -> manager.journaled(journal.enqueue(type, EntityCodec.COMPLAINT,
+                out -> EntityCodec.writeComplaint(out, c))));
+        return manager;
+    }
+
+    /**
+     * Makes the changes on the calling thread, appending their records
+     * without waiting for each fsync, then waits once until all of them are
+     * durable. Used to apply a chunk of batch commands in one group commit.
+     */
+    public void runBatch(Runnable changes) {
+        long[] last = {-1};
+        batch.set(last);
+        try {
+            changes.run();
+        } finally {
+            batch.remove();
+            if (last[0] >= 0) {
+                journal.awaitDurable(last[0]);
+            }
+        }
+    }
+
+    /**
+     * Called on the writer's thread, which may still hold the entity's lock
+     * stripe. Exactly one writer sees the counter cross the threshold and
+     * hands the snapshot to the snapshot thread, so it never captures the
+     * services from under a writer's locks. The threshold grows with the
+     * data, so a bulk import does not rewrite everything every 100000 rows.
+     */
+    private void journaled(long sequence) {
+        long[] pending = batch.get();
+        if (pending != null) {
+            pending[0] = Math.max(pending[0], sequence);
+        } else {
+            journal.awaitDurable(sequence);
+        }
+        long records = recordsSinceSnapshot.incrementAndGet();
+        if (records >= snapshotThreshold && recordsSinceSnapshot.compareAndSet(records, 0)) {
+            snapshotWriter.execute(this::snapshot);
+        }
+    }
+
+    /**
+     * Runs on the snapshot thread, one snapshot at a time. Rolls the journal
+     * and captures the current entity lists, then writes them while writers
+     * carry on. Records appended after the roll land in the new segment and
+     * are replayed on top of the snapshot, which is safe because every
+     * record is an upsert. Once the new snapshot reads back intact, only
+     * what is older than the previous verified snapshot is deleted, so a
+     * snapshot that later fails to load still has a fallback.
+     */
+    private void snapshot() {
+        long segment;
+        try {
+            segment = journal.roll();
+        } catch (IOException e) {
+            System.out.println("⚠️  Could not start snapshot: " + e.getMessage());
+            return;
+        }
+        List<Customer> customers = customerService.getAll();
+        List<Booking> bookings = bookingService.getAll();
+        List<Payment> payments = paymentService.getAll();
+        List<Complaint> complaints = complaintService.getAll();
+        snapshotThreshold = Math.max(SNAPSHOT_EVERY,
+                (long) customers.size() + bookings.size() + payments.size() + complaints.size());
+        try {
+            Path file = Snapshot.write(dataDir, segment, customers, bookings, payments, complaints);
+            if (Snapshot.verify(file) != segment) {
+                Files.deleteIfExists(file);
+                System.out.println("⚠️  Snapshot " + segment + " failed verification; keeping the previous one");
+                return;
+            }
+            if (verifiedSnapshot >= 0) {
+                Journal.deleteSegmentsBefore(dataDir, verifiedSnapshot);
+                Snapshot.deleteBefore(dataDir, verifiedSnapshot);
+            }
+            verifiedSnapshot = segment;
+        } catch (IOException e) {
+            System.out.println("⚠️  Snapshot " + segment + " failed: " + e.getMessage());
+        }
+    }
+
+    public long getRecordsReplayed() {
+        return recordsReplayed;
+    }
+
+    /**
+     * Writes a final snapshot if anything was journaled since the last one,
+     * then closes the journal.
+     */
+    @Override
+    public void close() throws IOException {
+        if (recordsSinceSnapshot.get() > 0) {
+            snapshotWriter.execute(this::snapshot);
+        }
+        snapshotWriter.shutdown();
+        try {
+            snapshotWriter.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        journal.close();
+        archive.close();
+        IDGenerator.detach();
+    }
+
+    private static void restoreCounters(long[] maxSequence) {
+        IDGenerator.setCustomerCounter(maxSequence[EntityCodec.CUSTOMER]);
+        IDGenerator.setBookingCounter(maxSequence[EntityCodec.BOOKING]);
+        IDGenerator.setPaymentCounter(maxSequence[EntityCodec.PAYMENT]);
+        IDGenerator.setComplaintCounter(maxSequence[EntityCodec.COMPLAINT]);
+    }
+
+    /**
+     * Extracts the numeric suffix of a generated ID (e.g. BG-BK-042 → 42).
+     */
+    static long sequenceOf(String id) {
+        int end = id.length();
+        int start = end;
+        while (start > 0 && Character.isDigit(id.charAt(start - 1))) {
+            start--;
+        }
+        if (start == end || end - start > 18) {
+            return 0;
+        }
+        return Long.parseLong(id.substring(start, end));
+    }
+}
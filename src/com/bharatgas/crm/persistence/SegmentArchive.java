@@ -0,0 +1,168 @@
+package com.bharatgas.crm.persistence;
+
+import com.bharatgas.crm.enums.BookingStatus;
+import com.bharatgas.crm.model.Booking;
+import com.bharatgas.crm.model.Customer;
+import com.bharatgas.crm.service.BookingArchive;
+import com.bharatgas.crm.store.IndexedStore;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+/**
+ * Booking archive kept as a directory of immutable {@link ArchiveSegment}
+ * files (segment-N.arc), one per archiving run. Lookups ask the segments
+ * newest first; each one rules itself out with its Bloom filter, so a
+ * lookup of a booking that was never archived usually touches no file.
+ * Customers referenced by archived bookings are resolved by ID when a
+ * booking is read back.
+ */
+public class SegmentArchive implements BookingArchive, Closeable {
+
+    private static final String PREFIX = "segment-";
+    private static final String SUFFIX = ".arc";
+
+    private final Path directory;
+    private final Function<String, Customer> customers;
+    private final List<ArchiveSegment> segments;
+    private long lastNumber;
+
+    private SegmentArchive(Path directory, Function<String, Customer> customers) {
+        this.directory = directory;
+        this.customers = customers;
+        this.segments = new CopyOnWriteArrayList<>();
+    }
+
+    /**
+     * Opens the archive in a directory, creating it if needed. Leftover
+     * temporary files from an interrupted write are deleted.
+     */
+    public static SegmentArchive open(Path directory, Function<String, Customer> customers) throws IOException {
+        Files.createDirectories(directory);
+        SegmentArchive archive = new SegmentArchive(directory, customers);
+        List<Long> numbers = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, PREFIX + "*")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(SUFFIX + ".tmp")) {
+                    Files.delete(file);
+                } else if (name.endsWith(SUFFIX)) {
+                    try {
+                        numbers.add(Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length())));
+                    } catch (NumberFormatException e) {
+                        // not a segment file
+                    }
+                }
+            }
+        }
+        numbers.sort(null);
+        try {
+            for (long number : numbers) {
+                archive.segments.add(0, ArchiveSegment.open(archive.fileFor(number)));
+                archive.lastNumber = number;
+            }
+        } catch (IOException e) {
+            archive.close();
+            throw e;
+        }
+        return archive;
+    }
+
+    @Override
+    public synchronized void write(List<Booking> bookings) throws IOException {
+        if (bookings.isEmpty()) {
+            return;
+        }
+        ArchiveSegment segment = ArchiveSegment.write(fileFor(lastNumber + 1), bookings);
+        lastNumber++;
+        segments.add(0, segment);
+    }
+
+    /**
+     * @throws UncheckedIOException if a segment cannot be read
+     */
+    @Override
+    public Booking get(String bookingId) {
+        String key = IndexedStore.normalize(bookingId);
+        if (key == null) {
+            return null;
+        }
+        try {
+            for (ArchiveSegment segment : segments) {
+                Booking booking = segment.get(key, customers);
+                if (booking != null) {
+                    return booking;
+                }
+            }
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @throws UncheckedIOException if a segment cannot be read
+     */
+    @Override
+    public List<Booking> getByCustomerId(String customerId) {
+        String key = IndexedStore.normalize(customerId);
+        List<Booking> result = new ArrayList<>();
+        if (key == null) {
+            return result;
+        }
+        try {
+            List<ArchiveSegment> current = new ArrayList<>(segments);
+            for (int i = current.size() - 1; i >= 0; i--) {
+                result.addAll(current.get(i).getByCustomerId(key, customers));
+            }
+            return result;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public int count() {
+        int total = 0;
+        for (ArchiveSegment segment : segments) {
+            total += segment.count();
+        }
+        return total;
+    }
+
+    @Override
+    public int count(BookingStatus status) {
+        int total = 0;
+        for (ArchiveSegment segment : segments) {
+            total += segment.count(status);
+        }
+        return total;
+    }
+
+    @Override
+    public long countDeliveredOnTime() {
+        long total = 0;
+        for (ArchiveSegment segment : segments) {
+            total += segment.countDeliveredOnTime();
+        }
+        return total;
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (ArchiveSegment segment : segments) {
+            segment.close();
+        }
+    }
+
+    private Path fileFor(long number) {
+        return directory.resolve(String.format("%s%06d%s", PREFIX, number, SUFFIX));
+    }
+}
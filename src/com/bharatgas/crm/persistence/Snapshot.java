@@ -0,0 +1,217 @@
+package com.bharatgas.crm.persistence;
+
+import com.bharatgas.crm.model.Booking;
+import com.bharatgas.crm.model.Complaint;
+import com.bharatgas.crm.model.Customer;
+import com.bharatgas.crm.model.Payment;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32;
+
+/**
+ * Compact binary snapshot of the four service stores.
+ *
+ * File layout: [long magic][int version][long journal segment]
+ * then records [byte entity][int length][payload] in dependency order
+ * (customers, bookings, payments, complaints), then [byte 0][int CRC32].
+ * A snapshot named snapshot-N.bin holds everything written before journal
+ * segment N, so recovery loads it and replays only segments N and later.
+ * Snapshots are read back through a memory-mapped buffer.
+ */
+public class Snapshot {
+
+    private static final long MAGIC = 0x4247534E41505348L; // "BGSNAPSH"
+    private static final int VERSION = 1;
+    private static final int SEGMENT_OFFSET = 12;
+    private static final int HEADER_SIZE = 20;
+    private static final String PREFIX = "snapshot-";
+    private static final String SUFFIX = ".bin";
+
+    private Snapshot() {
+    }
+
+    /**
+     * Writes a snapshot to a temporary file and atomically renames it into
+     * place once it has been fsynced. Fails rather than keep a snapshot too
+     * large to be mapped back in.
+     */
+    public static Path write(Path directory, long segment, List<Customer> customers, List<Booking> bookings,
+            List<Payment> payments, List<Complaint> complaints) throws IOException {
+        Path target = fileFor(directory, segment);
+        Path temp = directory.resolve(target.getFileName() + ".tmp");
+        CRC32 crc = new CRC32();
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            BinaryWriter out = new BinaryWriter(1 << 20);
+            out.writeLong(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(segment);
+            writeAll(channel, out, crc, EntityCodec.CUSTOMER, customers, EntityCodec::writeCustomer);
+            writeAll(channel, out, crc, EntityCodec.BOOKING, bookings, EntityCodec::writeBooking);
+            writeAll(channel, out, crc, EntityCodec.PAYMENT, payments, EntityCodec::writePayment);
+            writeAll(channel, out, crc, EntityCodec.COMPLAINT, complaints, EntityCodec::writeComplaint);
+            out.writeByte(0);
+            flush(channel, out, crc);
+            out.writeInt((int) crc.getValue());
+            flush(channel, out, null);
+            channel.force(true);
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("snapshot would exceed 2 GB (" + channel.size() + " bytes)");
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return target;
+    }
+
+    private static <T> void writeAll(FileChannel channel, BinaryWriter out, CRC32 crc, byte entityType,
+            List<T> items, BiConsumer<BinaryWriter, T> encoder) throws IOException {
+        for (T item : items) {
+            out.writeByte(entityType);
+            int lengthPosition = out.size();
+            out.writeInt(0);
+            encoder.accept(out, item);
+            out.putInt(lengthPosition, out.size() - lengthPosition - 4);
+            if (out.size() >= (1 << 20) - 4096) {
+                flush(channel, out, crc);
+            }
+        }
+    }
+
+    private static void flush(FileChannel channel, BinaryWriter out, CRC32 crc) throws IOException {
+        if (crc != null) {
+            crc.update(out.array(), 0, out.size());
+        }
+        ByteBuffer buffer = out.toByteBuffer();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        out.reset();
+    }
+
+    /**
+     * Memory-maps a snapshot, verifies its checksum and applies every record
+     * through the codec. Calls idListener with each applied entity type and ID.
+     * Returns the journal segment to resume replay from, or -1 if the file is
+     * not a valid snapshot.
+     */
+    public static long load(Path file, EntityCodec codec, BiConsumer<Byte, String> idListener) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = map(channel);
+            if (buffer == null) {
+                return -1;
+            }
+            long segment = buffer.getLong(SEGMENT_OFFSET);
+            int end = buffer.limit();
+            buffer.position(HEADER_SIZE);
+            while (true) {
+                byte entityType = buffer.get();
+                if (entityType == 0) {
+                    break;
+                }
+                int length = buffer.getInt();
+                int next = buffer.position() + length;
+                buffer.limit(next);
+                String id = codec.apply(entityType, buffer);
+                buffer.limit(end);
+                buffer.position(next);
+                if (id != null) {
+                    idListener.accept(entityType, id);
+                }
+            }
+            return segment;
+        }
+    }
+
+    /**
+     * Checks a snapshot's header and checksum without applying it.
+     * Returns its journal segment, or -1 if the file is not a valid snapshot.
+     */
+    public static long verify(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = map(channel);
+            return buffer == null ? -1 : buffer.getLong(SEGMENT_OFFSET);
+        }
+    }
+
+    /**
+     * Maps a snapshot and checks its magic, version and CRC. Returns the
+     * buffer limited to the records (without the trailing CRC), or null.
+     */
+    private static MappedByteBuffer map(FileChannel channel) throws IOException {
+        long size = channel.size();
+        if (size < HEADER_SIZE + 5 || size > Integer.MAX_VALUE) {
+            return null;
+        }
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        if (buffer.getLong() != MAGIC || buffer.getInt() != VERSION) {
+            return null;
+        }
+        int end = (int) size - 4;
+        CRC32 crc = new CRC32();
+        ByteBuffer checked = buffer.duplicate();
+        checked.position(0);
+        checked.limit(end);
+        crc.update(checked);
+        if (buffer.getInt(end) != (int) crc.getValue()) {
+            return null;
+        }
+        buffer.limit(end);
+        return buffer;
+    }
+
+    /**
+     * Snapshot files in a directory, newest (highest segment) first.
+     */
+    public static List<Path> list(Path directory) throws IOException {
+        List<Long> segments = new ArrayList<>();
+        if (Files.isDirectory(directory)) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+                for (Path file : files) {
+                    String name = file.getFileName().toString();
+                    try {
+                        segments.add(Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length())));
+                    } catch (NumberFormatException e) {
+                        // not a snapshot file
+                    }
+                }
+            }
+        }
+        Collections.sort(segments, Collections.reverseOrder());
+        List<Path> files = new ArrayList<>();
+        for (long segment : segments) {
+            files.add(fileFor(directory, segment));
+        }
+        return files;
+    }
+
+    /**
+     * Deletes snapshots older than the given journal segment.
+     */
+    public static void deleteBefore(Path directory, long segment) throws IOException {
+        for (Path file : list(directory)) {
+            String name = file.getFileName().toString();
+            long number = Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+            if (number < segment) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    public static Path fileFor(Path directory, long segment) {
+        return directory.resolve(String.format("%s%06d%s", PREFIX, segment, SUFFIX));
+    }
+}
@@ -0,0 +1,46 @@
+package com.bharatgas.crm.service;
+
+import com.bharatgas.crm.enums.BookingStatus;
+import com.bharatgas.crm.model.Booking;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Cold storage for closed bookings moved out of {@link BookingService}.
+ * Archived bookings are read-only: lookups return unstored copies, and
+ * changes made to them are not kept.
+ * Demonstrates: Abstraction through interfaces.
+ */
+public interface BookingArchive {
+
+    /**
+     * Durably stores a batch of bookings. They can be looked up once this
+     * returns.
+     */
+    void write(List<Booking> bookings) throws IOException;
+
+    /**
+     * Returns an archived booking by ID (case-insensitive), or null.
+     */
+    Booking get(String bookingId);
+
+    /**
+     * Returns the archived bookings of a customer, oldest archive first.
+     */
+    List<Booking> getByCustomerId(String customerId);
+
+    /**
+     * Number of archived bookings.
+     */
+    int count();
+
+    /**
+     * Number of archived bookings in a status.
+     */
+    int count(BookingStatus status);
+
+    /**
+     * Number of archived bookings delivered on or before their expected date.
+     */
+    long countDeliveredOnTime();
+}
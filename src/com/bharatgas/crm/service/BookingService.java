@@ -1,109 +1,477 @@
 package com.bharatgas.crm.service;
 
 import com.bharatgas.crm.model.Booking;
+import com.bharatgas.crm.model.BookingColumns;
+import com.bharatgas.crm.model.Customer;
 import com.bharatgas.crm.enums.BookingStatus;
+import com.bharatgas.crm.enums.ChangeType;
+import com.bharatgas.crm.store.DailyTotalsIndex;
+import com.bharatgas.crm.store.DateRangeIndex;
+import com.bharatgas.crm.store.EnumIndex;
+import com.bharatgas.crm.store.HashIndex;
+import com.bharatgas.crm.store.IndexedStore;
+import com.bharatgas.crm.store.Page;
+import com.bharatgas.crm.store.SequenceKeyIndex;
+import com.bharatgas.crm.store.StripedLock;
+import com.bharatgas.crm.util.IDGenerator;
+import java.io.IOException;
 import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
 
 /**
  * Service class for managing cylinder bookings.
+ * Thread-safe: status transitions hold the booking's lock stripe, so two
+ * clerks acting on the same booking are applied one after the other.
+ * Bookings are stored column-wise in {@link BookingColumns}; the Booking
+ * objects handed out are views of their rows. Bookings per day and
+ * cylinder type are kept in a Fenwick-tree index for date-range reports,
+ * and open bookings in a skip-list index by expected delivery date.
+ * Closed bookings older than a cutoff can be moved to a
+ * {@link BookingArchive}; lookups by ID and by customer fall through to it.
  * Demonstrates: Interface implementation (CRUDOperations, Reportable).
  */
 public class BookingService implements CRUDOperations<Booking>, Reportable {
+    /** Bookings per archive segment. */
+    public static final int ARCHIVE_BATCH = 100_000;
+    private static final DateTimeFormatter DISPLAY_DATE = DateTimeFormatter.ofPattern("dd-MM-yyyy");
 
-    private final List<Booking> bookings;
+    private final BookingColumns columns;
+    private final IndexedStore<Booking> bookings;
+    private final HashIndex<Booking> byCustomer;
+    private final EnumIndex<Booking, BookingStatus> byStatus;
+    private final DailyTotalsIndex<Booking> byDay;
+    private final DateRangeIndex<Booking> openByDueDate;
+    private final DashboardAggregator dashboard;
+    private final List<ChangeListener<Booking>> listeners;
+    private final StripedLock locks;
+    private volatile BookingArchive archive;
+    private volatile boolean verbose = true;
+    private volatile Runnable writeGuard = () -> { };
 
     public BookingService() {
-        this.bookings = new ArrayList<>();
+        this(new DashboardAggregator());
+    }
+
+    public BookingService(DashboardAggregator dashboard) {
+        this.columns = new BookingColumns();
+        this.bookings = new IndexedStore<>(Booking::getBookingId,
+                new SequenceKeyIndex(id -> IDGenerator.parse(IDGenerator.Kind.BOOKING, id)), columns);
+        this.byCustomer = bookings.addIndex(new HashIndex<>(
+                b -> b.getCustomer() == null ? null : b.getCustomer().getCustomerId()));
+        this.byStatus = bookings.addIndex(new EnumIndex<>(BookingStatus.class, Booking::getStatus));
+        this.byDay = bookings.addIndex(new DailyTotalsIndex<>(Booking::getBookingDate,
+                b -> b.getCylinder() == null ? null : b.getCylinder().getCylinderType(), b -> 1));
+        this.openByDueDate = bookings.addIndex(new DateRangeIndex<>(Booking::getExpectedDeliveryDate,
+                b -> b.getStatus() != null && !isClosed(b)));
+        this.dashboard = dashboard;
+        this.listeners = new CopyOnWriteArrayList<>();
+        this.locks = new StripedLock(64);
     }
 
     @Override
     public void add(Booking booking) {
-        bookings.add(booking);
-        System.out.println("✅ Booking created successfully: " + booking.getBookingId());
-        System.out.println("   Expected Delivery: " + booking.getExpectedDeliveryDate());
+        writeGuard.run();
+        ReentrantLock stripe = locks.forId(booking.getBookingId());
+        stripe.lock();
+        try {
+            if (!bookings.add(booking)) {
+                log("❌ Booking already exists with ID: " + booking.getBookingId());
+                return;
+            }
+            changed(ChangeType.ADDED, booking);
+            log("✅ Booking created successfully: " + booking.getBookingId());
+            log("   Expected Delivery: " + booking.getExpectedDeliveryDate());
+        } finally {
+            stripe.unlock();
+        }
     }
 
     @Override
     public void update(String id, Booking updatedBooking) {
-        for (int i = 0; i < bookings.size(); i++) {
-            if (bookings.get(i).getBookingId().equalsIgnoreCase(id)) {
-                bookings.set(i, updatedBooking);
-                System.out.println("✅ Booking updated successfully: " + id);
-                return;
+        writeGuard.run();
+        ReentrantLock stripe = locks.forId(id);
+        stripe.lock();
+        try {
+            if (bookings.replace(id, updatedBooking)) {
+                changed(ChangeType.UPDATED, updatedBooking);
+                log("✅ Booking updated successfully: " + id);
+            } else {
+                log("❌ Booking not found with ID: " + id);
             }
+        } finally {
+            stripe.unlock();
         }
-        System.out.println("❌ Booking not found with ID: " + id);
     }
 
+    /**
+     * Cancels a booking. Delivered and already cancelled bookings are left
+     * as they are.
+     */
     @Override
     public void delete(String id) {
-        Booking booking = getById(id);
-        if (booking != null) {
-            booking.setStatus(BookingStatus.CANCELLED);
-            System.out.println("✅ Booking cancelled: " + id);
-        } else {
-            System.out.println("❌ Booking not found with ID: " + id);
+        writeGuard.run();
+        ReentrantLock stripe = locks.forId(id);
+        stripe.lock();
+        try {
+            Booking booking = bookings.get(id);
+            if (booking == null) {
+                log(isArchived(id) ? "❌ Booking " + id + " is archived" : "❌ Booking not found with ID: " + id);
+            } else if (isClosed(booking)) {
+                log("❌ Booking " + id + " is already " + booking.getStatus().getDisplayName());
+            } else {
+                columns.setStatus(booking, BookingStatus.CANCELLED);
+                bookings.reindex(booking);
+                changed(ChangeType.DELETED, booking);
+                log("✅ Booking cancelled: " + id);
+            }
+        } finally {
+            stripe.unlock();
         }
     }
 
+    /**
+     * Looks a booking up in memory and then in the archive. Archived
+     * bookings are returned as read-only copies.
+     */
     @Override
     public Booking getById(String id) {
-        return bookings.stream()
-                .filter(b -> b.getBookingId().equalsIgnoreCase(id))
-                .findFirst()
-                .orElse(null);
+        Booking booking = bookings.get(id);
+        BookingArchive cold = archive;
+        return booking != null || cold == null ? booking : cold.get(id);
+    }
+
+    /**
+     * True if the booking has been moved to the archive.
+     */
+    public boolean isArchived(String id) {
+        BookingArchive cold = archive;
+        return cold != null && !bookings.contains(id) && cold.get(id) != null;
     }
 
     @Override
     public List<Booking> getAll() {
-        return new ArrayList<>(bookings);
+        return bookings.getAll();
+    }
+
+    @Override
+    public int count() {
+        return bookings.size();
+    }
+
+    @Override
+    public List<Booking> getPage(int offset, int limit) {
+        return bookings.slice(offset, limit);
+    }
+
+    @Override
+    public Page<Booking> getPageAfter(String afterId, int limit) {
+        return bookings.pageAfter(afterId, limit);
+    }
+
+    @Override
+    public Stream<Booking> stream() {
+        return bookings.stream();
     }
 
     /**
-     * Get bookings for a specific customer.
+     * Get bookings for a specific customer, archived ones first.
      */
     public List<Booking> getByCustomerId(String customerId) {
-        return bookings.stream()
-                .filter(b -> b.getCustomer().getCustomerId().equalsIgnoreCase(customerId))
-                .collect(Collectors.toList());
+        BookingArchive cold = archive;
+        if (cold == null) {
+            return bookings.findBy(byCustomer, customerId);
+        }
+        List<Booking> result = cold.getByCustomerId(customerId);
+        result.addAll(bookings.findBy(byCustomer, customerId));
+        return result;
     }
 
     /**
      * Get bookings filtered by status.
      */
     public List<Booking> getByStatus(BookingStatus status) {
-        return bookings.stream()
-                .filter(b -> b.getStatus() == status)
-                .collect(Collectors.toList());
+        return bookings.findBy(byStatus, status);
+    }
+
+    /**
+     * Count bookings in a given status (O(1)).
+     */
+    public int countByStatus(BookingStatus status) {
+        return bookings.read(() -> byStatus.count(status));
+    }
+
+    /**
+     * Count bookings made between two dates, inclusive (O(log n)).
+     */
+    public long countBookings(LocalDate from, LocalDate to) {
+        return bookings.read(() -> byDay.sum(from, to));
+    }
+
+    /**
+     * Count bookings of one cylinder type made between two dates, inclusive (O(log n)).
+     */
+    public long countBookings(String cylinderType, LocalDate from, LocalDate to) {
+        return bookings.read(() -> byDay.sum(cylinderType, from, to));
+    }
+
+    /**
+     * The cylinder types that have been booked, sorted by name.
+     */
+    public List<String> getCylinderTypes() {
+        return bookings.read(byDay::groups);
+    }
+
+    /**
+     * Open bookings expected to be delivered on a date.
+     */
+    public List<Booking> getDueOn(LocalDate date) {
+        return bookings.findBy(openByDueDate, date, date);
+    }
+
+    /**
+     * Open bookings expected between two dates, inclusive, earliest first.
+     */
+    public List<Booking> getDueBetween(LocalDate from, LocalDate to) {
+        return bookings.findBy(openByDueDate, from, to);
+    }
+
+    /**
+     * Open bookings whose expected delivery date is before {@code today},
+     * most overdue first.
+     */
+    public List<Booking> getOverdue(LocalDate today) {
+        return bookings.findBy(openByDueDate, null, today.minusDays(1));
+    }
+
+    /**
+     * Move a booking to a different customer, keeping the customer index
+     * and both customers' booking lists in sync.
+     */
+    public boolean reassignCustomer(String bookingId, Customer newCustomer) {
+        writeGuard.run();
+        ReentrantLock stripe = locks.forId(bookingId);
+        stripe.lock();
+        try {
+            Booking booking = bookings.get(bookingId);
+            if (booking == null) {
+                log(isArchived(bookingId) ? "❌ Booking " + bookingId + " is archived"
+                        : "❌ Booking not found with ID: " + bookingId);
+                return false;
+            }
+            Customer oldCustomer = booking.getCustomer();
+            if (oldCustomer != null) {
+                oldCustomer.removeBooking(booking);
+            }
+            columns.setCustomer(booking, newCustomer);
+            newCustomer.addBooking(booking);
+            bookings.reindex(booking);
+            changed(ChangeType.UPDATED, booking);
+            log("✅ Booking " + bookingId + " reassigned to: " + newCustomer.getCustomerId());
+            return true;
+        } finally {
+            stripe.unlock();
+        }
     }
 
     /**
-     * Update the delivery status of a booking.
+     * Update the delivery status of a booking. Delivered and cancelled
+     * bookings are closed and cannot change status again.
+     * Returns true if the transition was applied.
      */
-    public void updateDeliveryStatus(String bookingId, BookingStatus newStatus) {
-        Booking booking = getById(bookingId);
-        if (booking != null) {
-            booking.setStatus(newStatus);
+    public boolean updateDeliveryStatus(String bookingId, BookingStatus newStatus) {
+        writeGuard.run();
+        ReentrantLock stripe = locks.forId(bookingId);
+        stripe.lock();
+        try {
+            Booking booking = bookings.get(bookingId);
+            if (booking == null) {
+                log(isArchived(bookingId) ? "❌ Booking " + bookingId + " is archived"
+                        : "❌ Booking not found with ID: " + bookingId);
+                return false;
+            }
+            if (isClosed(booking)) {
+                log("❌ Booking " + bookingId + " is already " + booking.getStatus().getDisplayName());
+                return false;
+            }
+            columns.setStatus(booking, newStatus);
             if (newStatus == BookingStatus.DELIVERED) {
-                booking.setActualDeliveryDate(LocalDate.now());
+                columns.setActualDeliveryDate(booking, LocalDate.now());
+            }
+            bookings.reindex(booking);
+            changed(ChangeType.STATUS_CHANGED, booking);
+            log("✅ Booking " + bookingId + " status updated to: " + newStatus.getDisplayName());
+            return true;
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    /**
+     * Delivered and cancelled bookings are final. Before the service was
+     * made thread-safe a second clerk could cancel a booking just delivered
+     * (or deliver a cancelled one) and the last write won; now the first
+     * transition under the stripe lock closes the booking and later ones
+     * are rejected, so a race between deliver and cancel has one outcome.
+     */
+    private static boolean isClosed(Booking booking) {
+        return booking.getStatus() == BookingStatus.DELIVERED || booking.getStatus() == BookingStatus.CANCELLED;
+    }
+
+    /**
+     * Insert or overwrite a booking without console output or listeners.
+     * Used when replaying persisted data at startup.
+     */
+    public void restore(Booking booking) {
+        ReentrantLock stripe = locks.forId(booking.getBookingId());
+        stripe.lock();
+        try {
+            Booking existing = bookings.get(booking.getBookingId());
+            if (existing != null) {
+                bookings.replace(existing.getBookingId(), booking);
+            } else {
+                bookings.add(booking);
             }
-            System.out.println("✅ Booking " + bookingId + " status updated to: " + newStatus.getDisplayName());
-        } else {
-            System.out.println("❌ Booking not found with ID: " + bookingId);
+            publishStats();
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    /**
+     * Sets the archive that closed bookings are moved to. Must be called
+     * before bookings are restored, so that archived ones stay archived.
+     */
+    public void setArchive(BookingArchive archive) {
+        this.archive = archive;
+        columns.setArchive(archive == null ? null : archive::get);
+        publishStats();
+    }
+
+    /**
+     * Moves delivered and cancelled bookings made before {@code cutoff}
+     * to the archive, in batches of {@link #ARCHIVE_BATCH}. Each batch is
+     * written durably before it is removed from memory and from its
+     * customer's booking list. Returns the number of bookings archived.
+     */
+    public synchronized int archiveClosedBefore(LocalDate cutoff) {
+        BookingArchive cold = archive;
+        if (cold == null) {
+            log("❌ No booking archive is configured");
+            return 0;
+        }
+        List<Booking> closed = new ArrayList<>();
+        for (BookingStatus status : new BookingStatus[] {BookingStatus.DELIVERED, BookingStatus.CANCELLED}) {
+            for (Booking booking : bookings.findBy(byStatus, status)) {
+                if (booking.getBookingDate() != null && booking.getBookingDate().isBefore(cutoff)) {
+                    closed.add(booking);
+                }
+            }
+        }
+        int archived = 0;
+        for (int start = 0; start < closed.size(); start += ARCHIVE_BATCH) {
+            List<Booking> batch = closed.subList(start, Math.min(start + ARCHIVE_BATCH, closed.size()));
+            try {
+                cold.write(batch);
+            } catch (IOException e) {
+                log("❌ Could not write the booking archive: " + e.getMessage());
+                break;
+            }
+            for (Booking booking : batch) {
+                ReentrantLock stripe = locks.forId(booking.getBookingId());
+                stripe.lock();
+                try {
+                    Customer customer = booking.getCustomer();
+                    if (bookings.remove(booking.getBookingId())) {
+                        if (customer != null) {
+                            customer.removeBooking(booking);
+                        }
+                        archived++;
+                    }
+                } finally {
+                    stripe.unlock();
+                }
+            }
+        }
+        publishStats();
+        log("✅ Archived " + archived + " closed bookings made before " + cutoff);
+        return archived;
+    }
+
+    /**
+     * Turns the console messages for each change on or off, e.g. while
+     * bulk-loading generated data.
+     */
+    public void setVerbose(boolean verbose) {
+        this.verbose = verbose;
+    }
+
+    private void log(String message) {
+        if (verbose) {
+            System.out.println(message);
+        }
+    }
+
+    /**
+     * Sets a check run before every add, update, delete or status change;
+     * it throws to refuse the change, e.g. once the journal has failed.
+     */
+    public void setWriteGuard(Runnable writeGuard) {
+        this.writeGuard = writeGuard;
+    }
+
+    /**
+     * Register a listener that is told about every change to a booking.
+     */
+    public void addListener(ChangeListener<Booking> listener) {
+        listeners.add(listener);
+    }
+
+    private void changed(ChangeType type, Booking booking) {
+        publishStats();
+        for (ChangeListener<Booking> listener : listeners) {
+            listener.onChange(type, booking);
         }
     }
 
+    /**
+     * Synchronized so that the last publisher always reads the latest counts.
+     */
+    private synchronized void publishStats() {
+        int[] counts = bookings.read(() -> new int[] {
+                bookings.size(),
+                byStatus.count(BookingStatus.PENDING)
+                        + byStatus.count(BookingStatus.CONFIRMED)
+                        + byStatus.count(BookingStatus.OUT_FOR_DELIVERY),
+                byStatus.count(BookingStatus.DELIVERED) });
+        BookingArchive cold = archive;
+        if (cold != null) {
+            counts[0] += cold.count();
+            counts[2] += cold.count(BookingStatus.DELIVERED);
+        }
+        dashboard.publishBookings(counts[0], counts[1], counts[2]);
+    }
+
     @Override
     public String generateReport() {
-        long totalBookings = bookings.size();
-        long pending = bookings.stream().filter(b -> b.getStatus() == BookingStatus.PENDING).count();
-        long confirmed = bookings.stream().filter(b -> b.getStatus() == BookingStatus.CONFIRMED).count();
-        long outForDelivery = bookings.stream().filter(b -> b.getStatus() == BookingStatus.OUT_FOR_DELIVERY).count();
-        long delivered = bookings.stream().filter(b -> b.getStatus() == BookingStatus.DELIVERED).count();
-        long cancelled = bookings.stream().filter(b -> b.getStatus() == BookingStatus.CANCELLED).count();
+        BookingArchive cold = archive;
+        long archived = cold == null ? 0 : cold.count();
+        long totalBookings = bookings.size() + archived;
+        long pending = countByStatus(BookingStatus.PENDING);
+        long confirmed = countByStatus(BookingStatus.CONFIRMED);
+        long outForDelivery = countByStatus(BookingStatus.OUT_FOR_DELIVERY);
+        long delivered = countByStatus(BookingStatus.DELIVERED);
+        long cancelled = countByStatus(BookingStatus.CANCELLED);
+        long onTime = columns.countDeliveredOnTime(Integer.MAX_VALUE);
+        if (cold != null) {
+            delivered += cold.count(BookingStatus.DELIVERED);
+            cancelled += cold.count(BookingStatus.CANCELLED);
+            onTime += cold.countDeliveredOnTime();
+        }
 
         StringBuilder report = new StringBuilder();
         report.append("\n╔══════════════════════════════════════════════════════════╗\n");
@@ -115,6 +483,27 @@ public class BookingService implements CRUDOperations<Booking>, Reportable {
         report.append(String.format("║  Out for Delivery    : %-33d║%n", outForDelivery));
         report.append(String.format("║  Delivered           : %-33d║%n", delivered));
         report.append(String.format("║  Cancelled           : %-33d║%n", cancelled));
+        report.append(String.format("║  Delivered On Time   : %-33d║%n", onTime));
+        report.append(String.format("║  Archived            : %-33d║%n", archived));
+        report.append("╚══════════════════════════════════════════════════════════╝\n");
+
+        return report.toString();
+    }
+
+    @Override
+    public String generateReport(LocalDate from, LocalDate to) {
+        StringBuilder report = new StringBuilder();
+        report.append("\n╔══════════════════════════════════════════════════════════╗\n");
+        report.append("║            📊 BOOKING REPORT                            ║\n");
+        report.append("╠══════════════════════════════════════════════════════════╣\n");
+        report.append(String.format("║  Period              : %-33s║%n",
+                from.format(DISPLAY_DATE) + " to " + to.format(DISPLAY_DATE)));
+        report.append(String.format("║  Bookings            : %-33d║%n", countBookings(from, to)));
+        report.append("╠══════════════════════════════════════════════════════════╣\n");
+        report.append("║  By Cylinder Type:                                      ║\n");
+        for (String type : getCylinderTypes()) {
+            report.append(String.format("║    %-18s: %-33d║%n", type, countBookings(type, from, to)));
+        }
         report.append("╚══════════════════════════════════════════════════════════╝\n");
 
         return report.toString();
@@ -0,0 +1,68 @@
+package com.bharatgas.crm.service;
+
+import com.bharatgas.crm.model.Booking;
+import com.bharatgas.crm.model.Complaint;
+import com.bharatgas.crm.model.Customer;
+import com.bharatgas.crm.model.Payment;
+import com.bharatgas.crm.util.SyntheticDataGenerator;
+
+/**
+ * Feeds generated entities into the four services through their normal add
+ * methods, so indexes, dashboard and listeners see them like any other
+ * change. Console messages are switched off while loading.
+ */
+public class BulkLoader implements SyntheticDataGenerator.Sink {
+
+    private final CustomerService customerService;
+    private final BookingService bookingService;
+    private final PaymentService paymentService;
+    private final ComplaintService complaintService;
+
+    public BulkLoader(CustomerService customerService, BookingService bookingService,
+            PaymentService paymentService, ComplaintService complaintService) {
+        this.customerService = customerService;
+        this.bookingService = bookingService;
+        this.paymentService = paymentService;
+        this.complaintService = complaintService;
+    }
+
+    /**
+     * Generates the given number of customers with their history into the
+     * services. Returns the number of entities loaded.
+     */
+    public long load(SyntheticDataGenerator generator, long customers) {
+        setVerbose(false);
+        try {
+            return generator.generate(customers, this);
+        } finally {
+            setVerbose(true);
+        }
+    }
+
+    private void setVerbose(boolean verbose) {
+        customerService.setVerbose(verbose);
+        bookingService.setVerbose(verbose);
+        paymentService.setVerbose(verbose);
+        complaintService.setVerbose(verbose);
+    }
+
+    @Override
+    public void customer(Customer customer) {
+        customerService.add(customer);
+    }
+
+    @Override
+    public void booking(Booking booking) {
+        bookingService.add(booking);
+    }
+
+    @Override
+    public void payment(Payment payment) {
+        paymentService.add(payment);
+    }
+
+    @Override
+    public void complaint(Complaint complaint) {
+        complaintService.add(complaint);
+    }
+}
@@ -1,9 +1,13 @@
 package com.bharatgas.crm.service;
 
+import com.bharatgas.crm.store.Page;
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Generic CRUD operations interface.
+ * Implementations in this package are safe to call from several threads.
  * Demonstrates: Abstraction through interfaces, Generics.
  *
  * @param <T> the entity type
@@ -17,5 +21,34 @@ public interface CRUDOperations<T> {
 
     T getById(String id);
 
+    /**
+     * Returns a copy of every entity. Prefer the paged and streaming views
+     * below for large stores.
+     */
     List<T> getAll();
+
+    /**
+     * Number of stored entities.
+     */
+    int count();
+
+    /**
+     * Up to {@code limit} entities starting at {@code offset}, in insertion order.
+     */
+    List<T> getPage(int offset, int limit);
+
+    /**
+     * Up to {@code limit} entities after the one with the given ID
+     * (from the start if null). Continue with the page's cursor.
+     */
+    Page<T> getPageAfter(String afterId, int limit);
+
+    /**
+     * Lazily streams the entities in insertion order without copying them.
+     */
+    Stream<T> stream();
+
+    default Iterator<T> iterator() {
+        return stream().iterator();
+    }
 }
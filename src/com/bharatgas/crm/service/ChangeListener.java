@@ -0,0 +1,15 @@
+package com.bharatgas.crm.service;
+
+import com.bharatgas.crm.enums.ChangeType;
+
+/**
+ * Callback invoked by a service after an entity was added, updated,
+ * deleted or moved to a new status.
+ * Demonstrates: Functional interfaces, Observer pattern.
+ *
+ * @param <T> the entity type
+ */
+@FunctionalInterface
+public interface ChangeListener<T> {
+    void onChange(ChangeType type, T item);
+}
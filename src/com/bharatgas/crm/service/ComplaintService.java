@@ -2,117 +2,286 @@ package com.bharatgas.crm.service;
 
 import com.bharatgas.crm.model.Complaint;
 import com.bharatgas.crm.enums.ComplaintStatus;
+import com.bharatgas.crm.enums.ChangeType;
+import com.bharatgas.crm.store.EnumIndex;
+import com.bharatgas.crm.store.HashIndex;
+import com.bharatgas.crm.store.IndexedStore;
+import com.bharatgas.crm.store.Page;
+import com.bharatgas.crm.store.StripedLock;
 import java.time.LocalDate;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
 
 /**
  * Service class for managing customer complaints.
+ * Thread-safe: changes to a complaint hold that complaint's lock stripe.
  * Demonstrates: Interface implementation (CRUDOperations, Reportable).
  */
 public class ComplaintService implements CRUDOperations<Complaint>, Reportable {
 
-    private final List<Complaint> complaints;
+    private final IndexedStore<Complaint> complaints;
+    private final HashIndex<Complaint> byCustomer;
+    private final EnumIndex<Complaint, ComplaintStatus> byStatus;
+    private final DashboardAggregator dashboard;
+    private final List<ChangeListener<Complaint>> listeners;
+    private final StripedLock locks;
+    private volatile boolean verbose = true;
+    private volatile Runnable writeGuard = () -> { };
 
     public ComplaintService() {
-        this.complaints = new ArrayList<>();
+        this(new DashboardAggregator());
+    }
+
+    public ComplaintService(DashboardAggregator dashboard) {
+        this.complaints = new IndexedStore<>(Complaint::getComplaintId);
+        this.byCustomer = complaints.addIndex(new HashIndex<>(c -> c.getCustomer().getCustomerId()));
+        this.byStatus = complaints.addIndex(new EnumIndex<>(ComplaintStatus.class, Complaint::getStatus));
+        this.dashboard = dashboard;
+        this.listeners = new CopyOnWriteArrayList<>();
+        this.locks = new StripedLock(64);
     }
 
     @Override
     public void add(Complaint complaint) {
-        complaints.add(complaint);
-        System.out.println("✅ Complaint registered: " + complaint.getComplaintId());
+        writeGuard.run();
+        ReentrantLock stripe = locks.forId(complaint.getComplaintId());
+        stripe.lock();
+        try {
+            if (!complaints.add(complaint)) {
+                log("❌ Complaint already exists with ID: " + complaint.getComplaintId());
+                return;
+            }
+            changed(ChangeType.ADDED, complaint);
+            log("✅ Complaint registered: " + complaint.getComplaintId());
+        } finally {
+            stripe.unlock();
+        }
     }
 
     @Override
     public void update(String id, Complaint updatedComplaint) {
-        for (int i = 0; i < complaints.size(); i++) {
-            if (complaints.get(i).getComplaintId().equalsIgnoreCase(id)) {
-                complaints.set(i, updatedComplaint);
-                System.out.println("✅ Complaint updated: " + id);
-                return;
+        writeGuard.run();
+        ReentrantLock stripe = locks.forId(id);
+        stripe.lock();
+        try {
+            if (complaints.replace(id, updatedComplaint)) {
+                changed(ChangeType.UPDATED, updatedComplaint);
+                log("✅ Complaint updated: " + id);
+            } else {
+                log("❌ Complaint not found with ID: " + id);
             }
+        } finally {
+            stripe.unlock();
         }
-        System.out.println("❌ Complaint not found with ID: " + id);
     }
 
     @Override
     public void delete(String id) {
-        Complaint complaint = getById(id);
-        if (complaint != null) {
-            complaint.setStatus(ComplaintStatus.CLOSED);
-            System.out.println("✅ Complaint closed: " + id);
-        } else {
-            System.out.println("❌ Complaint not found with ID: " + id);
+        writeGuard.run();
+        ReentrantLock stripe = locks.forId(id);
+        stripe.lock();
+        try {
+            Complaint complaint = getById(id);
+            if (complaint != null) {
+                complaint.setStatus(ComplaintStatus.CLOSED);
+                complaints.reindex(complaint);
+                changed(ChangeType.DELETED, complaint);
+                log("✅ Complaint closed: " + id);
+            } else {
+                log("❌ Complaint not found with ID: " + id);
+            }
+        } finally {
+            stripe.unlock();
         }
     }
 
     @Override
     public Complaint getById(String id) {
-        return complaints.stream()
-                .filter(c -> c.getComplaintId().equalsIgnoreCase(id))
-                .findFirst()
-                .orElse(null);
+        return complaints.get(id);
     }
 
     @Override
     public List<Complaint> getAll() {
-        return new ArrayList<>(complaints);
+        return complaints.getAll();
+    }
+
+    @Override
+    public int count() {
+        return complaints.size();
+    }
+
+    @Override
+    public List<Complaint> getPage(int offset, int limit) {
+        return complaints.slice(offset, limit);
+    }
+
+    @Override
+    public Page<Complaint> getPageAfter(String afterId, int limit) {
+        return complaints.pageAfter(afterId, limit);
+    }
+
+    @Override
+    public Stream<Complaint> stream() {
+        return complaints.stream();
     }
 
     /**
      * Get complaints for a specific customer.
      */
     public List<Complaint> getByCustomerId(String customerId) {
-        return complaints.stream()
-                .filter(c -> c.getCustomer().getCustomerId().equalsIgnoreCase(customerId))
-                .collect(Collectors.toList());
+        return complaints.findBy(byCustomer, customerId);
     }
 
     /**
      * Get complaints filtered by status.
      */
     public List<Complaint> getByStatus(ComplaintStatus status) {
-        return complaints.stream()
-                .filter(c -> c.getStatus() == status)
-                .collect(Collectors.toList());
+        return complaints.findBy(byStatus, status);
+    }
+
+    /**
+     * Count complaints in a given status (O(1)).
+     */
+    public int countByStatus(ComplaintStatus status) {
+        return complaints.read(() -> byStatus.count(status));
     }
 
     /**
-     * Resolve a complaint by ID.
+     * Resolve a complaint by ID. Returns false if it was not found or is already
+     * resolved or closed, so a resolution is never overwritten.
      */
-    public void resolveComplaint(String complaintId) {
-        Complaint complaint = getById(complaintId);
-        if (complaint != null) {
-            complaint.setStatus(ComplaintStatus.RESOLVED);
-            complaint.setResolvedDate(LocalDate.now());
-            System.out.println("✅ Complaint resolved: " + complaintId);
-        } else {
-            System.out.println("❌ Complaint not found with ID: " + complaintId);
+    public boolean resolveComplaint(String complaintId) {
+        writeGuard.run();
+        ReentrantLock stripe = locks.forId(complaintId);
+        stripe.lock();
+        try {
+            Complaint complaint = getById(complaintId);
+            if (complaint != null && isFinished(complaint)) {
+                log("❌ Complaint " + complaintId + " is already " + complaint.getStatus());
+                return false;
+            }
+            if (complaint != null) {
+                complaint.setStatus(ComplaintStatus.RESOLVED);
+                complaint.setResolvedDate(LocalDate.now());
+                complaints.reindex(complaint);
+                changed(ChangeType.STATUS_CHANGED, complaint);
+                log("✅ Complaint resolved: " + complaintId);
+                return true;
+            }
+            log("❌ Complaint not found with ID: " + complaintId);
+            return false;
+        } finally {
+            stripe.unlock();
         }
     }
 
     /**
-     * Mark a complaint as in progress.
+     * Mark a complaint as in progress. Returns false if it was not found or is already
+     * resolved or closed, so a resolution is never overwritten.
      */
-    public void markInProgress(String complaintId) {
-        Complaint complaint = getById(complaintId);
-        if (complaint != null) {
-            complaint.setStatus(ComplaintStatus.IN_PROGRESS);
-            System.out.println("✅ Complaint marked in progress: " + complaintId);
-        } else {
-            System.out.println("❌ Complaint not found with ID: " + complaintId);
+    public boolean markInProgress(String complaintId) {
+        writeGuard.run();
+        ReentrantLock stripe = locks.forId(complaintId);
+        stripe.lock();
+        try {
+            Complaint complaint = getById(complaintId);
+            if (complaint != null && isFinished(complaint)) {
+                log("❌ Complaint " + complaintId + " is already " + complaint.getStatus());
+                return false;
+            }
+            if (complaint != null) {
+                complaint.setStatus(ComplaintStatus.IN_PROGRESS);
+                complaints.reindex(complaint);
+                changed(ChangeType.STATUS_CHANGED, complaint);
+                log("✅ Complaint marked in progress: " + complaintId);
+                return true;
+            }
+            log("❌ Complaint not found with ID: " + complaintId);
+            return false;
+        } finally {
+            stripe.unlock();
         }
     }
 
+    private static boolean isFinished(Complaint complaint) {
+        return complaint.getStatus() == ComplaintStatus.RESOLVED || complaint.getStatus() == ComplaintStatus.CLOSED;
+    }
+
+    /**
+     * Insert or overwrite a complaint without console output or listeners.
+     * Used when replaying persisted data at startup.
+     */
+    public void restore(Complaint complaint) {
+        ReentrantLock stripe = locks.forId(complaint.getComplaintId());
+        stripe.lock();
+        try {
+            Complaint existing = getById(complaint.getComplaintId());
+            if (existing == complaint) {
+                complaints.reindex(complaint);
+            } else if (existing != null) {
+                complaints.replace(existing.getComplaintId(), complaint);
+            } else {
+                complaints.add(complaint);
+            }
+            publishStats();
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    /**
+     * Turns the console messages for each change on or off, e.g. while
+     * bulk-loading generated data.
+     */
+    public void setVerbose(boolean verbose) {
+        this.verbose = verbose;
+    }
+
+    private void log(String message) {
+        if (verbose) {
+            System.out.println(message);
+        }
+    }
+
+    /**
+     * Sets a check run before every add, update, delete or status change;
+     * it throws to refuse the change, e.g. once the journal has failed.
+     */
+    public void setWriteGuard(Runnable writeGuard) {
+        this.writeGuard = writeGuard;
+    }
+
+    /**
+     * Register a listener that is told about every change to a complaint.
+     */
+    public void addListener(ChangeListener<Complaint> listener) {
+        listeners.add(listener);
+    }
+
+    private void changed(ChangeType type, Complaint complaint) {
+        publishStats();
+        for (ChangeListener<Complaint> listener : listeners) {
+            listener.onChange(type, complaint);
+        }
+    }
+
+    /**
+     * Synchronized so that the last publisher always reads the latest counts.
+     */
+    private synchronized void publishStats() {
+        dashboard.publishOpenComplaints(complaints.read(() -> byStatus.count(ComplaintStatus.OPEN)
+                + byStatus.count(ComplaintStatus.IN_PROGRESS)));
+    }
+
     @Override
     public String generateReport() {
         long totalComplaints = complaints.size();
-        long open = complaints.stream().filter(c -> c.getStatus() == ComplaintStatus.OPEN).count();
-        long inProgress = complaints.stream().filter(c -> c.getStatus() == ComplaintStatus.IN_PROGRESS).count();
-        long resolved = complaints.stream().filter(c -> c.getStatus() == ComplaintStatus.RESOLVED).count();
-        long closed = complaints.stream().filter(c -> c.getStatus() == ComplaintStatus.CLOSED).count();
+        long open = countByStatus(ComplaintStatus.OPEN);
+        long inProgress = countByStatus(ComplaintStatus.IN_PROGRESS);
+        long resolved = countByStatus(ComplaintStatus.RESOLVED);
+        long closed = countByStatus(ComplaintStatus.CLOSED);
 
         StringBuilder report = new StringBuilder();
         report.append("\n╔══════════════════════════════════════════════════════════╗\n");
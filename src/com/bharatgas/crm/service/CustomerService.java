@@ -3,104 +3,369 @@ package com.bharatgas.crm.service;
 import com.bharatgas.crm.model.Customer;
 import com.bharatgas.crm.enums.ConnectionStatus;
 import com.bharatgas.crm.enums.ConnectionType;
-import java.util.ArrayList;
+import com.bharatgas.crm.enums.ChangeType;
+import com.bharatgas.crm.store.EnumIndex;
+import com.bharatgas.crm.store.IndexedStore;
+import com.bharatgas.crm.store.Page;
+import com.bharatgas.crm.store.PhoneIndex;
+import com.bharatgas.crm.store.StripedLock;
+import com.bharatgas.crm.store.TrigramIndex;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
 
 /**
  * Service class for managing customers.
+ * Thread-safe: changes to a customer hold that customer's lock stripe.
  * Demonstrates: Interface implementation (CRUDOperations, Searchable,
  * Reportable),
  * Polymorphism (method implementations from interfaces).
  */
 public class CustomerService implements CRUDOperations<Customer>, Searchable<Customer>, Reportable {
 
-    private final List<Customer> customers;
+    private final IndexedStore<Customer> customers;
+    private final EnumIndex<Customer, ConnectionStatus> byStatus;
+    private final EnumIndex<Customer, ConnectionType> byType;
+    private final TrigramIndex<Customer> byName;
+    private final PhoneIndex<Customer> byPhone;
+    private final DashboardAggregator dashboard;
+    private final List<ChangeListener<Customer>> listeners;
+    private final StripedLock locks;
+    private volatile boolean verbose = true;
+    private volatile Runnable writeGuard = () -> { };
+    private final StripedLock phoneLocks;
 
     public CustomerService() {
-        this.customers = new ArrayList<>();
+        this(new DashboardAggregator());
     }
 
+    public CustomerService(DashboardAggregator dashboard) {
+        this.customers = new IndexedStore<>(Customer::getCustomerId);
+        this.byStatus = customers.addIndex(new EnumIndex<>(ConnectionStatus.class, Customer::getConnectionStatus));
+        this.byType = customers.addIndex(new EnumIndex<>(ConnectionType.class, Customer::getConnectionType));
+        this.byName = customers.addIndex(new TrigramIndex<>(Customer::getName));
+        this.byPhone = customers.addIndex(new PhoneIndex<>(Customer::getPhone));
+        this.dashboard = dashboard;
+        this.listeners = new CopyOnWriteArrayList<>();
+        this.locks = new StripedLock(64);
+        this.phoneLocks = new StripedLock(64);
+    }
+
+    /**
+     * Registers a customer. A mobile number can only be registered once;
+     * the number's lock stripe is held so two counters cannot both claim it.
+     * Phone stripes are always taken before ID stripes.
+     */
     @Override
     public void add(Customer customer) {
-        customers.add(customer);
-        System.out.println("✅ Customer registered successfully: " + customer.getCustomerId());
+        writeGuard.run();
+        ReentrantLock phoneStripe = phoneLocks.forId(phoneLockKey(PhoneIndex.key(customer.getPhone())));
+        ReentrantLock stripe = locks.forId(customer.getCustomerId());
+        phoneStripe.lock();
+        stripe.lock();
+        try {
+            Customer owner = getByPhone(customer.getPhone());
+            if (owner != null) {
+                log("❌ Phone " + customer.getPhone() + " is already registered to: " + owner.getCustomerId());
+                return;
+            }
+            if (!customers.add(customer)) {
+                log("❌ Customer already exists with ID: " + customer.getCustomerId());
+                return;
+            }
+            changed(ChangeType.ADDED, customer);
+            log("✅ Customer registered successfully: " + customer.getCustomerId());
+        } finally {
+            stripe.unlock();
+            phoneStripe.unlock();
+        }
     }
 
+    /**
+     * Replaces a customer's details. Like {@link #add}, a number already
+     * registered to another customer is rejected; the stripes of the old
+     * and the new number are both held, in stripe order, so a number being
+     * given up or claimed cannot be taken by a concurrent add or update.
+     * If the rejected customer is the stored object itself, its old
+     * number is put back.
+     */
     @Override
     public void update(String id, Customer updatedCustomer) {
-        for (int i = 0; i < customers.size(); i++) {
-            if (customers.get(i).getCustomerId().equalsIgnoreCase(id)) {
-                customers.set(i, updatedCustomer);
-                System.out.println("✅ Customer updated successfully: " + id);
-                return;
+        writeGuard.run();
+        String phone = updatedCustomer.getPhone();
+        withUpdateLocks(id, phone, () -> {
+            Customer existing = getById(id);
+            if (existing == null) {
+                log("❌ Customer not found with ID: " + id);
+                return false;
+            }
+            Customer owner = getByPhone(phone);
+            if (owner != null && owner != existing) {
+                long oldPhone = customers.indexedKey(byPhone, id);
+                if (updatedCustomer == existing && oldPhone != PhoneIndex.NO_KEY) {
+                    existing.setPhone(Long.toString(oldPhone));
+                }
+                log("❌ Phone " + phone + " is already registered to: " + owner.getCustomerId());
+                return false;
+            }
+            if (!customers.replace(id, updatedCustomer)) {
+                log("❌ Customer ID " + updatedCustomer.getCustomerId() + " is already in use");
+                return false;
+            }
+            changed(ChangeType.UPDATED, updatedCustomer);
+            log("✅ Customer updated successfully: " + id);
+            return true;
+        });
+    }
+
+    /**
+     * Changes a stored customer's contact details in place, holding the
+     * same stripes as {@link #update}, so concurrent edits cannot interleave
+     * and a rejected number leaves every field as it was. Null arguments
+     * are left unchanged. Returns false if the customer does not exist or
+     * the number is registered to another customer.
+     */
+    public boolean updateDetails(String id, String name, String phone, String email, String address) {
+        writeGuard.run();
+        return withUpdateLocks(id, phone, () -> {
+            Customer existing = getById(id);
+            if (existing == null) {
+                log("❌ Customer not found with ID: " + id);
+                return false;
+            }
+            Customer owner = phone == null ? null : getByPhone(phone);
+            if (owner != null && owner != existing) {
+                log("❌ Phone " + phone + " is already registered to: " + owner.getCustomerId());
+                return false;
+            }
+            if (name != null) {
+                existing.setName(name);
+            }
+            if (phone != null) {
+                existing.setPhone(phone);
+            }
+            if (email != null) {
+                existing.setEmail(email);
+            }
+            if (address != null) {
+                existing.setAddress(address);
+            }
+            customers.replace(id, existing);
+            changed(ChangeType.UPDATED, existing);
+            log("✅ Customer updated successfully: " + id);
+            return true;
+        });
+    }
+
+    /**
+     * Runs a change holding the customer's ID stripe and the stripes of its
+     * current and new number, in stripe order. Retries if the stored number
+     * changed before its stripe was held.
+     */
+    private boolean withUpdateLocks(String id, String newPhone, BooleanSupplier change) {
+        long newKey = PhoneIndex.key(newPhone);
+        ReentrantLock stripe = locks.forId(id);
+        while (true) {
+            long oldPhone = customers.indexedKey(byPhone, id);
+            ReentrantLock[] phoneStripes = phoneLocks.forIds(phoneLockKey(oldPhone), phoneLockKey(newKey));
+            for (ReentrantLock phoneStripe : phoneStripes) {
+                phoneStripe.lock();
+            }
+            stripe.lock();
+            try {
+                if (customers.indexedKey(byPhone, id) != oldPhone) {
+                    continue; // changed before we held its stripe; lock the current number
+                }
+                return change.getAsBoolean();
+            } finally {
+                stripe.unlock();
+                for (int i = phoneStripes.length - 1; i >= 0; i--) {
+                    phoneStripes[i].unlock();
+                }
             }
         }
-        System.out.println("❌ Customer not found with ID: " + id);
+    }
+
+    /** Stripe key for a number, so that spacing variants share a stripe. */
+    private static String phoneLockKey(long phone) {
+        return Long.toString(phone);
     }
 
     @Override
     public void delete(String id) {
-        Customer customer = getById(id);
-        if (customer != null) {
-            customer.setConnectionStatus(ConnectionStatus.INACTIVE);
-            System.out.println("✅ Customer connection deactivated: " + id);
-        } else {
-            System.out.println("❌ Customer not found with ID: " + id);
+        writeGuard.run();
+        ReentrantLock stripe = locks.forId(id);
+        stripe.lock();
+        try {
+            Customer customer = getById(id);
+            if (customer != null) {
+                customer.setConnectionStatus(ConnectionStatus.INACTIVE);
+                customers.reindex(customer);
+                changed(ChangeType.DELETED, customer);
+                log("✅ Customer connection deactivated: " + id);
+            } else {
+                log("❌ Customer not found with ID: " + id);
+            }
+        } finally {
+            stripe.unlock();
         }
     }
 
     @Override
     public Customer getById(String id) {
-        return customers.stream()
-                .filter(c -> c.getCustomerId().equalsIgnoreCase(id))
-                .findFirst()
-                .orElse(null);
+        return customers.get(id);
     }
 
     @Override
     public List<Customer> getAll() {
-        return new ArrayList<>(customers);
+        return customers.getAll();
+    }
+
+    @Override
+    public int count() {
+        return customers.size();
+    }
+
+    @Override
+    public List<Customer> getPage(int offset, int limit) {
+        return customers.slice(offset, limit);
+    }
+
+    @Override
+    public Page<Customer> getPageAfter(String afterId, int limit) {
+        return customers.pageAfter(afterId, limit);
+    }
+
+    @Override
+    public Stream<Customer> stream() {
+        return customers.stream();
     }
 
     @Override
     public List<Customer> searchByName(String name) {
-        return customers.stream()
-                .filter(c -> c.getName().toLowerCase().contains(name.toLowerCase()))
-                .collect(Collectors.toList());
+        return searchByName(name, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Looks up a customer by 10-digit mobile number, e.g. for IVR bookings.
+     * Returns null if the number is not registered.
+     */
+    public Customer getByPhone(String phone) {
+        return customers.findBy(byPhone, phone);
+    }
+
+    /**
+     * Case-insensitive substring search over customer names using the
+     * trigram index. Returns at most {@code limit} customers in
+     * registration order.
+     */
+    public List<Customer> searchByName(String name, int limit) {
+        return customers.findBy(byName, name, limit);
     }
 
     /**
      * Get customers filtered by connection type.
      */
     public List<Customer> getByConnectionType(ConnectionType type) {
-        return customers.stream()
-                .filter(c -> c.getConnectionType() == type)
-                .collect(Collectors.toList());
+        return customers.findBy(byType, type);
+    }
+
+    /**
+     * Count customers with a given connection type (O(1)).
+     */
+    public int countByConnectionType(ConnectionType type) {
+        return customers.read(() -> byType.count(type));
     }
 
     /**
      * Get customers filtered by connection status.
      */
     public List<Customer> getByStatus(ConnectionStatus status) {
-        return customers.stream()
-                .filter(c -> c.getConnectionStatus() == status)
-                .collect(Collectors.toList());
+        return customers.findBy(byStatus, status);
+    }
+
+    /**
+     * Count customers with a given connection status (O(1)).
+     */
+    public int countByStatus(ConnectionStatus status) {
+        return customers.read(() -> byStatus.count(status));
+    }
+
+    /**
+     * Insert or overwrite a customer without console output or listeners.
+     * Used when replaying persisted data at startup.
+     */
+    public void restore(Customer customer) {
+        ReentrantLock stripe = locks.forId(customer.getCustomerId());
+        stripe.lock();
+        try {
+            Customer existing = getById(customer.getCustomerId());
+            if (existing == customer) {
+                customers.reindex(customer);
+            } else if (existing != null) {
+                customers.replace(existing.getCustomerId(), customer);
+            } else {
+                customers.add(customer);
+            }
+            publishStats();
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    /**
+     * Turns the console messages for each change on or off, e.g. while
+     * bulk-loading generated data.
+     */
+    public void setVerbose(boolean verbose) {
+        this.verbose = verbose;
+    }
+
+    private void log(String message) {
+        if (verbose) {
+            System.out.println(message);
+        }
+    }
+
+    /**
+     * Sets a check run before every add, update, delete or status change;
+     * it throws to refuse the change, e.g. once the journal has failed.
+     */
+    public void setWriteGuard(Runnable writeGuard) {
+        this.writeGuard = writeGuard;
+    }
+
+    /**
+     * Register a listener that is told about every change to a customer.
+     */
+    public void addListener(ChangeListener<Customer> listener) {
+        listeners.add(listener);
+    }
+
+    private void changed(ChangeType type, Customer customer) {
+        publishStats();
+        for (ChangeListener<Customer> listener : listeners) {
+            listener.onChange(type, customer);
+        }
+    }
+
+    /**
+     * Synchronized so that the last publisher always reads the latest counts.
+     */
+    private synchronized void publishStats() {
+        dashboard.publishCustomers(customers.size(), countByStatus(ConnectionStatus.ACTIVE));
     }
 
     @Override
     public String generateReport() {
         long totalCustomers = customers.size();
-        long activeCustomers = customers.stream()
-                .filter(c -> c.getConnectionStatus() == ConnectionStatus.ACTIVE).count();
-        long inactiveCustomers = customers.stream()
-                .filter(c -> c.getConnectionStatus() == ConnectionStatus.INACTIVE).count();
-        long suspendedCustomers = customers.stream()
-                .filter(c -> c.getConnectionStatus() == ConnectionStatus.SUSPENDED).count();
-        long domesticConnections = customers.stream()
-                .filter(c -> c.getConnectionType() == ConnectionType.DOMESTIC).count();
-        long commercialConnections = customers.stream()
-                .filter(c -> c.getConnectionType() == ConnectionType.COMMERCIAL).count();
+        long activeCustomers = countByStatus(ConnectionStatus.ACTIVE);
+        long inactiveCustomers = countByStatus(ConnectionStatus.INACTIVE);
+        long suspendedCustomers = countByStatus(ConnectionStatus.SUSPENDED);
+        long domesticConnections = countByConnectionType(ConnectionType.DOMESTIC);
+        long commercialConnections = countByConnectionType(ConnectionType.COMMERCIAL);
 
         StringBuilder report = new StringBuilder();
         report.append("\n╔══════════════════════════════════════════════════════════╗\n");
@@ -0,0 +1,46 @@
+package com.bharatgas.crm.service;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+/**
+ * Live dashboard aggregate shared by the services.
+ * Each service pushes its O(1) counters here after a mutation and the
+ * aggregator swaps in a new {@link DashboardSnapshot} atomically, so reading
+ * the dashboard is a single volatile read regardless of data size.
+ */
+public class DashboardAggregator {
+
+    private final AtomicReference<DashboardSnapshot> current;
+
+    public DashboardAggregator() {
+        this.current = new AtomicReference<>(DashboardSnapshot.EMPTY);
+    }
+
+    /**
+     * Returns the latest published snapshot (constant time, no allocation).
+     */
+    public DashboardSnapshot current() {
+        return current.get();
+    }
+
+    public void publishCustomers(int total, int active) {
+        publish(s -> s.withCustomers(total, active));
+    }
+
+    public void publishBookings(int total, int pending, int completed) {
+        publish(s -> s.withBookings(total, pending, completed));
+    }
+
+    public void publishRevenue(long revenuePaise) {
+        publish(s -> s.withRevenue(revenuePaise));
+    }
+
+    public void publishOpenComplaints(int open) {
+        publish(s -> s.withOpenComplaints(open));
+    }
+
+    private void publish(UnaryOperator<DashboardSnapshot> change) {
+        current.updateAndGet(change);
+    }
+}
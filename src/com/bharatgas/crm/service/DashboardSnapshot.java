@@ -0,0 +1,80 @@
+package com.bharatgas.crm.service;
+
+/**
+ * Immutable point-in-time view of the dashboard counters.
+ * A new snapshot is published by {@link DashboardAggregator} after every
+ * mutation, so readers always see a consistent set of numbers.
+ * Demonstrates: Immutability, Encapsulation.
+ */
+public final class DashboardSnapshot {
+
+    public static final DashboardSnapshot EMPTY = new DashboardSnapshot(0, 0, 0, 0, 0, 0, 0);
+
+    private final int totalCustomers;
+    private final int activeConnections;
+    private final int totalBookings;
+    private final int pendingDeliveries;
+    private final int completedDeliveries;
+    private final long totalRevenuePaise;
+    private final int openComplaints;
+
+    public DashboardSnapshot(int totalCustomers, int activeConnections, int totalBookings,
+            int pendingDeliveries, int completedDeliveries, long totalRevenuePaise, int openComplaints) {
+        this.totalCustomers = totalCustomers;
+        this.activeConnections = activeConnections;
+        this.totalBookings = totalBookings;
+        this.pendingDeliveries = pendingDeliveries;
+        this.completedDeliveries = completedDeliveries;
+        this.totalRevenuePaise = totalRevenuePaise;
+        this.openComplaints = openComplaints;
+    }
+
+    public DashboardSnapshot withCustomers(int total, int active) {
+        return new DashboardSnapshot(total, active, totalBookings, pendingDeliveries,
+                completedDeliveries, totalRevenuePaise, openComplaints);
+    }
+
+    public DashboardSnapshot withBookings(int total, int pending, int completed) {
+        return new DashboardSnapshot(totalCustomers, activeConnections, total, pending,
+                completed, totalRevenuePaise, openComplaints);
+    }
+
+    public DashboardSnapshot withRevenue(long revenuePaise) {
+        return new DashboardSnapshot(totalCustomers, activeConnections, totalBookings,
+                pendingDeliveries, completedDeliveries, revenuePaise, openComplaints);
+    }
+
+    public DashboardSnapshot withOpenComplaints(int open) {
+        return new DashboardSnapshot(totalCustomers, activeConnections, totalBookings,
+                pendingDeliveries, completedDeliveries, totalRevenuePaise, open);
+    }
+
+    // Getters
+    public int getTotalCustomers() {
+        return totalCustomers;
+    }
+
+    public int getActiveConnections() {
+        return activeConnections;
+    }
+
+    public int getTotalBookings() {
+        return totalBookings;
+    }
+
+    public int getPendingDeliveries() {
+        return pendingDeliveries;
+    }
+
+    public int getCompletedDeliveries() {
+        return completedDeliveries;
+    }
+
+    public long getTotalRevenuePaise() {
+        return totalRevenuePaise;
+    }
+
+    public int getOpenComplaints() {
+        return openComplaints;
+    }
+}
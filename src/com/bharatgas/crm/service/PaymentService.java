@@ -1,109 +1,391 @@
 package com.bharatgas.crm.service;
 
+import com.bharatgas.crm.model.Booking;
 import com.bharatgas.crm.model.Payment;
+import com.bharatgas.crm.model.PaymentLedger;
 import com.bharatgas.crm.enums.PaymentMode;
 import com.bharatgas.crm.enums.PaymentStatus;
-import java.util.ArrayList;
+import com.bharatgas.crm.enums.ChangeType;
+import com.bharatgas.crm.store.DailyTotalsIndex;
+import com.bharatgas.crm.store.EnumIndex;
+import com.bharatgas.crm.store.IndexedStore;
+import com.bharatgas.crm.store.Page;
+import com.bharatgas.crm.store.SequenceIndex;
+import com.bharatgas.crm.store.SequenceKeyIndex;
+import com.bharatgas.crm.store.StripedLock;
+import com.bharatgas.crm.util.IDGenerator;
+import com.bharatgas.crm.util.Money;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 /**
  * Service class for managing payments.
+ * Thread-safe: changes to a payment hold that payment's lock stripe.
+ * Payments are stored off-heap in a {@link PaymentLedger}; the Payment
+ * objects handed out are views of their records. Amounts are summed in
+ * exact paise per payment mode and status, in LongAdder cells that are
+ * updated whenever a payment is recorded, changed or refunded. Revenue per
+ * day, by mode and by cylinder type, is kept in Fenwick-tree indexes for
+ * date-range reports.
  * Demonstrates: Interface implementation (CRUDOperations, Reportable).
  */
 public class PaymentService implements CRUDOperations<Payment>, Reportable {
+    private static final DateTimeFormatter DISPLAY_DATE = DateTimeFormatter.ofPattern("dd-MM-yyyy");
 
-    private final List<Payment> payments;
+    private final PaymentLedger ledger;
+    private final IndexedStore<Payment> payments;
+    private final SequenceIndex<Payment> byBooking;
+    private final EnumIndex<Payment, PaymentStatus> byStatus;
+    private final EnumIndex<Payment, PaymentMode> byMode;
+    private final DailyTotalsIndex<Payment> revenueByMode;
+    private final DailyTotalsIndex<Payment> revenueByCylinder;
+    private final DashboardAggregator dashboard;
+    private final List<ChangeListener<Payment>> listeners;
+    private final StripedLock locks;
+    private volatile boolean verbose = true;
+    private volatile Runnable writeGuard = () -> { };
+    private final LongAdder[] amountsPaise;
 
     public PaymentService() {
-        this.payments = new ArrayList<>();
+        this(new DashboardAggregator());
+    }
+
+    public PaymentService(DashboardAggregator dashboard) {
+        this.ledger = new PaymentLedger();
+        this.payments = new IndexedStore<>(Payment::getPaymentId,
+                new SequenceKeyIndex(id -> IDGenerator.parse(IDGenerator.Kind.PAYMENT, id)), ledger);
+        this.byBooking = payments.addIndex(new SequenceIndex<>(p -> p.getBooking().getBookingId(),
+                id -> IDGenerator.parse(IDGenerator.Kind.BOOKING, id)));
+        this.byStatus = payments.addIndex(new EnumIndex<>(PaymentStatus.class, Payment::getPaymentStatus));
+        this.byMode = payments.addIndex(new EnumIndex<>(PaymentMode.class, Payment::getPaymentMode));
+        this.revenueByMode = payments.addIndex(new DailyTotalsIndex<>(Payment::getPaymentDate,
+                p -> p.getPaymentMode() == null ? null : p.getPaymentMode().name(), PaymentService::revenuePaise));
+        this.revenueByCylinder = payments.addIndex(new DailyTotalsIndex<>(Payment::getPaymentDate,
+                PaymentService::cylinderType, PaymentService::revenuePaise));
+        this.amountsPaise = new LongAdder[PaymentMode.values().length * PaymentStatus.values().length];
+        for (int i = 0; i < amountsPaise.length; i++) {
+            amountsPaise[i] = new LongAdder();
+        }
+        this.dashboard = dashboard;
+        this.listeners = new CopyOnWriteArrayList<>();
+        this.locks = new StripedLock(64);
     }
 
     @Override
     public void add(Payment payment) {
-        payments.add(payment);
-        System.out.println("✅ Payment recorded successfully: " + payment.getPaymentId());
+        writeGuard.run();
+        ReentrantLock stripe = locks.forId(payment.getPaymentId());
+        stripe.lock();
+        try {
+            if (!payments.add(payment)) {
+                log("❌ Payment already exists with ID: " + payment.getPaymentId());
+                return;
+            }
+            account(payment, 1);
+            changed(ChangeType.ADDED, payment);
+            log("✅ Payment recorded successfully: " + payment.getPaymentId());
+        } finally {
+            stripe.unlock();
+        }
     }
 
     @Override
     public void update(String id, Payment updatedPayment) {
-        for (int i = 0; i < payments.size(); i++) {
-            if (payments.get(i).getPaymentId().equalsIgnoreCase(id)) {
-                payments.set(i, updatedPayment);
-                System.out.println("✅ Payment updated: " + id);
+        writeGuard.run();
+        ReentrantLock stripe = locks.forId(id);
+        stripe.lock();
+        try {
+            Payment existing = getById(id);
+            if (existing == null) {
+                log("❌ Payment not found with ID: " + id);
                 return;
             }
+            // Read before the replace: existing is a view of the same record.
+            PaymentMode oldMode = existing.getPaymentMode();
+            PaymentStatus oldStatus = existing.getPaymentStatus();
+            long oldAmountPaise = existing.getAmountPaise();
+            if (payments.replace(id, updatedPayment)) {
+                account(oldMode, oldStatus, -oldAmountPaise);
+                account(updatedPayment, 1);
+                changed(ChangeType.UPDATED, updatedPayment);
+                log("✅ Payment updated: " + id);
+            } else {
+                log("❌ Payment ID " + updatedPayment.getPaymentId() + " is already in use");
+            }
+        } finally {
+            stripe.unlock();
         }
-        System.out.println("❌ Payment not found with ID: " + id);
     }
 
     @Override
     public void delete(String id) {
-        Payment payment = getById(id);
-        if (payment != null) {
-            payment.setPaymentStatus(PaymentStatus.REFUNDED);
-            System.out.println("✅ Payment refunded: " + id);
-        } else {
-            System.out.println("❌ Payment not found with ID: " + id);
+        writeGuard.run();
+        ReentrantLock stripe = locks.forId(id);
+        stripe.lock();
+        try {
+            Payment payment = getById(id);
+            if (payment != null && payment.getPaymentStatus() == PaymentStatus.REFUNDED) {
+                log("❌ Payment already refunded: " + id);
+            } else if (payment != null) {
+                account(payment, -1);
+                ledger.setPaymentStatus(payment, PaymentStatus.REFUNDED);
+                account(payment, 1);
+                payments.reindex(payment);
+                changed(ChangeType.DELETED, payment);
+                log("✅ Payment refunded: " + id);
+            } else {
+                log("❌ Payment not found with ID: " + id);
+            }
+        } finally {
+            stripe.unlock();
         }
     }
 
     @Override
     public Payment getById(String id) {
-        return payments.stream()
-                .filter(p -> p.getPaymentId().equalsIgnoreCase(id))
-                .findFirst()
-                .orElse(null);
+        return payments.get(id);
     }
 
     @Override
     public List<Payment> getAll() {
-        return new ArrayList<>(payments);
+        return payments.getAll();
+    }
+
+    @Override
+    public int count() {
+        return payments.size();
+    }
+
+    @Override
+    public List<Payment> getPage(int offset, int limit) {
+        return payments.slice(offset, limit);
+    }
+
+    @Override
+    public Page<Payment> getPageAfter(String afterId, int limit) {
+        return payments.pageAfter(afterId, limit);
+    }
+
+    @Override
+    public Stream<Payment> stream() {
+        return payments.stream();
     }
 
     /**
      * Get payments for a specific booking.
      */
     public List<Payment> getByBookingId(String bookingId) {
-        return payments.stream()
-                .filter(p -> p.getBooking().getBookingId().equalsIgnoreCase(bookingId))
-                .collect(Collectors.toList());
+        return payments.findBy(byBooking, bookingId);
     }
 
     /**
      * Get payments by payment mode.
      */
     public List<Payment> getByPaymentMode(PaymentMode mode) {
-        return payments.stream()
-                .filter(p -> p.getPaymentMode() == mode)
-                .collect(Collectors.toList());
+        return payments.findBy(byMode, mode);
     }
 
     /**
-     * Calculate total revenue collected.
+     * Get payments by payment status.
      */
-    public double getTotalRevenue() {
-        return payments.stream()
-                .filter(p -> p.getPaymentStatus() == PaymentStatus.COMPLETED)
-                .mapToDouble(Payment::getAmount)
-                .sum();
+    public List<Payment> getByStatus(PaymentStatus status) {
+        return payments.findBy(byStatus, status);
+    }
+
+    /**
+     * Count payments made with a given mode (O(1)).
+     */
+    public int countByPaymentMode(PaymentMode mode) {
+        return payments.read(() -> byMode.count(mode));
+    }
+
+    /**
+     * Count payments in a given status (O(1)).
+     */
+    public int countByStatus(PaymentStatus status) {
+        return payments.read(() -> byStatus.count(status));
+    }
+
+    /**
+     * Total amount, in paise, of payments with a given mode and status (O(1)).
+     */
+    public long getAmountPaise(PaymentMode mode, PaymentStatus status) {
+        return amountsPaise[cell(mode, status)].sum();
+    }
+
+    /**
+     * Revenue in paise from completed payments made with a given mode (O(1)).
+     */
+    public long getRevenuePaise(PaymentMode mode) {
+        return getAmountPaise(mode, PaymentStatus.COMPLETED);
+    }
+
+    /**
+     * Total revenue in paise from completed payments, summed from the
+     * running totals of each mode (O(1)).
+     */
+    public long getTotalRevenuePaise() {
+        long total = 0;
+        for (PaymentMode mode : PaymentMode.values()) {
+            total += getRevenuePaise(mode);
+        }
+        return total;
+    }
+
+    /**
+     * Revenue in paise from completed payments made between two dates,
+     * inclusive (O(log n)).
+     */
+    public long getRevenuePaise(LocalDate from, LocalDate to) {
+        return payments.read(() -> revenueByMode.sum(from, to));
+    }
+
+    /**
+     * Revenue in paise from completed payments with a given mode made
+     * between two dates, inclusive (O(log n)).
+     */
+    public long getRevenuePaise(PaymentMode mode, LocalDate from, LocalDate to) {
+        return payments.read(() -> revenueByMode.sum(mode.name(), from, to));
+    }
+
+    /**
+     * Revenue in paise from completed payments for bookings of a cylinder
+     * type made between two dates, inclusive (O(log n)).
+     */
+    public long getRevenuePaiseByCylinder(String cylinderType, LocalDate from, LocalDate to) {
+        return payments.read(() -> revenueByCylinder.sum(cylinderType, from, to));
+    }
+
+    /**
+     * The cylinder types that have been paid for, sorted by name.
+     */
+    public List<String> getCylinderTypes() {
+        return payments.read(revenueByCylinder::groups);
+    }
+
+    private static long revenuePaise(Payment payment) {
+        return payment.getPaymentStatus() == PaymentStatus.COMPLETED ? payment.getAmountPaise() : 0;
+    }
+
+    private static String cylinderType(Payment payment) {
+        Booking booking = payment.getBooking();
+        return booking == null || booking.getCylinder() == null ? null : booking.getCylinder().getCylinderType();
+    }
+
+    /**
+     * Adds a payment's amount to (sign 1) or takes it out of (sign -1) the
+     * running total for its mode and status.
+     */
+    private void account(Payment payment, int sign) {
+        account(payment.getPaymentMode(), payment.getPaymentStatus(), sign * payment.getAmountPaise());
+    }
+
+    private void account(PaymentMode mode, PaymentStatus status, long deltaPaise) {
+        if (mode != null && status != null) {
+            amountsPaise[cell(mode, status)].add(deltaPaise);
+        }
+    }
+
+    private static int cell(PaymentMode mode, PaymentStatus status) {
+        return mode.ordinal() * PaymentStatus.values().length + status.ordinal();
+    }
+
+    /**
+     * Insert or overwrite a payment without console output or listeners.
+     * Used when replaying persisted data at startup.
+     */
+    public void restore(Payment payment) {
+        ReentrantLock stripe = locks.forId(payment.getPaymentId());
+        stripe.lock();
+        try {
+            Payment existing = getById(payment.getPaymentId());
+            if (existing != null) {
+                // Taken out before the replace: existing is a view of the same record.
+                account(existing, -1);
+                payments.replace(existing.getPaymentId(), payment);
+            } else {
+                payments.add(payment);
+            }
+            account(payment, 1);
+            publishStats();
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    /**
+     * Sets where bookings moved to the archive are looked up, so that
+     * payments for them do not keep copies on the heap.
+     */
+    public void setBookingArchive(Function<String, Booking> bookingArchive) {
+        ledger.setBookingArchive(bookingArchive);
+    }
+
+    /**
+     * Turns the console messages for each change on or off, e.g. while
+     * bulk-loading generated data.
+     */
+    public void setVerbose(boolean verbose) {
+        this.verbose = verbose;
+    }
+
+    private void log(String message) {
+        if (verbose) {
+            System.out.println(message);
+        }
+    }
+
+    /**
+     * Sets a check run before every add, update, delete or status change;
+     * it throws to refuse the change, e.g. once the journal has failed.
+     */
+    public void setWriteGuard(Runnable writeGuard) {
+        this.writeGuard = writeGuard;
+    }
+
+    /**
+     * Register a listener that is told about every change to a payment.
+     */
+    public void addListener(ChangeListener<Payment> listener) {
+        listeners.add(listener);
+    }
+
+    private void changed(ChangeType type, Payment payment) {
+        publishStats();
+        for (ChangeListener<Payment> listener : listeners) {
+            listener.onChange(type, payment);
+        }
+    }
+
+    /**
+     * Synchronized so that the last publisher always reads the latest total.
+     */
+    private synchronized void publishStats() {
+        dashboard.publishRevenue(getTotalRevenuePaise());
     }
 
     @Override
     public String generateReport() {
         long totalPayments = payments.size();
-        long completed = payments.stream()
-                .filter(p -> p.getPaymentStatus() == PaymentStatus.COMPLETED).count();
-        long pending = payments.stream()
-                .filter(p -> p.getPaymentStatus() == PaymentStatus.PENDING).count();
-        long refunded = payments.stream()
-                .filter(p -> p.getPaymentStatus() == PaymentStatus.REFUNDED).count();
-        double totalRevenue = getTotalRevenue();
-
-        long cashPayments = payments.stream().filter(p -> p.getPaymentMode() == PaymentMode.CASH).count();
-        long upiPayments = payments.stream().filter(p -> p.getPaymentMode() == PaymentMode.UPI).count();
-        long cardPayments = payments.stream().filter(p -> p.getPaymentMode() == PaymentMode.CARD).count();
-        long netBankingPayments = payments.stream().filter(p -> p.getPaymentMode() == PaymentMode.NETBANKING).count();
+        long completed = countByStatus(PaymentStatus.COMPLETED);
+        long pending = countByStatus(PaymentStatus.PENDING);
+        long refunded = countByStatus(PaymentStatus.REFUNDED);
+        long totalRevenuePaise = getTotalRevenuePaise();
+        long refundedPaise = 0;
+        for (PaymentMode mode : PaymentMode.values()) {
+            refundedPaise += getAmountPaise(mode, PaymentStatus.REFUNDED);
+        }
+
+        long cashPayments = countByPaymentMode(PaymentMode.CASH);
+        long upiPayments = countByPaymentMode(PaymentMode.UPI);
+        long cardPayments = countByPaymentMode(PaymentMode.CARD);
+        long netBankingPayments = countByPaymentMode(PaymentMode.NETBANKING);
 
         StringBuilder report = new StringBuilder();
         report.append("\n╔══════════════════════════════════════════════════════════╗\n");
@@ -113,13 +395,43 @@ public class PaymentService implements CRUDOperations<Payment>, Reportable {
         report.append(String.format("║  Completed         : %-35d║%n", completed));
         report.append(String.format("║  Pending           : %-35d║%n", pending));
         report.append(String.format("║  Refunded          : %-35d║%n", refunded));
-        report.append(String.format("║  Total Revenue     : ₹%-34.2f║%n", totalRevenue));
+        report.append(String.format("║  Total Revenue     : %-35s║%n", Money.format(totalRevenuePaise)));
+        report.append(String.format("║  Refunded Amount   : %-35s║%n", Money.format(refundedPaise)));
         report.append("╠══════════════════════════════════════════════════════════╣\n");
         report.append("║  Payment Mode Breakdown:                                ║\n");
-        report.append(String.format("║    Cash            : %-35d║%n", cashPayments));
-        report.append(String.format("║    UPI             : %-35d║%n", upiPayments));
-        report.append(String.format("║    Card            : %-35d║%n", cardPayments));
-        report.append(String.format("║    Net Banking     : %-35d║%n", netBankingPayments));
+        report.append(String.format("║    Cash            : %-8d %-26s║%n",
+                cashPayments, Money.format(getRevenuePaise(PaymentMode.CASH))));
+        report.append(String.format("║    UPI             : %-8d %-26s║%n",
+                upiPayments, Money.format(getRevenuePaise(PaymentMode.UPI))));
+        report.append(String.format("║    Card            : %-8d %-26s║%n",
+                cardPayments, Money.format(getRevenuePaise(PaymentMode.CARD))));
+        report.append(String.format("║    Net Banking     : %-8d %-26s║%n",
+                netBankingPayments, Money.format(getRevenuePaise(PaymentMode.NETBANKING))));
+        report.append("╚══════════════════════════════════════════════════════════╝\n");
+
+        return report.toString();
+    }
+
+    @Override
+    public String generateReport(LocalDate from, LocalDate to) {
+        StringBuilder report = new StringBuilder();
+        report.append("\n╔══════════════════════════════════════════════════════════╗\n");
+        report.append("║            📊 PAYMENT REPORT                            ║\n");
+        report.append("╠══════════════════════════════════════════════════════════╣\n");
+        report.append(String.format("║  Period            : %-35s║%n",
+                from.format(DISPLAY_DATE) + " to " + to.format(DISPLAY_DATE)));
+        report.append(String.format("║  Revenue           : %-35s║%n", Money.format(getRevenuePaise(from, to))));
+        report.append("╠══════════════════════════════════════════════════════════╣\n");
+        report.append("║  Revenue by Payment Mode:                               ║\n");
+        for (PaymentMode mode : PaymentMode.values()) {
+            report.append(String.format("║    %-16s: %-35s║%n",
+                    mode.getDisplayName(), Money.format(getRevenuePaise(mode, from, to))));
+        }
+        report.append("║  Revenue by Cylinder Type:                              ║\n");
+        for (String type : getCylinderTypes()) {
+            report.append(String.format("║    %-16s: %-35s║%n",
+                    type, Money.format(getRevenuePaiseByCylinder(type, from, to))));
+        }
         report.append("╚══════════════════════════════════════════════════════════╝\n");
 
         return report.toString();
@@ -1,9 +1,19 @@
 package com.bharatgas.crm.service;
 
+import java.time.LocalDate;
+
 /**
  * Interface for generating reports.
- * Demonstrates: Abstraction, Interface segregation.
+ * Demonstrates: Abstraction, Interface segregation, Default methods.
  */
 public interface Reportable {
     String generateReport();
+
+    /**
+     * Generates the report for the dates from {@code from} to {@code to},
+     * both inclusive. Reports without dated figures return the full report.
+     */
+    default String generateReport(LocalDate from, LocalDate to) {
+        return generateReport();
+    }
 }
@@ -0,0 +1,15 @@
+package com.bharatgas.crm.service;
+
+import com.bharatgas.crm.enums.SlaKind;
+import java.time.LocalDateTime;
+
+/**
+ * Callback invoked by {@link SlaMonitor} when a booking or complaint
+ * passes its deadline while still open. Runs on the monitor's clock
+ * thread, so implementations should return quickly.
+ * Demonstrates: Functional interfaces, Observer pattern.
+ */
+@FunctionalInterface
+public interface SlaBreachListener {
+    void onBreach(SlaKind kind, String id, LocalDateTime deadline);
+}
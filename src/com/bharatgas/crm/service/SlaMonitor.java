@@ -0,0 +1,216 @@
+package com.bharatgas.crm.service;
+
+import com.bharatgas.crm.enums.BookingStatus;
+import com.bharatgas.crm.enums.ChangeType;
+import com.bharatgas.crm.enums.ComplaintStatus;
+import com.bharatgas.crm.enums.SlaKind;
+import com.bharatgas.crm.model.Booking;
+import com.bharatgas.crm.model.Complaint;
+import com.bharatgas.crm.util.TimingWheel;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Watches open bookings and complaints for missed deadlines. A booking is
+ * due by the end of its expected delivery date and a complaint must be
+ * resolved within {@link #COMPLAINT_RESOLUTION_DAYS} days of being filed.
+ * Deadlines are kept in {@link TimingWheel}s that follow the services'
+ * change events: creating an item schedules its deadline, and delivering,
+ * cancelling, resolving or closing it cancels the deadline. A clock thread
+ * advances the wheels once a minute and tells the listeners about breaches.
+ * Demonstrates: Observer pattern, Composition.
+ */
+public class SlaMonitor implements AutoCloseable {
+
+    public static final int COMPLAINT_RESOLUTION_DAYS = 2;
+    private static final long TICK_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private final BookingService bookingService;
+    private final ComplaintService complaintService;
+    private final Clock clock;
+    private final TimingWheel<String> bookingDeadlines;
+    private final TimingWheel<String> complaintDeadlines;
+    /** The deadline last scheduled per open item, kept after it breaches. */
+    private final Map<String, Long> bookingDue;
+    private final Map<String, Long> complaintDue;
+    private final List<SlaBreachListener> listeners;
+    private final LongAdder[] breaches;
+    private ScheduledExecutorService ticker;
+
+    public SlaMonitor(BookingService bookingService, ComplaintService complaintService) {
+        this(bookingService, complaintService, Clock.systemDefaultZone());
+    }
+
+    public SlaMonitor(BookingService bookingService, ComplaintService complaintService, Clock clock) {
+        this.bookingService = bookingService;
+        this.complaintService = complaintService;
+        this.clock = clock;
+        this.bookingDeadlines = new TimingWheel<>(TICK_MILLIS, clock.millis());
+        this.complaintDeadlines = new TimingWheel<>(TICK_MILLIS, clock.millis());
+        this.bookingDue = new ConcurrentHashMap<>();
+        this.complaintDue = new ConcurrentHashMap<>();
+        this.listeners = new CopyOnWriteArrayList<>();
+        this.breaches = new LongAdder[SlaKind.values().length];
+        for (int i = 0; i < breaches.length; i++) {
+            breaches[i] = new LongAdder();
+        }
+        bookingService.addListener(this::bookingChanged);
+        complaintService.addListener(this::complaintChanged);
+    }
+
+    /**
+     * Schedules the deadlines of the items that are already open, e.g.
+     * after restoring persisted data (restores do not raise change events).
+     */
+    public void trackOpenItems() {
+        for (Booking booking : bookingService.getDueBetween(null, null)) {
+            follow(bookingDeadlines, bookingDue, booking.getBookingId(), bookingDeadline(booking));
+        }
+        for (ComplaintStatus status : new ComplaintStatus[] {ComplaintStatus.OPEN, ComplaintStatus.IN_PROGRESS}) {
+            for (Complaint complaint : complaintService.getByStatus(status)) {
+                if (!isOpen(complaint)) {
+                    continue;
+                }
+                follow(complaintDeadlines, complaintDue, complaint.getComplaintId(), complaintDeadline(complaint));
+            }
+        }
+    }
+
+    /**
+     * Starts advancing the deadlines once a minute on a daemon thread,
+     * beginning with a check right away.
+     */
+    public synchronized void start() {
+        if (ticker != null) {
+            return;
+        }
+        ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "sla-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(this::checkNow, 0, TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+            ticker = null;
+        }
+    }
+
+    /**
+     * Advances the deadlines to the current time and reports the breaches.
+     */
+    public void checkNow() {
+        long now = clock.millis();
+        for (String id : bookingDeadlines.advance(now)) {
+            Booking booking = bookingService.getById(id);
+            if (booking != null && isOpen(booking)) {
+                breached(SlaKind.BOOKING_DELIVERY, id, bookingDeadline(booking));
+            }
+        }
+        for (String id : complaintDeadlines.advance(now)) {
+            Complaint complaint = complaintService.getById(id);
+            if (complaint != null && isOpen(complaint)) {
+                breached(SlaKind.COMPLAINT_RESOLUTION, id, complaintDeadline(complaint));
+            }
+        }
+    }
+
+    /**
+     * Register a listener that is told about every breach.
+     */
+    public void addListener(SlaBreachListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * The number of open items of a kind whose deadline has not passed yet.
+     */
+    public int countPending(SlaKind kind) {
+        return kind == SlaKind.BOOKING_DELIVERY ? bookingDeadlines.size() : complaintDeadlines.size();
+    }
+
+    /**
+     * The number of breaches of a kind reported since startup.
+     */
+    public long countBreaches(SlaKind kind) {
+        return breaches[kind.ordinal()].sum();
+    }
+
+    private void bookingChanged(ChangeType type, Booking booking) {
+        follow(bookingDeadlines, bookingDue, booking.getBookingId(), isOpen(booking) ? bookingDeadline(booking) : null);
+    }
+
+    private void complaintChanged(ChangeType type, Complaint complaint) {
+        follow(complaintDeadlines, complaintDue, complaint.getComplaintId(),
+                isOpen(complaint) ? complaintDeadline(complaint) : null);
+    }
+
+    /**
+     * Deadlines follow open items only (a null deadline: closed). An item
+     * is scheduled again only when its deadline moves, so a change that
+     * leaves the date alone, e.g. reassigning a breached booking to
+     * another customer, does not report the breach twice.
+     */
+    private void follow(TimingWheel<String> deadlines, Map<String, Long> due, String id, LocalDateTime deadline) {
+        if (deadline == null) {
+            deadlines.cancel(id);
+            due.remove(id);
+            return;
+        }
+        long millis = toMillis(deadline);
+        Long previous = due.put(id, millis);
+        if (previous == null || previous != millis) {
+            deadlines.schedule(id, millis);
+        }
+    }
+
+    private void breached(SlaKind kind, String id, LocalDateTime deadline) {
+        breaches[kind.ordinal()].increment();
+        for (SlaBreachListener listener : listeners) {
+            listener.onBreach(kind, id, deadline);
+        }
+    }
+
+    /** Open and dated, so that it has a deadline. */
+    private static boolean isOpen(Booking booking) {
+        BookingStatus status = booking.getStatus();
+        return status != null && status != BookingStatus.DELIVERED && status != BookingStatus.CANCELLED
+                && booking.getExpectedDeliveryDate() != null;
+    }
+
+    private static boolean isOpen(Complaint complaint) {
+        ComplaintStatus status = complaint.getStatus();
+        return (status == ComplaintStatus.OPEN || status == ComplaintStatus.IN_PROGRESS)
+                && complaint.getFiledDate() != null;
+    }
+
+    /** Bookings are due by the end of the expected delivery date. */
+    private static LocalDateTime bookingDeadline(Booking booking) {
+        return endOf(booking.getExpectedDeliveryDate());
+    }
+
+    private static LocalDateTime complaintDeadline(Complaint complaint) {
+        return endOf(complaint.getFiledDate().plusDays(COMPLAINT_RESOLUTION_DAYS));
+    }
+
+    private static LocalDateTime endOf(LocalDate date) {
+        return date.plusDays(1).atStartOfDay();
+    }
+
+    private long toMillis(LocalDateTime time) {
+        return time.atZone(clock.getZone()).toInstant().toEpochMilli();
+    }
+}
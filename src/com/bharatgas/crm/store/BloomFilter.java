@@ -0,0 +1,95 @@
+package com.bharatgas.crm.store;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Bloom filter over (case-normalized) string keys: answers "definitely
+ * absent" or "maybe present" in a few bit probes. Sized for about 1%
+ * false positives at 10 bits and 7 probes per key. The bits can be written
+ * to and read from a buffer, e.g. in the footer of an archive segment.
+ * Not thread-safe while being filled; safe to query from any thread after.
+ * Demonstrates: Encapsulation, Bit manipulation.
+ */
+public class BloomFilter {
+
+    private static final int BITS_PER_KEY = 10;
+    private static final int PROBES = 7;
+
+    private final long[] bits;
+    private final long bitCount;
+
+    /**
+     * @param expectedKeys the number of keys that will be added
+     */
+    public BloomFilter(int expectedKeys) {
+        this(new long[(int) ((Math.max(expectedKeys, 1) * (long) BITS_PER_KEY + 63) >>> 6)]);
+    }
+
+    private BloomFilter(long[] bits) {
+        this.bits = bits;
+        this.bitCount = (long) bits.length << 6;
+    }
+
+    public void add(String key) {
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= PROBES; i++) {
+            long bit = ((h1 + i * h2) & 0x7FFFFFFFL) % bitCount;
+            bits[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    /**
+     * Returns false if the key was certainly never added.
+     */
+    public boolean mightContain(String key) {
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= PROBES; i++) {
+            long bit = ((h1 + i * h2) & 0x7FFFFFFFL) % bitCount;
+            if ((bits[(int) (bit >>> 6)] & 1L << bit) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Size in bytes of {@link #writeTo(ByteBuffer)}'s output.
+     */
+    public int serializedSize() {
+        return 4 + bits.length * 8;
+    }
+
+    public void writeTo(ByteBuffer out) {
+        out.putInt(bits.length);
+        for (long word : bits) {
+            out.putLong(word);
+        }
+    }
+
+    public static BloomFilter readFrom(ByteBuffer in) {
+        long[] bits = new long[in.getInt()];
+        for (int i = 0; i < bits.length; i++) {
+            bits[i] = in.getLong();
+        }
+        return new BloomFilter(bits);
+    }
+
+    /** 64-bit FNV-1a over the normalized key's UTF-8 bytes, then mixed. */
+    private static long hash(String key) {
+        byte[] bytes = IndexedStore.normalize(key).getBytes(StandardCharsets.UTF_8);
+        long hash = 0xCBF29CE484222325L;
+        for (byte b : bytes) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001B3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,76 @@
+package com.bharatgas.crm.store;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Running totals per calendar day, e.g. revenue or bookings per day.
+ * Days are bucketed into blocks of {@value #BLOCK_DAYS} consecutive days,
+ * each a small {@link FenwickTree} with its own total. Blocks are created
+ * only for days that have values, so a stray far-off date costs one block
+ * rather than a dense array spanning the gap. Adding to a day takes
+ * O(log n) and summing a date range takes O(log n) plus one step per block
+ * the range touches. Not thread-safe; {@link DailyTotalsIndex} guards it
+ * with the store lock.
+ */
+public class DailySeries {
+
+    static final int BLOCK_DAYS = 512;
+
+    private final TreeMap<Long, Block> blocks = new TreeMap<>();
+    private long total;
+
+    /**
+     * Adds a value to a day. Null dates are ignored.
+     */
+    public void add(LocalDate date, long delta) {
+        if (date == null || delta == 0) {
+            return;
+        }
+        long day = date.toEpochDay();
+        long start = Math.floorDiv(day, BLOCK_DAYS);
+        Block block = blocks.get(start);
+        if (block == null) {
+            block = new Block();
+            blocks.put(start, block);
+        }
+        block.tree.add((int) Math.floorMod(day, BLOCK_DAYS), delta);
+        block.total += delta;
+        total += delta;
+    }
+
+    /**
+     * Total of the days from {@code from} to {@code to}, both inclusive.
+     */
+    public long sum(LocalDate from, LocalDate to) {
+        long first = from.toEpochDay();
+        long last = to.toEpochDay();
+        if (first > last) {
+            return 0;
+        }
+        long firstBlock = Math.floorDiv(first, BLOCK_DAYS);
+        long lastBlock = Math.floorDiv(last, BLOCK_DAYS);
+        long sum = 0;
+        for (Map.Entry<Long, Block> entry : blocks.subMap(firstBlock, true, lastBlock, true).entrySet()) {
+            long start = entry.getKey();
+            Block block = entry.getValue();
+            int low = start == firstBlock ? (int) Math.floorMod(first, BLOCK_DAYS) : 0;
+            int high = start == lastBlock ? (int) Math.floorMod(last, BLOCK_DAYS) : BLOCK_DAYS - 1;
+            sum += low == 0 && high == BLOCK_DAYS - 1 ? block.total : block.tree.rangeSum(low, high);
+        }
+        return sum;
+    }
+
+    /**
+     * Total of all days.
+     */
+    public long total() {
+        return total;
+    }
+
+    private static final class Block {
+        final FenwickTree tree = new FenwickTree(BLOCK_DAYS);
+        long total;
+    }
+}
@@ -0,0 +1,151 @@
+package com.bharatgas.crm.store;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Secondary index that sums a value per calendar day, overall and split by
+ * a group key, e.g. bookings per day by cylinder type or revenue per day by
+ * payment mode. Each group is a {@link DailySeries}, so the total over any
+ * date range takes O(log n). The index remembers each row's day, group and
+ * value, so an entity changed in place is moved correctly on update.
+ * Demonstrates: Generics, Interface implementation (StoreIndex).
+ *
+ * @param <T> the entity type
+ */
+public class DailyTotalsIndex<T> implements StoreIndex<T> {
+
+    private static final int NO_DAY = Integer.MIN_VALUE;
+
+    private final Function<T, LocalDate> dateFunction;
+    private final Function<T, String> groupFunction;
+    private final ToLongFunction<T> valueFunction;
+    private final DailySeries all;
+    private final Map<String, Integer> groupIds;
+    private final List<DailySeries> groups;
+    private int[] rowDays;
+    private int[] rowGroups;
+    private long[] rowValues;
+
+    /**
+     * @param dateFunction  the day an entity counts towards (null: not counted)
+     * @param groupFunction the group an entity counts towards (null: only the total)
+     * @param valueFunction the amount an entity contributes, e.g. 1 or its paise
+     */
+    public DailyTotalsIndex(Function<T, LocalDate> dateFunction, Function<T, String> groupFunction,
+            ToLongFunction<T> valueFunction) {
+        this.dateFunction = dateFunction;
+        this.groupFunction = groupFunction;
+        this.valueFunction = valueFunction;
+        this.all = new DailySeries();
+        this.groupIds = new HashMap<>();
+        this.groups = new ArrayList<>();
+        this.rowDays = new int[16];
+        this.rowGroups = new int[16];
+        this.rowValues = new long[16];
+    }
+
+    @Override
+    public void insert(int row, T item) {
+        if (row >= rowDays.length) {
+            int length = Math.max(row + 1, rowDays.length * 2);
+            rowDays = Arrays.copyOf(rowDays, length);
+            rowGroups = Arrays.copyOf(rowGroups, length);
+            rowValues = Arrays.copyOf(rowValues, length);
+        }
+        record(row, item);
+    }
+
+    @Override
+    public void update(int row, T item) {
+        unrecord(row);
+        record(row, item);
+    }
+
+    /**
+     * Keeps the row's contribution, so that date-range totals still cover
+     * entities that were removed, e.g. bookings moved to the archive.
+     */
+    @Override
+    public void remove(int row) {
+        rowDays[row] = NO_DAY;
+    }
+
+    /**
+     * Unlike {@link #remove}, takes the contribution back out: the row was
+     * never visible, so the totals must not count it.
+     */
+    @Override
+    public void discard(int row) {
+        unrecord(row);
+        rowDays[row] = NO_DAY;
+    }
+
+    /**
+     * Total over all groups for the dates from {@code from} to {@code to}, inclusive.
+     */
+    public long sum(LocalDate from, LocalDate to) {
+        return all.sum(from, to);
+    }
+
+    /**
+     * Total of one group for the dates from {@code from} to {@code to}, inclusive.
+     */
+    public long sum(String group, LocalDate from, LocalDate to) {
+        Integer id = groupIds.get(group);
+        return id == null ? 0 : groups.get(id).sum(from, to);
+    }
+
+    /**
+     * The groups seen so far, sorted by name.
+     */
+    public List<String> groups() {
+        List<String> names = new ArrayList<>(groupIds.keySet());
+        Collections.sort(names);
+        return names;
+    }
+
+    private void record(int row, T item) {
+        LocalDate day = dateFunction.apply(item);
+        if (day == null) {
+            rowDays[row] = NO_DAY;
+            return;
+        }
+        long value = valueFunction.applyAsLong(item);
+        String group = groupFunction.apply(item);
+        rowDays[row] = Math.toIntExact(day.toEpochDay());
+        rowValues[row] = value;
+        rowGroups[row] = group == null ? -1 : groupId(group);
+        all.add(day, value);
+        if (group != null) {
+            groups.get(rowGroups[row]).add(day, value);
+        }
+    }
+
+    private void unrecord(int row) {
+        if (rowDays[row] != NO_DAY) {
+            LocalDate day = LocalDate.ofEpochDay(rowDays[row]);
+            all.add(day, -rowValues[row]);
+            if (rowGroups[row] >= 0) {
+                groups.get(rowGroups[row]).add(day, -rowValues[row]);
+            }
+        }
+    }
+
+    private int groupId(String group) {
+        Integer id = groupIds.get(group);
+        if (id == null) {
+            id = groups.size();
+            groups.add(new DailySeries());
+            groupIds.put(group, id);
+        }
+        return id;
+    }
+}
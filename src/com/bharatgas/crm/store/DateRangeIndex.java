@@ -0,0 +1,100 @@
+package com.bharatgas.crm.store;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Sorted secondary index on a date, restricted to the rows that match a
+ * filter (e.g. open bookings by expected delivery date). Entries are
+ * (epoch day, row) pairs packed into one long and kept in a
+ * ConcurrentSkipListSet, so a date-range query costs O(log n) plus the size
+ * of the result and can run while rows are being added or changed.
+ * Demonstrates: Generics, Interface implementation (StoreIndex).
+ *
+ * @param <T> the entity type
+ */
+public class DateRangeIndex<T> implements StoreIndex<T> {
+
+    private static final long NO_KEY = Long.MIN_VALUE;
+
+    private final Function<T, LocalDate> dateFunction;
+    private final Predicate<T> filter;
+    private final ConcurrentSkipListSet<Long> entries;
+    private long[] rowKeys;
+
+    /**
+     * @param dateFunction the date to index an entity under
+     * @param filter       which entities are indexed at all
+     */
+    public DateRangeIndex(Function<T, LocalDate> dateFunction, Predicate<T> filter) {
+        this.dateFunction = dateFunction;
+        this.filter = filter;
+        this.entries = new ConcurrentSkipListSet<>();
+        this.rowKeys = new long[16];
+    }
+
+    @Override
+    public void insert(int row, T item) {
+        if (row >= rowKeys.length) {
+            rowKeys = Arrays.copyOf(rowKeys, Math.max(row + 1, rowKeys.length * 2));
+        }
+        rowKeys[row] = NO_KEY;
+        update(row, item);
+    }
+
+    @Override
+    public void update(int row, T item) {
+        LocalDate date = filter.test(item) ? dateFunction.apply(item) : null;
+        long newKey = date == null ? NO_KEY : key(date.toEpochDay(), row);
+        long oldKey = rowKeys[row];
+        if (oldKey == newKey) {
+            return;
+        }
+        if (newKey != NO_KEY) {
+            entries.add(newKey);
+        }
+        if (oldKey != NO_KEY) {
+            entries.remove(oldKey);
+        }
+        rowKeys[row] = newKey;
+    }
+
+    @Override
+    public void remove(int row) {
+        if (rowKeys[row] != NO_KEY) {
+            entries.remove(rowKeys[row]);
+            rowKeys[row] = NO_KEY;
+        }
+    }
+
+    /**
+     * Returns the rows dated from {@code from} to {@code to}, inclusive,
+     * ordered by date and then by row. Either bound may be null for no limit.
+     */
+    public int[] rows(LocalDate from, LocalDate to) {
+        long low = from == null ? NO_KEY + 1 : key(from.toEpochDay(), 0);
+        long high = to == null ? Long.MAX_VALUE : key(to.toEpochDay(), -1);
+        if (low > high) {
+            return new int[0];
+        }
+        NavigableSet<Long> range = entries.subSet(low, true, high, true);
+        int[] rows = new int[16];
+        int count = 0;
+        for (Long entry : range) {
+            if (count == rows.length) {
+                rows = Arrays.copyOf(rows, count * 2);
+            }
+            rows[count++] = (int) (long) entry;
+        }
+        return Arrays.copyOf(rows, count);
+    }
+
+    /** Packs a date and a row so that keys sort by date, then by row. */
+    private static long key(long epochDay, int row) {
+        return (epochDay << 32) | (row & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,90 @@
+package com.bharatgas.crm.store;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Secondary index that buckets rows by an enum field (e.g. booking status).
+ * Moving a row between buckets and reading a bucket's size are both O(1),
+ * so reports can count by status without scanning the store.
+ * Demonstrates: Generics with bounded type parameters, EnumMap.
+ *
+ * @param <T> the entity type
+ * @param <E> the enum type being indexed
+ */
+public class EnumIndex<T, E extends Enum<E>> implements StoreIndex<T> {
+
+    private final Function<T, E> valueFunction;
+    private final Map<E, BitSet> buckets;
+    private final int[] counts;
+    private final List<E> rowValues;
+
+    public EnumIndex(Class<E> enumType, Function<T, E> valueFunction) {
+        this.valueFunction = valueFunction;
+        this.buckets = new EnumMap<>(enumType);
+        for (E constant : enumType.getEnumConstants()) {
+            buckets.put(constant, new BitSet());
+        }
+        this.counts = new int[enumType.getEnumConstants().length];
+        this.rowValues = new ArrayList<>();
+    }
+
+    @Override
+    public void insert(int row, T item) {
+        while (rowValues.size() <= row) {
+            rowValues.add(null);
+        }
+        E value = valueFunction.apply(item);
+        rowValues.set(row, value);
+        if (value != null) {
+            buckets.get(value).set(row);
+            counts[value.ordinal()]++;
+        }
+    }
+
+    @Override
+    public void update(int row, T item) {
+        E oldValue = rowValues.get(row);
+        E newValue = valueFunction.apply(item);
+        if (oldValue == newValue) {
+            return;
+        }
+        if (oldValue != null) {
+            buckets.get(oldValue).clear(row);
+            counts[oldValue.ordinal()]--;
+        }
+        rowValues.set(row, newValue);
+        if (newValue != null) {
+            buckets.get(newValue).set(row);
+            counts[newValue.ordinal()]++;
+        }
+    }
+
+    @Override
+    public void remove(int row) {
+        E value = rowValues.get(row);
+        if (value != null) {
+            buckets.get(value).clear(row);
+            counts[value.ordinal()]--;
+            rowValues.set(row, null);
+        }
+    }
+
+    /**
+     * Rows currently in the bucket for a value, in ascending row order.
+     */
+    public BitSet rows(E value) {
+        return buckets.get(value);
+    }
+
+    /**
+     * Number of entities currently holding the given value.
+     */
+    public int count(E value) {
+        return counts[value.ordinal()];
+    }
+}
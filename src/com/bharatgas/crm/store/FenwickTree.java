@@ -0,0 +1,60 @@
+package com.bharatgas.crm.store;
+
+/**
+ * Fenwick (binary indexed) tree over a fixed number of long counters.
+ * Adding to one position and summing any range both take O(log n).
+ * Not thread-safe; callers guard it with their own lock.
+ */
+public class FenwickTree {
+
+    private final long[] tree;
+
+    public FenwickTree(int size) {
+        this.tree = new long[size + 1];
+    }
+
+    /**
+     * Builds a tree over existing values in O(n).
+     */
+    public FenwickTree(long[] values) {
+        this.tree = new long[values.length + 1];
+        for (int i = 1; i <= values.length; i++) {
+            tree[i] += values[i - 1];
+            int parent = i + (i & -i);
+            if (parent < tree.length) {
+                tree[parent] += tree[i];
+            }
+        }
+    }
+
+    public int size() {
+        return tree.length - 1;
+    }
+
+    public void add(int index, long delta) {
+        for (int i = index + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    /**
+     * Sum of the values at positions 0 to {@code index}, inclusive.
+     */
+    public long prefixSum(int index) {
+        long sum = 0;
+        for (int i = index + 1; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    /**
+     * Sum of the values at positions {@code from} to {@code to}, inclusive.
+     */
+    public long rangeSum(int from, int to) {
+        if (from > to) {
+            return 0;
+        }
+        return prefixSum(to) - (from > 0 ? prefixSum(from - 1) : 0);
+    }
+}
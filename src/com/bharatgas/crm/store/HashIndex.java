@@ -0,0 +1,89 @@
+package com.bharatgas.crm.store;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Multimap secondary index from a (case-insensitive) string key to rows.
+ * Can be declared on any field of a model, e.g. the customer ID of a
+ * booking or the booking ID of a payment.
+ * Demonstrates: Generics, Interface implementation (StoreIndex).
+ *
+ * @param <T> the entity type
+ */
+public class HashIndex<T> implements StoreIndex<T> {
+
+    private final Function<T, String> keyFunction;
+    private final Map<String, IntList> postings;
+    private final List<String> rowKeys;
+
+    public HashIndex(Function<T, String> keyFunction) {
+        this.keyFunction = keyFunction;
+        this.postings = new HashMap<>();
+        this.rowKeys = new ArrayList<>();
+    }
+
+    @Override
+    public void insert(int row, T item) {
+        while (rowKeys.size() <= row) {
+            rowKeys.add(null);
+        }
+        String key = IndexedStore.normalize(keyFunction.apply(item));
+        rowKeys.set(row, key);
+        if (key != null) {
+            postings.computeIfAbsent(key, k -> new IntList()).add(row);
+        }
+    }
+
+    @Override
+    public void update(int row, T item) {
+        String oldKey = rowKeys.get(row);
+        String newKey = IndexedStore.normalize(keyFunction.apply(item));
+        if (oldKey == null ? newKey == null : oldKey.equals(newKey)) {
+            return;
+        }
+        if (oldKey != null) {
+            IntList rows = postings.get(oldKey);
+            rows.remove(row);
+            if (rows.isEmpty()) {
+                postings.remove(oldKey);
+            }
+        }
+        rowKeys.set(row, newKey);
+        if (newKey != null) {
+            postings.computeIfAbsent(newKey, k -> new IntList()).add(row);
+        }
+    }
+
+    @Override
+    public void remove(int row) {
+        String key = rowKeys.get(row);
+        if (key != null) {
+            IntList rows = postings.get(key);
+            rows.remove(row);
+            if (rows.isEmpty()) {
+                postings.remove(key);
+            }
+            rowKeys.set(row, null);
+        }
+    }
+
+    /**
+     * Returns the rows stored under a key, in insertion order (may be null).
+     */
+    public IntList rows(String key) {
+        String normalized = IndexedStore.normalize(key);
+        return normalized == null ? null : postings.get(normalized);
+    }
+
+    /**
+     * Number of entities indexed under a key.
+     */
+    public int count(String key) {
+        IntList rows = rows(key);
+        return rows == null ? 0 : rows.size();
+    }
+}
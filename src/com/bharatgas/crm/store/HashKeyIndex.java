@@ -0,0 +1,28 @@
+package com.bharatgas.crm.store;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Default primary-key index over a ConcurrentHashMap. Lookups are lock-free
+ * and work for any ID format.
+ */
+public class HashKeyIndex implements KeyIndex {
+
+    private final ConcurrentHashMap<String, Integer> rows = new ConcurrentHashMap<>();
+
+    @Override
+    public int get(String key) {
+        Integer row = rows.get(key);
+        return row == null ? -1 : row;
+    }
+
+    @Override
+    public void put(String key, int row) {
+        rows.put(key, row);
+    }
+
+    @Override
+    public void remove(String key) {
+        rows.remove(key);
+    }
+}
@@ -0,0 +1,490 @@
+package com.bharatgas.crm.store;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Reusable in-memory store used behind the CRUD services.
+ * Keeps entities in insertion order and maintains a case-normalized
+ * primary-key index so that lookups by ID are O(1) instead of a full scan.
+ *
+ * The store is thread-safe. Lookups by ID do not take the store lock: by
+ * default the primary index is a ConcurrentHashMap and rows live in
+ * fixed-size chunks that never move. Adds, replacements and secondary-index
+ * maintenance take a write lock; secondary-index queries take the read lock.
+ * Removed rows leave a gap and are never reused, so iterating up to a
+ * previously read row count is always safe. Both the row storage and the primary index can be swapped
+ * for compact implementations, e.g. columnar storage for bookings.
+ * Demonstrates: Generics, Composition, Encapsulation.
+ *
+ * @param <T> the entity type
+ */
+public class IndexedStore<T> {
+
+    private final Function<T, String> idFunction;
+    private final KeyIndex primaryIndex;
+    private final RowStorage<T> rows;
+    private final List<StoreIndex<T>> indexes;
+    private final ReentrantReadWriteLock lock;
+    private volatile long[] removed;
+    private volatile int rowCount;
+    private volatile int size;
+
+    public IndexedStore(Function<T, String> idFunction) {
+        this(idFunction, new HashKeyIndex(), new ObjectRowStorage<>());
+    }
+
+    public IndexedStore(Function<T, String> idFunction, KeyIndex primaryIndex, RowStorage<T> rows) {
+        this.idFunction = idFunction;
+        this.primaryIndex = primaryIndex;
+        this.rows = rows;
+        this.indexes = new ArrayList<>();
+        this.lock = new ReentrantReadWriteLock();
+        this.removed = new long[1];
+        this.rowCount = 0;
+        this.size = 0;
+    }
+
+    /**
+     * Registers a secondary index. Entities already stored are indexed
+     * immediately; afterwards the index is kept current on every change.
+     */
+    public <I extends StoreIndex<T>> I addIndex(I index) {
+        lock.writeLock().lock();
+        try {
+            for (int row = 0; row < rowCount; row++) {
+                if (!isRemoved(row)) {
+                    index.insert(row, row(row));
+                }
+            }
+            indexes.add(index);
+            return index;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Normalizes an ID so that lookups behave like equalsIgnoreCase.
+     */
+    public static String normalize(String id) {
+        return id == null ? null : id.trim().toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Adds a new entity. Returns false if an entity with the same ID exists.
+     */
+    public boolean add(T item) {
+        String key = normalize(idFunction.apply(item));
+        if (key == null) {
+            return false;
+        }
+        lock.writeLock().lock();
+        try {
+            if (primaryIndex.get(key) >= 0) {
+                return false;
+            }
+            int row = rowCount;
+            if (row >> 6 >= removed.length) {
+                removed = Arrays.copyOf(removed, removed.length * 2);
+            }
+            // Index the item before storing it: storage attaches a draft to
+            // its row, and nothing is published unless every index accepts it.
+            int inserted = 0;
+            try {
+                for (StoreIndex<T> index : indexes) {
+                    index.insert(row, item);
+                    inserted++;
+                }
+                rows.set(row, item);
+            } catch (RuntimeException e) {
+                for (int i = 0; i < inserted; i++) {
+                    indexes.get(i).discard(row);
+                }
+                throw e;
+            }
+            rowCount = row + 1;
+            size++;
+            primaryIndex.put(key, row);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the entity stored under the given ID, keeping its position.
+     * The index is re-keyed if the replacement carries a different ID.
+     * Returns false if no entity exists under that ID.
+     */
+    public boolean replace(String id, T item) {
+        String oldKey = normalize(id);
+        String newKey = normalize(idFunction.apply(item));
+        if (oldKey == null || newKey == null) {
+            return false;
+        }
+        lock.writeLock().lock();
+        try {
+            int row = primaryIndex.get(oldKey);
+            if (row < 0) {
+                return false;
+            }
+            if (!newKey.equals(oldKey)) {
+                if (primaryIndex.get(newKey) >= 0) {
+                    return false;
+                }
+                primaryIndex.put(newKey, row);
+                primaryIndex.remove(oldKey);
+            }
+            rows.set(row, item);
+            for (StoreIndex<T> index : indexes) {
+                index.update(row, item);
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Re-evaluates the secondary indexes for an entity that was changed in
+     * place (e.g. through a setter). Returns false if it is not stored here;
+     * views handed out by columnar storage count as stored if they are equal.
+     */
+    public boolean reindex(T item) {
+        String key = normalize(idFunction.apply(item));
+        lock.writeLock().lock();
+        try {
+            int row = key == null ? -1 : primaryIndex.get(key);
+            if (row < 0) {
+                return false;
+            }
+            T stored = row(row);
+            if (stored != item && !stored.equals(item)) {
+                return false;
+            }
+            for (StoreIndex<T> index : indexes) {
+                index.update(row, stored);
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the entity stored under an ID from the primary and secondary
+     * indexes and lets the row storage reclaim it. The row is not reused.
+     * Returns false if no entity exists under that ID.
+     */
+    public boolean remove(String id) {
+        String key = normalize(id);
+        if (key == null) {
+            return false;
+        }
+        lock.writeLock().lock();
+        try {
+            int row = primaryIndex.get(key);
+            if (row < 0) {
+                return false;
+            }
+            primaryIndex.remove(key);
+            removed[row >> 6] |= 1L << row;
+            size--;
+            for (StoreIndex<T> index : indexes) {
+                index.remove(row);
+            }
+            rows.release(row);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Looks up an entity by ID (case-insensitive) without the store lock.
+     * Returns null if absent.
+     */
+    public T get(String id) {
+        String key = normalize(id);
+        if (key == null) {
+            return null;
+        }
+        int row = primaryIndex.get(key);
+        return row < 0 ? null : row(row);
+    }
+
+    /**
+     * Returns the entities stored under a key of a secondary index,
+     * in insertion order. Costs the size of the result, not of the store.
+     */
+    public List<T> findBy(HashIndex<T> index, String key) {
+        lock.readLock().lock();
+        try {
+            IntList matches = index.rows(key);
+            if (matches == null) {
+                return new ArrayList<>();
+            }
+            List<T> result = new ArrayList<>(matches.size());
+            for (int i = 0; i < matches.size(); i++) {
+                result.add(row(matches.get(i)));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the entities stored under a key of a sequence index,
+     * in insertion order.
+     */
+    public List<T> findBy(SequenceIndex<T> index, String key) {
+        lock.readLock().lock();
+        try {
+            IntList matches = index.rows(key);
+            if (matches == null) {
+                return new ArrayList<>();
+            }
+            List<T> result = new ArrayList<>(matches.size());
+            for (int i = 0; i < matches.size(); i++) {
+                result.add(row(matches.get(i)));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the entities in one bucket of an enum index, in insertion order.
+     */
+    public <E extends Enum<E>> List<T> findBy(EnumIndex<T, E> index, E value) {
+        lock.readLock().lock();
+        try {
+            BitSet matches = index.rows(value);
+            List<T> result = new ArrayList<>(index.count(value));
+            for (int row = matches.nextSetBit(0); row >= 0; row = matches.nextSetBit(row + 1)) {
+                result.add(row(row));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the entity registered under a phone number, or null.
+     */
+    public T findBy(PhoneIndex<T> index, String phone) {
+        lock.readLock().lock();
+        try {
+            int row = index.row(phone);
+            return row < 0 ? null : row(row);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number an entity is currently indexed under, as a
+     * {@link PhoneIndex#key(String)}, or {@link PhoneIndex#NO_KEY} if the
+     * entity is absent or has no valid number. Unlike the entity's own
+     * field, this is the number as of its last add, replace or reindex.
+     */
+    public long indexedKey(PhoneIndex<T> index, String id) {
+        String key = normalize(id);
+        if (key == null) {
+            return PhoneIndex.NO_KEY;
+        }
+        lock.readLock().lock();
+        try {
+            int row = primaryIndex.get(key);
+            return row < 0 ? PhoneIndex.NO_KEY : index.keyAt(row);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} entities whose indexed text contains the
+     * query (case-insensitive), in insertion order.
+     */
+    public List<T> findBy(TrigramIndex<T> index, String query, int limit) {
+        lock.readLock().lock();
+        try {
+            IntList matches = index.search(query, limit);
+            List<T> result = new ArrayList<>(matches.size());
+            for (int i = 0; i < matches.size(); i++) {
+                result.add(row(matches.get(i)));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the entities of a date-range index dated from {@code from} to
+     * {@code to}, inclusive, in date order. Costs O(log n) plus the size of
+     * the result.
+     */
+    public List<T> findBy(DateRangeIndex<T> index, LocalDate from, LocalDate to) {
+        lock.readLock().lock();
+        try {
+            int[] matches = index.rows(from, to);
+            List<T> result = new ArrayList<>(matches.length);
+            for (int row : matches) {
+                result.add(row(row));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Runs a read-only query against the secondary indexes under the read
+     * lock, e.g. to take several counts that are consistent with each other.
+     */
+    public <R> R read(Supplier<R> query) {
+        lock.readLock().lock();
+        try {
+            return query.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean contains(String id) {
+        String key = normalize(id);
+        return key != null && primaryIndex.get(key) >= 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Streams the stored entities in insertion order without copying them.
+     * Entities added after the stream was created are not included.
+     */
+    public Stream<T> stream() {
+        return IntStream.range(0, rowCount).filter(row -> !isRemoved(row)).mapToObj(this::row);
+    }
+
+    /**
+     * Returns up to {@code limit} entities starting at the given position,
+     * in insertion order. Only the returned entities are copied.
+     */
+    public List<T> slice(int offset, int limit) {
+        int end = rowCount;
+        return collect(skipLive(0, Math.max(offset, 0), end), limit, end);
+    }
+
+    /**
+     * Keyset pagination: returns up to {@code limit} entities stored after the
+     * entity with the given ID (from the start if the ID is null). The page's
+     * cursor is the last ID returned, or null when nothing follows.
+     * If that entity has since been removed (e.g. archived), the page
+     * resumes at the first entity whose ID sorts after it.
+     */
+    public Page<T> pageAfter(String afterId, int limit) {
+        int end = rowCount;
+        int start = 0;
+        if (afterId != null) {
+            String key = normalize(afterId);
+            int row = primaryIndex.get(key);
+            start = row >= 0 ? row + 1 : firstRowAfter(key, end);
+        }
+        List<T> items = new ArrayList<>(Math.max(Math.min(limit, size), 0));
+        int row = start;
+        for (; row < end && items.size() < limit; row++) {
+            if (!isRemoved(row)) {
+                items.add(row(row));
+            }
+        }
+        String cursor = !items.isEmpty() && skipLive(row, 0, end) < end
+                ? idFunction.apply(items.get(items.size() - 1))
+                : null;
+        return new Page<>(items, cursor);
+    }
+
+    /**
+     * Returns a copy of all entities in insertion order.
+     */
+    public List<T> getAll() {
+        return collect(0, Integer.MAX_VALUE, rowCount);
+    }
+
+    private T row(int row) {
+        return rows.get(row);
+    }
+
+    /**
+     * Reads without the lock: a row removed concurrently may still be seen
+     * as present, which is harmless because row storage keeps its views valid.
+     */
+    private boolean isRemoved(int row) {
+        return (removed[row >> 6] & 1L << row) != 0;
+    }
+
+    /**
+     * The first live row whose ID sorts after {@code key} in the primary
+     * index's key order, or {@code end}. Assumes rows were added in that
+     * order, as they are for generated IDs, so the scan stops at the first.
+     */
+    private int firstRowAfter(String key, int end) {
+        Comparator<String> order = primaryIndex.keyOrder();
+        for (int row = skipLive(0, 0, end); row < end; row = skipLive(row + 1, 0, end)) {
+            if (order.compare(normalize(idFunction.apply(row(row))), key) > 0) {
+                return row;
+            }
+        }
+        return end;
+    }
+
+    /** The row of the {@code skip}-th live row at or after {@code from}, or {@code end}. */
+    private int skipLive(int from, int skip, int end) {
+        int row = from;
+        while (row < end) {
+            if ((row & 63) == 0 && row + 64 <= end) {
+                int live = 64 - Long.bitCount(removed[row >> 6]);
+                if (live <= skip) {
+                    skip -= live;
+                    row += 64;
+                    continue;
+                }
+            }
+            if (!isRemoved(row)) {
+                if (skip == 0) {
+                    return row;
+                }
+                skip--;
+            }
+            row++;
+        }
+        return end;
+    }
+
+    /** Up to {@code limit} live entities from {@code from}, in row order. */
+    private List<T> collect(int from, int limit, int end) {
+        List<T> result = new ArrayList<>(Math.max(Math.min(Math.min(limit, size), end - from), 0));
+        for (int row = from; row < end && result.size() < limit; row++) {
+            if (!isRemoved(row)) {
+                result.add(row(row));
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,77 @@
+package com.bharatgas.crm.store;
+
+import java.util.Arrays;
+
+/**
+ * Growable list of primitive ints kept in ascending order.
+ * Used as a posting list of row numbers by the store indexes, so that
+ * index entries cost 4 bytes each instead of a boxed Integer.
+ */
+public class IntList {
+    private int[] values;
+    private int size;
+
+    public IntList() {
+        this.values = new int[4];
+        this.size = 0;
+    }
+
+    /**
+     * Inserts a value, keeping the list sorted. Duplicates are ignored.
+     */
+    public void add(int value) {
+        if (size > 0 && values[size - 1] < value) {
+            append(value);
+            return;
+        }
+        int pos = Arrays.binarySearch(values, 0, size, value);
+        if (pos >= 0) {
+            return;
+        }
+        pos = -pos - 1;
+        ensureCapacity(size + 1);
+        System.arraycopy(values, pos, values, pos + 1, size - pos);
+        values[pos] = value;
+        size++;
+    }
+
+    /**
+     * Removes a value if present. Returns true if it was removed.
+     */
+    public boolean remove(int value) {
+        int pos = Arrays.binarySearch(values, 0, size, value);
+        if (pos < 0) {
+            return false;
+        }
+        System.arraycopy(values, pos + 1, values, pos, size - pos - 1);
+        size--;
+        return true;
+    }
+
+    public boolean contains(int value) {
+        return Arrays.binarySearch(values, 0, size, value) >= 0;
+    }
+
+    public int get(int index) {
+        return values[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private void append(int value) {
+        ensureCapacity(size + 1);
+        values[size++] = value;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > values.length) {
+            values = Arrays.copyOf(values, Math.max(capacity, values.length * 2));
+        }
+    }
+}
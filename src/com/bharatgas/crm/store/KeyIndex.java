@@ -0,0 +1,28 @@
+package com.bharatgas.crm.store;
+
+import java.util.Comparator;
+
+/**
+ * Primary-key index of an {@link IndexedStore}: maps a normalized ID to its
+ * row. The store only writes under its write lock, but {@link #get(String)}
+ * is called without it and must be thread-safe.
+ */
+public interface KeyIndex {
+
+    /**
+     * Returns the row stored under a key, or -1.
+     */
+    int get(String key);
+
+    void put(String key, int row);
+
+    void remove(String key);
+
+    /**
+     * The order in which keys are normally added, used to resume paging
+     * after a key that has since been removed. Text order by default.
+     */
+    default Comparator<String> keyOrder() {
+        return Comparator.naturalOrder();
+    }
+}
@@ -0,0 +1,42 @@
+package com.bharatgas.crm.store;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Default row storage that keeps the entity objects in fixed-size chunks.
+ * Chunks never move once allocated, so reads need no lock.
+ *
+ * @param <T> the entity type
+ */
+public class ObjectRowStorage<T> implements RowStorage<T> {
+
+    private static final int CHUNK_SHIFT = 10;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private volatile AtomicReferenceArray<T>[] chunks;
+
+    @SuppressWarnings("unchecked")
+    public ObjectRowStorage() {
+        this.chunks = (AtomicReferenceArray<T>[]) new AtomicReferenceArray<?>[0];
+    }
+
+    @Override
+    public T get(int row) {
+        return chunks[row >>> CHUNK_SHIFT].get(row & CHUNK_MASK);
+    }
+
+    @Override
+    public void set(int row, T item) {
+        int needed = (row >>> CHUNK_SHIFT) + 1;
+        if (needed > chunks.length) {
+            AtomicReferenceArray<T>[] grown = Arrays.copyOf(chunks, Math.max(needed, chunks.length * 2));
+            for (int i = chunks.length; i < grown.length; i++) {
+                grown[i] = new AtomicReferenceArray<>(CHUNK_SIZE);
+            }
+            chunks = grown;
+        }
+        chunks[row >>> CHUNK_SHIFT].set(row & CHUNK_MASK, item);
+    }
+}
@@ -0,0 +1,36 @@
+package com.bharatgas.crm.store;
+
+import java.util.List;
+
+/**
+ * One page of entities from a keyset-paginated listing.
+ * The cursor is the ID of the last entity on the page; passing it back
+ * continues exactly after that entity, even if entities were added meanwhile.
+ *
+ * @param <T> the entity type
+ */
+public class Page<T> {
+
+    private final List<T> items;
+    private final String nextCursor;
+
+    public Page(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    /**
+     * Cursor for the following page, or null if this is the last page.
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+}
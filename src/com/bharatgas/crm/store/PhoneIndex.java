@@ -0,0 +1,114 @@
+package com.bharatgas.crm.store;
+
+import java.util.Arrays;
+import java.util.function.Function;
+
+/**
+ * Unique secondary index from a 10-digit mobile number to a row, stored as
+ * a primitive long key in a {@link LongIntHashMap}. If two entities share a
+ * number, the one stored first owns the entry.
+ * Demonstrates: Generics, Interface implementation (StoreIndex).
+ *
+ * @param <T> the entity type
+ */
+public class PhoneIndex<T> implements StoreIndex<T> {
+
+    /** Key used for numbers that are missing or not 10 digits. */
+    public static final long NO_KEY = -1L;
+
+    private final Function<T, String> phoneFunction;
+    private final LongIntHashMap rowsByPhone;
+    private long[] rowKeys;
+
+    public PhoneIndex(Function<T, String> phoneFunction) {
+        this.phoneFunction = phoneFunction;
+        this.rowsByPhone = new LongIntHashMap();
+        this.rowKeys = new long[16];
+    }
+
+    /**
+     * Parses a 10-digit number (surrounding spaces allowed) into its key,
+     * or returns {@link #NO_KEY}.
+     */
+    public static long key(String phone) {
+        if (phone == null) {
+            return NO_KEY;
+        }
+        int start = 0;
+        int end = phone.length();
+        while (start < end && phone.charAt(start) == ' ') {
+            start++;
+        }
+        while (end > start && phone.charAt(end - 1) == ' ') {
+            end--;
+        }
+        if (end - start != 10) {
+            return NO_KEY;
+        }
+        long key = 0;
+        for (int i = start; i < end; i++) {
+            char c = phone.charAt(i);
+            if (c < '0' || c > '9') {
+                return NO_KEY;
+            }
+            key = key * 10 + (c - '0');
+        }
+        return key;
+    }
+
+    @Override
+    public void insert(int row, T item) {
+        if (row >= rowKeys.length) {
+            int oldLength = rowKeys.length;
+            rowKeys = Arrays.copyOf(rowKeys, Math.max(row + 1, oldLength * 2));
+            Arrays.fill(rowKeys, oldLength, rowKeys.length, NO_KEY);
+        }
+        long key = key(phoneFunction.apply(item));
+        rowKeys[row] = key;
+        claim(row, key);
+    }
+
+    @Override
+    public void update(int row, T item) {
+        long oldKey = rowKeys[row];
+        long newKey = key(phoneFunction.apply(item));
+        if (oldKey == newKey) {
+            return;
+        }
+        if (oldKey != NO_KEY && rowsByPhone.get(oldKey, -1) == row) {
+            rowsByPhone.remove(oldKey);
+        }
+        rowKeys[row] = newKey;
+        claim(row, newKey);
+    }
+
+    @Override
+    public void remove(int row) {
+        long key = rowKeys[row];
+        if (key != NO_KEY && rowsByPhone.get(key, -1) == row) {
+            rowsByPhone.remove(key);
+        }
+        rowKeys[row] = NO_KEY;
+    }
+
+    /**
+     * Returns the row registered under a number, or -1.
+     */
+    public int row(String phone) {
+        long key = key(phone);
+        return key == NO_KEY ? -1 : rowsByPhone.get(key, -1);
+    }
+
+    /**
+     * Returns the key a row is indexed under, or {@link #NO_KEY}.
+     */
+    public long keyAt(int row) {
+        return row < rowKeys.length ? rowKeys[row] : NO_KEY;
+    }
+
+    private void claim(int row, long key) {
+        if (key != NO_KEY && !rowsByPhone.containsKey(key)) {
+            rowsByPhone.put(key, row);
+        }
+    }
+}
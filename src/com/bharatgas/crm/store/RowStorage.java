@@ -0,0 +1,30 @@
+package com.bharatgas.crm.store;
+
+/**
+ * Holds the entities of an {@link IndexedStore} by row number.
+ * Rows are appended in order and never reused. Implementations may keep
+ * the entity objects themselves or decompose them into columns and hand
+ * out views; {@link #get(int)} must be safe to call without the store lock.
+ *
+ * @param <T> the entity type
+ */
+public interface RowStorage<T> {
+
+    /**
+     * Returns the entity at a row (which may be a fresh view each call).
+     */
+    T get(int row);
+
+    /**
+     * Stores an entity at a row. The row is either an existing one being
+     * replaced or the next row after the last.
+     */
+    void set(int row, T item);
+
+    /**
+     * Called after a row was removed from the store. Storage may reclaim
+     * its memory, but views handed out earlier must keep working.
+     */
+    default void release(int row) {
+    }
+}
@@ -0,0 +1,158 @@
+package com.bharatgas.crm.store;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Non-unique secondary index on a generated ID such as a booking ID, for
+ * keys shared by only a few rows each. Rows with the same key are chained
+ * through a primitive int array, and the chain heads of generated IDs live
+ * in a {@link LongIntHashMap}, so an entry costs a few bytes in primitive
+ * arrays and no objects. Irregular keys fall back to an ordinary hash map.
+ * Demonstrates: Generics, Interface implementation (StoreIndex).
+ *
+ * @param <T> the entity type
+ */
+public class SequenceIndex<T> implements StoreIndex<T> {
+
+    private static final int END = -1;
+    private static final long NO_KEY = -1L;
+    private static final long IRREGULAR = -2L;
+
+    private final Function<T, String> keyFunction;
+    private final ToLongFunction<String> sequenceOf;
+    private final LongIntHashMap heads;
+    private final Map<String, Integer> irregularHeads;
+    private final Map<Integer, String> irregularKeys;
+    private int[] next;
+    private long[] rowKeys;
+
+    /**
+     * @param keyFunction extracts the key from an entity
+     * @param sequenceOf  returns the sequence number of a normalized key, or
+     *                    a negative value if it is not in the generated format
+     */
+    public SequenceIndex(Function<T, String> keyFunction, ToLongFunction<String> sequenceOf) {
+        this.keyFunction = keyFunction;
+        this.sequenceOf = sequenceOf;
+        this.heads = new LongIntHashMap();
+        this.irregularHeads = new HashMap<>();
+        this.irregularKeys = new HashMap<>();
+        this.next = new int[16];
+        this.rowKeys = new long[16];
+    }
+
+    @Override
+    public void insert(int row, T item) {
+        if (row >= rowKeys.length) {
+            int length = Math.max(row + 1, rowKeys.length * 2);
+            next = Arrays.copyOf(next, length);
+            rowKeys = Arrays.copyOf(rowKeys, length);
+        }
+        link(row, IndexedStore.normalize(keyFunction.apply(item)));
+    }
+
+    @Override
+    public void update(int row, T item) {
+        String newKey = IndexedStore.normalize(keyFunction.apply(item));
+        if (code(newKey) == rowKeys[row]
+                && (rowKeys[row] != IRREGULAR || newKey.equals(irregularKeys.get(row)))) {
+            return;
+        }
+        unlink(row);
+        link(row, newKey);
+    }
+
+    @Override
+    public void remove(int row) {
+        unlink(row);
+        rowKeys[row] = NO_KEY;
+        next[row] = END;
+    }
+
+    /**
+     * Returns the rows stored under a key in ascending order, or null.
+     */
+    public IntList rows(String key) {
+        String normalized = IndexedStore.normalize(key);
+        int row = normalized == null ? END : head(normalized);
+        if (row == END) {
+            return null;
+        }
+        IntList rows = new IntList();
+        for (; row != END; row = next[row]) {
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private int head(String key) {
+        long sequence = sequenceOf.applyAsLong(key);
+        if (sequence >= 0) {
+            return heads.get(sequence, END);
+        }
+        Integer row = irregularHeads.get(key);
+        return row == null ? END : row;
+    }
+
+    /** The sequence number of a key, or NO_KEY / IRREGULAR. */
+    private long code(String key) {
+        if (key == null) {
+            return NO_KEY;
+        }
+        long sequence = sequenceOf.applyAsLong(key);
+        return sequence >= 0 ? sequence : IRREGULAR;
+    }
+
+    private void link(int row, String key) {
+        long sequence = code(key);
+        if (sequence == NO_KEY) {
+            rowKeys[row] = NO_KEY;
+            next[row] = END;
+        } else if (sequence != IRREGULAR) {
+            rowKeys[row] = sequence;
+            next[row] = heads.get(sequence, END);
+            heads.put(sequence, row);
+        } else {
+            rowKeys[row] = IRREGULAR;
+            irregularKeys.put(row, key);
+            Integer head = irregularHeads.put(key, row);
+            next[row] = head == null ? END : head;
+        }
+    }
+
+    private void unlink(int row) {
+        long key = rowKeys[row];
+        if (key == NO_KEY) {
+            return;
+        }
+        String irregular = key == IRREGULAR ? irregularKeys.remove(row) : null;
+        int head = irregular != null ? irregularHeads.get(irregular) : heads.get(key, END);
+        if (head == row) {
+            if (next[row] != END) {
+                putHead(key, irregular, next[row]);
+            } else if (irregular != null) {
+                irregularHeads.remove(irregular);
+            } else {
+                heads.remove(key);
+            }
+            return;
+        }
+        int previous = head;
+        while (next[previous] != row) {
+            previous = next[previous];
+        }
+        next[previous] = next[row];
+    }
+
+    private void putHead(long key, String irregular, int row) {
+        if (irregular != null) {
+            irregularHeads.put(irregular, row);
+        } else {
+            heads.put(key, row);
+        }
+    }
+}
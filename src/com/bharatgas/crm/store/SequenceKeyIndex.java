@@ -0,0 +1,95 @@
+package com.bharatgas.crm.store;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.ToLongFunction;
+
+/**
+ * Primary-key index for generated IDs such as BG-BK-042. IDs that parse to a
+ * sequence number are kept as primitive long keys in a {@link LongIntHashMap}
+ * (about 24 bytes per entry instead of a String, a boxed Integer and a map
+ * node); any other ID falls back to an ordinary hash map.
+ */
+public class SequenceKeyIndex implements KeyIndex {
+
+    private final ToLongFunction<String> sequenceOf;
+    private final LongIntHashMap bySequence;
+    private final Map<String, Integer> irregular;
+    private final StampedLock lock;
+
+    /**
+     * @param sequenceOf returns the sequence number of an ID, or a negative
+     *                   value if the ID is not in the generated format
+     */
+    public SequenceKeyIndex(ToLongFunction<String> sequenceOf) {
+        this.sequenceOf = sequenceOf;
+        this.bySequence = new LongIntHashMap();
+        this.irregular = new HashMap<>();
+        this.lock = new StampedLock();
+    }
+
+    @Override
+    public int get(String key) {
+        long sequence = sequenceOf.applyAsLong(key);
+        long stamp = lock.readLock();
+        try {
+            if (sequence >= 0) {
+                return bySequence.get(sequence, -1);
+            }
+            Integer row = irregular.get(key);
+            return row == null ? -1 : row;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public void put(String key, int row) {
+        long sequence = sequenceOf.applyAsLong(key);
+        long stamp = lock.writeLock();
+        try {
+            if (sequence >= 0) {
+                bySequence.put(sequence, row);
+            } else {
+                irregular.put(key, row);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Generated IDs by sequence number, then any others by text.
+     */
+    @Override
+    public Comparator<String> keyOrder() {
+        return (a, b) -> {
+            long x = sequenceOf.applyAsLong(a);
+            long y = sequenceOf.applyAsLong(b);
+            if (x >= 0 && y >= 0) {
+                return Long.compare(x, y);
+            }
+            if (x >= 0 || y >= 0) {
+                return x >= 0 ? -1 : 1;
+            }
+            return a.compareTo(b);
+        };
+    }
+
+    @Override
+    public void remove(String key) {
+        long sequence = sequenceOf.applyAsLong(key);
+        long stamp = lock.writeLock();
+        try {
+            if (sequence >= 0) {
+                bySequence.remove(sequence);
+            } else {
+                irregular.remove(key);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+}
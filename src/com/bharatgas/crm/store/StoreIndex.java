@@ -0,0 +1,35 @@
+package com.bharatgas.crm.store;
+
+/**
+ * Secondary index maintained by an {@link IndexedStore}.
+ * The store calls these hooks with the row number of every entity it adds
+ * or re-indexes, so implementations never need to scan the store.
+ *
+ * @param <T> the entity type
+ */
+public interface StoreIndex<T> {
+
+    /**
+     * Called when a new entity is stored at the given row.
+     */
+    void insert(int row, T item);
+
+    /**
+     * Called when the entity at the given row was replaced or changed.
+     */
+    void update(int row, T item);
+
+    /**
+     * Called when the entity at the given row was removed from the store.
+     * The row is never reused, so lookups must no longer return it.
+     */
+    void remove(int row);
+
+    /**
+     * Called when an insert is rolled back because a later index rejected
+     * the entity, so the row was never visible. Defaults to {@link #remove}.
+     */
+    default void discard(int row) {
+        remove(row);
+    }
+}
@@ -0,0 +1,56 @@
+package com.bharatgas.crm.store;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed pool of locks selected by entity ID.
+ * Services hold the stripe of an entity while they check and change its
+ * status, so transitions on the same entity are serialized (and journaled
+ * in the order they were applied) while different entities proceed in
+ * parallel.
+ */
+public class StripedLock {
+
+    private final ReentrantLock[] stripes;
+    private final int mask;
+
+    /**
+     * @param stripes number of locks; rounded up to a power of two
+     */
+    public StripedLock(int stripes) {
+        int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+    }
+
+    /**
+     * Returns the lock guarding the entity with the given ID.
+     */
+    public ReentrantLock forId(String id) {
+        return stripes[index(id)];
+    }
+
+    /**
+     * Returns the locks guarding two entities in stripe order, or just one
+     * if both share a stripe. Callers that lock them in array order cannot
+     * deadlock with each other.
+     */
+    public ReentrantLock[] forIds(String first, String second) {
+        int a = index(first);
+        int b = index(second);
+        if (a == b) {
+            return new ReentrantLock[] {stripes[a]};
+        }
+        return new ReentrantLock[] {stripes[Math.min(a, b)], stripes[Math.max(a, b)]};
+    }
+
+    private int index(String id) {
+        String key = IndexedStore.normalize(id);
+        int hash = key == null ? 0 : key.hashCode();
+        hash ^= hash >>> 16;
+        return hash & mask;
+    }
+}
@@ -0,0 +1,149 @@
+package com.bharatgas.crm.store;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Inverted index from every three-character window of a text field to the
+ * rows containing it, for case-insensitive substring search (e.g. customer
+ * names). A query is answered by intersecting the posting lists of its
+ * trigrams, smallest first, and checking the few remaining candidates.
+ * Demonstrates: Generics, Interface implementation (StoreIndex).
+ *
+ * @param <T> the entity type
+ */
+public class TrigramIndex<T> implements StoreIndex<T> {
+
+    private static final IntList NO_ROWS = new IntList();
+
+    private final Function<T, String> textFunction;
+    private final Map<Long, IntList> postings;
+    private final List<String> rowTexts;
+
+    public TrigramIndex(Function<T, String> textFunction) {
+        this.textFunction = textFunction;
+        this.postings = new HashMap<>();
+        this.rowTexts = new ArrayList<>();
+    }
+
+    /**
+     * Folds text to the form that is indexed and searched.
+     */
+    public static String fold(String text) {
+        return text == null ? null : text.toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public void insert(int row, T item) {
+        while (rowTexts.size() <= row) {
+            rowTexts.add(null);
+        }
+        String text = fold(textFunction.apply(item));
+        rowTexts.set(row, text);
+        addPostings(row, text);
+    }
+
+    @Override
+    public void update(int row, T item) {
+        String oldText = rowTexts.get(row);
+        String newText = fold(textFunction.apply(item));
+        if (oldText == null ? newText == null : oldText.equals(newText)) {
+            return;
+        }
+        removePostings(row, oldText);
+        rowTexts.set(row, newText);
+        addPostings(row, newText);
+    }
+
+    @Override
+    public void remove(int row) {
+        removePostings(row, rowTexts.get(row));
+        rowTexts.set(row, null);
+    }
+
+    /**
+     * Returns up to {@code limit} rows whose text contains the query,
+     * ignoring case, in ascending row (insertion) order.
+     * Queries shorter than three characters fall back to checking every row.
+     */
+    public IntList search(String query, int limit) {
+        IntList result = new IntList();
+        String needle = fold(query);
+        if (needle == null || limit <= 0) {
+            return result;
+        }
+        if (needle.length() < 3) {
+            for (int row = 0; row < rowTexts.size() && result.size() < limit; row++) {
+                String text = rowTexts.get(row);
+                if (text != null && text.contains(needle)) {
+                    result.add(row);
+                }
+            }
+            return result;
+        }
+
+        IntList[] lists = new IntList[needle.length() - 2];
+        for (int i = 0; i < lists.length; i++) {
+            IntList rows = postings.get(trigram(needle, i));
+            if (rows == null) {
+                return result;
+            }
+            lists[i] = rows;
+        }
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.size(), b.size()));
+
+        IntList smallest = lists[0];
+        for (int i = 0; i < smallest.size() && result.size() < limit; i++) {
+            int row = smallest.get(i);
+            if (inAll(lists, row) && rowTexts.get(row).contains(needle)) {
+                result.add(row);
+            }
+        }
+        return result;
+    }
+
+    private static boolean inAll(IntList[] lists, int row) {
+        for (int i = 1; i < lists.length; i++) {
+            if (lists[i] != lists[i - 1] && !lists[i].contains(row)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void addPostings(int row, String text) {
+        if (text == null) {
+            return;
+        }
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            postings.computeIfAbsent(trigram(text, i), k -> new IntList()).add(row);
+        }
+    }
+
+    private void removePostings(int row, String text) {
+        if (text == null) {
+            return;
+        }
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            Long key = trigram(text, i);
+            IntList rows = postings.getOrDefault(key, NO_ROWS);
+            if (rows.remove(row) && rows.isEmpty()) {
+                postings.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Packs three UTF-16 chars into one key.
+     */
+    private static Long trigram(String text, int start) {
+        return ((long) text.charAt(start) << 32)
+                | ((long) text.charAt(start + 1) << 16)
+                | text.charAt(start + 2);
+    }
+}
@@ -1,59 +1,326 @@
 package com.bharatgas.crm.util;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+
 /**
  * Utility class for generating unique IDs for various entities.
- * Uses static counters with a prefix pattern (e.g., BG-CUST-001).
+ * Uses a counter per entity kind with a prefix pattern (e.g., BG-CUST-001).
+ *
+ * Counters are lock-free and every {@code generate} call takes the next
+ * number of the shared counter, so IDs handed to request threads follow one
+ * another without gaps. Bulk loads and batch runs use an {@link Allocator},
+ * which takes numbers a block at a time and so touches the shared counter
+ * once per block. Numbers are at least three digits and grow past 999 as needed.
+ * When attached to a file, the generator leases numbers ahead of use and
+ * records the lease before handing them out, so IDs are never reissued even
+ * after a crash.
  */
 public class IDGenerator {
-    private static int customerCounter = 0;
-    private static int bookingCounter = 0;
-    private static int paymentCounter = 0;
-    private static int complaintCounter = 0;
-    private static int employeeCounter = 0;
+
+    /**
+     * The entity kinds that receive generated IDs.
+     */
+    public enum Kind {
+        CUSTOMER("BG-CUST-"),
+        BOOKING("BG-BK-"),
+        PAYMENT("BG-PAY-"),
+        COMPLAINT("BG-CMP-"),
+        EMPLOYEE("BG-EMP-");
+
+        private final String prefix;
+
+        Kind(String prefix) {
+            this.prefix = prefix;
+        }
+
+        public String getPrefix() {
+            return prefix;
+        }
+    }
+
+    private static final int BLOCK_SIZE = Integer.getInteger("bharatgas.id.block", 16);
+    private static final long LEASE_SIZE = 1024;
+    private static final int MIN_DIGITS = 3;
+
+    private static final Sequence[] SEQUENCES = new Sequence[Kind.values().length];
+    private static volatile Path highWaterFile;
+
+    static {
+        for (Kind kind : Kind.values()) {
+            SEQUENCES[kind.ordinal()] = new Sequence();
+        }
+    }
 
     public static String generateCustomerId() {
-        customerCounter++;
-        return String.format("BG-CUST-%03d", customerCounter);
+        return generate(Kind.CUSTOMER);
     }
 
     public static String generateBookingId() {
-        bookingCounter++;
-        return String.format("BG-BK-%03d", bookingCounter);
+        return generate(Kind.BOOKING);
     }
 
     public static String generatePaymentId() {
-        paymentCounter++;
-        return String.format("BG-PAY-%03d", paymentCounter);
+        return generate(Kind.PAYMENT);
     }
 
     public static String generateComplaintId() {
-        complaintCounter++;
-        return String.format("BG-CMP-%03d", complaintCounter);
+        return generate(Kind.COMPLAINT);
     }
 
     public static String generateEmployeeId() {
-        employeeCounter++;
-        return String.format("BG-EMP-%03d", employeeCounter);
+        return generate(Kind.EMPLOYEE);
+    }
+
+    /**
+     * Generates the next ID of the given kind.
+     */
+    public static String generate(Kind kind) {
+        return format(kind, SEQUENCES[kind.ordinal()].next());
+    }
+
+    /**
+     * Returns a new block allocator for a bulk load or batch run.
+     */
+    public static Allocator allocator() {
+        return new Allocator();
+    }
+
+    /**
+     * Reserves a contiguous range of numbers, e.g. for another node or a bulk
+     * import. Returns the first number; the range is [first, first + count).
+     * Use {@link #format(Kind, long)} to turn a number into an ID.
+     */
+    public static long reserveBlock(Kind kind, int count) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("Block size must be positive: " + count);
+        }
+        Sequence sequence = SEQUENCES[kind.ordinal()];
+        long first = sequence.take(count);
+        sequence.issued.accumulate(first + count - 1);
+        return first;
+    }
+
+    /**
+     * Formats a number as an ID of the given kind without String.format,
+     * zero-padding to at least three digits (7 → BG-BK-007).
+     */
+    public static String format(Kind kind, long number) {
+        String prefix = kind.getPrefix();
+        int digits = 1;
+        for (long rest = number / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        int width = Math.max(digits, MIN_DIGITS);
+        char[] chars = new char[prefix.length() + width];
+        prefix.getChars(0, prefix.length(), chars, 0);
+        long rest = number;
+        for (int i = chars.length - 1; i >= prefix.length(); i--) {
+            chars[i] = (char) ('0' + rest % 10);
+            rest /= 10;
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Parses an ID exactly as {@link #format(Kind, long)} would produce it
+     * and returns its number, or -1 for any other string (wrong prefix,
+     * lower case, extra leading zeros, more than 18 digits).
+     */
+    public static long parse(Kind kind, String id) {
+        String prefix = kind.getPrefix();
+        if (id == null || !id.startsWith(prefix)) {
+            return -1;
+        }
+        int digits = id.length() - prefix.length();
+        if (digits < MIN_DIGITS || digits > 18) {
+            return -1;
+        }
+        long number = 0;
+        for (int i = prefix.length(); i < id.length(); i++) {
+            char c = id.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            number = number * 10 + (c - '0');
+        }
+        if (digits > MIN_DIGITS && id.charAt(prefix.length()) == '0') {
+            return -1;
+        }
+        return number;
     }
 
     // Allow setting counters (useful when loading existing data)
-    public static void setCustomerCounter(int count) {
-        customerCounter = count;
+    public static void setCustomerCounter(long count) {
+        SEQUENCES[Kind.CUSTOMER.ordinal()].reset(count);
+    }
+
+    public static void setBookingCounter(long count) {
+        SEQUENCES[Kind.BOOKING.ordinal()].reset(count);
+    }
+
+    public static void setPaymentCounter(long count) {
+        SEQUENCES[Kind.PAYMENT.ordinal()].reset(count);
+    }
+
+    public static void setComplaintCounter(long count) {
+        SEQUENCES[Kind.COMPLAINT.ordinal()].reset(count);
+    }
+
+    public static void setEmployeeCounter(long count) {
+        SEQUENCES[Kind.EMPLOYEE.ordinal()].reset(count);
+    }
+
+    /**
+     * Starts recording the high-water mark in the given file. Counters that
+     * are behind the recorded mark are moved up to it.
+     */
+    public static synchronized void attach(Path file) throws IOException {
+        if (Files.exists(file)) {
+            Properties marks = new Properties();
+            try (InputStream in = Files.newInputStream(file)) {
+                marks.load(in);
+            }
+            for (Kind kind : Kind.values()) {
+                String mark = marks.getProperty(kind.name());
+                if (mark != null) {
+                    SEQUENCES[kind.ordinal()].advanceTo(Long.parseLong(mark.trim()));
+                }
+            }
+        }
+        highWaterFile = file;
+        for (Sequence sequence : SEQUENCES) {
+            sequence.leased = sequence.counter.get();
+        }
+        saveMarks(false);
+    }
+
+    /**
+     * Records the highest numbers actually issued and stops recording.
+     * Numbers leased but never issued are given back, so the next run
+     * continues without a gap.
+     */
+    public static synchronized void detach() throws IOException {
+        if (highWaterFile != null) {
+            saveMarks(true);
+            highWaterFile = null;
+        }
     }
 
-    public static void setBookingCounter(int count) {
-        bookingCounter = count;
+    /**
+     * Extends the lease of a sequence so that it covers the given number,
+     * writing the new mark to disk before the number is handed out. Only
+     * one call in {@code LEASE_SIZE} takes the lock.
+     */
+    private static void lease(Sequence sequence, long upTo) {
+        if (upTo <= sequence.leased || highWaterFile == null) {
+            return;
+        }
+        extendLease(sequence, upTo);
     }
 
-    public static void setPaymentCounter(int count) {
-        paymentCounter = count;
+    private static synchronized void extendLease(Sequence sequence, long upTo) {
+        if (highWaterFile == null || upTo <= sequence.leased) {
+            return;
+        }
+        long lease = upTo + LEASE_SIZE;
+        try {
+            saveMarks(false, sequence, lease);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not record ID high-water mark: " + e.getMessage(), e);
+        }
+        // Published only once on disk, since other threads check it unlocked.
+        sequence.leased = lease;
     }
 
-    public static void setComplaintCounter(int count) {
-        complaintCounter = count;
+    private static void saveMarks(boolean issuedOnly) throws IOException {
+        saveMarks(issuedOnly, null, 0);
     }
 
-    public static void setEmployeeCounter(int count) {
-        employeeCounter = count;
+    private static void saveMarks(boolean issuedOnly, Sequence extended, long lease) throws IOException {
+        Properties marks = new Properties();
+        for (Kind kind : Kind.values()) {
+            Sequence sequence = SEQUENCES[kind.ordinal()];
+            long mark = issuedOnly ? sequence.issued.get() : sequence == extended ? lease : sequence.leased;
+            marks.setProperty(kind.name(), Long.toString(mark));
+        }
+        Path temp = highWaterFile.resolveSibling(highWaterFile.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            marks.store(out, "Bharat Gas CRM ID high-water marks");
+        }
+        Files.move(temp, highWaterFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Hands out IDs from blocks of {@code bharatgas.id.block} numbers (16 by
+     * default) per kind, for a bulk load or batch run on one thread. Not
+     * thread-safe: each loader thread needs its own. Numbers left in its
+     * blocks when it is dropped are never issued, and blocks taken before
+     * a counter reset are discarded.
+     */
+    public static final class Allocator {
+        private final long[] next = new long[Kind.values().length];
+        private final long[] end = new long[Kind.values().length];
+        private final int[] epochs = new int[Kind.values().length];
+
+        private Allocator() {
+        }
+
+        public String next(Kind kind) {
+            int k = kind.ordinal();
+            Sequence sequence = SEQUENCES[k];
+            if (next[k] >= end[k] || epochs[k] != sequence.epoch) {
+                epochs[k] = sequence.epoch;
+                next[k] = sequence.take(BLOCK_SIZE);
+                end[k] = next[k] + BLOCK_SIZE;
+            }
+            long number = next[k]++;
+            sequence.issued.accumulate(number);
+            return format(kind, number);
+        }
+    }
+
+    /**
+     * One counter with its lease. The epoch changes on every reset so that
+     * allocators drop the blocks they took before it.
+     */
+    private static final class Sequence {
+        private final AtomicLong counter = new AtomicLong();
+        private final LongAccumulator issued = new LongAccumulator(Math::max, 0);
+        private volatile int epoch;
+        private volatile long leased;
+
+        long next() {
+            long number = counter.incrementAndGet();
+            lease(this, number);
+            issued.accumulate(number);
+            return number;
+        }
+
+        long take(int count) {
+            long first = counter.getAndAdd(count) + 1;
+            lease(this, first + count - 1);
+            return first;
+        }
+
+        synchronized void reset(long count) {
+            counter.set(count);
+            issued.reset();
+            issued.accumulate(count);
+            epoch++;
+        }
+
+        synchronized void advanceTo(long count) {
+            if (count > counter.get()) {
+                reset(count);
+            }
+        }
     }
 }
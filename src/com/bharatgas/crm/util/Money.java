@@ -0,0 +1,45 @@
+package com.bharatgas.crm.util;
+
+/**
+ * Utility class for money amounts, which are kept as whole paise in a long
+ * so that sums are exact (₹903.00 is 90300).
+ * Demonstrates: Static utility methods.
+ */
+public final class Money {
+
+    private Money() {
+    }
+
+    /**
+     * Converts a rupee amount to paise, rounding to the nearest paisa.
+     */
+    public static long toPaise(double rupees) {
+        return Math.round(rupees * 100);
+    }
+
+    /**
+     * Converts paise to rupees, e.g. for binary files that store doubles.
+     * Exact for any amount below about ₹90 trillion.
+     */
+    public static double toRupees(long paise) {
+        return paise / 100.0;
+    }
+
+    /**
+     * Formats paise as rupees with two decimals (90300 → ₹903.00).
+     */
+    public static String format(long paise) {
+        StringBuilder text = new StringBuilder(16);
+        if (paise < 0) {
+            text.append('-');
+        }
+        text.append('₹');
+        long abs = Math.abs(paise);
+        long fraction = abs % 100;
+        text.append(abs / 100).append('.');
+        if (fraction < 10) {
+            text.append('0');
+        }
+        return text.append(fraction).toString();
+    }
+}
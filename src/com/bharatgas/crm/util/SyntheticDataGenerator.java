@@ -0,0 +1,209 @@
+package com.bharatgas.crm.util;
+
+import com.bharatgas.crm.enums.BookingStatus;
+import com.bharatgas.crm.enums.ComplaintStatus;
+import com.bharatgas.crm.enums.ConnectionStatus;
+import com.bharatgas.crm.enums.ConnectionType;
+import com.bharatgas.crm.enums.PaymentMode;
+import com.bharatgas.crm.enums.PaymentStatus;
+import com.bharatgas.crm.model.Booking;
+import com.bharatgas.crm.model.Complaint;
+import com.bharatgas.crm.model.Customer;
+import com.bharatgas.crm.model.Cylinder;
+import com.bharatgas.crm.model.Payment;
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Seeded generator of realistic agency data for load tests and staging.
+ * Customers are produced one at a time together with their whole booking
+ * history, so memory use does not depend on how many are generated; each
+ * entity is handed to a {@link Sink} as soon as it is complete.
+ *
+ * The same seed and reference date always produce the same data. The mix:
+ * about 8% commercial connections; domestic households refill every 30-60
+ * days and commercial ones every 5-15 days; UPI 55%, cash 30%, card 8% and
+ * net banking 7% of payments; 4% of bookings cancelled; a complaint on
+ * roughly 1.5% of bookings; 3% inactive and 1% suspended connections.
+ */
+public class SyntheticDataGenerator {
+
+    /**
+     * Receives generated entities in dependency order: a customer before its
+     * bookings, a booking before its payment and complaints.
+     */
+    public interface Sink {
+        void customer(Customer customer);
+
+        void booking(Booking booking);
+
+        void payment(Payment payment);
+
+        void complaint(Complaint complaint);
+    }
+
+    private static final String[] FIRST_NAMES = {
+        "Rajesh", "Priya", "Amit", "Sunita", "Vikram", "Anjali", "Suresh", "Kavita",
+        "Arjun", "Meena", "Rahul", "Pooja", "Sanjay", "Neha", "Manoj", "Deepa",
+        "Ganesh", "Lakshmi", "Anil", "Shobha", "Kiran", "Rekha", "Vijay", "Asha"
+    };
+    private static final String[] LAST_NAMES = {
+        "Kumar", "Sharma", "Patil", "Singh", "Iyer", "Reddy", "Gupta", "Joshi",
+        "Nair", "Desai", "Mehta", "Rao", "Verma", "Kulkarni", "Das", "Shah",
+        "Pawar", "Menon", "Chauhan", "Bhat"
+    };
+    private static final String[] BUSINESSES = {
+        "Hotel", "Restaurant", "Dhaba", "Canteen", "Caterers", "Sweets", "Bakery", "Mess"
+    };
+    private static final String[] STREETS = {
+        "MG Road", "Station Road", "Market Yard", "Gandhi Nagar", "Shivaji Chowk",
+        "Nehru Street", "Tilak Road", "Ring Road", "Civil Lines", "Laxmi Road"
+    };
+    private static final String[] CITIES = {
+        "Pune", "Mumbai", "Nashik", "Nagpur", "Delhi", "Bengaluru", "Hyderabad", "Indore"
+    };
+    private static final String[] COMPLAINTS = {
+        "Delayed delivery of cylinder", "Cylinder seal broken", "Gas leakage from regulator",
+        "Underweight cylinder", "Delivery person asked for extra charges", "Wrong cylinder delivered"
+    };
+
+    private static final int HISTORY_DAYS = 365;
+    private static final int REGISTRATION_YEARS = 5;
+    private static final long PHONE_BASE = 6_000_000_000L;
+    private static final long PHONE_RANGE = 4_000_000_000L;
+    private static final long PHONE_STRIDE = 7919;
+
+    private final long seed;
+    private final LocalDate today;
+
+    /**
+     * @param seed  seed for all random choices
+     * @param today reference date; bookings fall in the year before it
+     */
+    public SyntheticDataGenerator(long seed, LocalDate today) {
+        this.seed = seed;
+        this.today = today;
+    }
+
+    /**
+     * Generates the given number of customers with their bookings, payments
+     * and complaints, using IDs from one {@link IDGenerator.Allocator}.
+     * Returns the total number of entities produced.
+     */
+    public long generate(long customers, Sink sink) {
+        Random random = new Random(seed);
+        IDGenerator.Allocator ids = IDGenerator.allocator();
+        long phoneOffset = Math.floorMod(seed, PHONE_RANGE);
+        long produced = 0;
+        for (long i = 0; i < customers; i++) {
+            produced += generateCustomer(random, ids, i, phoneOffset, sink);
+        }
+        return produced;
+    }
+
+    private long generateCustomer(Random random, IDGenerator.Allocator ids, long index, long phoneOffset, Sink sink) {
+        boolean commercial = random.nextInt(100) < 8;
+        String first = pick(random, FIRST_NAMES);
+        String last = pick(random, LAST_NAMES);
+        String name = commercial ? first + " " + pick(random, BUSINESSES) : first + " " + last;
+        // A stride coprime to the range visits every number once, so phones stay unique.
+        long phone = PHONE_BASE + Math.floorMod(phoneOffset + index * PHONE_STRIDE, PHONE_RANGE);
+        String address = (1 + random.nextInt(250)) + ", " + pick(random, STREETS) + ", " + pick(random, CITIES);
+        String email = first.toLowerCase(Locale.ROOT) + "." + last.toLowerCase(Locale.ROOT) + index + "@example.com";
+
+        Customer customer = new Customer(ids.next(IDGenerator.Kind.CUSTOMER), name, Long.toString(phone),
+                address, email, commercial ? ConnectionType.COMMERCIAL : ConnectionType.DOMESTIC);
+        LocalDate registered = today.minusDays(random.nextInt(REGISTRATION_YEARS * 365));
+        customer.setRegistrationDate(registered);
+        int roll = random.nextInt(100);
+        if (roll < 3) {
+            customer.setConnectionStatus(ConnectionStatus.INACTIVE);
+        } else if (roll < 4) {
+            customer.setConnectionStatus(ConnectionStatus.SUSPENDED);
+        }
+        sink.customer(customer);
+        long produced = 1;
+
+        int minCycle = commercial ? 5 : 30;
+        int maxCycle = commercial ? 15 : 60;
+        LocalDate start = registered.isAfter(today.minusDays(HISTORY_DAYS)) ? registered : today.minusDays(HISTORY_DAYS);
+        LocalDate until = customer.getConnectionStatus() == ConnectionStatus.ACTIVE
+                ? today : today.minusDays(HISTORY_DAYS / 2);
+        for (LocalDate date = start.plusDays(random.nextInt(maxCycle)); !date.isAfter(until);
+                date = date.plusDays(minCycle + random.nextInt(maxCycle - minCycle + 1))) {
+            produced += generateBooking(random, ids, customer, commercial, date, sink);
+        }
+        return produced;
+    }
+
+    private long generateBooking(Random random, IDGenerator.Allocator ids, Customer customer, boolean commercial, LocalDate date, Sink sink) {
+        Cylinder cylinder = commercial ? Cylinder.freeTradeCommercial19Kg()
+                : random.nextInt(10) == 0 ? Cylinder.smallCylinder5Kg() : Cylinder.domestic14Kg();
+        Booking booking = new Booking(ids.next(IDGenerator.Kind.BOOKING), customer, cylinder);
+        booking.setBookingDate(date);
+        booking.setExpectedDeliveryDate(date.plusDays(3));
+        long age = today.toEpochDay() - date.toEpochDay();
+        if (random.nextInt(100) < 4) {
+            booking.setStatus(BookingStatus.CANCELLED);
+        } else if (age > 3 || random.nextInt(4) == 0) {
+            booking.setStatus(BookingStatus.DELIVERED);
+            LocalDate delivered = date.plusDays(1 + random.nextInt(3));
+            booking.setActualDeliveryDate(delivered.isAfter(today) ? today : delivered);
+        } else {
+            BookingStatus[] open = { BookingStatus.PENDING, BookingStatus.CONFIRMED, BookingStatus.OUT_FOR_DELIVERY };
+            booking.setStatus(open[(int) Math.min(age, 2)]);
+        }
+        customer.addBooking(booking);
+        sink.booking(booking);
+        long produced = 1;
+
+        if (booking.getStatus() == BookingStatus.DELIVERED) {
+            Payment payment = new Payment(ids.next(IDGenerator.Kind.PAYMENT), booking, cylinder.getPricePaise(),
+                    paymentMode(random));
+            payment.setPaymentDate(booking.getActualDeliveryDate());
+            int roll = random.nextInt(1000);
+            if (roll < 5) {
+                payment.setPaymentStatus(PaymentStatus.REFUNDED);
+            } else if (roll < 15) {
+                payment.setPaymentStatus(PaymentStatus.FAILED);
+            }
+            sink.payment(payment);
+            produced++;
+        }
+
+        if (random.nextInt(1000) < 15) {
+            Complaint complaint = new Complaint(ids.next(IDGenerator.Kind.COMPLAINT), customer, pick(random, COMPLAINTS));
+            LocalDate filed = date.plusDays(1 + random.nextInt(5));
+            complaint.setFiledDate(filed.isAfter(today) ? today : filed);
+            long open = today.toEpochDay() - complaint.getFiledDate().toEpochDay();
+            int roll = random.nextInt(100);
+            if (open > 30 ? roll < 95 : open > 7 ? roll < 70 : roll < 20) {
+                complaint.setStatus(roll % 4 == 0 ? ComplaintStatus.CLOSED : ComplaintStatus.RESOLVED);
+                LocalDate resolved = complaint.getFiledDate().plusDays(1 + random.nextInt(7));
+                complaint.setResolvedDate(resolved.isAfter(today) ? today : resolved);
+            } else if (roll % 2 == 0) {
+                complaint.setStatus(ComplaintStatus.IN_PROGRESS);
+            }
+            sink.complaint(complaint);
+            produced++;
+        }
+        return produced;
+    }
+
+    private static PaymentMode paymentMode(Random random) {
+        int roll = random.nextInt(100);
+        if (roll < 55) {
+            return PaymentMode.UPI;
+        } else if (roll < 85) {
+            return PaymentMode.CASH;
+        } else if (roll < 93) {
+            return PaymentMode.CARD;
+        }
+        return PaymentMode.NETBANKING;
+    }
+
+    private static String pick(Random random, String[] values) {
+        return values[random.nextInt(values.length)];
+    }
+}
@@ -0,0 +1,201 @@
+package com.bharatgas.crm.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hierarchical timing wheel for a large number of deadlines keyed by ID.
+ * Four wheels of 64 slots each cover 64, 64², 64³ and 64⁴ ticks; a
+ * deadline sits in the slot of the coarsest wheel it needs and moves down
+ * one wheel at a time as its time comes closer. Each slot is a doubly
+ * linked list, so scheduling and cancelling are O(1) and advancing the
+ * clock only touches the slots whose time has come, never every deadline.
+ * Thread-safe: all methods are synchronized.
+ * Demonstrates: Generics, Linked data structures.
+ *
+ * @param <K> the key a deadline is registered under
+ */
+public class TimingWheel<K> {
+
+    private static final int WHEEL_BITS = 6;
+    private static final int SLOTS = 1 << WHEEL_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    private static final long SPAN = 1L << (WHEEL_BITS * LEVELS);
+
+    /** One scheduled deadline, linked into a slot or the overdue list. */
+    private static final class Node<K> {
+        final K key;
+        long tick;
+        Node<K> prev;
+        Node<K> next;
+
+        Node(K key) {
+            this.key = key;
+        }
+    }
+
+    private final long tickMillis;
+    private final Node<K>[][] slots;
+    private final Node<K> overdue;
+    private final Map<K, Node<K>> nodes;
+    private long currentTick;
+
+    /**
+     * @param tickMillis the resolution of the wheel; deadlines fire on the
+     *                   first tick at or after them
+     * @param nowMillis  the current time
+     */
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMillis, long nowMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("Tick must be positive: " + tickMillis);
+        }
+        this.tickMillis = tickMillis;
+        this.slots = (Node<K>[][]) new Node<?>[LEVELS][SLOTS];
+        for (int level = 0; level < LEVELS; level++) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                slots[level][slot] = sentinel();
+            }
+        }
+        this.overdue = sentinel();
+        this.nodes = new HashMap<>();
+        this.currentTick = Math.floorDiv(nowMillis, tickMillis);
+    }
+
+    /**
+     * Schedules a deadline for a key, replacing any earlier deadline for it.
+     * A deadline that has already passed fires on the next advance.
+     */
+    public synchronized void schedule(K key, long deadlineMillis) {
+        Node<K> node = nodes.get(key);
+        if (node == null) {
+            node = new Node<>(key);
+            nodes.put(key, node);
+        } else {
+            unlink(node);
+        }
+        // Rounded up, so that a deadline never fires before it is due.
+        node.tick = Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis);
+        place(node);
+    }
+
+    /**
+     * Cancels the deadline of a key. Returns true if one was scheduled.
+     */
+    public synchronized boolean cancel(K key) {
+        Node<K> node = nodes.remove(key);
+        if (node == null) {
+            return false;
+        }
+        unlink(node);
+        return true;
+    }
+
+    public synchronized boolean contains(K key) {
+        return nodes.containsKey(key);
+    }
+
+    /**
+     * The number of scheduled deadlines.
+     */
+    public synchronized int size() {
+        return nodes.size();
+    }
+
+    /**
+     * Moves the clock forward and returns the keys whose deadlines have
+     * passed, earliest first. They are no longer scheduled afterwards.
+     */
+    public synchronized List<K> advance(long nowMillis) {
+        List<K> expired = new ArrayList<>();
+        drain(overdue, expired);
+        long target = Math.floorDiv(nowMillis, tickMillis);
+        while (currentTick < target) {
+            currentTick++;
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (WHEEL_BITS * level)) - 1)) == 0) {
+                    cascade(slots[level][slot(currentTick, level)]);
+                }
+            }
+            drain(slots[0][slot(currentTick, 0)], expired);
+            drain(overdue, expired);
+            if (nodes.isEmpty()) {
+                currentTick = target;
+            }
+        }
+        return expired;
+    }
+
+    private void place(Node<K> node) {
+        long delta = node.tick - currentTick;
+        if (delta <= 0) {
+            link(overdue, node);
+            return;
+        }
+        for (int level = 0; level < LEVELS; level++) {
+            if (delta < 1L << (WHEEL_BITS * (level + 1))) {
+                link(slots[level][slot(node.tick, level)], node);
+                return;
+            }
+        }
+        // Beyond the outermost wheel: park it in the last reachable slot,
+        // from where it is placed again when that slot comes round.
+        link(slots[LEVELS - 1][slot(currentTick + SPAN - 1, LEVELS - 1)], node);
+    }
+
+    /** Re-places every node of an outer slot into a finer wheel. */
+    private void cascade(Node<K> head) {
+        Node<K> node = head.next;
+        head.next = head;
+        head.prev = head;
+        while (node != head) {
+            Node<K> next = node.next;
+            place(node);
+            node = next;
+        }
+    }
+
+    private void drain(Node<K> head, List<K> expired) {
+        Node<K> node = head.next;
+        head.next = head;
+        head.prev = head;
+        while (node != head) {
+            Node<K> next = node.next;
+            node.prev = null;
+            node.next = null;
+            nodes.remove(node.key);
+            expired.add(node.key);
+            node = next;
+        }
+    }
+
+    private static int slot(long tick, int level) {
+        return (int) (tick >>> (WHEEL_BITS * level)) & SLOT_MASK;
+    }
+
+    private static <K> void link(Node<K> head, Node<K> node) {
+        node.prev = head.prev;
+        node.next = head;
+        head.prev.next = node;
+        head.prev = node;
+    }
+
+    private static <K> void unlink(Node<K> node) {
+        if (node.prev != null) {
+            node.prev.next = node.next;
+            node.next.prev = node.prev;
+            node.prev = null;
+            node.next = null;
+        }
+    }
+
+    private static <K> Node<K> sentinel() {
+        Node<K> head = new Node<>(null);
+        head.prev = head;
+        head.next = head;
+        return head;
+    }
+}
@@ -0,0 +1,64 @@
+package com.bharatgas.crm.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.bharatgas.crm.service.BookingService;
+import com.bharatgas.crm.service.ComplaintService;
+import com.bharatgas.crm.service.CustomerService;
+import com.bharatgas.crm.service.DashboardAggregator;
+import com.bharatgas.crm.service.PaymentService;
+import com.bharatgas.crm.util.IDGenerator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Scanner;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.Test;
+
+class ApiServerTest {
+
+    private static final Pattern CUSTOMER_ID = Pattern.compile("\"customerId\":\"([^\"]+)\"");
+
+    @Test
+    void registrationsGetConsecutiveIds() throws IOException {
+        DashboardAggregator dashboard = new DashboardAggregator();
+        IDGenerator.setCustomerCounter(0);
+        try (ApiServer server = new ApiServer(0, new CustomerService(dashboard), new BookingService(dashboard),
+                new PaymentService(dashboard), new ComplaintService(dashboard), dashboard)) {
+            server.start();
+            List<String> ids = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                String body = "{\"name\":\"Test Customer\",\"phone\":\"987654321" + i + "\","
+                        + "\"email\":\"test" + i + "@example.com\"}";
+                String response = post(server.getPort(), "/api/customers", body);
+                Matcher id = CUSTOMER_ID.matcher(response);
+                ids.add(id.find() ? id.group(1) : response);
+            }
+            assertEquals(Arrays.asList("BG-CUST-001", "BG-CUST-002", "BG-CUST-003", "BG-CUST-004"), ids);
+        }
+    }
+
+    private static String post(int port, String path, String json) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + port + path).openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setRequestProperty("Content-Type", "application/json");
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(json.getBytes(StandardCharsets.UTF_8));
+        }
+        assertEquals(201, connection.getResponseCode());
+        try (InputStream in = connection.getInputStream();
+                Scanner scanner = new Scanner(in, "UTF-8")) {
+            return scanner.useDelimiter("\\A").next();
+        } finally {
+            connection.disconnect();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.bharatgas.crm.batch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.bharatgas.crm.service.BookingService;
+import com.bharatgas.crm.service.ComplaintService;
+import com.bharatgas.crm.service.CustomerService;
+import com.bharatgas.crm.service.DashboardAggregator;
+import com.bharatgas.crm.service.PaymentService;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BatchRunnerTest {
+
+    private static final String COMMANDS = "register|Test Customer|9876543210|test@example.com|1, MG Road, Pune\n"
+            + "book|@\n"
+            + "book|9999999999\n";
+
+    private CustomerService customerService;
+    private BookingService bookingService;
+    private DashboardAggregator dashboard;
+
+    @BeforeEach
+    void setUp() {
+        dashboard = new DashboardAggregator();
+        customerService = new CustomerService(dashboard);
+        bookingService = new BookingService(dashboard);
+        customerService.setVerbose(false);
+        bookingService.setVerbose(false);
+    }
+
+    @Test
+    void unexpectedFailureFailsOnlyItsCommand() throws IOException {
+        bookingService.setWriteGuard(() -> {
+            throw new IllegalStateException("journal failed");
+        });
+        StringWriter output = new StringWriter();
+        BatchRunner runner = runner(Runnable::run);
+        runner.run(new BufferedReader(new StringReader(COMMANDS)), new PrintWriter(output));
+
+        String[] lines = output.toString().split("\n");
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].startsWith("1 OK "), lines[0]);
+        assertEquals("2 ERR journal failed", lines[1]);
+        assertTrue(lines[2].startsWith("3 ERR "), lines[2]);
+        assertEquals(1, runner.getSucceeded());
+        assertEquals(2, runner.getFailed());
+    }
+
+    @Test
+    void failedCommitReportsTheChunkAsNotSaved() {
+        StringWriter output = new StringWriter();
+        BatchRunner runner = runner(changes -> {
+            changes.run();
+            throw new IllegalStateException("fsync failed");
+        });
+        assertThrows(IllegalStateException.class,
+                () -> runner.run(new BufferedReader(new StringReader(COMMANDS)), new PrintWriter(output)));
+
+        String[] lines = output.toString().split("\n");
+        assertEquals(3, lines.length);
+        assertEquals("1 ERR not saved: fsync failed", lines[0]);
+        assertEquals("2 ERR not saved: fsync failed", lines[1]);
+        assertEquals(0, runner.getSucceeded());
+    }
+
+    private BatchRunner runner(Consumer<Runnable> chunkRunner) {
+        return new BatchRunner(customerService, bookingService, new PaymentService(dashboard),
+                new ComplaintService(dashboard), chunkRunner);
+    }
+}
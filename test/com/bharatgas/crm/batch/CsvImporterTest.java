@@ -0,0 +1,97 @@
+package com.bharatgas.crm.batch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.bharatgas.crm.service.BookingService;
+import com.bharatgas.crm.service.CustomerService;
+import com.bharatgas.crm.service.DashboardAggregator;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CsvImporterTest {
+
+    private static final int ROWS = CsvImporter.CHUNK_SIZE * 5;
+
+    @TempDir
+    Path dir;
+
+    private CustomerService customerService;
+    private BookingService bookingService;
+    private Path csv;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        DashboardAggregator dashboard = new DashboardAggregator();
+        customerService = new CustomerService(dashboard);
+        bookingService = new BookingService(dashboard);
+        customerService.setVerbose(false);
+        bookingService.setVerbose(false);
+        csv = dir.resolve("customers.csv");
+        try (BufferedWriter out = Files.newBufferedWriter(csv, StandardCharsets.UTF_8)) {
+            out.write("name,phone,email\n");
+            for (int i = 0; i < ROWS; i++) {
+                out.write("Test Customer," + (9_000_000_000L + i) + ",test" + i + "@example.com\n");
+            }
+        }
+    }
+
+    @Test
+    void importsEveryRow() throws IOException {
+        CsvImporter importer = new CsvImporter(customerService, bookingService, Runnable::run);
+        CsvImporter.Result result = importer.importCustomers(csv, dir.resolve("errors.csv"));
+        assertEquals(ROWS, result.getImported());
+        assertEquals(ROWS, customerService.count());
+    }
+
+    @Test
+    void rejectsDatesOutsideTheWindow() throws IOException {
+        CsvImporter importer = new CsvImporter(customerService, bookingService, Runnable::run);
+        Path customers = dir.resolve("one-customer.csv");
+        Files.write(customers, "legacy_id,name,phone\nC1,Test Customer,9876543210\n".getBytes(StandardCharsets.UTF_8));
+        importer.importCustomers(customers, dir.resolve("customer-errors.csv"));
+
+        Path bookings = dir.resolve("bookings.csv");
+        Files.write(bookings, ("customer,booking_date\n"
+                + "C1,+200000-01-01\n"
+                + "C1,1900-01-01\n"
+                + "C1,2024-03-15\n").getBytes(StandardCharsets.UTF_8));
+        Path errors = dir.resolve("booking-errors.csv");
+        CsvImporter.Result result = importer.importBookings(bookings, errors);
+
+        assertEquals(1, result.getImported());
+        assertEquals(2, result.getRejected());
+        assertEquals(1, bookingService.count());
+        String report = new String(Files.readAllBytes(errors), StandardCharsets.UTF_8);
+        assertTrue(report.contains("booking_date out of range: +200000-01-01"), report);
+        assertTrue(report.contains("booking_date out of range: 1900-01-01"), report);
+    }
+
+    /**
+     * The reader runs ahead of a consumer that fails on its first chunk;
+     * the import must fail promptly and leave no reader thread behind.
+     */
+    @Test
+    void failingConsumerStopsTheReader() {
+        CsvImporter importer = new CsvImporter(customerService, bookingService, changes -> {
+            throw new IllegalStateException("journal unavailable");
+        });
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            assertThrows(IllegalStateException.class,
+                    () -> importer.importCustomers(csv, dir.resolve("errors.csv")));
+        });
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            assertFalse(thread.getName().equals("csv-reader") && thread.isAlive(), "csv-reader still running");
+        }
+    }
+}
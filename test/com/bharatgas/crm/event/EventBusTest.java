@@ -0,0 +1,119 @@
+package com.bharatgas.crm.event;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import org.junit.jupiter.api.Test;
+
+class EventBusTest {
+
+    private static final int PUBLISHERS = 4;
+    private static final int EVENTS = 50_000;
+
+    /** An event numbered per publisher. */
+    private static final class Numbered extends DomainEvent {
+        final int publisher;
+        final int number;
+
+        Numbered(int publisher, int number) {
+            this.publisher = publisher;
+            this.number = number;
+        }
+    }
+
+    /** Checks that each publisher's events arrive complete and in order. */
+    private static final class OrderCheck implements EventSubscriber {
+        final int[] next = new int[PUBLISHERS];
+        final boolean slow;
+        volatile boolean inOrder = true;
+
+        OrderCheck(boolean slow) {
+            this.slow = slow;
+        }
+
+        @Override
+        public void onEvents(List<DomainEvent> events) {
+            for (DomainEvent event : events) {
+                Numbered numbered = (Numbered) event;
+                if (numbered.number != next[numbered.publisher]++) {
+                    inOrder = false;
+                }
+            }
+            if (slow) {
+                Thread.yield();
+            }
+        }
+    }
+
+    /**
+     * Four publishers on a 64-slot ring lap a slow subscriber many times;
+     * both subscribers still get every event, in order.
+     */
+    @Test
+    void slowSubscriberGetsEveryEventInOrder() throws InterruptedException {
+        OrderCheck fast = new OrderCheck(false);
+        OrderCheck slow = new OrderCheck(true);
+        EventBus bus = new EventBus(64);
+        bus.subscribe("fast", fast);
+        bus.subscribe("slow", slow);
+        runPublishers(bus);
+        bus.close();
+
+        for (OrderCheck check : new OrderCheck[] {fast, slow}) {
+            assertTrue(check.inOrder);
+            for (int publisher = 0; publisher < PUBLISHERS; publisher++) {
+                assertEquals(EVENTS, check.next[publisher]);
+            }
+        }
+        assertTrue(bus.getStalls() > 0);
+    }
+
+    /**
+     * A subscriber that dies with an Error, and one that never returns,
+     * are both unsubscribed instead of blocking publishers forever.
+     */
+    @Test
+    void deadOrStuckSubscribersDoNotBlockPublishers() {
+        CountDownLatch never = new CountDownLatch(1);
+        EventBus bus = new EventBus(64);
+        bus.subscribe("dies", events -> {
+            throw new AssertionError("subscriber bug");
+        });
+        bus.subscribe("stuck", events -> {
+            try {
+                never.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        OrderCheck healthy = new OrderCheck(false);
+        bus.subscribe("healthy", healthy);
+
+        assertTimeoutPreemptively(Duration.ofMillis(EventBus.MAX_WAIT_MILLIS * 5), () -> runPublishers(bus));
+        bus.close();
+        assertTrue(healthy.inOrder);
+        assertEquals(EVENTS, healthy.next[0]);
+    }
+
+    private static void runPublishers(EventBus bus) throws InterruptedException {
+        List<Thread> publishers = new ArrayList<>();
+        for (int p = 0; p < PUBLISHERS; p++) {
+            int publisher = p;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < EVENTS; i++) {
+                    bus.publish(new Numbered(publisher, i));
+                }
+            });
+            thread.start();
+            publishers.add(thread);
+        }
+        for (Thread thread : publishers) {
+            thread.join();
+        }
+    }
+}
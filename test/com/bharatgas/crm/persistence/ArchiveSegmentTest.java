@@ -0,0 +1,42 @@
+package com.bharatgas.crm.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.bharatgas.crm.enums.BookingStatus;
+import com.bharatgas.crm.enums.ConnectionType;
+import com.bharatgas.crm.model.Booking;
+import com.bharatgas.crm.model.Customer;
+import com.bharatgas.crm.model.Cylinder;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.function.Function;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ArchiveSegmentTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void bookingsWithAndWithoutCustomerRoundTrip() throws IOException {
+        Customer customer = new Customer("BG-CUST-001", "Test Customer", "9876543210", "1, MG Road, Pune",
+                "test@example.com", ConnectionType.DOMESTIC);
+        Booking owned = new Booking("BG-BK-001", customer, Cylinder.domestic14Kg());
+        owned.setStatus(BookingStatus.DELIVERED);
+        Booking orphan = new Booking("BG-BK-002", null, Cylinder.domestic14Kg());
+        orphan.setStatus(BookingStatus.CANCELLED);
+        Function<String, Customer> customers = id -> "BG-CUST-001".equals(id) ? customer : null;
+
+        ArchiveSegment.write(dir.resolve("segment.bin"), Arrays.asList(owned, orphan)).close();
+        try (ArchiveSegment segment = ArchiveSegment.open(dir.resolve("segment.bin"))) {
+            assertEquals(2, segment.count());
+            assertNull(segment.get("BG-BK-002", customers).getCustomer());
+            assertEquals(BookingStatus.CANCELLED, segment.get("BG-BK-002", customers).getStatus());
+            assertEquals(customer, segment.get("BG-BK-001", customers).getCustomer());
+            assertEquals(1, segment.getByCustomerId("BG-CUST-001", customers).size());
+        }
+    }
+}
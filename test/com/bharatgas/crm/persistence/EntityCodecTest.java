@@ -0,0 +1,97 @@
+package com.bharatgas.crm.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.bharatgas.crm.enums.BookingStatus;
+import com.bharatgas.crm.enums.ConnectionType;
+import com.bharatgas.crm.model.Booking;
+import com.bharatgas.crm.model.Customer;
+import com.bharatgas.crm.model.Cylinder;
+import com.bharatgas.crm.service.BookingService;
+import com.bharatgas.crm.service.ComplaintService;
+import com.bharatgas.crm.service.CustomerService;
+import com.bharatgas.crm.service.DashboardAggregator;
+import com.bharatgas.crm.service.PaymentService;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class EntityCodecTest {
+
+    private CustomerService customerService;
+    private BookingService bookingService;
+    private EntityCodec codec;
+    private Customer customer;
+
+    @BeforeEach
+    void setUp() {
+        DashboardAggregator dashboard = new DashboardAggregator();
+        customerService = new CustomerService(dashboard);
+        bookingService = new BookingService(dashboard);
+        customerService.setVerbose(false);
+        bookingService.setVerbose(false);
+        codec = new EntityCodec(customerService, bookingService, new PaymentService(dashboard),
+                new ComplaintService(dashboard));
+        customer = new Customer("BG-CUST-001", "Test Customer", "9876543210", "1, MG Road, Pune",
+                "test@example.com", ConnectionType.DOMESTIC);
+        customerService.add(customer);
+    }
+
+    @Test
+    void replayedStatusChangeKeepsStatusIndexInStep() {
+        Booking booking = new Booking("BG-BK-001", customer, Cylinder.domestic14Kg());
+        bookingService.add(booking);
+        customer.addBooking(booking);
+
+        Booking delivered = new Booking("BG-BK-001", customer, Cylinder.domestic14Kg());
+        delivered.setStatus(BookingStatus.DELIVERED);
+        BinaryWriter out = new BinaryWriter(128);
+        EntityCodec.writeBooking(out, delivered);
+        codec.apply(EntityCodec.BOOKING, ByteBuffer.wrap(out.array(), 0, out.size()));
+
+        assertEquals(BookingStatus.DELIVERED, bookingService.getById("BG-BK-001").getStatus());
+        assertEquals(1, bookingService.countByStatus(BookingStatus.DELIVERED));
+        assertEquals(0, bookingService.countByStatus(BookingStatus.PENDING));
+        assertEquals(1, customer.getBookings().size());
+    }
+
+    @Test
+    void bookingWithoutCustomerRoundTrips() {
+        Booking booking = new Booking("BG-BK-003", null, Cylinder.smallCylinder5Kg());
+        booking.setStatus(BookingStatus.CANCELLED);
+        BinaryWriter out = new BinaryWriter(128);
+        EntityCodec.writeBooking(out, booking);
+
+        Booking decoded = EntityCodec.readBooking(ByteBuffer.wrap(out.array(), 0, out.size()),
+                customerService::getById);
+        assertEquals("BG-BK-003", decoded.getBookingId());
+        assertNull(decoded.getCustomer());
+        assertEquals(BookingStatus.CANCELLED, decoded.getStatus());
+
+        codec.apply(EntityCodec.BOOKING, ByteBuffer.wrap(out.array(), 0, out.size()));
+        assertNull(bookingService.getById("BG-BK-003").getCustomer());
+    }
+
+    @Test
+    void storedBookingChangesOnlyThroughService() {
+        Booking booking = new Booking("BG-BK-002", customer, Cylinder.domestic14Kg());
+        bookingService.add(booking);
+        Customer other = new Customer("BG-CUST-002", "Other Customer", "9876543211", "2, MG Road, Pune",
+                "other@example.com", ConnectionType.DOMESTIC);
+
+        assertThrows(IllegalStateException.class, () -> booking.setStatus(BookingStatus.DELIVERED));
+        assertThrows(IllegalStateException.class, () -> booking.setBookingId("BG-BK-003"));
+        assertThrows(IllegalStateException.class, () -> booking.setCustomer(other));
+        assertThrows(IllegalStateException.class, () -> booking.setExpectedDeliveryDate(null));
+        assertEquals(1, bookingService.countByStatus(BookingStatus.PENDING));
+
+        bookingService.reassignCustomer("BG-BK-002", other);
+        assertEquals(0, bookingService.getByCustomerId("BG-CUST-001").size());
+        assertEquals(1, bookingService.getByCustomerId("BG-CUST-002").size());
+        bookingService.updateDeliveryStatus("BG-BK-002", BookingStatus.DELIVERED);
+        assertEquals(LocalDate.now(), booking.getActualDeliveryDate());
+    }
+}
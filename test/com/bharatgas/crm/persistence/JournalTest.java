@@ -0,0 +1,71 @@
+package com.bharatgas.crm.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.bharatgas.crm.enums.ChangeType;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class JournalTest {
+
+    @TempDir
+    Path dir;
+
+    /** Writes records 0-2 to segment 1 and 3-5 to segment 2. */
+    @BeforeEach
+    void setUp() throws IOException {
+        try (Journal journal = Journal.open(dir)) {
+            for (int i = 0; i < 6; i++) {
+                if (i == 3) {
+                    journal.roll();
+                }
+                int value = i;
+                journal.append(ChangeType.ADDED, EntityCodec.CUSTOMER, out -> out.writeInt(value));
+            }
+        }
+    }
+
+    @Test
+    void replaysEverySegmentInOrder() throws IOException {
+        assertEquals(6, replay().size());
+    }
+
+    @Test
+    void tornTailOfNewestSegmentIsCutOff() throws IOException {
+        Path newest = Journal.segmentFile(dir, 2);
+        long size = Files.size(newest);
+        corrupt(newest, (int) size - 1);
+
+        assertEquals(5, replay().size());
+        assertEquals(size - 14, Files.size(newest));
+    }
+
+    @Test
+    void corruptRecordInOlderSegmentFailsReplay() throws IOException {
+        Path older = Journal.segmentFile(dir, 1);
+        long size = Files.size(older);
+        corrupt(older, 14 + 12);
+
+        assertThrows(IOException.class, this::replay);
+        assertEquals(size, Files.size(older));
+    }
+
+    private List<Integer> replay() throws IOException {
+        List<Integer> values = new ArrayList<>();
+        Journal.replay(dir, 1, (type, entityType, payload) -> values.add(payload.getInt()));
+        return values;
+    }
+
+    private static void corrupt(Path file, int offset) throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[offset] ^= 0x5A;
+        Files.write(file, bytes);
+    }
+}
@@ -0,0 +1,108 @@
+package com.bharatgas.crm.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.bharatgas.crm.enums.BookingStatus;
+import com.bharatgas.crm.enums.ConnectionType;
+import com.bharatgas.crm.model.Booking;
+import com.bharatgas.crm.model.Customer;
+import com.bharatgas.crm.model.Cylinder;
+import com.bharatgas.crm.service.BookingService;
+import com.bharatgas.crm.service.ComplaintService;
+import com.bharatgas.crm.service.CustomerService;
+import com.bharatgas.crm.service.DashboardAggregator;
+import com.bharatgas.crm.service.PaymentService;
+import com.bharatgas.crm.util.IDGenerator;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class PersistenceManagerTest {
+
+    @TempDir
+    Path dataDir;
+
+    @Test
+    void closeSnapshotsAndReopenRestores() throws IOException {
+        DashboardAggregator dashboard = new DashboardAggregator();
+        CustomerService customers = new CustomerService(dashboard);
+        BookingService bookings = new BookingService(dashboard);
+        customers.setVerbose(false);
+        bookings.setVerbose(false);
+        try (PersistenceManager manager = PersistenceManager.open(dataDir, customers, bookings,
+                new PaymentService(dashboard), new ComplaintService(dashboard))) {
+            manager.runBatch(() -> {
+                Customer customer = new Customer(IDGenerator.generateCustomerId(), "Test Customer", "9876543210",
+                        "1, MG Road, Pune", "test@example.com", ConnectionType.DOMESTIC);
+                customers.add(customer);
+                Booking booking = new Booking(IDGenerator.generateBookingId(), customer, Cylinder.domestic14Kg());
+                bookings.add(booking);
+                bookings.updateDeliveryStatus(booking.getBookingId(), BookingStatus.DELIVERED);
+            });
+        }
+        assertTrue(Snapshot.list(dataDir).iterator().hasNext());
+
+        DashboardAggregator reopened = new DashboardAggregator();
+        CustomerService customersAgain = new CustomerService(reopened);
+        BookingService bookingsAgain = new BookingService(reopened);
+        try (PersistenceManager manager = PersistenceManager.open(dataDir, customersAgain, bookingsAgain,
+                new PaymentService(reopened), new ComplaintService(reopened))) {
+            assertEquals(2, manager.getRecordsReplayed());
+            assertEquals(1, customersAgain.count());
+            assertEquals(1, bookingsAgain.countByStatus(BookingStatus.DELIVERED));
+        }
+    }
+
+    /**
+     * Two sessions leave two snapshots; if the newer one is damaged, the
+     * older one and the journal after it still restore everything.
+     */
+    @Test
+    void damagedSnapshotFallsBackToThePreviousOne() throws IOException {
+        addCustomerInNewSession("9876543210");
+        addCustomerInNewSession("9876543211");
+        List<Path> snapshots = Snapshot.list(dataDir);
+        assertEquals(2, snapshots.size());
+        byte[] bytes = Files.readAllBytes(snapshots.get(0));
+        bytes[bytes.length / 2] ^= 0x5A;
+        Files.write(snapshots.get(0), bytes);
+
+        DashboardAggregator dashboard = new DashboardAggregator();
+        CustomerService customers = new CustomerService(dashboard);
+        customers.setVerbose(false);
+        try (PersistenceManager manager = PersistenceManager.open(dataDir, customers, new BookingService(dashboard),
+                new PaymentService(dashboard), new ComplaintService(dashboard))) {
+            assertEquals(2, manager.getRecordsReplayed());
+            assertEquals(2, customers.count());
+        }
+    }
+
+    @Test
+    void openFailsWhenNoSnapshotCoversTheJournal() throws IOException {
+        addCustomerInNewSession("9876543210");
+        addCustomerInNewSession("9876543211");
+        for (Path snapshot : Snapshot.list(dataDir)) {
+            Files.delete(snapshot);
+        }
+
+        DashboardAggregator dashboard = new DashboardAggregator();
+        assertThrows(IOException.class, () -> PersistenceManager.open(dataDir, new CustomerService(dashboard),
+                new BookingService(dashboard), new PaymentService(dashboard), new ComplaintService(dashboard)));
+    }
+
+    private void addCustomerInNewSession(String phone) throws IOException {
+        DashboardAggregator dashboard = new DashboardAggregator();
+        CustomerService customers = new CustomerService(dashboard);
+        customers.setVerbose(false);
+        try (PersistenceManager manager = PersistenceManager.open(dataDir, customers, new BookingService(dashboard),
+                new PaymentService(dashboard), new ComplaintService(dashboard))) {
+            manager.runBatch(() -> customers.add(new Customer(IDGenerator.generateCustomerId(), "Test Customer",
+                    phone, "1, MG Road, Pune", "test@example.com", ConnectionType.DOMESTIC)));
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.bharatgas.crm.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.bharatgas.crm.enums.BookingStatus;
+import com.bharatgas.crm.enums.ConnectionType;
+import com.bharatgas.crm.enums.PaymentMode;
+import com.bharatgas.crm.enums.PaymentStatus;
+import com.bharatgas.crm.model.Booking;
+import com.bharatgas.crm.model.Customer;
+import com.bharatgas.crm.model.Cylinder;
+import com.bharatgas.crm.model.Payment;
+import com.bharatgas.crm.util.IDGenerator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ConcurrentServiceTest {
+
+    private static final int THREADS = 8;
+    private static final int BOOKINGS_PER_THREAD = 2000;
+
+    private CustomerService customerService;
+    private BookingService bookingService;
+    private PaymentService paymentService;
+    private Customer customer;
+
+    @BeforeEach
+    void setUp() {
+        DashboardAggregator dashboard = new DashboardAggregator();
+        customerService = new CustomerService(dashboard);
+        bookingService = new BookingService(dashboard);
+        paymentService = new PaymentService(dashboard);
+        customerService.setVerbose(false);
+        bookingService.setVerbose(false);
+        paymentService.setVerbose(false);
+        customer = new Customer(IDGenerator.generateCustomerId(), "Test Customer", "9876543210",
+                "1, MG Road, Pune", "test@example.com", ConnectionType.DOMESTIC);
+        customerService.add(customer);
+    }
+
+    /**
+     * Every thread adds its own bookings and payments, then all threads
+     * race to deliver or cancel every booking and to refund every other
+     * payment. Each booking must close exactly once and each refund apply
+     * exactly once, with the paise totals matching.
+     */
+    @Test
+    void addDeliverRefundStress() throws Exception {
+        List<Booking> bookings = new CopyOnWriteArrayList<>();
+        List<Payment> payments = new CopyOnWriteArrayList<>();
+        runOnAllThreads(thread -> {
+            for (int i = 0; i < BOOKINGS_PER_THREAD; i++) {
+                Booking booking = new Booking(IDGenerator.generateBookingId(), customer, Cylinder.domestic14Kg());
+                bookingService.add(booking);
+                Payment payment = new Payment(IDGenerator.generatePaymentId(), booking,
+                        booking.getCylinder().getPricePaise(), PaymentMode.UPI);
+                paymentService.add(payment);
+                bookings.add(booking);
+                payments.add(payment);
+            }
+        });
+        int total = THREADS * BOOKINGS_PER_THREAD;
+        assertEquals(total, bookingService.count());
+        assertEquals(total, paymentService.count());
+
+        AtomicInteger delivered = new AtomicInteger();
+        runOnAllThreads(thread -> {
+            for (int i = 0; i < total; i++) {
+                String bookingId = bookings.get(i).getBookingId();
+                if ((i + thread) % 2 == 0) {
+                    if (bookingService.updateDeliveryStatus(bookingId, BookingStatus.DELIVERED)) {
+                        delivered.incrementAndGet();
+                    }
+                } else {
+                    bookingService.delete(bookingId);
+                }
+                if (i % 2 == 0) {
+                    paymentService.delete(payments.get(i).getPaymentId());
+                }
+            }
+        });
+
+        assertEquals(total, bookingService.count());
+        assertEquals(delivered.get(), bookingService.countByStatus(BookingStatus.DELIVERED));
+        assertEquals(total - delivered.get(), bookingService.countByStatus(BookingStatus.CANCELLED));
+        assertEquals(0, bookingService.countByStatus(BookingStatus.PENDING));
+
+        long price = Cylinder.domestic14Kg().getPricePaise();
+        int refunded = (total + 1) / 2;
+        assertEquals(refunded, paymentService.countByStatus(PaymentStatus.REFUNDED));
+        assertEquals(total - refunded, paymentService.countByStatus(PaymentStatus.COMPLETED));
+        assertEquals((total - refunded) * price, paymentService.getTotalRevenuePaise());
+        assertEquals(refunded * price, paymentService.getAmountPaise(PaymentMode.UPI, PaymentStatus.REFUNDED));
+    }
+
+    /**
+     * A delivered or cancelled booking is closed: the service rejects any
+     * further status change, including a cancel after delivery.
+     */
+    @Test
+    void closedBookingsCannotChangeStatus() {
+        Booking deliveredBooking = new Booking(IDGenerator.generateBookingId(), customer, Cylinder.domestic14Kg());
+        Booking cancelledBooking = new Booking(IDGenerator.generateBookingId(), customer, Cylinder.domestic14Kg());
+        bookingService.add(deliveredBooking);
+        bookingService.add(cancelledBooking);
+
+        assertTrue(bookingService.updateDeliveryStatus(deliveredBooking.getBookingId(), BookingStatus.DELIVERED));
+        bookingService.delete(deliveredBooking.getBookingId());
+        assertEquals(BookingStatus.DELIVERED, bookingService.getById(deliveredBooking.getBookingId()).getStatus());
+
+        bookingService.delete(cancelledBooking.getBookingId());
+        assertFalse(bookingService.updateDeliveryStatus(cancelledBooking.getBookingId(), BookingStatus.DELIVERED));
+        assertFalse(bookingService.updateDeliveryStatus(cancelledBooking.getBookingId(), BookingStatus.CONFIRMED));
+        assertEquals(BookingStatus.CANCELLED, bookingService.getById(cancelledBooking.getBookingId()).getStatus());
+        assertEquals(1, bookingService.countByStatus(BookingStatus.DELIVERED));
+        assertEquals(1, bookingService.countByStatus(BookingStatus.CANCELLED));
+    }
+
+    private interface Work {
+        void run(int thread) throws Exception;
+    }
+
+    private static void runOnAllThreads(Work work) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> results = new CopyOnWriteArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                results.add(pool.submit(() -> {
+                    start.await();
+                    work.run(thread);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.bharatgas.crm.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.bharatgas.crm.enums.ConnectionType;
+import com.bharatgas.crm.model.Customer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CustomerServiceTest {
+
+    private CustomerService customerService;
+
+    @BeforeEach
+    void setUp() {
+        customerService = new CustomerService(new DashboardAggregator());
+        customerService.setVerbose(false);
+    }
+
+    @Test
+    void updateRejectsPhoneOfAnotherCustomer() {
+        Customer first = customer("BG-CUST-001", "9876500001");
+        Customer second = customer("BG-CUST-002", "9876500002");
+        customerService.add(first);
+        customerService.add(second);
+
+        second.setPhone("9876500001");
+        customerService.update(second.getCustomerId(), second);
+
+        assertSame(first, customerService.getByPhone("9876500001"));
+        assertSame(second, customerService.getByPhone("9876500002"));
+        assertEquals("9876500002", second.getPhone());
+    }
+
+    @Test
+    void updateReleasesOldPhone() {
+        Customer first = customer("BG-CUST-001", "9876500001");
+        customerService.add(first);
+
+        first.setPhone("9876500009");
+        customerService.update(first.getCustomerId(), first);
+
+        assertNull(customerService.getByPhone("9876500001"));
+        assertSame(first, customerService.getByPhone("9876500009"));
+    }
+
+    /**
+     * Many customers race to move to the same new number: exactly one of
+     * them ends up owning it and every other keeps its own number.
+     */
+    @Test
+    void concurrentUpdatesClaimANumberOnce() throws InterruptedException {
+        int threads = 8;
+        List<Customer> customers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            Customer customer = customer("BG-CUST-10" + i, "987650010" + i);
+            customerService.add(customer);
+            customers.add(customer);
+        }
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (Customer customer : customers) {
+            Customer copy = customer("BG-CUST-" + customer.getCustomerId().substring(8), "9999999999");
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                customerService.update(copy.getCustomerId(), copy);
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        Customer owner = customerService.getByPhone("9999999999");
+        int moved = 0;
+        for (Customer customer : customers) {
+            Customer stored = customerService.getById(customer.getCustomerId());
+            if (stored == owner) {
+                moved++;
+            } else {
+                assertSame(stored, customerService.getByPhone(customer.getPhone()));
+            }
+        }
+        assertEquals(1, moved);
+    }
+
+    @Test
+    void updateDetailsRejectedForPhoneChangesNothing() {
+        Customer first = customer("BG-CUST-001", "9876500001");
+        Customer second = customer("BG-CUST-002", "9876500002");
+        customerService.add(first);
+        customerService.add(second);
+        String name = second.getName();
+
+        assertFalse(customerService.updateDetails("BG-CUST-002", "New Name", "9876500001", null, null));
+        assertEquals(name, second.getName());
+        assertEquals("9876500002", second.getPhone());
+
+        assertTrue(customerService.updateDetails("BG-CUST-002", "New Name", "9876500003", null, null));
+        assertEquals("New Name", second.getName());
+        assertSame(second, customerService.getByPhone("9876500003"));
+        assertNull(customerService.getByPhone("9876500002"));
+    }
+
+    @Test
+    void writeGuardRefusesChanges() {
+        Customer existing = customer("BG-CUST-001", "9876500001");
+        customerService.add(existing);
+        customerService.setWriteGuard(() -> {
+            throw new IllegalStateException("journal failed");
+        });
+
+        assertThrows(IllegalStateException.class, () -> customerService.add(customer("BG-CUST-002", "9876500002")));
+        assertThrows(IllegalStateException.class, () -> customerService.delete("BG-CUST-001"));
+        assertEquals(1, customerService.count());
+        assertSame(existing, customerService.getById("BG-CUST-001"));
+    }
+
+    private static Customer customer(String id, String phone) {
+        return new Customer(id, "Test Customer", phone, "1, MG Road, Pune", "test@example.com",
+                ConnectionType.DOMESTIC);
+    }
+}
@@ -0,0 +1,52 @@
+package com.bharatgas.crm.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.bharatgas.crm.enums.ConnectionType;
+import com.bharatgas.crm.enums.PaymentMode;
+import com.bharatgas.crm.model.Booking;
+import com.bharatgas.crm.model.Customer;
+import com.bharatgas.crm.model.Cylinder;
+import com.bharatgas.crm.model.Payment;
+import java.time.LocalDate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class PaymentServiceTest {
+
+    private PaymentService paymentService;
+    private Booking booking;
+
+    @BeforeEach
+    void setUp() {
+        paymentService = new PaymentService(new DashboardAggregator());
+        paymentService.setVerbose(false);
+        Customer customer = new Customer("BG-CUST-001", "Test Customer", "9876543210", "1, MG Road, Pune",
+                "test@example.com", ConnectionType.DOMESTIC);
+        booking = new Booking("BG-BK-001", customer, Cylinder.domestic14Kg());
+    }
+
+    @Test
+    void updateMovesTheOldAmountOutOfItsTotals() {
+        paymentService.add(new Payment("BG-PAY-001", booking, 90_000, PaymentMode.CASH));
+        paymentService.update("BG-PAY-001", new Payment("BG-PAY-001", booking, 95_000, PaymentMode.UPI));
+
+        assertEquals(0, paymentService.getRevenuePaise(PaymentMode.CASH));
+        assertEquals(95_000, paymentService.getRevenuePaise(PaymentMode.UPI));
+        assertEquals(95_000, paymentService.getTotalRevenuePaise());
+        assertEquals(1, paymentService.countByPaymentMode(PaymentMode.UPI));
+    }
+
+    @Test
+    void storedPaymentChangesOnlyThroughService() {
+        Payment payment = new Payment("BG-PAY-001", booking, 90_000, PaymentMode.CASH);
+        paymentService.add(payment);
+
+        assertThrows(IllegalStateException.class, () -> payment.setAmountPaise(1));
+        assertThrows(IllegalStateException.class, () -> payment.setPaymentMode(PaymentMode.UPI));
+        assertThrows(IllegalStateException.class, () -> payment.setPaymentDate(LocalDate.of(2020, 1, 1)));
+        assertEquals(90_000, paymentService.getRevenuePaise(PaymentMode.CASH));
+        assertEquals(90_000, paymentService.getRevenuePaise(LocalDate.now(), LocalDate.now()));
+    }
+}
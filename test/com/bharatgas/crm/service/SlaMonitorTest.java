@@ -0,0 +1,65 @@
+package com.bharatgas.crm.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.bharatgas.crm.enums.ConnectionType;
+import com.bharatgas.crm.enums.SlaKind;
+import com.bharatgas.crm.model.Booking;
+import com.bharatgas.crm.model.Customer;
+import com.bharatgas.crm.model.Cylinder;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import org.junit.jupiter.api.Test;
+
+class SlaMonitorTest {
+
+    /** A clock the test moves forward by hand. */
+    private static final class ManualClock extends Clock {
+        private Instant now = Instant.now();
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneId.systemDefault();
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+
+    @Test
+    void reassigningABreachedBookingDoesNotBreachAgain() {
+        DashboardAggregator dashboard = new DashboardAggregator();
+        BookingService bookingService = new BookingService(dashboard);
+        bookingService.setVerbose(false);
+        ManualClock clock = new ManualClock();
+        SlaMonitor monitor = new SlaMonitor(bookingService, new ComplaintService(dashboard), clock);
+        Customer first = new Customer("BG-CUST-001", "Test Customer", "9876543210", "1, MG Road, Pune",
+                "test@example.com", ConnectionType.DOMESTIC);
+        Customer second = new Customer("BG-CUST-002", "Other Customer", "9876543211", "2, MG Road, Pune",
+                "other@example.com", ConnectionType.DOMESTIC);
+        bookingService.add(new Booking("BG-BK-001", first, Cylinder.domestic14Kg()));
+
+        clock.advance(Duration.ofDays(10));
+        monitor.checkNow();
+        assertEquals(1, monitor.countBreaches(SlaKind.BOOKING_DELIVERY));
+
+        bookingService.reassignCustomer("BG-BK-001", second);
+        clock.advance(Duration.ofMinutes(1));
+        monitor.checkNow();
+        assertEquals(1, monitor.countBreaches(SlaKind.BOOKING_DELIVERY));
+        assertEquals(0, monitor.countPending(SlaKind.BOOKING_DELIVERY));
+    }
+}
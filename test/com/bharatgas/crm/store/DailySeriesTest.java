@@ -0,0 +1,64 @@
+package com.bharatgas.crm.store;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import org.junit.jupiter.api.Test;
+
+class DailySeriesTest {
+
+    @Test
+    void fenwickRangeSumsMatchTheValues() {
+        long[] values = {5, -2, 7, 0, 3, 9, 1};
+        FenwickTree built = new FenwickTree(values);
+        FenwickTree added = new FenwickTree(values.length);
+        for (int i = 0; i < values.length; i++) {
+            added.add(i, values[i]);
+        }
+        for (int from = 0; from < values.length; from++) {
+            long expected = 0;
+            for (int to = from; to < values.length; to++) {
+                expected += values[to];
+                assertEquals(expected, built.rangeSum(from, to));
+                assertEquals(expected, added.rangeSum(from, to));
+            }
+        }
+        assertEquals(0, built.rangeSum(3, 2));
+    }
+
+    @Test
+    void sumsAcrossBlocksAndBeforeTheEpoch() {
+        DailySeries series = new DailySeries();
+        LocalDate start = LocalDate.of(1969, 6, 1);
+        for (int i = 0; i < 3 * DailySeries.BLOCK_DAYS; i += 7) {
+            series.add(start.plusDays(i), i);
+        }
+        LocalDate from = start.plusDays(100);
+        LocalDate to = start.plusDays(2 * DailySeries.BLOCK_DAYS + 50);
+        long expected = 0;
+        for (int i = 0; i < 3 * DailySeries.BLOCK_DAYS; i += 7) {
+            LocalDate day = start.plusDays(i);
+            if (!day.isBefore(from) && !day.isAfter(to)) {
+                expected += i;
+            }
+        }
+        assertEquals(expected, series.sum(from, to));
+        assertEquals(series.total(), series.sum(LocalDate.MIN, LocalDate.MAX));
+        assertEquals(0, series.sum(to, from));
+    }
+
+    /**
+     * Far-apart dates must not allocate the span between them.
+     */
+    @Test
+    void farApartDatesStaySparse() {
+        DailySeries series = new DailySeries();
+        series.add(LocalDate.of(1950, 1, 1), 10);
+        series.add(LocalDate.of(200_000, 1, 1), 20);
+        series.add(LocalDate.of(-5_000, 12, 31), 30);
+        assertEquals(60, series.total());
+        assertEquals(10, series.sum(LocalDate.of(1900, 1, 1), LocalDate.of(2100, 1, 1)));
+        assertEquals(20, series.sum(LocalDate.of(200_000, 1, 1), LocalDate.of(200_000, 1, 1)));
+        assertEquals(40, series.sum(LocalDate.MIN, LocalDate.of(1950, 1, 1)));
+    }
+}
@@ -0,0 +1,59 @@
+package com.bharatgas.crm.store;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.bharatgas.crm.util.IDGenerator;
+import java.time.LocalDate;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+class IndexedStoreTest {
+
+    @Test
+    void pageAfterResumesWhenCursorWasRemoved() {
+        IndexedStore<String> store = new IndexedStore<>(id -> id,
+                new SequenceKeyIndex(id -> IDGenerator.parse(IDGenerator.Kind.BOOKING, id)),
+                new ObjectRowStorage<>());
+        for (int i = 998; i <= 1003; i++) {
+            store.add(IDGenerator.format(IDGenerator.Kind.BOOKING, i));
+        }
+
+        Page<String> first = store.pageAfter(null, 2);
+        assertEquals(Arrays.asList("BG-BK-998", "BG-BK-999"), first.getItems());
+        assertEquals("BG-BK-999", first.getNextCursor());
+
+        store.remove("BG-BK-999");
+        store.remove("BG-BK-1000");
+        Page<String> second = store.pageAfter(first.getNextCursor(), 2);
+        assertEquals(Arrays.asList("BG-BK-1001", "BG-BK-1002"), second.getItems());
+
+        store.remove("BG-BK-1003");
+        Page<String> last = store.pageAfter("BG-BK-1003", 2);
+        assertEquals(0, last.getItems().size());
+        assertNull(last.getNextCursor());
+    }
+
+    /**
+     * An index rejecting an item must leave no trace of it: not in the
+     * store, not in the indexes that accepted it before.
+     */
+    @Test
+    void rejectedAddPublishesNothing() {
+        IndexedStore<String> store = new IndexedStore<>(id -> id, new HashKeyIndex(), new ObjectRowStorage<>());
+        DailyTotalsIndex<String> totals = store.addIndex(new DailyTotalsIndex<>(
+                id -> LocalDate.of(2024, 1, 1), id -> null, id -> 1L));
+        store.addIndex(new DailyTotalsIndex<>(
+                id -> id.startsWith("bad") ? LocalDate.MAX : LocalDate.of(2024, 1, 1), id -> null, id -> 1L));
+
+        store.add("good-1");
+        assertThrows(ArithmeticException.class, () -> store.add("bad-1"));
+        store.add("good-2");
+
+        assertEquals(2, store.size());
+        assertNull(store.get("bad-1"));
+        assertEquals("good-2", store.get("good-2"));
+        assertEquals(2, totals.sum(LocalDate.MIN, LocalDate.MAX));
+    }
+}
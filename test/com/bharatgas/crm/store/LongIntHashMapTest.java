@@ -0,0 +1,69 @@
+package com.bharatgas.crm.store;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class LongIntHashMapTest {
+
+    /**
+     * Removing an entry from the middle of a probe run must shift the rest
+     * of the run back, or keys after the hole become unreachable.
+     */
+    @Test
+    void removeKeepsTheRestOfTheProbeRunReachable() {
+        LongIntHashMap map = new LongIntHashMap(4);
+        for (long key = 1; key <= 1000; key++) {
+            map.put(key, (int) key);
+        }
+        for (long key = 1; key <= 1000; key += 3) {
+            assertTrue(map.remove(key));
+        }
+        assertEquals(666, map.size());
+        for (long key = 1; key <= 1000; key++) {
+            boolean removed = (key - 1) % 3 == 0;
+            assertEquals(!removed, map.containsKey(key), "key " + key);
+            assertEquals(removed ? -1 : (int) key, map.get(key, -1), "key " + key);
+        }
+        assertFalse(map.remove(1));
+    }
+
+    @Test
+    void matchesHashMapUnderRandomChanges() {
+        LongIntHashMap map = new LongIntHashMap();
+        Map<Long, Integer> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 200_000; i++) {
+            long key = random.nextInt(2_000) - 1_000L;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key) != null, map.remove(key), "remove " + key);
+            } else {
+                map.put(key, i);
+                expected.put(key, i);
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        for (long key = -1_000; key < 1_000; key++) {
+            Integer value = expected.get(key);
+            assertEquals(value == null ? -1 : value, map.get(key, -1), "key " + key);
+        }
+    }
+
+    @Test
+    void zeroIsAnOrdinaryKey() {
+        LongIntHashMap map = new LongIntHashMap();
+        assertFalse(map.containsKey(0));
+        map.put(0, 7);
+        map.put(0, 8);
+        assertEquals(1, map.size());
+        assertEquals(8, map.get(0, -1));
+        assertTrue(map.remove(0));
+        assertEquals(-1, map.get(0, -1));
+        assertEquals(0, map.size());
+    }
+}
@@ -0,0 +1,71 @@
+package com.bharatgas.crm.store;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import org.junit.jupiter.api.Test;
+
+class TrigramIndexTest {
+
+    /**
+     * Rows sharing some but not all of the query's trigrams, or all of them
+     * in the wrong order, must not match.
+     */
+    @Test
+    void searchIntersectsPostingsAndChecksTheText() {
+        TrigramIndex<String> index = indexOf("Ramesh Kumar", "Rakesh Sharma", "Suresh Ramkumar", "Kumar Ramesh");
+
+        assertEquals(Arrays.asList(0, 3), rows(index.search("ramesh", 10)));
+        assertEquals(Arrays.asList(0, 2, 3), rows(index.search("KUMAR", 10)));
+        assertEquals(Arrays.asList(0), rows(index.search("esh kum", 10)));
+        assertEquals(Arrays.asList(), rows(index.search("sharmesh", 10)));
+        assertEquals(Arrays.asList(), rows(index.search("xyz", 10)));
+        assertEquals(Arrays.asList(0, 1), rows(index.search("esh", 2)));
+    }
+
+    @Test
+    void shortQueriesScanEveryRow() {
+        TrigramIndex<String> index = indexOf("Anil", "Priya", "Nia", null);
+
+        assertEquals(Arrays.asList(0, 2), rows(index.search("ni", 10)));
+        assertEquals(Arrays.asList(0, 1, 2), rows(index.search("I", 10)));
+        assertEquals(Arrays.asList(0), rows(index.search("i", 1)));
+        assertEquals(Arrays.asList(0, 1, 2), rows(index.search("", 10)));
+        assertEquals(Arrays.asList(), rows(index.search(null, 10)));
+    }
+
+    @Test
+    void updateAndRemoveDropStalePostings() {
+        List<String> names = new ArrayList<>(Arrays.asList("Aaaa Bala", "Meena Iyer"));
+        TrigramIndex<String> index = indexOf(names.toArray(new String[0]));
+
+        names.set(0, "Deepa Nair");
+        index.update(0, names.get(0));
+        assertEquals(Arrays.asList(), rows(index.search("aaa", 10)));
+        assertEquals(Arrays.asList(0), rows(index.search("nair", 10)));
+
+        index.remove(1);
+        assertEquals(Arrays.asList(), rows(index.search("meena", 10)));
+        assertEquals(Arrays.asList(0), rows(index.search("ee", 10)));
+        assertEquals(Arrays.asList(0), rows(index.search("dee", 10)));
+    }
+
+    private static TrigramIndex<String> indexOf(String... texts) {
+        TrigramIndex<String> index = new TrigramIndex<>(Function.identity());
+        for (int row = 0; row < texts.length; row++) {
+            index.insert(row, texts[row]);
+        }
+        return index;
+    }
+
+    private static List<Integer> rows(IntList list) {
+        List<Integer> rows = new ArrayList<>();
+        for (int i = 0; i < list.size(); i++) {
+            rows.add(list.get(i));
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,42 @@
+package com.bharatgas.crm.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class IDGeneratorTest {
+
+    @Test
+    void shortLivedThreadsGetConsecutiveIds() throws InterruptedException {
+        IDGenerator.setBookingCounter(0);
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            String[] id = new String[1];
+            Thread request = new Thread(() -> id[0] = IDGenerator.generateBookingId());
+            request.start();
+            request.join();
+            ids.add(id[0]);
+        }
+        assertEquals(Arrays.asList("BG-BK-001", "BG-BK-002", "BG-BK-003", "BG-BK-004", "BG-BK-005"), ids);
+    }
+
+    @Test
+    void allocatorBlocksDoNotOverlapSingleIds() {
+        IDGenerator.setPaymentCounter(0);
+        IDGenerator.Allocator bulk = IDGenerator.allocator();
+        assertEquals("BG-PAY-001", bulk.next(IDGenerator.Kind.PAYMENT));
+        assertEquals("BG-PAY-017", IDGenerator.generatePaymentId());
+        assertEquals("BG-PAY-002", bulk.next(IDGenerator.Kind.PAYMENT));
+    }
+
+    @Test
+    void formatAndParseRoundTrip() {
+        assertEquals("BG-CUST-007", IDGenerator.format(IDGenerator.Kind.CUSTOMER, 7));
+        assertEquals("BG-CUST-1234", IDGenerator.format(IDGenerator.Kind.CUSTOMER, 1234));
+        assertEquals(1234, IDGenerator.parse(IDGenerator.Kind.CUSTOMER, "BG-CUST-1234"));
+        assertEquals(-1, IDGenerator.parse(IDGenerator.Kind.CUSTOMER, "BG-CUST-0123"));
+    }
+}
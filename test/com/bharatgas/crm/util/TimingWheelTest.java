@@ -0,0 +1,92 @@
+package com.bharatgas.crm.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class TimingWheelTest {
+
+    /**
+     * Deadlines just either side of each wheel's span cascade down and
+     * fire on their own tick, neither early nor late.
+     */
+    @Test
+    void firesOnTimeAcrossWheelBoundaries() {
+        TimingWheel<Long> wheel = new TimingWheel<>(1, 0);
+        long[] deadlines = {1, 63, 64, 65, 4_095, 4_096, 4_097, 262_143, 262_144, 262_145,
+            16_777_215, 16_777_216, 16_777_300};
+        for (long deadline : deadlines) {
+            wheel.schedule(deadline, deadline);
+        }
+        for (long deadline : deadlines) {
+            assertEquals(Collections.emptyList(), wheel.advance(deadline - 1));
+            assertEquals(Collections.singletonList(deadline), wheel.advance(deadline));
+        }
+        assertEquals(0, wheel.size());
+    }
+
+    /**
+     * Random deadlines spread over several wheels, with the clock moved
+     * forward by random steps, each fire at the first advance past them.
+     */
+    @Test
+    void randomDeadlinesFireAtTheFirstAdvancePastThem() {
+        Random random = new Random(42);
+        TimingWheel<Integer> wheel = new TimingWheel<>(10, 5);
+        Map<Integer, Long> deadlines = new HashMap<>();
+        for (int key = 0; key < 2_000; key++) {
+            long deadline = 5 + random.nextInt(3_000_000);
+            deadlines.put(key, deadline);
+            wheel.schedule(key, deadline);
+        }
+        long now = 5;
+        while (!deadlines.isEmpty()) {
+            long previous = now;
+            now += 1 + random.nextInt(20_000);
+            for (int key : wheel.advance(now)) {
+                long tick = tickOf(deadlines.remove(key));
+                assertTrue(tick > previous / 10 && tick <= now / 10, "key " + key + " fired at the wrong tick");
+            }
+            for (Map.Entry<Integer, Long> entry : deadlines.entrySet()) {
+                assertTrue(tickOf(entry.getValue()) > now / 10, "key " + entry.getKey() + " fired late");
+            }
+        }
+    }
+
+    @Test
+    void rescheduleAndCancelReplaceTheDeadline() {
+        TimingWheel<String> wheel = new TimingWheel<>(1, 0);
+        wheel.schedule("a", 100);
+        wheel.schedule("b", 100);
+        wheel.schedule("a", 5_000);
+        assertTrue(wheel.cancel("b"));
+        assertFalse(wheel.cancel("b"));
+
+        assertEquals(Collections.emptyList(), wheel.advance(4_999));
+        assertEquals(Collections.singletonList("a"), wheel.advance(5_000));
+    }
+
+    @Test
+    void pastDeadlinesFireOnTheNextAdvanceEarliestFirst() {
+        TimingWheel<String> wheel = new TimingWheel<>(1, 1_000);
+        wheel.schedule("late", 1_010);
+        wheel.schedule("past", 500);
+        wheel.schedule("soon", 1_005);
+        List<String> fired = wheel.advance(1_000);
+        assertEquals(Collections.singletonList("past"), fired);
+        assertEquals(Arrays.asList("soon", "late"), wheel.advance(2_000));
+    }
+
+    /** The first 10 ms tick at or after a deadline. */
+    private static long tickOf(long deadline) {
+        return (deadline + 9) / 10;
+    }
+}